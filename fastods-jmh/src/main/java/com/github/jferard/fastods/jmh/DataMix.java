@@ -0,0 +1,105 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.jmh;
+
+import com.github.jferard.fastods.TableCell;
+import com.github.jferard.fastods.TableCellImpl;
+
+import java.util.Date;
+import java.util.Random;
+
+/**
+ * The kind of data written in the cells by the benchmarks.
+ *
+ * @author Julien Férard
+ */
+public enum DataMix {
+    /**
+     * short strings, some of them need to be escaped
+     */
+    STRINGS {
+        @Override
+        public void setValue(final TableCell cell, final Random random) {
+            cell.setStringValue(STRING_VALUES[random.nextInt(STRING_VALUES.length)]);
+        }
+    },
+    /**
+     * float values
+     */
+    FLOATS {
+        @Override
+        public void setValue(final TableCell cell, final Random random) {
+            cell.setFloatValue(random.nextFloat() * 1000);
+        }
+    },
+    /**
+     * date values
+     */
+    DATES {
+        @Override
+        public void setValue(final TableCell cell, final Random random) {
+            final long epochMillis = BASE_DATE + random.nextInt(1000000) * 1000L;
+            if (cell instanceof TableCellImpl) {
+                ((TableCellImpl) cell).setDateValue(epochMillis);
+            } else {
+                cell.setDateValue(new Date(epochMillis));
+            }
+        }
+    },
+    /**
+     * a mix of strings, ints, floats and dates
+     */
+    MIXED {
+        @Override
+        public void setValue(final TableCell cell, final Random random) {
+            switch (random.nextInt(4)) {
+                case 0:
+                    STRINGS.setValue(cell, random);
+                    break;
+                case 1:
+                    cell.setFloatValue(random.nextInt(1000));
+                    break;
+                case 2:
+                    FLOATS.setValue(cell, random);
+                    break;
+                default:
+                    DATES.setValue(cell, random);
+                    break;
+            }
+        }
+    };
+
+    private static final long BASE_DATE = 1577836800000L; // 2020-01-01
+    private static final String[] STRING_VALUES = {"foo", "bar", "baz & qux", "<tag>",
+            "a \"quoted\" value", "Lorem ipsum dolor sit amet", "é à ç", "1234"};
+
+    /**
+     * Set a value in a cell
+     *
+     * @param cell   the cell
+     * @param random the source of values
+     */
+    public abstract void setValue(TableCell cell, Random random);
+}
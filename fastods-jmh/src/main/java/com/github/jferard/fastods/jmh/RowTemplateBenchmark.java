@@ -0,0 +1,147 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.jmh;
+
+import com.github.jferard.fastods.AnonymousOdsFileWriter;
+import com.github.jferard.fastods.ColumnBlock;
+import com.github.jferard.fastods.OdsFactory;
+import com.github.jferard.fastods.RowTemplate;
+import com.github.jferard.fastods.Table;
+import com.github.jferard.fastods.TableCell;
+import com.github.jferard.fastods.TableCellImpl;
+import com.github.jferard.fastods.TableRowImpl;
+import com.github.jferard.fastods.style.TableCellStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * A formatted report (styles, a tooltip, a formula): rows built cell by cell vs rows stamped
+ * on a {@code RowTemplate}.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RowTemplateBenchmark {
+    private static final Logger LOGGER = Logger.getLogger("jmh");
+
+    @Param({"1000", "10000"})
+    private int rowCount;
+
+    private String[] labels;
+    private double[] amounts;
+    private long[] dates;
+    private TableCellStyle amountStyle;
+
+    /**
+     * Create the values
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.labels = new String[this.rowCount];
+        this.amounts = new double[this.rowCount];
+        this.dates = new long[this.rowCount];
+        for (int r = 0; r < this.rowCount; r++) {
+            this.labels[r] = "label " + r;
+            this.amounts[r] = r * 1.25;
+            this.dates[r] = 1000000000000L + r * 86400000L;
+        }
+        this.amountStyle = TableCellStyle.builder("amount").fontWeightBold().build();
+    }
+
+    /**
+     * @return the number of bytes written
+     * @throws IOException never
+     */
+    @Benchmark
+    public long cells() throws IOException {
+        final AnonymousOdsFileWriter writer = OdsFactory.create(LOGGER, Locale.US).createWriter();
+        final Table table = writer.document().addTable("bench");
+        for (int r = 0; r < this.rowCount; r++) {
+            this.fillRow(table.getRow(r), r);
+        }
+        return this.save(writer);
+    }
+
+    /**
+     * @return the number of bytes written
+     * @throws IOException never
+     */
+    @Benchmark
+    public long template() throws IOException {
+        final AnonymousOdsFileWriter writer = OdsFactory.create(LOGGER, Locale.US).createWriter();
+        final Table table = writer.document().addTable("bench");
+        final TableRowImpl prototype = table.getRow(0);
+        this.fillRow(prototype, 0);
+        final RowTemplate template = RowTemplate.create(prototype, 0, 2, 4);
+        final int count = this.rowCount - 1;
+        final String[] labelTail = new String[count];
+        final double[] amountTail = new double[count];
+        final long[] dateTail = new long[count];
+        System.arraycopy(this.labels, 1, labelTail, 0, count);
+        System.arraycopy(this.amounts, 1, amountTail, 0, count);
+        System.arraycopy(this.dates, 1, dateTail, 0, count);
+        table.appendColumnBlock(template, ColumnBlock.builder().stringColumn(labelTail)
+                .floatColumn(amountTail).dateColumn(dateTail).build());
+        return this.save(writer);
+    }
+
+    private void fillRow(final TableRowImpl row, final int r) throws IOException {
+        row.getOrCreateCell(0).setStringValue(this.labels[r]);
+        final TableCell currencyCell = row.getOrCreateCell(1);
+        currencyCell.setStringValue("EUR");
+        currencyCell.setTooltip("currency");
+        final TableCellImpl amountCell = (TableCellImpl) row.getOrCreateCell(2);
+        amountCell.setFloatValue(this.amounts[r]);
+        amountCell.setStyle(this.amountStyle);
+        amountCell.setFormula("=B1*2");
+        ((TableCellImpl) row.getOrCreateCell(4)).setDateValue(this.dates[r]);
+    }
+
+    private long save(final AnonymousOdsFileWriter writer) throws IOException {
+        final NullOutputStream out = new NullOutputStream();
+        writer.save(out);
+        return out.getCount();
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.jmh;
+
+import com.github.jferard.fastods.AnonymousOdsFileWriter;
+import com.github.jferard.fastods.OdsFactory;
+import com.github.jferard.fastods.Table;
+import com.github.jferard.fastods.TableCellWalker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The end to end cost: create a document, fill a table and save it to a null stream.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SaveBenchmark {
+    private static final Logger LOGGER = Logger.getLogger("jmh");
+
+    static {
+        LOGGER.setLevel(Level.WARNING);
+    }
+
+    @Param({"1000", "10000"})
+    private int rowCount;
+
+    @Param({"20"})
+    private int colCount;
+
+    @Param({"STRINGS", "FLOATS", "MIXED"})
+    private DataMix dataMix;
+
+    /**
+     * @return the number of bytes written
+     * @throws IOException never
+     */
+    @Benchmark
+    public long save() throws IOException {
+        final Random random = new Random(0);
+        final AnonymousOdsFileWriter writer = OdsFactory.create(LOGGER, Locale.US).createWriter();
+        final Table table = writer.document().addTable("bench");
+        final TableCellWalker walker = table.getWalker();
+        for (int r = 0; r < this.rowCount; r++) {
+            for (int c = 0; c < this.colCount; c++) {
+                this.dataMix.setValue(walker, random);
+                walker.next();
+            }
+            walker.nextRow();
+        }
+        final NullOutputStream out = new NullOutputStream();
+        writer.save(out);
+        return out.getCount();
+    }
+}
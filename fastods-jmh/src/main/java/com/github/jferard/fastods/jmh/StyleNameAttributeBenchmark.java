@@ -0,0 +1,115 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.jmh;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.XMLUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of the {@code table:style-name} attribute of a cell: escaped at each call vs
+ * pre-escaped by the style.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StyleNameAttributeBenchmark {
+    @Param({"10", "50"})
+    private int styleCount;
+
+    private TableCellStyle[] styles;
+    private XMLUtil xmlUtil;
+    private StringBuilder sb;
+    private int i;
+
+    /**
+     * Create the styles
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.styles = new TableCellStyle[this.styleCount];
+        for (int s = 0; s < this.styleCount; s++) {
+            this.styles[s] = TableCellStyle.builder("ce" + s).build();
+        }
+        this.xmlUtil = XMLUtil.create();
+        this.sb = new StringBuilder(1024);
+    }
+
+    /**
+     * @return the next style
+     */
+    private TableCellStyle nextStyle() {
+        this.i++;
+        if (this.i == this.styleCount) {
+            this.i = 0;
+        }
+        return this.styles[this.i];
+    }
+
+    /**
+     * The former way: escape the name for each cell
+     *
+     * @return the length of the XML
+     * @throws IOException never
+     */
+    @Benchmark
+    public int escapedAttribute() throws IOException {
+        this.sb.setLength(0);
+        this.xmlUtil.appendEAttribute(this.sb, "table:style-name", this.nextStyle().getName());
+        return this.sb.length();
+    }
+
+    /**
+     * The current way: append the fragment stored by the style
+     *
+     * @return the length of the XML
+     * @throws IOException never
+     */
+    @Benchmark
+    public int preEscapedAttribute() throws IOException {
+        this.sb.setLength(0);
+        this.nextStyle().appendStyleNameAttribute(this.xmlUtil, this.sb);
+        return this.sb.length();
+    }
+}
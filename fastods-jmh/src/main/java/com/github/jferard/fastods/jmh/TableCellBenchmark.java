@@ -0,0 +1,107 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.jmh;
+
+import com.github.jferard.fastods.AnonymousOdsFileWriter;
+import com.github.jferard.fastods.OdsFactory;
+import com.github.jferard.fastods.Table;
+import com.github.jferard.fastods.TableCell;
+import com.github.jferard.fastods.TableRowImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The cost of the cell setters: {@code TableCellImpl.setXXXValue}.
+ * <p>
+ * With dataMix=FLOATS and colCount=100 (JDK 8, SerialGC, -prof gc), the primitive storage of
+ * the numbers took the setters from 20.7 &plusmn; 2.6 us/op and 6044 B/op down to
+ * 5.0 &plusmn; 0.6 us/op and no allocation. The older classes were put first on the class
+ * path of the benchmarks jar to get the first figures.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableCellBenchmark {
+    @Param({"10", "100"})
+    private int colCount;
+
+    @Param({"STRINGS", "FLOATS", "DATES", "MIXED"})
+    private DataMix dataMix;
+
+    private TableCell[] cells;
+    private Random random;
+
+    /**
+     * Create a row with colCount cells
+     *
+     * @throws IOException never
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final AnonymousOdsFileWriter writer =
+                OdsFactory.create(Logger.getLogger("jmh"), Locale.US).createWriter();
+        final Table table = writer.document().addTable("bench");
+        final TableRowImpl row = table.getRow(0);
+        this.cells = new TableCell[this.colCount];
+        for (int c = 0; c < this.colCount; c++) {
+            this.cells[c] = row.getOrCreateCell(c);
+        }
+        this.random = new Random(0);
+    }
+
+    /**
+     * Set a value in every cell of the row
+     *
+     * @return the last cell
+     */
+    @Benchmark
+    public TableCell setValues() {
+        for (final TableCell cell : this.cells) {
+            this.dataMix.setValue(cell, this.random);
+        }
+        return this.cells[this.colCount - 1];
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.jmh;
+
+import com.github.jferard.fastods.AnonymousOdsFileWriter;
+import com.github.jferard.fastods.OdsFactory;
+import com.github.jferard.fastods.Table;
+import com.github.jferard.fastods.TableRowImpl;
+import com.github.jferard.fastods.util.XMLUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The cost of the serialization of the rows: {@code TableRowImpl.appendXMLToTable}.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TableRowBenchmark {
+    @Param({"100", "1000"})
+    private int rowCount;
+
+    @Param({"10", "100"})
+    private int colCount;
+
+    @Param({"STRINGS", "FLOATS", "DATES", "MIXED"})
+    private DataMix dataMix;
+
+    private TableRowImpl[] rows;
+    private XMLUtil xmlUtil;
+    private StringBuilder sb;
+
+    /**
+     * Create and fill the rows
+     *
+     * @throws IOException never
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        final AnonymousOdsFileWriter writer =
+                OdsFactory.create(Logger.getLogger("jmh"), Locale.US).createWriter();
+        final Table table = writer.document().addTable("bench");
+        final Random random = new Random(0);
+        this.rows = new TableRowImpl[this.rowCount];
+        for (int r = 0; r < this.rowCount; r++) {
+            final TableRowImpl row = table.getRow(r);
+            for (int c = 0; c < this.colCount; c++) {
+                this.dataMix.setValue(row.getOrCreateCell(c), random);
+            }
+            this.rows[r] = row;
+        }
+        this.xmlUtil = XMLUtil.create();
+        this.sb = new StringBuilder(1024 * 1024);
+    }
+
+    /**
+     * Serialize all the rows
+     *
+     * @return the length of the XML
+     * @throws IOException never
+     */
+    @Benchmark
+    public int appendXMLToTable() throws IOException {
+        this.sb.setLength(0);
+        for (final TableRowImpl row : this.rows) {
+            row.appendXMLToTable(this.xmlUtil, this.sb);
+        }
+        return this.sb.length();
+    }
+}
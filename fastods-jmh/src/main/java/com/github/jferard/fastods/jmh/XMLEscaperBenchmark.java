@@ -0,0 +1,148 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.jmh;
+
+import com.github.jferard.fastods.util.FastOdsXMLEscaper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The cost of the escape of attributes and contents by {@code FastOdsXMLEscaper}, with and
+ * without a cache.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XMLEscaperBenchmark {
+    private static final String PLAIN = "abcdefghijklmnopqrstuvwxyz0123456789";
+    private static final String SPECIAL = "<>&\"'\n\t";
+
+    @Param({"LRU", "NO_CACHE"})
+    private String cache;
+
+    /**
+     * percentage of strings that need to be escaped
+     */
+    @Param({"0", "10", "100"})
+    private int specialPercent;
+
+    /**
+     * number of distinct strings
+     */
+    @Param({"100", "100000"})
+    private int distinctCount;
+
+    private FastOdsXMLEscaper escaper;
+    private String[] strings;
+    private StringBuilder sb;
+
+    /**
+     * Create the escaper and the strings
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        if (this.cache.equals("LRU")) {
+            this.escaper = FastOdsXMLEscaper.builder().build();
+        } else {
+            this.escaper = FastOdsXMLEscaper.builder().noCache().build();
+        }
+        final Random random = new Random(0);
+        this.strings = new String[this.distinctCount];
+        for (int i = 0; i < this.distinctCount; i++) {
+            this.strings[i] = this.createString(random, i);
+        }
+        this.sb = new StringBuilder(1024 * 1024);
+    }
+
+    private String createString(final Random random, final int i) {
+        final boolean special = random.nextInt(100) < this.specialPercent;
+        final int length = 5 + random.nextInt(30);
+        final StringBuilder sb = new StringBuilder(length);
+        for (int j = 0; j < length; j++) {
+            if (special && j % 8 == 0) {
+                sb.append(SPECIAL.charAt(random.nextInt(SPECIAL.length())));
+            } else {
+                sb.append(PLAIN.charAt(random.nextInt(PLAIN.length())));
+            }
+        }
+        return sb.append(i).toString();
+    }
+
+    /**
+     * @return the total length of the escaped attributes
+     */
+    @Benchmark
+    public int escapeXMLAttribute() {
+        int total = 0;
+        for (final String s : this.strings) {
+            total += this.escaper.escapeXMLAttribute(s).length();
+        }
+        return total;
+    }
+
+    /**
+     * @return the total length of the escaped contents
+     */
+    @Benchmark
+    public int escapeXMLContent() {
+        int total = 0;
+        for (final String s : this.strings) {
+            total += this.escaper.escapeXMLContent(s).length();
+        }
+        return total;
+    }
+
+    /**
+     * @return the length of the appended escaped contents
+     * @throws IOException never
+     */
+    @Benchmark
+    public int appendEscapedXMLContent() throws IOException {
+        this.sb.setLength(0);
+        for (final String s : this.strings) {
+            this.escaper.appendEscapedXMLContent(this.sb, s);
+        }
+        return this.sb.length();
+    }
+}
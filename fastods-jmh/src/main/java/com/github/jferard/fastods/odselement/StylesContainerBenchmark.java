@@ -0,0 +1,103 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.odselement;
+
+import com.github.jferard.fastods.attribute.CellType;
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.datastyle.DataStyles;
+import com.github.jferard.fastods.datastyle.DataStylesBuilder;
+import com.github.jferard.fastods.style.TableCellStyle;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * The cost of {@code StylesContainerImpl.addChildCellStyle}, called for each cell that has a
+ * data style. This benchmark is in the odselement package because the constructor of the
+ * container is package-private.
+ *
+ * @author Julien Férard
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StylesContainerBenchmark {
+    private static final CellType[] TYPES = {CellType.FLOAT, CellType.PERCENTAGE, CellType.DATE,
+            CellType.TIME, CellType.BOOLEAN};
+
+    /**
+     * number of distinct parent cell styles
+     */
+    @Param({"1", "100"})
+    private int styleCount;
+
+    private StylesContainerImpl stylesContainer;
+    private TableCellStyle[] styles;
+    private DataStyle[] dataStyles;
+    private int i;
+
+    /**
+     * Create the container and the styles
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.stylesContainer = new StylesContainerImpl(Logger.getLogger("jmh"));
+        this.styles = new TableCellStyle[this.styleCount];
+        for (int s = 0; s < this.styleCount; s++) {
+            this.styles[s] = TableCellStyle.builder("style" + s).build();
+        }
+        final DataStyles ds = DataStylesBuilder.create(Locale.US).build();
+        this.dataStyles = new DataStyle[TYPES.length];
+        for (int t = 0; t < TYPES.length; t++) {
+            this.dataStyles[t] = ds.getDataStyle(TYPES[t]);
+        }
+    }
+
+    /**
+     * @return the anonymous child style
+     */
+    @Benchmark
+    public TableCellStyle addChildCellStyle() {
+        this.i++;
+        return this.stylesContainer.addChildCellStyle(this.styles[this.i % this.styleCount],
+                this.dataStyles[this.i % this.dataStyles.length]);
+    }
+}
@@ -24,8 +24,12 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.attribute.CellType;
+import com.github.jferard.fastods.datastyle.DataStyle;
 import com.github.jferard.fastods.odselement.OdsElements;
 import com.github.jferard.fastods.odselement.ScriptEventListener;
+import com.github.jferard.fastods.style.PageStyle;
+import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.util.AutoFilter;
 import com.github.jferard.fastods.util.Container;
 import com.github.jferard.fastods.util.PilotTable;
@@ -34,6 +38,7 @@ import com.github.jferard.fastods.util.ZipUTF8Writer;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -82,6 +87,61 @@ public final class AnonymousOdsDocument implements OdsDocument {
         this.commonOdsDocument = commonOdsDocument;
     }
 
+    /**
+     * Fork this document: the new document shares the styles of this document copy-on-write,
+     * and has no table. Build a prototype document once (styles, data styles, page styles,
+     * extra files...), then fork a document for every report. The fork is cheap: the styles
+     * are copied only when a new style is added to the fork or to the prototype.
+     * <p>
+     * The prototype should not be modified while it is forked by other threads.
+     *
+     * @return the fork
+     * @see OdsFactory#createWriter(AnonymousOdsDocument)
+     */
+    public AnonymousOdsDocument fork() {
+        final OdsElements forkedElements = this.odsElements.fork();
+        return new AnonymousOdsDocument(this.logger, this.xmlUtil, forkedElements,
+                new CommonOdsDocument(forkedElements, false));
+    }
+
+    /**
+     * Add a cell style for a given data type. Use to prepare a prototype document.
+     * Do not produce any effect if the type is Type.STRING or Type.VOID
+     *
+     * @param style the style
+     * @param types the types
+     */
+    public void addCellStyle(final TableCellStyle style, final CellType... types) {
+        this.odsElements.addCellStyle(style, types);
+    }
+
+    /**
+     * Add a data style to this document. Use to prepare a prototype document.
+     *
+     * @param dataStyle the data style to add to this document
+     * @return true if the style was added
+     */
+    public boolean addDataStyle(final DataStyle dataStyle) {
+        return this.odsElements.addDataStyle(dataStyle);
+    }
+
+    /**
+     * Add a page style to this document. Use to prepare a prototype document.
+     *
+     * @param ps the page style to add to this document
+     * @return true if the style was added
+     */
+    public boolean addPageStyle(final PageStyle ps) {
+        return this.odsElements.addPageStyle(ps);
+    }
+
+    /**
+     * Enable styles freeze. The forks of this document are not frozen.
+     */
+    public void freezeStyles() {
+        this.odsElements.freezeStyles();
+    }
+
     @Override
     public Table addTable(final String name) throws IOException {
         return this.commonOdsDocument.addTable(name);
@@ -228,19 +288,59 @@ public final class AnonymousOdsDocument implements OdsDocument {
     /**
      * Saves a file.
      * Do not close the writer (see https://github.com/jferard/fastods/issues/138)
+     * <p>
+     * The spilled rows are deleted, even if the save fails.
      *
      * @param writer where to write
      * @throws IOException if the document can't be saved
      */
     void save(final ZipUTF8Writer writer) throws IOException {
-        this.odsElements.createEmptyElements(writer);
-        this.odsElements.writeMimeType(this.xmlUtil, writer);
-        this.odsElements.writeMeta(this.xmlUtil, writer);
-        this.odsElements.writeStyles(this.xmlUtil, writer);
-        this.odsElements.writeContent(this.xmlUtil, writer);
-        this.odsElements.writeSettings(this.xmlUtil, writer);
-        this.odsElements.writeManifest(this.xmlUtil, writer);
-        this.odsElements.writeExtras(writer);
+        try {
+            this.odsElements.createEmptyElements(writer);
+            this.odsElements.writeMimeType(this.xmlUtil, writer);
+            this.odsElements.writeMeta(this.xmlUtil, writer);
+            this.odsElements.writeStyles(this.xmlUtil, writer);
+            this.odsElements.writeContent(this.xmlUtil, writer);
+            this.odsElements.writeSettings(this.xmlUtil, writer);
+            this.odsElements.writeManifest(this.xmlUtil, writer);
+            this.odsElements.writeExtras(writer);
+        } finally {
+            for (final Table table : this.getTables()) {
+                table.discardSpilledRows();
+            }
+        }
         this.logger.log(Level.FINE, "file saved");
     }
+
+    /**
+     * Write the styles of content.xml/automatic-styles that are not in an existing document.
+     *
+     * @param appendable   the destination
+     * @param existingKeys the keys of the existing styles ("data-style@name" or "family@name")
+     * @throws IOException if an I/O error occurs
+     */
+    void writeMissingContentAutomaticStyles(final Appendable appendable,
+                                            final Set<String> existingKeys) throws IOException {
+        this.odsElements.writeMissingContentAutomaticStyles(this.xmlUtil, appendable, existingKeys);
+    }
+
+    /**
+     * Write the rows of a table, without the table element.
+     *
+     * @param table      the table
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    void appendRowsOnly(final Table table, final Appendable appendable) throws IOException {
+        table.appendRowsOnly(this.xmlUtil, appendable);
+    }
+
+    /**
+     * Report the metrics of the document to a listener.
+     *
+     * @param listener the listener
+     */
+    void writeMetrics(final OdsWriteListener listener) {
+        this.odsElements.writeMetrics(this.xmlUtil, listener);
+    }
 }
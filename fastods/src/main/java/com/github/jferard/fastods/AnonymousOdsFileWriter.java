@@ -24,6 +24,7 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.ZipUTF8RawWriter;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
 import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
@@ -48,6 +49,8 @@ import java.util.logging.Logger;
 public class AnonymousOdsFileWriter {
     private final AnonymousOdsDocument document;
     private final Logger logger;
+    private final OdsWriteListener listener;
+    private final ZipEntryCache zipEntryCache;
 
     /**
      * Create a new ODS file.
@@ -56,8 +59,23 @@ public class AnonymousOdsFileWriter {
      * @param document the document to write
      */
     AnonymousOdsFileWriter(final Logger logger, final AnonymousOdsDocument document) {
+        this(logger, document, null, null);
+    }
+
+    /**
+     * Create a new ODS file.
+     *
+     * @param logger   the logger
+     * @param document the document to write
+     * @param listener      the listener for metrics, or null
+     * @param zipEntryCache the cache of the static entries, or null
+     */
+    AnonymousOdsFileWriter(final Logger logger, final AnonymousOdsDocument document,
+                           final OdsWriteListener listener, final ZipEntryCache zipEntryCache) {
         this.logger = logger;
         this.document = document;
+        this.listener = listener;
+        this.zipEntryCache = zipEntryCache;
     }
 
     /**
@@ -75,7 +93,11 @@ public class AnonymousOdsFileWriter {
      * @throws IOException The file can't be saved.
      */
     public void save(final OutputStream out) throws IOException {
-        this.save(out, ZipUTF8WriterImpl.builder());
+        final ZipUTF8WriterBuilder builder = ZipUTF8WriterImpl.builder();
+        if (this.zipEntryCache != null) {
+            builder.rawEntryCopy();
+        }
+        this.save(out, builder);
     }
 
     /**
@@ -102,7 +124,21 @@ public class AnonymousOdsFileWriter {
      * @throws IOException If an I/O error occurs during the save
      */
     public void save(final ZipUTF8Writer writer) throws IOException {
-        this.document.save(writer);
+        ZipUTF8RawWriter curWriter = ZipUTF8RawWriterAdapter.adapt(writer);
+        if (this.listener != null) {
+            curWriter = new InstrumentedZipUTF8Writer(curWriter, this.listener);
+        }
+        if (this.zipEntryCache != null) {
+            if (!curWriter.copiesDeflatedData()) {
+                this.logger.warning("The zip entry cache is ignored: the zip writer can't " +
+                        "copy deflated data (use parallelDeflate() or rawEntryCopy())");
+            }
+            curWriter = new CachingZipUTF8Writer(curWriter, this.zipEntryCache);
+        }
+        this.document.save(curWriter);
+        if (this.listener != null) {
+            this.document.writeMetrics(this.listener);
+        }
     }
 
     /**
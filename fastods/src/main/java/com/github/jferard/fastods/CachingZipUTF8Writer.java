@@ -0,0 +1,208 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.CachedZipEntry;
+import com.github.jferard.fastods.util.CharsetUtil;
+import com.github.jferard.fastods.util.RawZipEntry;
+import com.github.jferard.fastods.util.ZipUTF8RawWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.zip.ZipEntry;
+
+/**
+ * A decorator that writes the cacheable entries through a {@link ZipEntryCache}. The content
+ * of a cacheable entry is captured until the entry is closed, then the cached entry is
+ * written. If the content exceeds the max size, the entry is written as usual.
+ * <p>
+ * The entries are still serialized: the cache saves the deflate. Hence, if the decorated
+ * writer would deflate the cached entry again (see {@link ZipUTF8RawWriter#copiesDeflatedData()}),
+ * the entries are written as usual.
+ *
+ * @author Julien Férard
+ */
+class CachingZipUTF8Writer implements ZipUTF8RawWriter {
+    private final ZipUTF8RawWriter writer;
+    private final ZipEntryCache cache;
+    private final ByteArrayOutputStream captured;
+    private final Writer capturedWriter;
+    private ZipEntry curEntry;
+
+    /**
+     * @param writer the decorated writer
+     * @param cache  the cache
+     */
+    CachingZipUTF8Writer(final ZipUTF8RawWriter writer, final ZipEntryCache cache) {
+        this.writer = writer;
+        this.cache = cache;
+        this.captured = new ByteArrayOutputStream();
+        this.capturedWriter = new OutputStreamWriter(this.captured, CharsetUtil.UTF_8);
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        if (this.curEntry == null) {
+            this.writer.closeEntry();
+        } else {
+            this.writeCapturedEntry();
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.writeCapturedEntry();
+        this.writer.finish();
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry entry) throws IOException {
+        this.writeCapturedEntry();
+        if (entry.getMethod() != ZipEntry.STORED && this.cache.isCacheable(entry.getName()) &&
+                this.writer.copiesDeflatedData()) {
+            this.curEntry = entry;
+        } else {
+            this.writer.putNextEntry(entry);
+        }
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        this.writer.setComment(comment);
+    }
+
+    @Override
+    public void write(final byte[] bytes) throws IOException {
+        if (this.curEntry == null) {
+            this.writer.write(bytes);
+        } else {
+            this.capturedWriter.flush();
+            this.captured.write(bytes);
+            this.checkCapturedSize();
+        }
+    }
+
+    @Override
+    public boolean copiesDeflatedData() {
+        return this.writer.copiesDeflatedData();
+    }
+
+    @Override
+    public void writeCachedEntry(final ZipEntry entry, final CachedZipEntry cachedEntry)
+            throws IOException {
+        this.writeCapturedEntry();
+        this.writer.writeCachedEntry(entry, cachedEntry);
+    }
+
+    @Override
+    public void writeRawEntry(final RawZipEntry rawEntry) throws IOException {
+        this.writeCapturedEntry();
+        this.writer.writeRawEntry(rawEntry);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writeCapturedEntry();
+        this.writer.close();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        if (this.curEntry == null) {
+            this.writer.flush();
+        }
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+        if (this.curEntry == null) {
+            this.writer.append(csq);
+        } else {
+            this.capturedWriter.append(csq);
+            this.checkCapturedSize();
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end)
+            throws IOException {
+        if (this.curEntry == null) {
+            this.writer.append(csq, start, end);
+        } else {
+            this.capturedWriter.append(csq, start, end);
+            this.checkCapturedSize();
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+        if (this.curEntry == null) {
+            this.writer.append(c);
+        } else {
+            this.capturedWriter.append(c);
+            this.checkCapturedSize();
+        }
+        return this;
+    }
+
+    /**
+     * If the captured content is too large, write it to the decorated writer and stop the
+     * capture. The size ignores the chars buffered by the encoder.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void checkCapturedSize() throws IOException {
+        if (this.captured.size() <= this.cache.getMaxEntrySize()) {
+            return;
+        }
+        this.capturedWriter.flush();
+        this.writer.putNextEntry(this.curEntry);
+        this.writer.write(this.captured.toByteArray());
+        this.captured.reset();
+        this.curEntry = null;
+    }
+
+    private void writeCapturedEntry() throws IOException {
+        if (this.curEntry == null) {
+            return;
+        }
+        this.capturedWriter.flush();
+        final byte[] bytes = this.captured.toByteArray();
+        this.captured.reset();
+        final ZipEntry entry = this.curEntry;
+        this.curEntry = null;
+        if (bytes.length > this.cache.getMaxEntrySize()) {
+            this.writer.putNextEntry(entry);
+            this.writer.write(bytes);
+            this.writer.closeEntry();
+        } else {
+            this.writer.writeCachedEntry(entry, this.cache.get(entry.getName(), bytes));
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.attribute.CellType;
+import com.github.jferard.fastods.style.TableCellStyle;
+
+import java.util.List;
+
+/**
+ * A block of rows, stored column by column: every column is an array of primitives or strings,
+ * with a type and an optional style. A block is appended to a table with
+ * {@code Table.appendColumnBlock}: the rows are written straight from the arrays, without any
+ * row or cell object.
+ * <p>
+ * The block keeps a reference to the arrays: do not modify them until the document is saved.
+ *
+ * @author Julien Férard
+ */
+public class ColumnBlock {
+    /**
+     * @return a builder for a block
+     */
+    public static ColumnBlockBuilder builder() {
+        return new ColumnBlockBuilder();
+    }
+
+    private final int rowCount;
+    private final List<Column> columns;
+
+    /**
+     * @param rowCount the number of rows
+     * @param columns  the columns
+     */
+    ColumnBlock(final int rowCount, final List<Column> columns) {
+        this.rowCount = rowCount;
+        this.columns = columns;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return the number of columns
+     */
+    public int getColumnCount() {
+        return this.columns.size();
+    }
+
+    /**
+     * @return the columns
+     */
+    List<Column> getColumns() {
+        return this.columns;
+    }
+
+    /**
+     * The way the values of a column are stored
+     */
+    enum ColumnKind {
+        /**
+         * double[], float cells
+         */
+        DOUBLE(CellType.FLOAT),
+        /**
+         * long[], float cells
+         */
+        LONG(CellType.FLOAT),
+        /**
+         * long[] of epoch millis, date cells
+         */
+        DATE(CellType.DATE),
+        /**
+         * String[], string cells. A null value is an empty cell.
+         */
+        STRING(CellType.STRING);
+
+        private final CellType type;
+
+        ColumnKind(final CellType type) {
+            this.type = type;
+        }
+
+        /**
+         * @return the type of the cells
+         */
+        CellType getType() {
+            return this.type;
+        }
+    }
+
+    /**
+     * A column of the block
+     */
+    static class Column {
+        private final ColumnKind kind;
+        private final double[] doubles;
+        private final long[] longs;
+        private final String[] strings;
+        private final TableCellStyle style;
+
+        /**
+         * @param kind    the kind of the column
+         * @param doubles the values if kind is DOUBLE, null otherwise
+         * @param longs   the values if kind is LONG or DATE, null otherwise
+         * @param strings the values if kind is STRING, null otherwise
+         * @param style   the style, or null
+         */
+        Column(final ColumnKind kind, final double[] doubles, final long[] longs,
+               final String[] strings, final TableCellStyle style) {
+            this.kind = kind;
+            this.doubles = doubles;
+            this.longs = longs;
+            this.strings = strings;
+            this.style = style;
+        }
+
+        /**
+         * @return the kind of the column
+         */
+        ColumnKind getKind() {
+            return this.kind;
+        }
+
+        /**
+         * @return the double values
+         */
+        double[] getDoubles() {
+            return this.doubles;
+        }
+
+        /**
+         * @return the long values
+         */
+        long[] getLongs() {
+            return this.longs;
+        }
+
+        /**
+         * @return the string values
+         */
+        String[] getStrings() {
+            return this.strings;
+        }
+
+        /**
+         * @return the style, or null
+         */
+        TableCellStyle getStyle() {
+            return this.style;
+        }
+    }
+}
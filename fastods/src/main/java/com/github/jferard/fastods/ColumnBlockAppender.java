@@ -0,0 +1,247 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableRowStyle;
+import com.github.jferard.fastods.util.WriteUtil;
+import com.github.jferard.fastods.util.XMLUtil;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * An appender for the rows of a column block. The values are written straight from the
+ * arrays of the block. If the block is stamped on a row template, the values are spliced
+ * between the pre-rendered fragments of the template.
+ *
+ * @author Julien Férard
+ */
+class ColumnBlockAppender {
+    private final WriteUtil writeUtil;
+    private final ColumnBlock block;
+    private final String[] styleNames;
+    private final RowTemplate template;
+
+    /**
+     * @param writeUtil  an util
+     * @param block      the block
+     * @param styleNames the name of the cell style of each column, null if the cells of the
+     *                   column don't have a style attribute
+     */
+    ColumnBlockAppender(final WriteUtil writeUtil, final ColumnBlock block,
+                        final String[] styleNames) {
+        this.writeUtil = writeUtil;
+        this.block = block;
+        this.styleNames = styleNames;
+        this.template = null;
+    }
+
+    /**
+     * @param writeUtil an util
+     * @param block     the block
+     * @param template  the template
+     */
+    ColumnBlockAppender(final WriteUtil writeUtil, final ColumnBlock block,
+                        final RowTemplate template) {
+        this.writeUtil = writeUtil;
+        this.block = block;
+        this.styleNames = null;
+        this.template = template;
+    }
+
+    /**
+     * @return the number of rows
+     */
+    int getRowCount() {
+        return this.block.getRowCount();
+    }
+
+    /**
+     * Write the XML for the rows.
+     *
+     * @param util       a util for XML writing
+     * @param appendable where to write the XML
+     * @throws IOException If an I/O error occurs
+     */
+    void appendXMLToTable(final XMLUtil util, final Appendable appendable) throws IOException {
+        if (this.template != null) {
+            this.appendTemplateXMLToTable(util, appendable);
+            return;
+        }
+        final List<ColumnBlock.Column> columnList = this.block.getColumns();
+        final int columnCount = columnList.size();
+        final ColumnBlock.Column[] columns =
+                columnList.toArray(new ColumnBlock.Column[columnCount]);
+        final String[] cellPrefixes = new String[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            cellPrefixes[c] = this.getCellPrefix(util, columns[c], this.styleNames[c]);
+        }
+        final StringBuilder rowOpenTag = new StringBuilder("<table:table-row");
+        util.appendEAttribute(rowOpenTag, "table:style-name",
+                TableRowStyle.DEFAULT_TABLE_ROW_STYLE.getName());
+        rowOpenTag.append(">");
+        final String rowOpenTagAsString = rowOpenTag.toString();
+
+        final int rowCount = this.block.getRowCount();
+        for (int r = 0; r < rowCount; r++) {
+            appendable.append(rowOpenTagAsString);
+            int nullFieldCounter = 0;
+            for (int c = 0; c < columnCount; c++) {
+                final ColumnBlock.Column column = columns[c];
+                switch (column.getKind()) {
+                    case DOUBLE:
+                        this.appendBlankCells(util, appendable, nullFieldCounter);
+                        nullFieldCounter = 0;
+                        appendable.append(cellPrefixes[c])
+                                .append(Double.toString(column.getDoubles()[r])).append("\"/>");
+                        break;
+                    case LONG:
+                        this.appendBlankCells(util, appendable, nullFieldCounter);
+                        nullFieldCounter = 0;
+                        appendable.append(cellPrefixes[c]);
+                        this.writeUtil.appendLong(appendable, column.getLongs()[r]);
+                        appendable.append("\"/>");
+                        break;
+                    case DATE:
+                        this.appendBlankCells(util, appendable, nullFieldCounter);
+                        nullFieldCounter = 0;
+                        appendable.append(cellPrefixes[c]);
+                        TableCellImpl.DATE_VALUE_FORMATTER
+                                .append(appendable, column.getLongs()[r]);
+                        appendable.append("\"/>");
+                        break;
+                    default: // STRING
+                        final String value = column.getStrings()[r];
+                        if (value == null) {
+                            nullFieldCounter++;
+                            break;
+                        }
+                        this.appendBlankCells(util, appendable, nullFieldCounter);
+                        nullFieldCounter = 0;
+                        appendable.append(cellPrefixes[c]);
+                        util.appendEAttribute(appendable,
+                                ColumnBlock.ColumnKind.STRING.getType().getValueAttribute(),
+                                value);
+                        appendable.append("/>");
+                        break;
+                }
+            }
+            appendable.append("</table:table-row>");
+        }
+    }
+
+    private void appendTemplateXMLToTable(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        final List<ColumnBlock.Column> columnList = this.block.getColumns();
+        final int columnCount = columnList.size();
+        final ColumnBlock.Column[] columns =
+                columnList.toArray(new ColumnBlock.Column[columnCount]);
+        final String[] fragments = this.template.getFragments();
+        final int[] cellStarts = this.template.getCellStarts();
+        final int[] afterValueLengths = this.template.getAfterValueLengths();
+
+        final int rowCount = this.block.getRowCount();
+        for (int r = 0; r < rowCount; r++) {
+            // a null string replaces the variable cell by a blank cell, as in appendXMLToTable:
+            // the end of the variable cell is skipped, and adjacent blank cells are merged.
+            int skip = 0;
+            int nullFieldCounter = 0;
+            for (int c = 0; c < columnCount; c++) {
+                final ColumnBlock.Column column = columns[c];
+                if (column.getKind() == ColumnBlock.ColumnKind.STRING &&
+                        column.getStrings()[r] == null) {
+                    if (nullFieldCounter == 0 || skip != cellStarts[c]) {
+                        this.appendBlankCells(util, appendable, nullFieldCounter);
+                        nullFieldCounter = 0;
+                        appendable.append(fragments[c], skip, cellStarts[c]);
+                    }
+                    nullFieldCounter++;
+                    skip = afterValueLengths[c];
+                    continue;
+                }
+                this.appendBlankCells(util, appendable, nullFieldCounter);
+                nullFieldCounter = 0;
+                this.appendFragment(appendable, fragments[c], skip);
+                skip = 0;
+                switch (column.getKind()) {
+                    case DOUBLE:
+                        appendable.append(Double.toString(column.getDoubles()[r]));
+                        break;
+                    case LONG:
+                        this.writeUtil.appendLong(appendable, column.getLongs()[r]);
+                        break;
+                    case DATE:
+                        TableCellImpl.DATE_VALUE_FORMATTER
+                                .append(appendable, column.getLongs()[r]);
+                        break;
+                    default: // STRING
+                        util.appendEscapedXMLAttribute(appendable, column.getStrings()[r]);
+                        break;
+                }
+            }
+            this.appendBlankCells(util, appendable, nullFieldCounter);
+            this.appendFragment(appendable, fragments[columnCount], skip);
+        }
+    }
+
+    private void appendFragment(final Appendable appendable, final String fragment,
+                                final int skip) throws IOException {
+        if (skip == 0) {
+            appendable.append(fragment);
+        } else {
+            appendable.append(fragment, skip, fragment.length());
+        }
+    }
+
+    /**
+     * @return the beginning of the cell tag, until the value (excluded).
+     */
+    private String getCellPrefix(final XMLUtil util, final ColumnBlock.Column column,
+                                 final String styleName) throws IOException {
+        final StringBuilder sb = new StringBuilder("<table:table-cell");
+        if (styleName != null) {
+            util.appendEAttribute(sb, "table:style-name", styleName);
+        }
+        final ColumnBlock.ColumnKind kind = column.getKind();
+        util.appendAttribute(sb, "office:value-type", kind.getType());
+        if (kind != ColumnBlock.ColumnKind.STRING) {
+            sb.append(' ').append(kind.getType().getValueAttribute()).append("=\"");
+        }
+        return sb.toString();
+    }
+
+    private void appendBlankCells(final XMLUtil util, final Appendable appendable,
+                                  final int nullFieldCounter) throws IOException {
+        if (nullFieldCounter <= 0) {
+            return;
+        }
+
+        appendable.append("<table:table-cell");
+        if (nullFieldCounter >= 2) {
+            util.appendAttribute(appendable, "table:number-columns-repeated", nullFieldCounter);
+        }
+        appendable.append("/>");
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A builder for a column block. All the columns must have the same length.
+ *
+ * @author Julien Férard
+ */
+public class ColumnBlockBuilder {
+    private final List<ColumnBlock.Column> columns;
+    private int rowCount;
+
+    /**
+     * Create a new builder
+     */
+    ColumnBlockBuilder() {
+        this.columns = new ArrayList<ColumnBlock.Column>();
+        this.rowCount = -1;
+    }
+
+    /**
+     * @param values the float values
+     * @return this for fluent style
+     * @throws IllegalArgumentException if the length of the column is not the length of the
+     *                                  previous columns
+     */
+    public ColumnBlockBuilder floatColumn(final double[] values) {
+        return this.floatColumn(values, null);
+    }
+
+    /**
+     * @param values the float values
+     * @param style  the style of the cells, or null
+     * @return this for fluent style
+     * @throws IllegalArgumentException if the length of the column is not the length of the
+     *                                  previous columns
+     */
+    public ColumnBlockBuilder floatColumn(final double[] values, final TableCellStyle style) {
+        this.checkLength(values.length);
+        this.columns.add(new ColumnBlock.Column(ColumnBlock.ColumnKind.DOUBLE, values, null, null,
+                style));
+        return this;
+    }
+
+    /**
+     * @param values the float values
+     * @return this for fluent style
+     * @throws IllegalArgumentException if the length of the column is not the length of the
+     *                                  previous columns
+     */
+    public ColumnBlockBuilder floatColumn(final long[] values) {
+        return this.floatColumn(values, null);
+    }
+
+    /**
+     * @param values the float values
+     * @param style  the style of the cells, or null
+     * @return this for fluent style
+     * @throws IllegalArgumentException if the length of the column is not the length of the
+     *                                  previous columns
+     */
+    public ColumnBlockBuilder floatColumn(final long[] values, final TableCellStyle style) {
+        this.checkLength(values.length);
+        this.columns.add(new ColumnBlock.Column(ColumnBlock.ColumnKind.LONG, null, values, null,
+                style));
+        return this;
+    }
+
+    /**
+     * @param epochMillis the dates, as milliseconds since the epoch
+     * @return this for fluent style
+     * @throws IllegalArgumentException if the length of the column is not the length of the
+     *                                  previous columns
+     */
+    public ColumnBlockBuilder dateColumn(final long[] epochMillis) {
+        return this.dateColumn(epochMillis, null);
+    }
+
+    /**
+     * @param epochMillis the dates, as milliseconds since the epoch
+     * @param style       the style of the cells, or null
+     * @return this for fluent style
+     * @throws IllegalArgumentException if the length of the column is not the length of the
+     *                                  previous columns
+     */
+    public ColumnBlockBuilder dateColumn(final long[] epochMillis, final TableCellStyle style) {
+        this.checkLength(epochMillis.length);
+        this.columns.add(new ColumnBlock.Column(ColumnBlock.ColumnKind.DATE, null, epochMillis,
+                null, style));
+        return this;
+    }
+
+    /**
+     * @param values the string values. A null value is an empty cell
+     * @return this for fluent style
+     * @throws IllegalArgumentException if the length of the column is not the length of the
+     *                                  previous columns
+     */
+    public ColumnBlockBuilder stringColumn(final String[] values) {
+        return this.stringColumn(values, null);
+    }
+
+    /**
+     * @param values the string values. A null value is an empty cell
+     * @param style  the style of the cells, or null
+     * @return this for fluent style
+     * @throws IllegalArgumentException if the length of the column is not the length of the
+     *                                  previous columns
+     */
+    public ColumnBlockBuilder stringColumn(final String[] values, final TableCellStyle style) {
+        this.checkLength(values.length);
+        this.columns.add(new ColumnBlock.Column(ColumnBlock.ColumnKind.STRING, null, null, values,
+                style));
+        return this;
+    }
+
+    private void checkLength(final int length) {
+        if (this.rowCount == -1) {
+            this.rowCount = length;
+        } else if (length != this.rowCount) {
+            throw new IllegalArgumentException(
+                    "All the columns must have the same length (expected " + this.rowCount +
+                            ", got " + length + ")");
+        }
+    }
+
+    /**
+     * @return the block
+     */
+    public ColumnBlock build() {
+        return new ColumnBlock(Math.max(this.rowCount, 0),
+                new ArrayList<ColumnBlock.Column>(this.columns));
+    }
+}
@@ -62,7 +62,19 @@ class CommonOdsDocument implements OdsDocument {
      * @param odsElements the ods elements (file entries in zip archive)
      */
     CommonOdsDocument(final OdsElements odsElements) {
+        this(odsElements, true);
+    }
+
+    /**
+     * @param odsElements      the ods elements (file entries in zip archive)
+     * @param addDefaultStyles false if the elements were forked and already contain the
+     *                         default styles
+     */
+    CommonOdsDocument(final OdsElements odsElements, final boolean addDefaultStyles) {
         this.odsElements = odsElements;
+        if (!addDefaultStyles) {
+            return;
+        }
 
         // Add five default stylesEntry to contentEntry
         TableStyle.DEFAULT_TABLE_STYLE.addToElements(this.odsElements);
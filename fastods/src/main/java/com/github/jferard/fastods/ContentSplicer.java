@@ -0,0 +1,593 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.odselement.ContentElement;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A splicer that copies the content.xml entry of an existing document and inserts the missing
+ * automatic styles and the new rows of a table. The XML is not parsed: the tags are scanned
+ * once, and the text is copied as is. After the insertion of the rows, the remaining
+ * characters are copied in bulk.
+ * <p>
+ * The prefixes of the existing document may differ from the FastODS prefixes: the names of the
+ * elements and attributes are resolved with the namespace declarations. The FastODS prefixes
+ * that are not declared are declared on the root element, since the inserted XML uses them.
+ *
+ * @author Julien Férard
+ */
+class ContentSplicer {
+    private static final int BUFFER_SIZE = 8 * 1024;
+    private static final Pattern ENTITY_PATTERN = Pattern.compile("&(#x?)?([0-9A-Za-z]+);");
+    private static final Pattern NAMESPACE_PATTERN =
+            Pattern.compile("\\sxmlns(?::([^\\s=]+))?\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+    private static final String XMLNS_PREFIX = "xmlns:";
+    private static final String STYLE_NS = "urn:oasis:names:tc:opendocument:xmlns:style:1.0";
+    private static final String TABLE_NS = "urn:oasis:names:tc:opendocument:xmlns:table:1.0";
+
+    /**
+     * prefix -&gt; namespace of the XML written by FastODS
+     */
+    private static final Map<String, String> FASTODS_URI_BY_PREFIX;
+    /**
+     * namespace -&gt; prefix of the XML written by FastODS
+     */
+    private static final Map<String, String> FASTODS_PREFIX_BY_URI;
+
+    static {
+        FASTODS_URI_BY_PREFIX = new HashMap<String, String>();
+        FASTODS_PREFIX_BY_URI = new HashMap<String, String>();
+        for (final Map.Entry<String, String> entry : ContentElement.CONTENT_NAMESPACE_BY_PREFIX
+                .entrySet()) {
+            final String prefix = entry.getKey().substring(XMLNS_PREFIX.length());
+            FASTODS_URI_BY_PREFIX.put(prefix, entry.getValue());
+            FASTODS_PREFIX_BY_URI.put(entry.getValue(), prefix);
+        }
+    }
+
+    private static Pattern createAttributePattern(final String attributeName) {
+        return Pattern.compile("\\s" + Pattern.quote(attributeName) +
+                "\\s*=\\s*(?:\"([^\"]*)\"|'([^']*)')");
+    }
+
+    /**
+     * @param tag           the tag
+     * @param attributeName the attribute pattern
+     * @return the unescaped value of the attribute or null
+     */
+    static String getAttribute(final CharSequence tag, final Pattern attributeName) {
+        final Matcher matcher = attributeName.matcher(tag);
+        if (!matcher.find()) {
+            return null;
+        }
+        final String value = matcher.group(1) == null ? matcher.group(2) : matcher.group(1);
+        return unescape(value);
+    }
+
+    /**
+     * @param value the escaped value of an attribute
+     * @return the unescaped value
+     */
+    static String unescape(final String value) {
+        if (value.indexOf('&') == -1) {
+            return value;
+        }
+        final Matcher matcher = ENTITY_PATTERN.matcher(value);
+        final StringBuffer sb = new StringBuffer();
+        while (matcher.find()) {
+            final String prefix = matcher.group(1);
+            final String entity = matcher.group(2);
+            final String replacement;
+            if (prefix == null) {
+                if (entity.equals("amp")) {
+                    replacement = "&";
+                } else if (entity.equals("lt")) {
+                    replacement = "<";
+                } else if (entity.equals("gt")) {
+                    replacement = ">";
+                } else if (entity.equals("quot")) {
+                    replacement = "\"";
+                } else if (entity.equals("apos")) {
+                    replacement = "'";
+                } else {
+                    replacement = matcher.group();
+                }
+            } else {
+                final int codePoint = Integer.parseInt(entity, prefix.length() == 1 ? 10 : 16);
+                replacement = new String(Character.toChars(codePoint));
+            }
+            matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+        }
+        matcher.appendTail(sb);
+        return sb.toString();
+    }
+
+    private final AnonymousOdsDocument document;
+    private final Table table;
+    private final Set<String> existingStyleKeys;
+    private final char[] buffer;
+    private final StringBuilder pending;
+    /**
+     * The namespaces declared by the open elements (null if an element has no declaration).
+     */
+    private final List<Map<String, String>> uriByPrefixStack;
+    /**
+     * qualified name -&gt; name with the FastODS prefix. Valid while the bindings don't change.
+     */
+    private final Map<String, String> fastODSNameByName;
+    private final Map<String, Pattern> patternByAttributeName;
+    private Reader reader;
+    private Appendable appendable;
+    private int position;
+    private int limit;
+    private State state;
+    private int tableDepth;
+    private boolean rowsSeen;
+
+    /**
+     * @param document the document that contains the styles and the new rows
+     * @param table    the table of the document. The rows are added to the table of the existing
+     *                 document that has the same name
+     */
+    ContentSplicer(final AnonymousOdsDocument document, final Table table) {
+        this.document = document;
+        this.table = table;
+        this.existingStyleKeys = new HashSet<String>();
+        this.buffer = new char[BUFFER_SIZE];
+        this.pending = new StringBuilder(2 * BUFFER_SIZE);
+        this.uriByPrefixStack = new ArrayList<Map<String, String>>();
+        this.fastODSNameByName = new HashMap<String, String>();
+        this.patternByAttributeName = new HashMap<String, Pattern>();
+    }
+
+    /**
+     * Copy the content and insert the styles and the rows.
+     *
+     * @param contentReader the content.xml entry of the existing document
+     * @param destination   the destination
+     * @throws IOException if an I/O error occurs or the table was not found
+     */
+    void splice(final Reader contentReader, final Appendable destination)
+            throws IOException {
+        this.reader = contentReader;
+        this.appendable = destination;
+        this.position = 0;
+        this.limit = 0;
+        this.state = State.BEFORE_AUTOMATIC_STYLES;
+        while (this.state != State.AFTER_TABLE && this.fill()) {
+            final int start = this.position;
+            while (this.position < this.limit && this.buffer[this.position] != '<') {
+                this.position++;
+            }
+            this.pending.append(this.buffer, start, this.position - start);
+            if (this.position < this.limit) {
+                this.handleTag(this.readTag());
+            }
+            this.flushPending(BUFFER_SIZE);
+        }
+        if (this.state != State.AFTER_TABLE) {
+            throw new IOException("No table named " + this.table.getName());
+        }
+        this.pending.append(this.buffer, this.position, this.limit - this.position);
+        this.flushPending(0);
+        int count = this.reader.read(this.buffer);
+        while (count != -1) {
+            this.pending.append(this.buffer, 0, count);
+            this.flushPending(0);
+            count = this.reader.read(this.buffer);
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (this.position < this.limit) {
+            return true;
+        }
+        this.position = 0;
+        this.limit = this.reader.read(this.buffer);
+        if (this.limit == -1) {
+            this.limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private void flushPending(final int threshold) throws IOException {
+        if (this.pending.length() > threshold) {
+            this.appendable.append(this.pending);
+            this.pending.setLength(0);
+        }
+    }
+
+    /**
+     * @return the tag, from '&lt;' to '&gt;'. Quoted '&gt;', comments and CDATA sections are
+     * handled.
+     * @throws IOException if an I/O error occurs
+     */
+    private String readTag() throws IOException {
+        final StringBuilder tag = new StringBuilder();
+        char quote = 0;
+        while (this.fill()) {
+            final char c = this.buffer[this.position++];
+            tag.append(c);
+            if (quote != 0) {
+                if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '"' || c == '\'') {
+                if (tag.charAt(1) != '!') {
+                    quote = c;
+                }
+            } else if (c == '>') {
+                if (this.isTagEnd(tag)) {
+                    return tag.toString();
+                }
+            }
+        }
+        throw new IOException("Unexpected end of content: " + tag);
+    }
+
+    private boolean isTagEnd(final StringBuilder tag) {
+        final int length = tag.length();
+        if (length >= 4 && tag.charAt(1) == '!' && tag.charAt(2) == '-' &&
+                tag.charAt(3) == '-') {
+            return length >= 7 && tag.charAt(length - 2) == '-' && tag.charAt(length - 3) == '-';
+        } else if (length >= 3 && tag.charAt(1) == '!' && tag.charAt(2) == '[') {
+            return tag.charAt(length - 2) == ']' && tag.charAt(length - 3) == ']';
+        }
+        return true;
+    }
+
+    private void handleTag(final String originalTag) throws IOException {
+        final char first = originalTag.charAt(1);
+        if (first == '?' || first == '!') {
+            this.pending.append(originalTag);
+            return;
+        }
+        final boolean isEnd = first == '/';
+        final boolean isEmpty = !isEnd && originalTag.charAt(originalTag.length() - 2) == '/';
+        final String qualifiedName = this.getElementName(originalTag, isEnd);
+        String tag = originalTag;
+        if (!isEnd) {
+            this.pushNamespaces(originalTag);
+            if (this.uriByPrefixStack.size() == 1) {
+                tag = this.declareFastODSNamespaces(originalTag);
+            }
+        }
+        final String name = this.getFastODSName(qualifiedName);
+        switch (this.state) {
+            case BEFORE_AUTOMATIC_STYLES:
+                this.handleTagBeforeAutomaticStyles(tag, qualifiedName, name, isEnd, isEmpty);
+                break;
+            case IN_AUTOMATIC_STYLES:
+                this.handleTagInAutomaticStyles(tag, name, isEnd);
+                break;
+            case BEFORE_TABLE:
+                this.handleTagBeforeTable(tag, qualifiedName, name, isEnd, isEmpty);
+                break;
+            default: // IN_TABLE
+                this.handleTagInTable(tag, name, isEnd, isEmpty);
+                break;
+        }
+        if (isEnd || isEmpty) {
+            this.popNamespaces();
+        }
+    }
+
+    /**
+     * Push the namespaces declared by a start tag.
+     *
+     * @param tag the start tag
+     */
+    private void pushNamespaces(final String tag) {
+        Map<String, String> uriByPrefix = null;
+        if (tag.contains("xmlns")) {
+            final Matcher matcher = NAMESPACE_PATTERN.matcher(tag);
+            while (matcher.find()) {
+                if (uriByPrefix == null) {
+                    uriByPrefix = new HashMap<String, String>();
+                }
+                final String prefix = matcher.group(1) == null ? "" : matcher.group(1);
+                final String uri = unescape(
+                        matcher.group(2) == null ? matcher.group(3) : matcher.group(2));
+                uriByPrefix.put(prefix, uri);
+            }
+        }
+        if (uriByPrefix != null) {
+            this.fastODSNameByName.clear();
+        }
+        this.uriByPrefixStack.add(uriByPrefix);
+    }
+
+    private void popNamespaces() {
+        final int last = this.uriByPrefixStack.size() - 1;
+        if (last < 0) {
+            return;
+        }
+        if (this.uriByPrefixStack.remove(last) != null) {
+            this.fastODSNameByName.clear();
+        }
+    }
+
+    /**
+     * @param prefix the prefix, "" for the default namespace
+     * @return the namespace or null
+     */
+    private String getURI(final String prefix) {
+        for (int i = this.uriByPrefixStack.size() - 1; i >= 0; i--) {
+            final Map<String, String> uriByPrefix = this.uriByPrefixStack.get(i);
+            if (uriByPrefix != null) {
+                final String uri = uriByPrefix.get(prefix);
+                if (uri != null) {
+                    return uri;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param uri the namespace
+     * @return a prefix bound to this namespace, or null
+     */
+    private String getPrefix(final String uri) {
+        for (int i = this.uriByPrefixStack.size() - 1; i >= 0; i--) {
+            final Map<String, String> uriByPrefix = this.uriByPrefixStack.get(i);
+            if (uriByPrefix != null) {
+                for (final Map.Entry<String, String> entry : uriByPrefix.entrySet()) {
+                    final String prefix = entry.getKey();
+                    if (entry.getValue().equals(uri) && prefix.length() > 0 &&
+                            uri.equals(this.getURI(prefix))) {
+                        return prefix;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param qualifiedName the name of an element in the existing document
+     * @return the name with the FastODS prefix, or the name itself if the namespace is
+     * unknown or not declared.
+     */
+    private String getFastODSName(final String qualifiedName) {
+        String name = this.fastODSNameByName.get(qualifiedName);
+        if (name == null) {
+            final int colon = qualifiedName.indexOf(':');
+            final String prefix = colon == -1 ? "" : qualifiedName.substring(0, colon);
+            final String uri = this.getURI(prefix);
+            final String fastODSPrefix = uri == null ? null : FASTODS_PREFIX_BY_URI.get(uri);
+            if (fastODSPrefix == null) {
+                name = qualifiedName;
+            } else {
+                name = fastODSPrefix + ":" + qualifiedName.substring(colon + 1);
+            }
+            this.fastODSNameByName.put(qualifiedName, name);
+        }
+        return name;
+    }
+
+    /**
+     * @param tag       the tag
+     * @param uri       the namespace of the attribute
+     * @param localName the local name of the attribute
+     * @return the unescaped value of the attribute or null
+     */
+    private String getAttribute(final String tag, final String uri, final String localName) {
+        final String prefix = this.getPrefix(uri);
+        final String attributeName;
+        if (prefix == null) { // not declared: assume the FastODS prefix
+            attributeName = FASTODS_PREFIX_BY_URI.get(uri) + ":" + localName;
+        } else {
+            attributeName = prefix + ":" + localName;
+        }
+        Pattern pattern = this.patternByAttributeName.get(attributeName);
+        if (pattern == null) {
+            pattern = createAttributePattern(attributeName);
+            this.patternByAttributeName.put(attributeName, pattern);
+        }
+        return getAttribute(tag, pattern);
+    }
+
+    /**
+     * Declare the FastODS prefixes that are not declared on the root element.
+     *
+     * @param tag the root tag
+     * @return the new root tag
+     * @throws IOException if a FastODS prefix is bound to another namespace
+     */
+    private String declareFastODSNamespaces(final String tag) throws IOException {
+        final StringBuilder declarations = new StringBuilder();
+        for (final Map.Entry<String, String> entry : FASTODS_URI_BY_PREFIX.entrySet()) {
+            final String prefix = entry.getKey();
+            final String uri = this.getURI(prefix);
+            if (uri == null) {
+                declarations.append(' ').append(XMLNS_PREFIX).append(prefix).append("=\"")
+                        .append(entry.getValue()).append('"');
+            } else if (!uri.equals(entry.getValue())) {
+                throw new IOException("The prefix " + prefix + " is bound to " + uri +
+                        " instead of " + entry.getValue());
+            }
+        }
+        if (declarations.length() == 0) {
+            return tag;
+        }
+        final int end = tag.charAt(tag.length() - 2) == '/' ? tag.length() - 2 :
+                tag.length() - 1;
+        return tag.substring(0, end) + declarations + tag.substring(end);
+    }
+
+    private String getElementName(final String tag, final boolean isEnd) {
+        final int start = isEnd ? 2 : 1;
+        int end = start;
+        while (end < tag.length()) {
+            final char c = tag.charAt(end);
+            if (c == '/' || c == '>' || Character.isWhitespace(c)) {
+                break;
+            }
+            end++;
+        }
+        return tag.substring(start, end);
+    }
+
+    private void handleTagBeforeAutomaticStyles(final String tag, final String qualifiedName,
+                                                final String name, final boolean isEnd,
+                                                final boolean isEmpty)
+            throws IOException {
+        if (isEnd) {
+            this.pending.append(tag);
+        } else if (name.equals("office:automatic-styles")) {
+            if (isEmpty) {
+                this.appendStartTag(tag);
+                this.appendMissingStyles();
+                this.pending.append("</").append(qualifiedName).append('>');
+                this.state = State.BEFORE_TABLE;
+            } else {
+                this.pending.append(tag);
+                this.state = State.IN_AUTOMATIC_STYLES;
+            }
+        } else if (name.equals("office:body")) {
+            this.pending.append("<office:automatic-styles>");
+            this.appendMissingStyles();
+            this.pending.append("</office:automatic-styles>");
+            this.pending.append(tag);
+            this.state = State.BEFORE_TABLE;
+        } else {
+            this.pending.append(tag);
+        }
+    }
+
+    private void handleTagInAutomaticStyles(final String tag, final String name,
+                                            final boolean isEnd) throws IOException {
+        if (isEnd) {
+            if (name.equals("office:automatic-styles")) {
+                this.appendMissingStyles();
+                this.state = State.BEFORE_TABLE;
+            }
+        } else if (name.equals("style:style")) {
+            final String styleName = this.getAttribute(tag, STYLE_NS, "name");
+            final String family = this.getAttribute(tag, STYLE_NS, "family");
+            if (styleName != null && family != null) {
+                this.existingStyleKeys.add(family + "@" + styleName);
+            }
+        } else if (name.startsWith("number:")) {
+            final String styleName = this.getAttribute(tag, STYLE_NS, "name");
+            if (styleName != null) {
+                this.existingStyleKeys.add("data-style@" + styleName);
+            }
+        }
+        this.pending.append(tag);
+    }
+
+    private void handleTagBeforeTable(final String tag, final String qualifiedName,
+                                      final String name, final boolean isEnd,
+                                      final boolean isEmpty) throws IOException {
+        if (isEnd || !name.equals("table:table") ||
+                !this.table.getName().equals(this.getAttribute(tag, TABLE_NS, "name"))) {
+            this.pending.append(tag);
+            return;
+        }
+
+        if (isEmpty) {
+            this.appendStartTag(tag);
+            this.appendRows();
+            this.pending.append("</").append(qualifiedName).append('>');
+            this.state = State.AFTER_TABLE;
+        } else {
+            this.pending.append(tag);
+            this.tableDepth = 0;
+            this.rowsSeen = false;
+            this.state = State.IN_TABLE;
+        }
+    }
+
+    private void handleTagInTable(final String tag, final String name, final boolean isEnd,
+                                  final boolean isEmpty) throws IOException {
+        if (isEnd) {
+            if (this.tableDepth == 0) { // </table:table>
+                this.appendRows();
+                this.state = State.AFTER_TABLE;
+            } else {
+                this.tableDepth--;
+            }
+        } else {
+            if (this.tableDepth == 0) {
+                if (this.isRowElement(name)) {
+                    this.rowsSeen = true;
+                } else if (this.rowsSeen) { // e.g. calcext:conditional-formats
+                    this.appendRows();
+                    this.pending.append(tag);
+                    this.state = State.AFTER_TABLE;
+                    return;
+                }
+            }
+            if (!isEmpty) {
+                this.tableDepth++;
+            }
+        }
+        this.pending.append(tag);
+    }
+
+    /**
+     * @param emptyTag an empty element tag
+     */
+    private void appendStartTag(final String emptyTag) {
+        final int slash = emptyTag.lastIndexOf('/');
+        this.pending.append(emptyTag, 0, slash).append('>');
+    }
+
+    private boolean isRowElement(final String name) {
+        return name.equals("table:table-row") || name.equals("table:table-rows") ||
+                name.equals("table:table-header-rows") || name.equals("table:table-row-group");
+    }
+
+    private void appendMissingStyles() throws IOException {
+        this.flushPending(0);
+        this.document.writeMissingContentAutomaticStyles(this.appendable, this.existingStyleKeys);
+    }
+
+    private void appendRows() throws IOException {
+        this.flushPending(0);
+        this.document.appendRowsOnly(this.table, this.appendable);
+    }
+
+    /**
+     * The position in the content.xml file
+     */
+    private enum State {
+        BEFORE_AUTOMATIC_STYLES, IN_AUTOMATIC_STYLES, BEFORE_TABLE, IN_TABLE, AFTER_TABLE
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * An async flusher for a collection of rows. Unlike the PreprocessedRowsFlusher, the XML is
+ * written by the consumer: the producer thread only hands the rows off.
+ * <p>
+ * Sent when a block of rows of a table is full, before a column block, and by
+ * {@link Table#asyncFlushAvailableRows()}.
+ *
+ * @author Julien Férard
+ */
+class DeferredRowsFlusher implements OdsAsyncFlusher {
+    private final List<TableRowImpl> rows;
+    private final boolean runLengthEncoding;
+
+    /**
+     * @param rows              the rows. They won't be modified by the producer.
+     * @param runLengthEncoding if true, identical consecutive rows and cells are written once
+     */
+    DeferredRowsFlusher(final List<TableRowImpl> rows, final boolean runLengthEncoding) {
+        this.rows = rows;
+        this.runLengthEncoding = runLengthEncoding;
+    }
+
+    @Override
+    public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer) throws IOException {
+        if (this.runLengthEncoding) {
+            RepeatedRowsAppender.appendRows(this.rows, xmlUtil, writer);
+        } else {
+            for (final TableRowImpl row : this.rows) {
+                TableRowImpl.appendXMLToTable(row, xmlUtil, writer);
+            }
+        }
+        // free rows
+        Collections.fill(this.rows, null);
+    }
+
+    @Override
+    public boolean isEnd() {
+        return false;
+    }
+}
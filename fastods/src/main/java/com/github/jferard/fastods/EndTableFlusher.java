@@ -39,20 +39,36 @@ import java.util.List;
 public class EndTableFlusher implements OdsAsyncFlusher {
     private final TableAppender appender;
     private final List<TableRowImpl> rows;
+    private final boolean runLengthEncoding;
 
     /**
      * @param appender the table to end
      * @param rows     a view on the remaining rows.
      */
     public EndTableFlusher(final TableAppender appender, final List<TableRowImpl> rows) {
+        this(appender, rows, false);
+    }
+
+    /**
+     * @param appender          the table to end
+     * @param rows              a view on the remaining rows.
+     * @param runLengthEncoding if true, identical consecutive rows and cells are written once
+     */
+    public EndTableFlusher(final TableAppender appender, final List<TableRowImpl> rows,
+                           final boolean runLengthEncoding) {
         this.appender = appender;
         this.rows = rows;
+        this.runLengthEncoding = runLengthEncoding;
     }
 
     @Override
     public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer) throws IOException {
-        for (final TableRowImpl row : this.rows) {
-            TableRowImpl.appendXMLToTable(row, xmlUtil, writer);
+        if (this.runLengthEncoding) {
+            RepeatedRowsAppender.appendRows(this.rows, xmlUtil, writer);
+        } else {
+            for (final TableRowImpl row : this.rows) {
+                TableRowImpl.appendXMLToTable(row, xmlUtil, writer);
+            }
         }
         // free rows
         Collections.fill(this.rows, null);
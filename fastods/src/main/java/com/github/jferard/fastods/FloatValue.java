@@ -55,7 +55,7 @@ public class FloatValue implements CellValue {
     /**
      * @param value the float
      */
-    FloatValue(final Number value) {
+    public FloatValue(final Number value) {
         this.value = value;
     }
 
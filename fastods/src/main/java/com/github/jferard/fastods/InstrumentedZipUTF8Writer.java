@@ -0,0 +1,143 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.CachedZipEntry;
+import com.github.jferard.fastods.util.RawZipEntry;
+import com.github.jferard.fastods.util.ZipUTF8RawWriter;
+
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+
+/**
+ * A decorator that reports the size of every entry to a listener. The zip stream fills the
+ * size and compressed size of the entry when the entry is closed.
+ *
+ * @author Julien Férard
+ */
+class InstrumentedZipUTF8Writer implements ZipUTF8RawWriter {
+    private final ZipUTF8RawWriter writer;
+    private final OdsWriteListener listener;
+    private ZipEntry curEntry;
+
+    /**
+     * @param writer   the decorated writer
+     * @param listener the listener
+     */
+    InstrumentedZipUTF8Writer(final ZipUTF8RawWriter writer, final OdsWriteListener listener) {
+        this.writer = writer;
+        this.listener = listener;
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        this.writer.closeEntry();
+        this.reportEntry();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.writer.finish();
+        this.reportEntry();
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry entry) throws IOException {
+        this.writer.putNextEntry(entry); // closes the previous entry if necessary
+        this.reportEntry();
+        this.curEntry = entry;
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        this.writer.setComment(comment);
+    }
+
+    @Override
+    public void write(final byte[] bytes) throws IOException {
+        this.writer.write(bytes);
+    }
+
+    @Override
+    public boolean copiesDeflatedData() {
+        return this.writer.copiesDeflatedData();
+    }
+
+    @Override
+    public void writeCachedEntry(final ZipEntry entry, final CachedZipEntry cachedEntry)
+            throws IOException {
+        this.writer.writeCachedEntry(entry, cachedEntry); // closes the previous entry
+        this.reportEntry();
+        this.curEntry = entry;
+        this.reportEntry();
+    }
+
+    @Override
+    public void writeRawEntry(final RawZipEntry rawEntry) throws IOException {
+        this.writer.writeRawEntry(rawEntry); // closes the previous entry
+        this.reportEntry();
+        this.listener.entryWritten(rawEntry.getName(), rawEntry.getSize(),
+                rawEntry.getCompressedSize());
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writer.close();
+        this.reportEntry();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.writer.flush();
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+        this.writer.append(csq);
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end)
+            throws IOException {
+        this.writer.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+        this.writer.append(c);
+        return this;
+    }
+
+    private void reportEntry() {
+        if (this.curEntry == null) {
+            return;
+        }
+        this.listener.entryWritten(this.curEntry.getName(), this.curEntry.getSize(),
+                this.curEntry.getCompressedSize());
+        this.curEntry = null;
+    }
+}
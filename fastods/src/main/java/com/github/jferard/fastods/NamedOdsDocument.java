@@ -344,4 +344,13 @@ public class NamedOdsDocument implements OdsDocument, StylesContainer {
         this.odsElements.saveAsync();
         this.logger.log(Level.FINE, "file saved");
     }
+
+    /**
+     * Report the metrics of the document to a listener.
+     *
+     * @param listener the listener
+     */
+    void writeMetrics(final OdsWriteListener listener) {
+        this.odsElements.writeMetrics(this.xmlUtil, listener);
+    }
 }
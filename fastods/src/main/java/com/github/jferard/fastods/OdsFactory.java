@@ -28,6 +28,7 @@ import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.odselement.MetaElement;
 import com.github.jferard.fastods.odselement.OdsElements;
 import com.github.jferard.fastods.ref.PositionUtil;
+import com.github.jferard.fastods.util.RingBuffer;
 import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
@@ -38,6 +39,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Logger;
 
 /**
@@ -54,6 +57,10 @@ public class OdsFactory {
     private DataStyles format;
     private boolean libreOfficeMode;
     private MetaElement metaElement;
+    private final ExecutorService tablesExecutor;
+    private final OdsWriteListener writeListener;
+    private final ZipEntryCache zipEntryCache;
+
     /**
      * Create a new OdsFactory
      *
@@ -65,11 +72,16 @@ public class OdsFactory {
      * @param format                      the data styles
      * @param libreOfficeMode             try to get full compatibility with LO if true
      * @param metaElement                 the meta element
+     * @param tablesExecutor              the executor that serializes the tables
+     *                                    concurrently, or null
+     * @param writeListener               the listener for metrics, or null
+     * @param zipEntryCache               the cache of the static entries, or null
      */
     OdsFactory(final Logger logger, final PositionUtil positionUtil, final WriteUtil writeUtil,
                final XMLUtil xmlUtil, final Map<String, String> additionalNamespaceByPrefix,
                final DataStyles format, final boolean libreOfficeMode,
-               final MetaElement metaElement) {
+               final MetaElement metaElement, final ExecutorService tablesExecutor,
+               final OdsWriteListener writeListener, final ZipEntryCache zipEntryCache) {
         this.logger = logger;
         this.positionUtil = positionUtil;
         this.writeUtil = writeUtil;
@@ -78,6 +90,9 @@ public class OdsFactory {
         this.format = format;
         this.libreOfficeMode = libreOfficeMode;
         this.metaElement = metaElement;
+        this.tablesExecutor = tablesExecutor;
+        this.writeListener = writeListener;
+        this.zipEntryCache = zipEntryCache;
     }
 
     /**
@@ -170,7 +185,8 @@ public class OdsFactory {
     private AnonymousOdsDocument createAnonymousDocument() {
         final OdsElements odsElements = OdsElements
                 .create(this.positionUtil, this.xmlUtil, this.writeUtil, this.format,
-                        this.libreOfficeMode, this.metaElement, this.additionalNamespaceByPrefix);
+                        this.libreOfficeMode, this.metaElement, this.additionalNamespaceByPrefix,
+                        this.tablesExecutor);
         return AnonymousOdsDocument.create(this.logger, this.xmlUtil, odsElements);
     }
 
@@ -182,7 +198,8 @@ public class OdsFactory {
     private NamedOdsDocument createNamedDocument() {
         final OdsElements odsElements = OdsElements
                 .create(this.positionUtil, this.xmlUtil, this.writeUtil, this.format,
-                        this.libreOfficeMode, this.metaElement, this.additionalNamespaceByPrefix);
+                        this.libreOfficeMode, this.metaElement, this.additionalNamespaceByPrefix,
+                        this.tablesExecutor);
         return NamedOdsDocument.create(this.logger, this.xmlUtil, odsElements);
     }
 
@@ -191,7 +208,57 @@ public class OdsFactory {
      */
     public AnonymousOdsFileWriter createWriter() {
         final AnonymousOdsDocument document = this.createAnonymousDocument();
-        return new AnonymousOdsFileWriter(this.logger, document);
+        return new AnonymousOdsFileWriter(this.logger, document, this.writeListener,
+                this.zipEntryCache);
+    }
+
+    /**
+     * Create a new, empty document to be used as a prototype: add the styles, then create
+     * the writers with {@link #createWriter(AnonymousOdsDocument)}.
+     *
+     * @return a new document
+     */
+    public AnonymousOdsDocument createPrototypeDocument() {
+        return this.createAnonymousDocument();
+    }
+
+    /**
+     * @param prototype the prototype document
+     * @return a new writer, with a fork of the prototype (see
+     * {@link AnonymousOdsDocument#fork()}), but with no actual name
+     */
+    public AnonymousOdsFileWriter createWriter(final AnonymousOdsDocument prototype) {
+        return new AnonymousOdsFileWriter(this.logger, prototype.fork(), this.writeListener,
+                this.zipEntryCache);
+    }
+
+    /**
+     * Create an appender that adds rows at the end of a table of an existing file: the rows
+     * are written to {@link OdsFileAppender#getTable()}, then the file is saved to a new file.
+     * The unchanged entries of the existing file are not compressed again.
+     *
+     * @param source    the existing file
+     * @param tableName the name of the table of the existing file
+     * @return the appender
+     * @throws IOException if the table can't be created
+     */
+    public OdsFileAppender createAppender(final File source, final String tableName)
+            throws IOException {
+        final AnonymousOdsDocument document = this.createAnonymousDocument();
+        final Table table = document.addTable(tableName);
+        return new OdsFileAppender(this.logger, source, document, table, this.writeListener);
+    }
+
+    /**
+     * @return the builder of the zip writers of the factory. If there is a zip entry cache, the
+     * cached entries are copied.
+     */
+    private ZipUTF8WriterBuilder createZipBuilder() {
+        final ZipUTF8WriterBuilder zipBuilder = ZipUTF8WriterImpl.builder();
+        if (this.zipEntryCache != null) {
+            zipBuilder.rawEntryCopy();
+        }
+        return zipBuilder;
     }
 
     /**
@@ -205,7 +272,9 @@ public class OdsFactory {
     public NamedOdsFileWriter createWriter(final String filename) throws IOException {
         final NamedOdsDocument document = this.createNamedDocument();
         final NamedOdsFileWriter writer = OdsFileDirectWriter.builder(this.logger, document)
-                .file(filename).build();
+                .file(filename).zipBuilder(this.createZipBuilder())
+                .writeListener(this.writeListener).zipEntryCache(this.zipEntryCache)
+                .build();
         document.addObserver(writer);
         document.prepare();
         return writer;
@@ -223,12 +292,72 @@ public class OdsFactory {
         final NamedOdsDocument document = this.createNamedDocument();
         final NamedOdsFileWriter writer =
                 OdsFileDirectWriter.builder(this.logger, document).file(file)
+                        .zipBuilder(this.createZipBuilder())
+                        .writeListener(this.writeListener).zipEntryCache(this.zipEntryCache)
                         .build();
         document.addObserver(writer);
         document.prepare();
         return writer;
     }
 
+    /**
+     * Create a writer that flushes the data in a new background thread.
+     *
+     * @param file the destination file
+     * @return the ods writer
+     * @throws IOException if an I/O error occurs
+     */
+    public NamedOdsFileWriter createBackgroundWriter(final File file) throws IOException {
+        return this.createBackgroundWriter(file, null);
+    }
+
+    /**
+     * Create a writer that flushes the data in a background task.
+     *
+     * @param file     the destination file
+     * @param executor the executor that will run the consumer task, or null to use a new thread.
+     *                 The task runs until the document is saved or the writer is closed.
+     * @return the ods writer
+     * @throws IOException if an I/O error occurs
+     */
+    public NamedOdsFileWriter createBackgroundWriter(final File file, final Executor executor)
+            throws IOException {
+        return this.createBackgroundWriter(file, executor, OdsFileWriterAdapter.DEFAULT_CAPACITY,
+                this.createZipBuilder().noWriterBuffer());
+    }
+
+    /**
+     * Create a writer that flushes the data in a background task.
+     *
+     * @param file       the destination file
+     * @param executor   the executor that will run the consumer task, or null to use a new
+     *                   thread. The task runs until the document is saved or the writer is
+     *                   closed.
+     * @param capacity   the max number of pending flushers. If the buffer is full, the producer
+     *                   waits for the consumer.
+     * @param zipBuilder the builder of the zip writer (e.g. to deflate in parallel). If the
+     *                   factory has a zip entry cache, the builder should use
+     *                   {@link ZipUTF8WriterBuilder#parallelDeflate()} or
+     *                   {@link ZipUTF8WriterBuilder#rawEntryCopy()}: otherwise, the cache is
+     *                   ignored.
+     * @return the ods writer
+     * @throws IOException if an I/O error occurs
+     */
+    public NamedOdsFileWriter createBackgroundWriter(final File file, final Executor executor,
+                                                     final int capacity,
+                                                     final ZipUTF8WriterBuilder zipBuilder)
+            throws IOException {
+        final NamedOdsDocument document = this.createNamedDocument();
+        final NamedOdsFileWriter writer = OdsFileBackgroundWriter.create(this.logger,
+                OdsFileDirectWriter.builder(this.logger, document).file(file)
+                        .zipBuilder(zipBuilder).writeListener(this.writeListener)
+                        .zipEntryCache(this.zipEntryCache).build(),
+                capacity, executor);
+        document.addObserver(writer);
+        document.prepare();
+        return writer;
+    }
+
     /**
      * Create an adapter for a writer.
      *
@@ -237,11 +366,30 @@ public class OdsFactory {
      * @throws IOException if an I/O error occurs
      */
     public OdsFileWriterAdapter createWriterAdapter(final File file) throws IOException {
+        return this.createWriterAdapter(file, OdsFileWriterAdapter.DEFAULT_CAPACITY,
+                RingBuffer.WaitStrategy.BLOCKING);
+    }
+
+    /**
+     * Create an adapter for a writer.
+     *
+     * @param file         the file
+     * @param capacity     the max number of pending flushers. If the buffer is full, the producer
+     *                     waits for the consumer.
+     * @param waitStrategy the way the producer and the consumer wait for each other
+     * @return the adapter
+     * @throws IOException if an I/O error occurs
+     */
+    public OdsFileWriterAdapter createWriterAdapter(final File file, final int capacity,
+                                                    final RingBuffer.WaitStrategy waitStrategy)
+            throws IOException {
         final NamedOdsDocument document = this.createNamedDocument();
-        final ZipUTF8WriterBuilder zipUTF8Writer = ZipUTF8WriterImpl.builder().noWriterBuffer();
+        final ZipUTF8WriterBuilder zipUTF8Writer = this.createZipBuilder().noWriterBuffer();
         final OdsFileWriterAdapter writerAdapter = OdsFileWriterAdapter.create(this.logger,
                 OdsFileDirectWriter.builder(this.logger, document).file(file)
-                        .zipBuilder(zipUTF8Writer).build());
+                        .zipBuilder(zipUTF8Writer).writeListener(this.writeListener)
+                        .zipEntryCache(this.zipEntryCache).build(),
+                capacity, waitStrategy);
         document.addObserver(writerAdapter);
         document.prepare();
         return writerAdapter;
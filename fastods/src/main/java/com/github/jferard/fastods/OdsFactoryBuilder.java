@@ -29,40 +29,61 @@ import com.github.jferard.fastods.datastyle.DataStylesBuilder;
 import com.github.jferard.fastods.odselement.MetaElement;
 import com.github.jferard.fastods.ref.PositionUtil;
 import com.github.jferard.fastods.ref.TableNameUtil;
+import com.github.jferard.fastods.util.FastOdsXMLEscaper;
+import com.github.jferard.fastods.util.ThreadLocalXMLEscaper;
 import com.github.jferard.fastods.util.WriteUtil;
+import com.github.jferard.fastods.util.XMLEscaper;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Logger;
 
 public class OdsFactoryBuilder {
     private final Logger logger;
     private final PositionUtil positionUtil;
     private final WriteUtil writeUtil;
-    private final XMLUtil xmlUtil;
+    private XMLEscaper escaper;
     private final Map<String, String> additionalNamespaceByPrefix;
     private DataStyles format;
     private boolean libreOfficeMode;
     private MetaElement metaElement;
+    private ExecutorService tablesExecutor;
+    private boolean concurrentDocuments;
+    private OdsWriteListener writeListener;
+    private ZipEntryCache zipEntryCache;
 
     public OdsFactoryBuilder(final Logger logger, final Locale locale) {
         this.logger = logger;
         this.positionUtil = new PositionUtil(new TableNameUtil());
         this.writeUtil = WriteUtil.create();
-        this.xmlUtil = XMLUtil.create();
+        this.escaper = null;
         this.additionalNamespaceByPrefix = new HashMap<String, String>();
 
         this.format = DataStylesBuilder.create(locale).build();
         this.libreOfficeMode = true;
         this.metaElement = MetaElement.create();
+        this.tablesExecutor = null;
+        this.concurrentDocuments = false;
+        this.writeListener = null;
+        this.zipEntryCache = null;
     }
 
     public OdsFactory build() {
-        return new OdsFactory(this.logger, this.positionUtil, this.writeUtil, this.xmlUtil,
-                this.additionalNamespaceByPrefix, this.format, this.libreOfficeMode, this.metaElement
-        );
+        final XMLEscaper curEscaper;
+        if (this.escaper != null) {
+            curEscaper = this.escaper;
+        } else if (this.tablesExecutor == null && !this.concurrentDocuments) {
+            curEscaper = FastOdsXMLEscaper.create();
+        } else {
+            curEscaper = ThreadLocalXMLEscaper.create();
+        }
+        return new OdsFactory(this.logger, this.positionUtil, this.writeUtil,
+                XMLUtil.create(curEscaper), this.additionalNamespaceByPrefix, this.format,
+                this.libreOfficeMode, this.metaElement, this.tablesExecutor, this.writeListener,
+                this.zipEntryCache);
     }
 
     /**
@@ -88,6 +109,92 @@ public class OdsFactoryBuilder {
         return this;
     }
 
+    /**
+     * Use a custom XML escaper, e.g. to choose the cache policy:
+     * <pre>
+     * builder.xmlEscaper(FastOdsXMLEscaper.builder().lruCache(1024).build())
+     * </pre>
+     * If the tables are filled by different threads, the escaper must be thread-safe, e.g. a
+     * ThreadLocalXMLEscaper.
+     *
+     * @param escaper the escaper
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder xmlEscaper(final XMLEscaper escaper) {
+        this.escaper = escaper;
+        return this;
+    }
+
+    /**
+     * Allow the tables of a document to be filled by different threads (one thread per table)
+     * and serialize the tables concurrently on save, each into its own buffer. The buffers are
+     * then written to content.xml in the order of the tables.
+     * <p>
+     * Add the tables to the document before you hand them to the threads. The executor is
+     * not shut down by FastODS. This mode does not apply to the flush mode (rows flushed while
+     * the table is filled). The default escaper is thread-local in this mode; a custom escaper
+     * (see {@link #xmlEscaper(XMLEscaper)}) must be thread-safe.
+     *
+     * @param executor the executor that serializes the tables
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder parallelTables(final ExecutorService executor) {
+        this.tablesExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Allow the factory to be shared between threads, each thread building its own documents
+     * (e.g. a server that builds a document per request). The default escaper has a buffer
+     * and caches: in this mode, each thread has its own escaper.
+     * <p>
+     * The other objects shared by the documents are immutable (cell, column, row and data
+     * styles, DataStyles, MetaElement) or thread-safe (ZipEntryCache). A document itself is
+     * not thread-safe: see {@link #parallelTables(ExecutorService)}.
+     *
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder concurrentDocuments() {
+        this.concurrentDocuments = true;
+        return this;
+    }
+
+    /**
+     * Install a listener that receives metrics about the write: rows and cells per table, size
+     * of the zip entries, time spent in the flushers, escaper cache and styles. By default,
+     * there is no listener and the metrics are not computed.
+     *
+     * @param listener the listener
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder writeListener(final OdsWriteListener listener) {
+        this.writeListener = listener;
+        return this;
+    }
+
+    /**
+     * Share the entries that do not depend on the tables (mimetype, manifest, styles,
+     * settings, empty elements) between the documents of the factory: those entries are
+     * still serialized for every document, but deflated once for a given content, then copied
+     * into every zip file. This is useful to generate many documents with the same styles.
+     * The cache may be shared by several factories.
+     * <p>
+     * The JDK zip stream can't copy deflated data: the writers created by the factory, and
+     * {@link AnonymousOdsFileWriter#save(java.io.OutputStream)}, use a zip writer built with
+     * {@link com.github.jferard.fastods.util.ZipUTF8WriterBuilder#rawEntryCopy()}. A custom zip
+     * builder (e.g. in {@link AnonymousOdsFileWriter#saveAs(java.io.File,
+     * com.github.jferard.fastods.util.ZipUTF8WriterBuilder)}) must use {@code rawEntryCopy()}
+     * or {@code parallelDeflate()}: otherwise, the cache is ignored and a warning is logged.
+     * Needs Java 7+.
+     *
+     * @param zipEntryCache the cache
+     * @return this for fluent style
+     */
+    public OdsFactoryBuilder zipEntryCache(final ZipEntryCache zipEntryCache) {
+        this.zipEntryCache = zipEntryCache;
+        return this;
+    }
+
     /**
      * Use a custom meta element
      *
@@ -0,0 +1,212 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.CharsetUtil;
+import com.github.jferard.fastods.util.RawZipEntry;
+import com.github.jferard.fastods.util.RawZipFile;
+import com.github.jferard.fastods.util.ZipUTF8RawWriter;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
+import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+
+/**
+ * An appender that adds rows at the end of a table of an existing ODS file. The rows are
+ * written to the table returned by {@link #getTable()}, then the file is saved to a new file:
+ * <ul>
+ * <li>the entries of the existing file, except content.xml, are copied without
+ * recompression (see {@link ZipUTF8WriterBuilder#rawEntryCopy()});</li>
+ * <li>content.xml is streamed: the missing automatic styles are added and the new rows are
+ * inserted before the end of the table. Only this entry is compressed again.</li>
+ * </ul>
+ * The time to append is proportional to the size of the new rows, plus a scan of content.xml.
+ * <p>
+ * Limitations: the common styles (visible styles) and the font faces used by the new rows
+ * must already be in the existing file; an automatic style that has the same name and family as
+ * a style of the existing file is not written (the existing style is used); the new rows
+ * are inserted after the last row of the table, including the trailing empty rows; meta.xml is
+ * not updated.
+ *
+ * @author Julien Férard
+ */
+public class OdsFileAppender {
+    private final Logger logger;
+    private final File source;
+    private final AnonymousOdsDocument document;
+    private final Table table;
+    private final OdsWriteListener listener;
+
+    /**
+     * @param logger   the logger
+     * @param source   the existing file
+     * @param document the document that contains the new rows and the styles
+     * @param table    the table of the document that contains the new rows
+     * @param listener the listener for metrics, or null
+     */
+    OdsFileAppender(final Logger logger, final File source, final AnonymousOdsDocument document,
+                    final Table table, final OdsWriteListener listener) {
+        this.logger = logger;
+        this.source = source;
+        this.document = document;
+        this.table = table;
+        this.listener = listener;
+    }
+
+    /**
+     * @return the document that contains the new rows, to add the data styles for instance
+     */
+    public OdsDocument document() {
+        return this.document;
+    }
+
+    /**
+     * @return the table that contains the new rows. The name of the table is the name of the
+     * table of the existing file.
+     */
+    public Table getTable() {
+        return this.table;
+    }
+
+    /**
+     * Writes the existing file and the new rows to a stream.
+     * WARNING: The user shall close the stream.
+     *
+     * @param out The OutputStream that should be used.
+     * @throws IOException The file can't be saved.
+     */
+    public void save(final OutputStream out) throws IOException {
+        this.save(out, ZipUTF8WriterImpl.builder().rawEntryCopy());
+    }
+
+    /**
+     * Writes the existing file and the new rows to a stream.
+     * WARNING: The user shall close the stream.
+     *
+     * @param out     The OutputStream that should be used.
+     * @param builder a builder for the ZipOutputStream and the Writer. Use
+     *                {@link ZipUTF8WriterBuilder#rawEntryCopy()} to avoid the recompression of
+     *                the unchanged entries.
+     * @throws IOException The file can't be saved.
+     */
+    public void save(final OutputStream out, final ZipUTF8WriterBuilder builder)
+            throws IOException {
+        final ZipUTF8Writer writer = builder.build(out);
+        this.save(writer);
+        writer.finish(); // ensures the zip file is well formed
+        writer.flush();
+    }
+
+    /**
+     * Writes the existing file and the new rows to a writer.
+     * WARNING: The user shall close the writer.
+     *
+     * @param writer the ZipUTF8Writer that should be used
+     * @throws IOException If an I/O error occurs during the save or the table was not found
+     */
+    public void save(final ZipUTF8Writer writer) throws IOException {
+        ZipUTF8RawWriter curWriter = ZipUTF8RawWriterAdapter.adapt(writer);
+        if (this.listener != null) {
+            curWriter = new InstrumentedZipUTF8Writer(curWriter, this.listener);
+        }
+        final RawZipFile zipFile = RawZipFile.open(this.source);
+        try {
+            boolean contentFound = false;
+            for (final RawZipEntry entry : zipFile.getEntries()) {
+                if (entry.getName().equals("content.xml")) {
+                    this.spliceContent(zipFile, entry, curWriter);
+                    contentFound = true;
+                } else {
+                    curWriter.writeRawEntry(entry);
+                }
+            }
+            if (!contentFound) {
+                throw new IOException("No content.xml in " + this.source);
+            }
+        } finally {
+            zipFile.close();
+            this.table.discardSpilledRows();
+        }
+        this.logger.log(Level.FINE, "rows appended");
+    }
+
+    private void spliceContent(final RawZipFile zipFile, final RawZipEntry entry,
+                               final ZipUTF8Writer writer) throws IOException {
+        writer.putNextEntry(new ZipEntry("content.xml"));
+        final Reader reader = new InputStreamReader(zipFile.getInputStream(entry),
+                CharsetUtil.UTF_8);
+        try {
+            new ContentSplicer(this.document, this.table).splice(reader, writer);
+        } finally {
+            reader.close();
+        }
+        writer.closeEntry();
+    }
+
+    /**
+     * Save the existing file and the new rows to a new file.
+     *
+     * @param file the destination file, not the existing file
+     * @throws IOException If an I/O error occurs
+     */
+    public void saveAs(final File file) throws IOException {
+        this.saveAs(file, ZipUTF8WriterImpl.builder().rawEntryCopy());
+    }
+
+    /**
+     * Save the existing file and the new rows to a new file.
+     *
+     * @param file    the destination file, not the existing file
+     * @param builder a builder for the ZipOutputStream and the Writer
+     * @throws IOException if the file was not saved
+     */
+    public void saveAs(final File file, final ZipUTF8WriterBuilder builder) throws IOException {
+        if (file.getCanonicalFile().equals(this.source.getCanonicalFile())) {
+            throw new IOException("Can't overwrite the existing file: " + file);
+        }
+        try {
+            final FileOutputStream out = new FileOutputStream(file);
+            final ZipUTF8Writer writer = builder.build(out);
+            try {
+                this.save(writer);
+            } finally {
+                writer.close();
+            }
+        } catch (final FileNotFoundException e) {
+            this.logger.log(Level.SEVERE, "Can't open " + file, e);
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,266 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.RingBuffer;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The OdsFileBackgroundWriter class represents a writer that flushes the data in a background
+ * thread. The producer thread writes on the document and hands the blocks of rows off; the rows
+ * are serialized and deflated by the consumer thread. Hence, a row must not be modified once
+ * it was flushed. There is no need to write the consumer loop:
+ * <p>
+ * <pre>
+ * final NamedOdsFileWriter writer = odsFactory.createBackgroundWriter(file);
+ * final NamedOdsDocument document = writer.document();
+ * ... // fill the document
+ * writer.save();
+ * writer.close();
+ * </pre>
+ * <p>
+ * If the consumer fails, it closes the file and stops. The exception is thrown back to the
+ * producer on the next update, or by {@code save}/{@code close}.
+ *
+ * @author Julien Férard
+ */
+public class OdsFileBackgroundWriter implements NamedOdsFileWriter {
+    /**
+     * The time a producer waits for room in the buffer before checking the consumer.
+     */
+    private static final long FAILURE_CHECK_MILLIS = 100;
+
+    /**
+     * Create a new background writer and start the consumer.
+     *
+     * @param logger   the logger
+     * @param adaptee  the writer that will receive the flushers
+     * @param capacity the max number of pending flushers
+     * @param executor the executor that will run the consumer, or null to use a new thread
+     * @return the writer
+     */
+    public static OdsFileBackgroundWriter create(final Logger logger,
+                                                 final NamedOdsFileWriter adaptee,
+                                                 final int capacity, final Executor executor) {
+        final OdsFileBackgroundWriter writer = new OdsFileBackgroundWriter(logger, adaptee,
+                RingBuffer.<OdsAsyncFlusher>create(capacity, RingBuffer.WaitStrategy.BLOCKING));
+        final Runnable consumer = new Runnable() {
+            @Override
+            public void run() {
+                writer.consume();
+            }
+        };
+        if (executor == null) {
+            final Thread thread = new Thread(consumer, "fastods-writer");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            executor.execute(consumer);
+        }
+        return writer;
+    }
+
+    private final Logger logger;
+    private final NamedOdsFileWriter adaptee;
+    private final RingBuffer<OdsAsyncFlusher> flushers;
+    private final CountDownLatch done;
+    private volatile Throwable failure;
+    private volatile boolean ended;
+
+    /**
+     * @param logger   the logger
+     * @param adaptee  the writer that will receive the flushers
+     * @param flushers the buffer of flushers
+     */
+    OdsFileBackgroundWriter(final Logger logger, final NamedOdsFileWriter adaptee,
+                            final RingBuffer<OdsAsyncFlusher> flushers) {
+        this.logger = logger;
+        this.adaptee = adaptee;
+        this.flushers = flushers;
+        this.done = new CountDownLatch(1);
+    }
+
+    /**
+     * The consumer loop: flush everything until the end flusher. After a failure, the adaptee
+     * is closed and the loop stops: the producer won't wait for room in the buffer (see
+     * {@link #update(OdsAsyncFlusher)}).
+     */
+    void consume() {
+        try {
+            while (this.failure == null) {
+                this.flushers.awaitElement();
+                OdsAsyncFlusher flusher = this.flushers.poll();
+                while (flusher != null) {
+                    this.flush(flusher);
+                    if (flusher.isEnd() || this.failure != null) {
+                        return;
+                    }
+                    flusher = this.flushers.poll();
+                }
+            }
+        } catch (final InterruptedException e) {
+            this.fail(e);
+            Thread.currentThread().interrupt();
+        } finally {
+            if (this.failure != null) {
+                this.closeAdaptee();
+            }
+            this.done.countDown();
+        }
+    }
+
+    private void flush(final OdsAsyncFlusher flusher) {
+        try {
+            this.adaptee.update(flusher);
+        } catch (final IOException e) {
+            this.fail(e);
+        } catch (final RuntimeException e) {
+            this.fail(e);
+        }
+    }
+
+    private void closeAdaptee() {
+        try {
+            this.adaptee.close();
+        } catch (final IOException e) {
+            this.logger.log(Level.WARNING, "Can't close the file after a failure", e);
+        } catch (final RuntimeException e) {
+            this.logger.log(Level.WARNING, "Can't close the file after a failure", e);
+        }
+    }
+
+    private void fail(final Throwable t) {
+        this.logger.log(Level.SEVERE, "Background writer failed", t);
+        this.failure = t;
+    }
+
+    @Override
+    public NamedOdsDocument document() {
+        return this.adaptee.document();
+    }
+
+    @Override
+    public void update(final OdsAsyncFlusher flusher) throws IOException {
+        this.checkFailure();
+        if (flusher.isEnd()) {
+            this.ended = true;
+        }
+        if (!this.enqueue(flusher)) {
+            this.checkFailure();
+        }
+    }
+
+    /**
+     * @param flusher the flusher
+     * @return false if the consumer failed before the flusher was put in the buffer
+     */
+    private boolean enqueue(final OdsAsyncFlusher flusher) {
+        try {
+            while (!this.flushers.offer(flusher, FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (this.failure != null) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+    }
+
+    /**
+     * Save the document and wait for the consumer to write the file.
+     *
+     * @throws IOException if the producer or the consumer failed
+     */
+    @Override
+    public void save() throws IOException {
+        this.document().save();
+        this.join();
+    }
+
+    /**
+     * Wait for the consumer. If the document was not saved, the file is closed as is. If the
+     * consumer failed, it has already closed the file.
+     *
+     * @throws IOException if the consumer failed
+     */
+    @Override
+    public void close() throws IOException {
+        if (!this.ended && this.failure == null) {
+            this.enqueue(new CloseFlusher());
+        }
+        this.join();
+    }
+
+    private void join() throws IOException {
+        try {
+            this.done.await();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
+        this.checkFailure();
+    }
+
+    private void checkFailure() throws IOException {
+        final Throwable t = this.failure;
+        if (t == null) {
+            return;
+        }
+        if (t instanceof IOException) {
+            throw new IOException("Background writer failed", t);
+        } else if (t instanceof RuntimeException) {
+            throw (RuntimeException) t;
+        } else {
+            throw new RuntimeException(t);
+        }
+    }
+
+    /**
+     * A flusher to close the file when the document was not saved.
+     */
+    private static class CloseFlusher implements OdsAsyncFlusher {
+        @Override
+        public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer writer)
+                throws IOException {
+            writer.flush();
+            writer.close();
+        }
+
+        @Override
+        public boolean isEnd() {
+            return true;
+        }
+    }
+}
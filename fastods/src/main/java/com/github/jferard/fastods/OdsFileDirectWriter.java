@@ -55,6 +55,7 @@ public class OdsFileDirectWriter implements NamedOdsFileWriter {
     private final Logger logger;
     private final ZipUTF8Writer writer;
     private final XMLUtil xmlUtil;
+    private final OdsWriteListener listener;
 
     /**
      * Create a new ODS file.
@@ -66,10 +67,25 @@ public class OdsFileDirectWriter implements NamedOdsFileWriter {
      */
     OdsFileDirectWriter(final Logger logger, final XMLUtil xmlUtil, final NamedOdsDocument document,
                         final ZipUTF8Writer writer) {
+        this(logger, xmlUtil, document, writer, null);
+    }
+
+    /**
+     * Create a new ODS file.
+     *
+     * @param logger   the logger
+     * @param xmlUtil  an util
+     * @param document the document to write
+     * @param writer   The writer for this file
+     * @param listener the listener for metrics, or null
+     */
+    OdsFileDirectWriter(final Logger logger, final XMLUtil xmlUtil, final NamedOdsDocument document,
+                        final ZipUTF8Writer writer, final OdsWriteListener listener) {
         this.logger = logger;
         this.document = document;
         this.xmlUtil = xmlUtil;
         this.writer = writer;
+        this.listener = listener;
     }
 
     @Override
@@ -90,6 +106,16 @@ public class OdsFileDirectWriter implements NamedOdsFileWriter {
 
     @Override
     public void update(final OdsAsyncFlusher flusher) throws IOException {
+        if (this.listener == null) {
+            flusher.flushInto(this.xmlUtil, this.writer);
+            return;
+        }
+
+        final long start = System.nanoTime();
         flusher.flushInto(this.xmlUtil, this.writer);
+        this.listener.flusherFlushed(flusher, System.nanoTime() - start);
+        if (flusher.isEnd()) {
+            this.document.writeMetrics(this.listener);
+        }
     }
 }
\ No newline at end of file
@@ -24,14 +24,15 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.RingBuffer;
+
 import java.io.IOException;
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 
 /**
- * The OdsFileWriterAdapter class represents an adapter to a writer. It stores a queue of
- * flushers. Usage:
+ * The OdsFileWriterAdapter class represents an adapter to a writer. It stores a bounded ring
+ * buffer of flushers: if the consumer is too slow, the producer waits (back-pressure). Usage:
  * <ul>
  * <li>A producer thread that writes on a OdsFileWriterAdapter.document()</li>
  * <li>A consumer thread that uses the following structure to flush the data</li>
@@ -49,6 +50,16 @@ import java.util.logging.Logger;
  * @author Martin Schulz
  */
 public class OdsFileWriterAdapter implements NamedOdsFileWriter {
+    /**
+     * The default capacity of the flushers buffer.
+     */
+    public static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * The time a producer waits for room in the buffer before checking the consumer.
+     */
+    private static final long CONSUMER_CHECK_MILLIS = 100;
+
     /**
      * @param logger  the logger
      * @param adaptee the adaptee writer
@@ -56,23 +67,41 @@ public class OdsFileWriterAdapter implements NamedOdsFileWriter {
      */
     public static OdsFileWriterAdapter create(final Logger logger,
                                               final NamedOdsFileWriter adaptee) {
-        return new OdsFileWriterAdapter(logger, adaptee, new LinkedList<OdsAsyncFlusher>());
+        return OdsFileWriterAdapter.create(logger, adaptee, DEFAULT_CAPACITY,
+                RingBuffer.WaitStrategy.BLOCKING);
+    }
+
+    /**
+     * @param logger       the logger
+     * @param adaptee      the adaptee writer
+     * @param capacity     the max number of pending flushers
+     * @param waitStrategy the way the threads wait for each other
+     * @return the new adapter
+     */
+    public static OdsFileWriterAdapter create(final Logger logger,
+                                              final NamedOdsFileWriter adaptee,
+                                              final int capacity,
+                                              final RingBuffer.WaitStrategy waitStrategy) {
+        return new OdsFileWriterAdapter(logger, adaptee,
+                RingBuffer.<OdsAsyncFlusher>create(capacity, waitStrategy));
     }
 
     private final Logger logger;
     private final NamedOdsFileWriter adaptee;
-    private final Queue<OdsAsyncFlusher> flushers;
-    private boolean stopped;
+    private final RingBuffer<OdsAsyncFlusher> flushers;
+    private volatile boolean stopped;
+    private volatile boolean consumerFailed;
+    private volatile Thread consumer;
 
     /**
      * Create an new adapter
      *
      * @param logger   the logger
      * @param adaptee  the adaptee writer
-     * @param flushers the queue of flushers
+     * @param flushers the buffer of flushers
      */
     OdsFileWriterAdapter(final Logger logger, final NamedOdsFileWriter adaptee,
-                         final Queue<OdsAsyncFlusher> flushers) {
+                         final RingBuffer<OdsAsyncFlusher> flushers) {
         this.logger = logger;
         this.adaptee = adaptee;
         this.flushers = flushers;
@@ -88,62 +117,114 @@ public class OdsFileWriterAdapter implements NamedOdsFileWriter {
     }
 
     @Override
-    public synchronized void save() {
+    public void save() {
     }
 
+    /**
+     * Add a flusher to the buffer. If the buffer is full, wait for the consumer. If the
+     * consumer thread is dead, stopped or failed, the producer won't wait forever: an
+     * IllegalStateException is thrown.
+     *
+     * @param flusher the chosen flusher
+     */
     @Override
-    public synchronized void update(final OdsAsyncFlusher flusher) {
-        this.flushers.add(flusher);
+    public void update(final OdsAsyncFlusher flusher) {
+        try {
+            while (!this.flushers.offer(flusher, CONSUMER_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                this.checkConsumer();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        }
         this.logger.fine("Add new flusher: " + flusher);
-        this.notifyAll();
+    }
+
+    private void checkConsumer() {
+        final Thread consumerThread = this.consumer;
+        if (this.stopped || this.consumerFailed ||
+                (consumerThread != null && !consumerThread.isAlive())) {
+            throw new IllegalStateException("The consumer is stopped or failed");
+        }
     }
 
     /**
      * Flushes all available flushers to the adaptee writer.
-     * The thread falls asleep if we reach the end of the queue without a FinalizeFlusher.
      *
      * @throws IOException if the adaptee throws an IOException
      */
-    public synchronized void flushAdaptee() throws IOException {
+    public void flushAdaptee() throws IOException {
+        this.consumer = Thread.currentThread();
         OdsAsyncFlusher flusher = this.flushers.poll();
         this.logger.fine("Retrieve first flusher: " + flusher);
-        if (flusher == null) {
-            this.notifyAll(); // wakes up other threads: no flusher available
-            return;
-        }
-
-        while (flusher != null) {
-            this.adaptee.update(flusher);
-            if (flusher.isEnd()) {
-                this.stopped = true;
-                this.notifyAll(); // wakes up other threads: end of game
-                return;
+        boolean flushed = false;
+        try {
+            while (flusher != null) {
+                this.adaptee.update(flusher);
+                if (flusher.isEnd()) {
+                    this.stopped = true;
+                    flushed = true;
+                    return;
+                }
+                flusher = this.flushers.poll();
+                this.logger.fine("Retrieve next flusher: " + flusher);
+            }
+            flushed = true;
+        } finally {
+            if (!flushed) {
+                this.consumerFailed = true;
             }
-            flusher = this.flushers.poll();
-            this.logger.fine("Retrieve next flusher: " + flusher);
         }
-        this.notifyAll(); // wakes up other threads: no flusher left
     }
 
     /**
      * @return true if the adapter is stopped
      */
-    public synchronized boolean isNotStopped() {
+    public boolean isNotStopped() {
         return !this.stopped;
     }
 
     /**
      * wait for the data
      */
-    public synchronized void waitForData() {
-        while (this.flushers.isEmpty() && this.isNotStopped()) {
-            try {
-                this.wait();
-            } catch (final InterruptedException e) {
-                Thread.currentThread().interrupt();
-                throw new RuntimeException(e);
-            }
+    public void waitForData() {
+        this.consumer = Thread.currentThread();
+        if (this.stopped) {
+            return;
+        }
+        try {
+            this.flushers.awaitElement();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
         }
     }
 
+    /**
+     * @return the current number of pending flushers
+     */
+    public int getQueueDepth() {
+        return this.flushers.size();
+    }
+
+    /**
+     * @return the max number of pending flushers
+     */
+    public int getMaxQueueDepth() {
+        return this.flushers.getMaxDepth();
+    }
+
+    /**
+     * @return the number of times the producer had to wait for the consumer
+     */
+    public long getProducerStallCount() {
+        return this.flushers.getProducerStallCount();
+    }
+
+    /**
+     * @return the total time the producer waited for the consumer, in nanoseconds
+     */
+    public long getProducerStallNanos() {
+        return this.flushers.getProducerStallNanos();
+    }
 }
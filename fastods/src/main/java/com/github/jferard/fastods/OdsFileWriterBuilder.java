@@ -27,7 +27,7 @@ package com.github.jferard.fastods;
 import com.github.jferard.fastods.util.FileOpen;
 import com.github.jferard.fastods.util.FileOpenResult;
 import com.github.jferard.fastods.util.XMLUtil;
-import com.github.jferard.fastods.util.ZipUTF8Writer;
+import com.github.jferard.fastods.util.ZipUTF8RawWriter;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
 import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
 
@@ -45,6 +45,8 @@ public class OdsFileWriterBuilder {
     private final NamedOdsDocument document;
     private OutputStream out;
     private ZipUTF8WriterBuilder builder;
+    private OdsWriteListener listener;
+    private ZipEntryCache zipEntryCache;
 
     /**
      * Create a new ODS file.
@@ -63,8 +65,23 @@ public class OdsFileWriterBuilder {
      * @throws FileNotFoundException if there is no stream to write
      */
     public NamedOdsFileWriter build() {
-        final ZipUTF8Writer writer = this.builder.build(this.out);
-        return new OdsFileDirectWriter(this.logger, XMLUtil.create(), this.document, writer);
+        ZipUTF8RawWriter writer = ZipUTF8RawWriterAdapter.adapt(this.builder.build(this.out));
+        if (this.listener != null) {
+            writer = new InstrumentedZipUTF8Writer(writer, this.listener);
+        }
+        if (this.zipEntryCache != null) {
+            if (!writer.copiesDeflatedData()) {
+                this.logger.warning("The zip entry cache is ignored: the zip writer can't " +
+                        "copy deflated data (use parallelDeflate() or rawEntryCopy())");
+            }
+            writer = new CachingZipUTF8Writer(writer, this.zipEntryCache);
+        }
+        if (this.listener == null) {
+            return new OdsFileDirectWriter(this.logger, XMLUtil.create(), this.document, writer);
+        } else {
+            return new OdsFileDirectWriter(this.logger, XMLUtil.create(), this.document, writer,
+                    this.listener);
+        }
     }
 
     /**
@@ -119,4 +136,22 @@ public class OdsFileWriterBuilder {
         this.builder = builder;
         return this;
     }
+
+    /**
+     * @param listener the listener for metrics, or null
+     * @return this for fluent style
+     */
+    public OdsFileWriterBuilder writeListener(final OdsWriteListener listener) {
+        this.listener = listener;
+        return this;
+    }
+
+    /**
+     * @param zipEntryCache the cache of the static entries, or null
+     * @return this for fluent style
+     */
+    public OdsFileWriterBuilder zipEntryCache(final ZipEntryCache zipEntryCache) {
+        this.zipEntryCache = zipEntryCache;
+        return this;
+    }
 }
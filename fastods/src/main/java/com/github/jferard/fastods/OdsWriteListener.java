@@ -0,0 +1,83 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import java.util.Map;
+
+/**
+ * A listener that receives metrics about the write of a document: rows and cells per table,
+ * size of the zip entries, time spent in the flushers, escaper cache and styles. Install it with
+ * {@code OdsFactory.builder(logger, locale).writeListener(listener)}. If no listener is
+ * installed, the metrics are not computed.
+ * <p>
+ * The methods are called by the thread that writes the file (the consumer thread for the
+ * adapter and the background writer).
+ *
+ * @author Julien Férard
+ */
+public interface OdsWriteListener {
+    /**
+     * Called once a zip entry is closed.
+     *
+     * @param entryName      the name of the entry, e.g. "content.xml"
+     * @param size           the uncompressed size in bytes, -1 if unknown
+     * @param compressedSize the compressed size in bytes, -1 if unknown. The compression
+     *                       ratio is {@code compressedSize / size}.
+     */
+    void entryWritten(String entryName, long size, long compressedSize);
+
+    /**
+     * Called after a flusher was flushed (named writers only).
+     *
+     * @param flusher the flusher
+     * @param nanos   the time spent in flushInto, in nanoseconds
+     */
+    void flusherFlushed(OdsAsyncFlusher flusher, long nanos);
+
+    /**
+     * Called once per table, when the document is written.
+     *
+     * @param tableName the name of the table
+     * @param rowCount  the number of rows
+     * @param cellCount the number of cells
+     */
+    void tableWritten(String tableName, int rowCount, long cellCount);
+
+    /**
+     * Called once, when the document is written, if the escaper has a cache.
+     *
+     * @param hitCount  the number of cache hits
+     * @param missCount the number of cache misses
+     */
+    void escaperCacheUsed(long hitCount, long missCount);
+
+    /**
+     * Called once, when the document is written.
+     *
+     * @param countByKind the number of styles by kind (see
+     *                    {@code StylesContainerImpl.getStyleCountByKind})
+     */
+    void stylesCounted(Map<String, Integer> countByKind);
+}
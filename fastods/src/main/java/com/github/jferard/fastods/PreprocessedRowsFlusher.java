@@ -53,10 +53,31 @@ class PreprocessedRowsFlusher implements OdsAsyncFlusher {
     public static PreprocessedRowsFlusher create(final XMLUtil xmlUtil,
                                                  final List<TableRowImpl> tableRows)
             throws IOException {
+        return PreprocessedRowsFlusher.create(xmlUtil, tableRows, false);
+    }
+
+    /**
+     * Create an new rows flusher
+     * Warning, consume the rows by removing the refs.
+     *
+     * @param xmlUtil           an util
+     * @param tableRows         a view on the rows
+     * @param runLengthEncoding if true, identical consecutive rows and cells are written once
+     * @return the flusher
+     * @throws IOException if an I/O error occurs
+     */
+    public static PreprocessedRowsFlusher create(final XMLUtil xmlUtil,
+                                                 final List<TableRowImpl> tableRows,
+                                                 final boolean runLengthEncoding)
+            throws IOException {
         // create a char sequence
         final StringBuilder sb = new StringBuilder(STRING_BUILDER_SIZE);
-        for (final TableRowImpl row : tableRows) {
-            TableRowImpl.appendXMLToTable(row, xmlUtil, sb);
+        if (runLengthEncoding) {
+            RepeatedRowsAppender.appendRows(tableRows, xmlUtil, sb);
+        } else {
+            for (final TableRowImpl row : tableRows) {
+                TableRowImpl.appendXMLToTable(row, xmlUtil, sb);
+            }
         }
         // free rows
         Collections.fill(tableRows, null);
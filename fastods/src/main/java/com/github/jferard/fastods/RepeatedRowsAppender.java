@@ -0,0 +1,109 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.XMLUtil;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * An appender that writes identical consecutive rows once, with a table:number-rows-repeated
+ * attribute (run-length encoding). The rows are compared by hash first, then cell by cell.
+ * <p>
+ * Identical adjacent cells of a row are also collapsed.
+ *
+ * @author Julien Férard
+ */
+class RepeatedRowsAppender {
+    /**
+     * Append the rows, with run-length encoding.
+     *
+     * @param rows       the rows. A null row is written as in non compact mode.
+     * @param util       an util
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public static void appendRows(final List<TableRowImpl> rows, final XMLUtil util,
+                                  final Appendable appendable) throws IOException {
+        final RepeatedRowsAppender rowsAppender = new RepeatedRowsAppender(util, appendable);
+        for (final TableRowImpl row : rows) {
+            if (row == null) {
+                rowsAppender.flush();
+                TableRowImpl.appendXMLToTable(null, util, appendable);
+            } else {
+                rowsAppender.append(row);
+            }
+        }
+        rowsAppender.flush();
+    }
+
+    private final XMLUtil util;
+    private final Appendable appendable;
+    private TableRowImpl prevRow;
+    private int prevHash;
+    private int rowsRepeated;
+
+    /**
+     * @param util       an util
+     * @param appendable the destination
+     */
+    RepeatedRowsAppender(final XMLUtil util, final Appendable appendable) {
+        this.util = util;
+        this.appendable = appendable;
+    }
+
+    /**
+     * Append a row, or increment the counter if the row is identical to the previous one.
+     *
+     * @param row the row, not null
+     * @throws IOException if an I/O error occurs
+     */
+    public void append(final TableRowImpl row) throws IOException {
+        final int hash = row.contentHash();
+        if (this.prevRow != null && hash == this.prevHash && row.hasSameContent(this.prevRow)) {
+            this.rowsRepeated++;
+            return;
+        }
+        this.flush();
+        this.prevRow = row;
+        this.prevHash = hash;
+        this.rowsRepeated = 1;
+    }
+
+    /**
+     * Write the pending rows.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    public void flush() throws IOException {
+        if (this.prevRow == null) {
+            return;
+        }
+        this.prevRow.appendCompactXMLToTable(this.util, this.appendable, this.rowsRepeated);
+        this.prevRow = null;
+        this.rowsRepeated = 0;
+    }
+}
@@ -90,6 +90,20 @@ public class RowCellWalkerImpl implements RowCellWalker {
         this.row.getOrCreateCell(this.c).setDateValue(value);
     }
 
+    /**
+     * Set the date value for a cell with TableCell.STYLE_DATE.
+     *
+     * @param epochMillis the number of milliseconds since 1970-01-01T00:00:00Z
+     */
+    public void setDateValue(final long epochMillis) {
+        final TableCell cell = this.row.getOrCreateCell(this.c);
+        if (cell instanceof TableCellImpl) {
+            ((TableCellImpl) cell).setDateValue(epochMillis);
+        } else {
+            cell.setDateValue(new Date(epochMillis));
+        }
+    }
+
     @Override
     public void setFloatValue(final Number value) {
         this.row.getOrCreateCell(this.c).setFloatValue(value);
@@ -248,6 +262,20 @@ public class RowCellWalkerImpl implements RowCellWalker {
         this.row.getOrCreateCell(this.c).setFloatValue(value);
     }
 
+    /**
+     * Set the float value for a cell with TableCell.Type.FLOAT.
+     *
+     * @param value a double with the value to be used
+     */
+    public void setFloatValue(final double value) {
+        final TableCell cell = this.row.getOrCreateCell(this.c);
+        if (cell instanceof TableCellImpl) {
+            ((TableCellImpl) cell).setFloatValue(value);
+        } else {
+            cell.setFloatValue(Double.valueOf(value));
+        }
+    }
+
     @Override
     public void setPercentageValue(final float value) {
         this.row.getOrCreateCell(this.c).setPercentageValue(value);
@@ -0,0 +1,183 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.CharsetUtil;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A compressed temporary file that stores the XML of the rows of a table of an anonymous
+ * document. The rows are written by blocks: every block is a gzip member appended to the file,
+ * hence no file is kept open between two blocks. At save time, the XML is streamed back to
+ * content.xml, and the file is deleted, even if the save fails.
+ *
+ * @author Julien Férard
+ */
+class RowSpill {
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * @param directory the directory of the temporary file, null for the default temporary
+     *                  directory
+     * @param blockSize the number of rows of a block
+     * @return the spill
+     * @throws IOException if the temporary file can't be created
+     */
+    public static RowSpill create(final File directory, final int blockSize) throws IOException {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be positive: " + blockSize);
+        }
+        final File file = File.createTempFile("fastods-rows", ".xml.gz", directory);
+        file.deleteOnExit(); // if the document is never saved nor discarded
+        return new RowSpill(file, blockSize);
+    }
+
+    private final File file;
+    private final int blockSize;
+    private int endRowIndex;
+    private int pendingBlankRowCount;
+    private int blockCount;
+    private boolean deleted;
+
+    /**
+     * @param file      the temporary file
+     * @param blockSize the number of rows of a block
+     */
+    RowSpill(final File file, final int blockSize) {
+        this.file = file;
+        this.blockSize = blockSize;
+        this.endRowIndex = 0;
+        this.pendingBlankRowCount = 0;
+        this.blockCount = 0;
+        this.deleted = false;
+    }
+
+    /**
+     * @return a writer to append a new block. The caller shall close the writer and then call
+     * {@link #endBlock(int, int)}.
+     * @throws IOException if the file can't be opened
+     */
+    public Writer openBlock() throws IOException {
+        this.checkNotDeleted();
+        return new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(new BufferedOutputStream(
+                        new FileOutputStream(this.file, true), BUFFER_SIZE)), CharsetUtil.UTF_8),
+                BUFFER_SIZE);
+    }
+
+    /**
+     * @param endRowIndex          the index of the first row that was not written
+     * @param pendingBlankRowCount the number of blank rows that were not written yet
+     */
+    public void endBlock(final int endRowIndex, final int pendingBlankRowCount) {
+        this.endRowIndex = endRowIndex;
+        this.pendingBlankRowCount = pendingBlankRowCount;
+        this.blockCount++;
+    }
+
+    /**
+     * Stream the XML of the rows to an appendable. The file is not modified.
+     *
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs or if the file was deleted
+     */
+    public void appendTo(final Appendable appendable) throws IOException {
+        this.checkNotDeleted();
+        if (this.blockCount == 0) {
+            return;
+        }
+        final Reader reader = new InputStreamReader(new GZIPInputStream(
+                new BufferedInputStream(new FileInputStream(this.file), BUFFER_SIZE)),
+                CharsetUtil.UTF_8);
+        try {
+            final char[] buffer = new char[BUFFER_SIZE];
+            int count = reader.read(buffer);
+            while (count != -1) {
+                appendable.append(CharBuffer.wrap(buffer, 0, count));
+                count = reader.read(buffer);
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    /**
+     * Delete the temporary file. The spill can't be used anymore.
+     *
+     * @return true if the file was deleted
+     */
+    public boolean delete() {
+        this.deleted = true;
+        return this.file.delete() || !this.file.exists();
+    }
+
+    private void checkNotDeleted() throws IOException {
+        if (this.deleted) {
+            throw new IOException("The spilled rows were already written and deleted");
+        }
+    }
+
+    /**
+     * @return the number of rows of a block
+     */
+    public int getBlockSize() {
+        return this.blockSize;
+    }
+
+    /**
+     * @return the index of the first row that was not written
+     */
+    public int getEndRowIndex() {
+        return this.endRowIndex;
+    }
+
+    /**
+     * @return the number of blank rows that were not written yet, after the last block
+     */
+    public int getPendingBlankRowCount() {
+        return this.pendingBlankRowCount;
+    }
+
+    /**
+     * @return the temporary file
+     */
+    public File getFile() {
+        return this.file;
+    }
+}
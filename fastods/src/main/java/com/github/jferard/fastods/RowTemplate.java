@@ -0,0 +1,164 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.attribute.CellType;
+
+import java.io.IOException;
+
+/**
+ * A row layout that is rendered once, from a prototype row, and stamped with the values of a
+ * {@link ColumnBlock}. The XML between the values (row style, cell styles, formulas, tooltips,
+ * spans, invariant cells, ...) is pre-rendered: the data styles of the cells are resolved once,
+ * when the prototype is filled.
+ * <pre>
+ * final TableRowImpl prototype = table.getRow(0);
+ * prototype.getOrCreateCell(0).setStringValue("Total");
+ * prototype.getOrCreateCell(1).setFloatValue(0.0); // variable, with a style
+ * final RowTemplate template = RowTemplate.create(prototype, 1);
+ * table.appendColumnBlock(template, ColumnBlock.builder().floatColumn(amounts).build());
+ * </pre>
+ * The prototype is a regular row: if it belongs to a table, it is written as any other row.
+ *
+ * @author Julien Férard
+ */
+public class RowTemplate {
+    /**
+     * @param prototype       the prototype row
+     * @param variableColumns the indices of the cells whose value varies. Those cells must have
+     *                        a value, that gives the type of the cells.
+     * @return the template
+     * @throws IOException              If an I/O error occurs
+     * @throws IllegalArgumentException if the indices are not in ascending order or if a
+     *                                  variable cell has no value
+     */
+    public static RowTemplate create(final TableRowImpl prototype, final int... variableColumns)
+            throws IOException {
+        final CellType[] types = new CellType[variableColumns.length];
+        for (int v = 0; v < variableColumns.length; v++) {
+            final int c = variableColumns[v];
+            if (v > 0 && c <= variableColumns[v - 1]) {
+                throw new IllegalArgumentException(
+                        "Variable columns must be in ascending order: " + c);
+            }
+            final TableCell cell = prototype.getOrCreateCell(c);
+            if (!(cell instanceof TableCellImpl) || cell.isCovered()) {
+                throw new IllegalArgumentException("Cell " + c + " can't be variable");
+            }
+            final CellType type = ((TableCellImpl) cell).getValueType();
+            if (type == null || type == CellType.VOID) {
+                throw new IllegalArgumentException("Variable cell " + c + " has no value");
+            }
+            types[v] = type;
+        }
+        final int[] cellStarts = new int[variableColumns.length];
+        final int[] afterValueLengths = new int[variableColumns.length];
+        final String[] fragments =
+                prototype.getTemplateFragments(variableColumns, cellStarts, afterValueLengths);
+        return new RowTemplate(fragments, cellStarts, afterValueLengths, types,
+                prototype.getColumnCount());
+    }
+
+    private final String[] fragments;
+    private final int[] cellStarts;
+    private final int[] afterValueLengths;
+    private final CellType[] types;
+    private final int cellCount;
+
+    /**
+     * @param fragments         the n+1 pre-rendered fragments around the n values
+     * @param cellStarts        the index, in the fragment v, of the open tag of the variable
+     *                          cell v
+     * @param afterValueLengths the length, at the beginning of the fragment v+1, of the end of
+     *                          the variable cell v
+     * @param types             the types of the variable cells
+     * @param cellCount         the number of cells of a row
+     */
+    RowTemplate(final String[] fragments, final int[] cellStarts, final int[] afterValueLengths,
+                final CellType[] types, final int cellCount) {
+        this.fragments = fragments;
+        this.cellStarts = cellStarts;
+        this.afterValueLengths = afterValueLengths;
+        this.types = types;
+        this.cellCount = cellCount;
+    }
+
+    /**
+     * @return the number of variable cells
+     */
+    public int getVariableCount() {
+        return this.types.length;
+    }
+
+    /**
+     * @return the n+1 pre-rendered fragments around the n values
+     */
+    String[] getFragments() {
+        return this.fragments;
+    }
+
+    /**
+     * A null value replaces the variable cell by a blank cell: the fragment v is written until
+     * this index, and the fragment v+1 from {@link #getAfterValueLengths()}[v].
+     *
+     * @return the index, in the fragment v, of the open tag of the variable cell v
+     */
+    int[] getCellStarts() {
+        return this.cellStarts;
+    }
+
+    /**
+     * @return the length, at the beginning of the fragment v+1, of the end of the variable cell v
+     */
+    int[] getAfterValueLengths() {
+        return this.afterValueLengths;
+    }
+
+    /**
+     * @return the number of cells of a row
+     */
+    int getCellCount() {
+        return this.cellCount;
+    }
+
+    /**
+     * @param block the values
+     * @throws IllegalArgumentException if the columns of the block don't match the variable cells
+     */
+    void checkBlock(final ColumnBlock block) {
+        if (block.getColumnCount() != this.types.length) {
+            throw new IllegalArgumentException(
+                    "Expected " + this.types.length + " columns, got " + block.getColumnCount());
+        }
+        for (int v = 0; v < this.types.length; v++) {
+            final CellType blockType = block.getColumns().get(v).getKind().getType();
+            if (!blockType.getValueAttribute().equals(this.types[v].getValueAttribute())) {
+                throw new IllegalArgumentException(
+                        "Column " + v + " has type " + blockType + ", expected " +
+                                this.types[v]);
+            }
+        }
+    }
+}
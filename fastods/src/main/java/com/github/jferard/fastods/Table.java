@@ -38,6 +38,7 @@ import com.github.jferard.fastods.util.NamedObject;
 import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
 
+import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 
@@ -149,6 +150,16 @@ public class Table implements NamedObject, FrameContent {
         this.builder.asyncFlushEndTable(this.appender);
     }
 
+    /**
+     * Async flush the rows that were added since the last flush. Use this method to hand off
+     * a batch of complete rows to the writer; those rows can't be modified afterwards.
+     *
+     * @throws IOException if an error occurs
+     */
+    public void asyncFlushAvailableRows() throws IOException {
+        this.builder.asyncFlushAvailableRows(this.appender);
+    }
+
     /**
      * Open the table, flush all rows from start, but do not freeze the table
      *
@@ -161,6 +172,18 @@ public class Table implements NamedObject, FrameContent {
         this.appender.appendAllAvailableRows(util, appendable);
     }
 
+    /**
+     * Write the rows of this table, without the table element: the rows are added to a table of
+     * an existing document.
+     *
+     * @param util       a XMLUtil instance for writing XML
+     * @param appendable where to write
+     * @throws IOException if an I/O error occurs
+     */
+    void appendRowsOnly(final XMLUtil util, final Appendable appendable) throws IOException {
+        this.appender.appendRowsOnly(util, appendable);
+    }
+
     /**
      * Flush all rows from a given position, and do freeze the table
      *
@@ -201,6 +224,13 @@ public class Table implements NamedObject, FrameContent {
         return this.builder.getRowCount();
     }
 
+    /**
+     * @return the number of cells of the table, including the flushed cells
+     */
+    public long getCellCount() {
+        return this.builder.getCellCount();
+    }
+
     /**
      * Get the name of this table.
      *
@@ -232,6 +262,39 @@ public class Table implements NamedObject, FrameContent {
         return this.builder.getStyleName();
     }
 
+    /**
+     * Append a block of rows, stored column by column, after the last row. The rows are written
+     * straight from the arrays of the block: no row or cell object is created. The rows of the
+     * block can't be modified, and identical rows are not collapsed (see setRunLengthEncoding).
+     * <pre>
+     * table.appendColumnBlock(ColumnBlock.builder().stringColumn(names)
+     *         .floatColumn(amounts, amountStyle).dateColumn(epochMillis).build());
+     * </pre>
+     *
+     * @param block the block
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendColumnBlock(final ColumnBlock block) throws IOException {
+        this.builder.appendColumnBlock(this, this.appender, block);
+    }
+
+    /**
+     * Append the rows of a column block after the last row, stamped on a row template: the
+     * n-th column of the block gives the values of the n-th variable cell of the template. The
+     * styles of the columns of the block are ignored. As in a block without template, a null
+     * string gives an empty cell.
+     *
+     * @param template the template
+     * @param block    the variable values
+     * @throws IOException              if an I/O error occurs
+     * @throws IllegalArgumentException if the columns of the block don't match the variable
+     *                                  cells of the template
+     */
+    public void appendColumnBlock(final RowTemplate template, final ColumnBlock block)
+            throws IOException {
+        this.builder.appendColumnBlock(this, this.appender, template, block);
+    }
+
     /**
      * @return the next row
      * @throws IOException if an error occurs
@@ -314,6 +377,49 @@ public class Table implements NamedObject, FrameContent {
         this.builder.setAttribute(attribute, value);
     }
 
+    /**
+     * Write identical consecutive rows and identical adjacent cells once, with a
+     * table:number-rows-repeated/table:number-columns-repeated attribute. This reduces the size
+     * of content.xml and the deflate time when a table has long runs of identical rows. Cells
+     * with a tooltip, a formula, a merge or a currency are never collapsed.
+     * <p>
+     * In async mode, the rows are compared inside a flushed block of rows.
+     *
+     * @param runLengthEncoding true to enable the run-length encoding. Default is false.
+     */
+    public void setRunLengthEncoding(final boolean runLengthEncoding) {
+        this.builder.setRunLengthEncoding(runLengthEncoding);
+    }
+
+    /**
+     * For a table of an anonymous document: write the rows to a compressed temporary file, by
+     * blocks of blockSize rows, as the table grows. The heap used by the table is then bounded,
+     * and the rows are streamed back to content.xml when the document is saved. The temporary
+     * file is then deleted: the document can be saved only once.
+     * <p>
+     * A block is written when a row is created blockSize rows or more after the first row of
+     * the block: all the rows before the new row are written. The rows of a written block can't
+     * be accessed anymore: once a row is created, the user shall not modify the previous rows.
+     *
+     * @param directory the directory of the temporary file, null for the default temporary
+     *                  directory
+     * @param blockSize the number of rows of a block
+     * @throws IOException if the temporary file can't be created, if the document is not
+     *                     anonymous or if some rows were already spilled
+     */
+    public void spillRowsToDisk(final File directory, final int blockSize) throws IOException {
+        this.builder.spillRowsToDisk(directory, blockSize);
+    }
+
+    /**
+     * Delete the temporary file of the spilled rows, if any. The file is deleted when the
+     * document is saved: call this method if the document won't be saved. The spilled rows
+     * can't be written anymore.
+     */
+    public void discardSpilledRows() {
+        this.builder.discardRowSpill();
+    }
+
     /**
      * Set a config item
      *
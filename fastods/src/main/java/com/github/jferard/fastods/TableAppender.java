@@ -28,6 +28,7 @@ import com.github.jferard.fastods.util.FastFullList;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -148,6 +149,19 @@ class TableAppender {
         this.appendRows(util, appendable, 0);
     }
 
+    /**
+     * Append the rows, without the preamble and the postamble: the rows are added to a table
+     * of an existing document.
+     *
+     * @param util       a XMLUtil instance for writing XML
+     * @param appendable where to write
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendRowsOnly(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        this.appendRows(util, appendable);
+    }
+
     /**
      * Flush all rows from a given position, and do freeze the table
      *
@@ -213,7 +227,39 @@ class TableAppender {
     }
 
     private void appendRows(final XMLUtil util, final Appendable appendable) throws IOException {
-        this.appendRows(util, appendable, 0);
+        final RowSpill rowSpill = this.builder.getRowSpill();
+        if (rowSpill == null) {
+            this.appendRows(util, appendable, 0);
+        } else {
+            try {
+                rowSpill.appendTo(appendable);
+            } finally {
+                rowSpill.delete();
+            }
+            this.nullFieldCounter = rowSpill.getPendingBlankRowCount();
+            this.appendRows(util, appendable, rowSpill.getEndRowIndex(),
+                    this.builder.getTableRowsUsedSize());
+        }
+    }
+
+    /**
+     * Write the rows from the end of the spill to a given index into a new block of the spill.
+     *
+     * @param util       an util
+     * @param rowSpill   the spill
+     * @param toRowIndex the index of the first row that is not written
+     * @throws IOException if an I/O error occurs
+     */
+    public void spillRows(final XMLUtil util, final RowSpill rowSpill, final int toRowIndex)
+            throws IOException {
+        final Writer writer = rowSpill.openBlock();
+        try {
+            this.nullFieldCounter = rowSpill.getPendingBlankRowCount();
+            this.appendRows(util, writer, rowSpill.getEndRowIndex(), toRowIndex);
+        } finally {
+            writer.close();
+        }
+        rowSpill.endBlock(toRowIndex, this.nullFieldCounter);
     }
 
     private void appendRows(final XMLUtil util, final Appendable appendable,
@@ -221,12 +267,26 @@ class TableAppender {
         if (firstRowIndex == 0) {
             this.nullFieldCounter = 0;
         }
+        this.appendRows(util, appendable, firstRowIndex, this.builder.getTableRowsUsedSize());
+    }
 
-        final int size = this.builder.getTableRowsUsedSize();
+    private void appendRows(final XMLUtil util, final Appendable appendable,
+                            final int firstRowIndex, final int size) throws IOException {
+        if (this.builder.isRunLengthEncoding()) {
+            this.appendCompactRows(util, appendable, firstRowIndex, size);
+            return;
+        }
         for (int r = firstRowIndex; r < size; r++) {
             final TableRowImpl tr = this.builder.getTableRow(r);
             if (tr == null) {
-                this.nullFieldCounter++;
+                final ColumnBlockAppender blockAppender = this.builder.getColumnBlock(r);
+                if (blockAppender == null) {
+                    this.nullFieldCounter++;
+                } else {
+                    this.appendRepeatedRows(util, appendable);
+                    blockAppender.appendXMLToTable(util, appendable);
+                    r += blockAppender.getRowCount() - 1;
+                }
             } else {
                 this.appendRepeatedRows(util, appendable);
                 tr.appendXMLToTable(util, appendable);
@@ -235,6 +295,31 @@ class TableAppender {
         }
     }
 
+    private void appendCompactRows(final XMLUtil util, final Appendable appendable,
+                                   final int firstRowIndex, final int size)
+            throws IOException {
+        final RepeatedRowsAppender rowsAppender = new RepeatedRowsAppender(util, appendable);
+        for (int r = firstRowIndex; r < size; r++) {
+            final TableRowImpl tr = this.builder.getTableRow(r);
+            if (tr == null) {
+                rowsAppender.flush();
+                final ColumnBlockAppender blockAppender = this.builder.getColumnBlock(r);
+                if (blockAppender == null) {
+                    this.nullFieldCounter++;
+                } else {
+                    this.appendRepeatedRows(util, appendable);
+                    blockAppender.appendXMLToTable(util, appendable);
+                    r += blockAppender.getRowCount() - 1;
+                }
+            } else {
+                this.appendRepeatedRows(util, appendable);
+                rowsAppender.append(tr);
+                this.nullFieldCounter = 0;
+            }
+        }
+        rowsAppender.flush();
+    }
+
     private void appendRepeatedRows(final XMLUtil util, final Appendable appendable)
             throws IOException {
         if (this.nullFieldCounter <= 0) {
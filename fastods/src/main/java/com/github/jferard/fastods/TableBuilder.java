@@ -24,7 +24,9 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.datastyle.DataStyle;
 import com.github.jferard.fastods.datastyle.DataStyles;
+import com.github.jferard.fastods.odselement.CachedStylesContainer;
 import com.github.jferard.fastods.odselement.OdsElements;
 import com.github.jferard.fastods.odselement.StylesContainer;
 import com.github.jferard.fastods.odselement.config.ConfigElement;
@@ -40,12 +42,14 @@ import com.github.jferard.fastods.util.FastFullList;
 import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
 
+import java.io.File;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 
 /**
  * OpenDocument 9.1.2 table:table
@@ -116,8 +120,9 @@ class TableBuilder {
         configEntry.add(ConfigItem.create(ConfigElement.POSITION_TOP, "0"));
         configEntry.add(ConfigItem.create(ConfigElement.POSITION_BOTTOM, "0"));
 
-        return new TableBuilder(positionUtil, writeUtil, xmlUtil, stylesContainer, format,
-                libreOfficeMode, name, rowCapacity, columnCapacity, configEntry, BUFFER_SIZE);
+        return new TableBuilder(positionUtil, writeUtil, xmlUtil,
+                new CachedStylesContainer(stylesContainer), format, libreOfficeMode, name,
+                rowCapacity, columnCapacity, configEntry, BUFFER_SIZE);
     }
 
     private final int bufferSize;
@@ -131,11 +136,16 @@ class TableBuilder {
     private final WriteUtil writeUtil;
     private final XMLUtil xmlUtil;
     private final boolean libreOfficeMode;
+    private boolean runLengthEncoding;
     private boolean tablePreambleWritten;
     private NamedOdsFileWriter observer;
+    private RowSpill rowSpill;
     private int curRowIndex;
     private int lastFlushedRowIndex;
     private int lastRowIndex;
+    private long flushedCellCount;
+    private int columnBlocksEnd;
+    private TreeMap<Integer, ColumnBlockAppender> columnBlockByFirstRowIndex;
     private String name;
     private TableStyle style;
     private final List<Shape> shapes;
@@ -215,8 +225,46 @@ class TableBuilder {
         if (!this.tablePreambleWritten) {
             this.observer.update(new BeginTableFlusher(appender));
         }
-        this.observer.update(new EndTableFlusher(appender,
-                this.tableRows.subList(this.lastFlushedRowIndex, this.tableRows.usedSize())));
+        final int rowCount = this.tableRows.usedSize();
+        final List<TableRowImpl> remainingRows =
+                this.tableRows.subList(this.lastFlushedRowIndex, rowCount);
+        this.flushedCellCount += TableBuilder.countCells(remainingRows);
+        this.lastFlushedRowIndex = rowCount; // the flusher will release the rows
+        this.observer.update(new EndTableFlusher(appender, remainingRows, this.runLengthEncoding));
+    }
+
+    /**
+     * Flush the rows that were added since the last flush, without waiting for the buffer to
+     * be full. The rows are released by the builder and serialized by the consumer.
+     *
+     * @param appender the destination
+     * @throws IOException if an error occurs
+     */
+    public void asyncFlushAvailableRows(final TableAppender appender) throws IOException {
+        if (!this.tablePreambleWritten) {
+            this.asyncFlushBeginTable(appender);
+        }
+        final int rowCount = this.tableRows.usedSize();
+        if (rowCount <= this.lastFlushedRowIndex) {
+            return;
+        }
+        this.asyncFlushRowsUntil(rowCount);
+    }
+
+    /**
+     * Hand the rows between the last flushed row and an index off to the observer, and release
+     * them. The rows are serialized by the consumer.
+     *
+     * @param toIndex the index of the first row to keep
+     * @throws IOException if an error occurs
+     */
+    private void asyncFlushRowsUntil(final int toIndex) throws IOException {
+        final List<TableRowImpl> flushedRows = new ArrayList<TableRowImpl>(
+                this.tableRows.subList(this.lastFlushedRowIndex, toIndex));
+        this.flushedCellCount += TableBuilder.countCells(flushedRows);
+        this.tableRows.releaseUntil(toIndex);
+        this.lastFlushedRowIndex = toIndex;
+        this.observer.update(new DeferredRowsFlusher(flushedRows, this.runLengthEncoding));
     }
 
     /**
@@ -237,7 +285,25 @@ class TableBuilder {
      * @return the number of rows
      */
     public int getRowCount() {
-        return this.tableRows.usedSize();
+        return Math.max(this.tableRows.usedSize(), this.columnBlocksEnd);
+    }
+
+    /**
+     * @return the number of cells, including the cells of the rows that were already flushed
+     */
+    public long getCellCount() {
+        return this.flushedCellCount + TableBuilder.countCells(
+                this.tableRows.subList(this.lastFlushedRowIndex, this.tableRows.usedSize()));
+    }
+
+    private static long countCells(final List<TableRowImpl> rows) {
+        long count = 0;
+        for (final TableRowImpl row : rows) {
+            if (row != null) {
+                count += row.getColumnCount();
+            }
+        }
+        return count;
     }
 
     /**
@@ -248,7 +314,7 @@ class TableBuilder {
      * @param rowIndex the row index
      * @return the table row
      * @throws IllegalArgumentException if the index is invalid
-     * @throws IOException              if an I/O error occurs
+     * @throws IOException              if an I/O error occurs or if the row was already flushed
      */
     public TableRowImpl getRow(final Table table, final TableAppender appender, final int rowIndex)
             throws IOException {
@@ -276,6 +342,14 @@ class TableBuilder {
     private TableRowImpl getRowSecure(final Table table, final TableAppender appender,
                                       final int rowIndex, final boolean updateRowIndex)
             throws IOException {
+        if (rowIndex < this.lastFlushedRowIndex) {
+            throw new IOException(
+                    "Row " + rowIndex + " was already flushed (first available row: " +
+                            this.lastFlushedRowIndex + ")");
+        }
+        if (rowIndex < this.columnBlocksEnd && this.getColumnBlockContaining(rowIndex) != null) {
+            throw new IOException("Row " + rowIndex + " belongs to a column block");
+        }
         TableRowImpl tr = this.tableRows.get(rowIndex);
         if (tr == null) {
             tr = new TableRowImpl(this.writeUtil, this.xmlUtil, this.stylesContainer, this.format,
@@ -287,6 +361,8 @@ class TableBuilder {
 
             if (this.observer != null) {
                 this.asyncTryToFlush(appender, rowIndex);
+            } else if (this.rowSpill != null) {
+                this.tryToSpill(appender, rowIndex);
             }
         }
         if (updateRowIndex && this.curRowIndex < rowIndex) {
@@ -297,17 +373,18 @@ class TableBuilder {
 
     /**
      * async flush if rowIndex % this.bufferSize == 0. If 0, async flush the begin of the table
-     * else if rowIndex is a multiple of this.bufferSize, flush the preprocessed rows
+     * else if rowIndex is a multiple of this.bufferSize, flush the rows. The rows are serialized
+     * by the consumer: with a background writer or an adapter, the producer thread only hands
+     * them off.
+     * <p>
+     * The flushed rows are released: the rows list is a sliding window and the memory used
+     * by the table does not depend on the number of rows.
      */
     private void asyncTryToFlush(final TableAppender appender, final int rowIndex)
             throws IOException {
         if (this.tablePreambleWritten) {
             if (rowIndex > 0 && rowIndex % this.bufferSize == 0) {
-                final OdsAsyncFlusher preprocessedRowsFlusher = PreprocessedRowsFlusher
-                        .create(this.xmlUtil, new ArrayList<TableRowImpl>(
-                                this.tableRows.subList(this.lastFlushedRowIndex, rowIndex)));
-                this.observer.update(preprocessedRowsFlusher); // (0..1023), (1024..2047)
-                this.lastFlushedRowIndex = rowIndex;
+                this.asyncFlushRowsUntil(rowIndex); // (0..1023), (1024..2047)
             }
         } else {
             this.asyncFlushBeginTable(appender);
@@ -315,6 +392,206 @@ class TableBuilder {
         }
     }
 
+    /**
+     * Spill the rows before rowIndex if a block of rows is complete. The spilled rows are
+     * released: the memory used by the table does not depend on the number of rows.
+     */
+    private void tryToSpill(final TableAppender appender, final int rowIndex)
+            throws IOException {
+        if (rowIndex - this.lastFlushedRowIndex < this.rowSpill.getBlockSize()) {
+            return;
+        }
+        this.flushedCellCount += TableBuilder.countCells(
+                this.tableRows.subList(this.lastFlushedRowIndex, rowIndex));
+        appender.spillRows(this.xmlUtil, this.rowSpill, rowIndex);
+        this.tableRows.releaseUntil(rowIndex);
+        if (this.columnBlockByFirstRowIndex != null) {
+            this.columnBlockByFirstRowIndex.headMap(rowIndex).clear();
+        }
+        this.lastFlushedRowIndex = rowIndex;
+    }
+
+    /**
+     * Anonymous documents only: write the completed rows to a compressed temporary file, by
+     * blocks, and release them.
+     *
+     * @param directory the directory of the temporary file, null for the default temporary
+     *                  directory
+     * @param blockSize the number of rows of a block
+     * @throws IOException if the temporary file can't be created, or if some rows were already
+     *                     flushed or spilled
+     */
+    public void spillRowsToDisk(final File directory, final int blockSize) throws IOException {
+        if (this.observer != null) {
+            throw new IOException("Can't spill the rows of a table from a named writer");
+        }
+        if (this.rowSpill != null || this.lastFlushedRowIndex > 0) {
+            throw new IOException("Rows were already spilled");
+        }
+        this.rowSpill = RowSpill.create(directory, blockSize);
+    }
+
+    /**
+     * Delete the temporary file of the spilled rows, if any.
+     */
+    public void discardRowSpill() {
+        if (this.rowSpill != null) {
+            this.rowSpill.delete();
+        }
+    }
+
+    /**
+     * @return the row spill, or null if the rows are kept in memory
+     */
+    RowSpill getRowSpill() {
+        return this.rowSpill;
+    }
+
+    /**
+     * Append a column block after the last row. If the table is flushed, the pending rows and
+     * the block are flushed at once. Otherwise, the block is stored until the document is saved.
+     *
+     * @param table    the table
+     * @param appender the appender
+     * @param block    the block
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendColumnBlock(final Table table, final TableAppender appender,
+                                  final ColumnBlock block) throws IOException {
+        final int rowCount = block.getRowCount();
+        if (rowCount == 0) {
+            return;
+        }
+
+        final ColumnBlockAppender blockAppender = new ColumnBlockAppender(this.writeUtil, block,
+                this.getColumnBlockStyleNames(block));
+        this.appendColumnBlockAppender(appender, blockAppender,
+                (long) rowCount * block.getColumnCount());
+    }
+
+    /**
+     * Append the rows of a column block stamped on a row template, after the last row.
+     *
+     * @param table    the table
+     * @param appender the appender
+     * @param template the template
+     * @param block    the variable values
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendColumnBlock(final Table table, final TableAppender appender,
+                                  final RowTemplate template, final ColumnBlock block)
+            throws IOException {
+        template.checkBlock(block);
+        final int rowCount = block.getRowCount();
+        if (rowCount == 0) {
+            return;
+        }
+
+        final ColumnBlockAppender blockAppender =
+                new ColumnBlockAppender(this.writeUtil, block, template);
+        this.appendColumnBlockAppender(appender, blockAppender,
+                (long) rowCount * template.getCellCount());
+    }
+
+    private void appendColumnBlockAppender(final TableAppender appender,
+                                           final ColumnBlockAppender blockAppender,
+                                           final long cellCount) throws IOException {
+        final int firstRowIndex = this.getRowCount();
+        final int end = firstRowIndex + blockAppender.getRowCount();
+        this.flushedCellCount += cellCount;
+        if (this.observer == null) {
+            if (this.columnBlockByFirstRowIndex == null) {
+                this.columnBlockByFirstRowIndex = new TreeMap<Integer, ColumnBlockAppender>();
+            }
+            this.columnBlockByFirstRowIndex.put(firstRowIndex, blockAppender);
+        } else {
+            if (!this.tablePreambleWritten) {
+                this.asyncFlushBeginTable(appender);
+            }
+            if (firstRowIndex > this.lastFlushedRowIndex) {
+                this.asyncFlushRowsUntil(firstRowIndex);
+            }
+            this.observer.update(new ColumnBlockFlusher(blockAppender));
+            this.tableRows.skipUntil(end);
+            this.lastFlushedRowIndex = end;
+        }
+        this.columnBlocksEnd = end;
+        this.lastRowIndex = end - 1;
+        this.curRowIndex = end - 1;
+    }
+
+    /**
+     * @param firstRowIndex the index of a row
+     * @return the column block that starts at this row, or null
+     */
+    ColumnBlockAppender getColumnBlock(final int firstRowIndex) {
+        if (this.columnBlockByFirstRowIndex == null) {
+            return null;
+        }
+        return this.columnBlockByFirstRowIndex.get(firstRowIndex);
+    }
+
+    private ColumnBlockAppender getColumnBlockContaining(final int rowIndex) {
+        if (this.columnBlockByFirstRowIndex == null) {
+            return null;
+        }
+        final Map.Entry<Integer, ColumnBlockAppender> entry =
+                this.columnBlockByFirstRowIndex.floorEntry(rowIndex);
+        if (entry == null || rowIndex >= entry.getKey() + entry.getValue().getRowCount()) {
+            return null;
+        }
+        return entry.getValue();
+    }
+
+    private String[] getColumnBlockStyleNames(final ColumnBlock block) {
+        final List<ColumnBlock.Column> columns = block.getColumns();
+        final String[] styleNames = new String[columns.size()];
+        for (int c = 0; c < styleNames.length; c++) {
+            styleNames[c] = this.getColumnBlockStyleName(columns.get(c), c);
+        }
+        return styleNames;
+    }
+
+    /**
+     * Register the styles of a column and return the name of the cell style, as a
+     * TableCellImpl would do for every cell of the column.
+     */
+    private String getColumnBlockStyleName(final ColumnBlock.Column column,
+                                           final int columnIndex) {
+        final TableCellStyle style = column.getStyle();
+        if (style != null) {
+            this.stylesContainer.addContentFontFaceContainerStyle(style);
+        }
+        final TableCellStyle curStyle =
+                style == null ? this.findDefaultCellStyle(columnIndex) : style;
+        final DataStyle dataStyle;
+        switch (column.getKind()) {
+            case DOUBLE:
+            case LONG:
+                dataStyle = this.format.getFloatDataStyle();
+                break;
+            case DATE:
+                dataStyle = this.format.getDateDataStyle();
+                break;
+            default: // STRING
+                if (style != null || this.libreOfficeMode) {
+                    return curStyle.getName();
+                } else {
+                    return null;
+                }
+        }
+
+        final DataStyle curDataStyle = curStyle.getDataStyle();
+        if (curDataStyle == null) {
+            this.stylesContainer.addDataStyle(dataStyle);
+            return this.stylesContainer.addChildCellStyle(curStyle, dataStyle).getName();
+        } else {
+            this.stylesContainer.addDataStyle(curDataStyle);
+            return this.stylesContainer
+                    .addChildCellStyle(curStyle.getParentCellStyle(), curDataStyle).getName();
+        }
+    }
+
     /**
      * Get the current Table Style
      *
@@ -524,7 +801,7 @@ class TableBuilder {
      * @return the number if rows
      */
     public int getTableRowsUsedSize() {
-        return this.tableRows.usedSize();
+        return this.getRowCount();
     }
 
     /**
@@ -588,4 +865,19 @@ class TableBuilder {
     public Map<String, CharSequence> getCustomValueByAttribute() {
         return this.customValueByAttribute;
     }
+
+    /**
+     * @param runLengthEncoding if true, identical consecutive rows and identical adjacent cells
+     *                          are written once, with a repeat attribute.
+     */
+    public void setRunLengthEncoding(final boolean runLengthEncoding) {
+        this.runLengthEncoding = runLengthEncoding;
+    }
+
+    /**
+     * @return true if identical consecutive rows and identical adjacent cells are written once.
+     */
+    public boolean isRunLengthEncoding() {
+        return this.runLengthEncoding;
+    }
 }
@@ -30,14 +30,14 @@ import com.github.jferard.fastods.datastyle.DataStyle;
 import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.odselement.StylesContainer;
 import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.DateValueFormatter;
+import com.github.jferard.fastods.util.EqualityUtil;
 import com.github.jferard.fastods.util.WriteUtil;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
-import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.TimeZone;
 
 /**
  * WHERE ? content.xml/office:document-content/office:body/office:spreadsheet/
@@ -48,18 +48,20 @@ import java.util.TimeZone;
  */
 public class TableCellImpl implements WritableTableCell {
     /**
-     * The default date format
+     * The default date format: XML Schema Part 2, 3.2.7 dateTime, Z and UTC time zone for
+     * universal time. Thread-safe.
      */
-    final static SimpleDateFormat DATE_VALUE_FORMAT;
+    final static DateValueFormatter DATE_VALUE_FORMATTER = DateValueFormatter.create();
 
-    static {
-        /*
-         * XML Schema Part 2, 3.2.7 dateTime
-         * Z and UTC time zone for universal time.
-         */
-        DATE_VALUE_FORMAT = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
-        DATE_VALUE_FORMAT.setTimeZone(TimeZone.getTimeZone("UTC"));
-    }
+    /*
+     * The kinds of value: a numeric or date value is stored as a primitive and formatted at
+     * flush time, any other value is stored as a String.
+     */
+    private static final byte STRING_VALUE = 0;
+    private static final byte LONG_VALUE = 1;
+    private static final byte FLOAT_VALUE = 2;
+    private static final byte DOUBLE_VALUE = 3;
+    private static final byte DATE_VALUE = 4;
 
     private final TableRowImpl parentRow;
     private final WriteUtil writeUtil;
@@ -72,6 +74,8 @@ public class TableCellImpl implements WritableTableCell {
     private CellType type;
     private TableColdCell coldCell;
     private String value;
+    private long rawValue;
+    private byte valueKind;
 
     /**
      * Create the table cell implementation
@@ -101,27 +105,97 @@ public class TableCellImpl implements WritableTableCell {
     @Override
     public void appendXMLToTableRow(final XMLUtil util, final Appendable appendable)
             throws IOException {
-        final boolean covered = this.isCovered();
-        if (covered) {
+        this.appendXMLToTableRow(util, appendable, 1);
+    }
+
+    /**
+     * Generate the XML for the table cell, repeated if necessary.
+     *
+     * @param util            an util.
+     * @param appendable      the appendable to fill
+     * @param columnsRepeated the number of identical adjacent cells
+     * @throws IOException if an error occurs
+     */
+    void appendXMLToTableRow(final XMLUtil util, final Appendable appendable,
+                             final int columnsRepeated) throws IOException {
+        this.appendOpenTag(util, appendable, columnsRepeated);
+        if (this.type != null) {
+            util.appendAttribute(appendable, "office:value-type", this.type);
+            if (this.valueKind == STRING_VALUE) {
+                util.appendEAttribute(appendable, this.type.getValueAttribute(), this.value);
+            } else {
+                appendable.append(' ').append(this.type.getValueAttribute()).append("=\"");
+                this.appendRawValue(appendable);
+                appendable.append('"');
+            }
+        }
+        this.appendCloseTag(util, appendable);
+    }
+
+    /**
+     * Generate the XML for the table cell, until the value (excluded). Used by the row
+     * templates: the value is written by the template.
+     *
+     * @param util       an util.
+     * @param appendable the appendable to fill
+     * @throws IOException if an error occurs
+     */
+    void appendXMLUntilValue(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        this.appendOpenTag(util, appendable, 1);
+        util.appendAttribute(appendable, "office:value-type", this.type);
+        appendable.append(' ').append(this.type.getValueAttribute()).append("=\"");
+    }
+
+    /**
+     * Generate the XML for the table cell, after the value (excluded). Used by the row
+     * templates: the value is written by the template.
+     *
+     * @param util       an util.
+     * @param appendable the appendable to fill
+     * @throws IOException if an error occurs
+     */
+    void appendXMLAfterValue(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        appendable.append('"');
+        this.appendCloseTag(util, appendable);
+    }
+
+    private void appendOpenTag(final XMLUtil util, final Appendable appendable,
+                               final int columnsRepeated) throws IOException {
+        if (this.isCovered()) {
             appendable.append("<table:covered-table-cell");
         } else {
             appendable.append("<table:table-cell");
         }
+        if (columnsRepeated > 1) {
+            util.appendAttribute(appendable, "table:number-columns-repeated", columnsRepeated);
+        }
+
+        final TableCellStyle writtenStyle = this.getWrittenStyle();
+        if (writtenStyle != null) {
+            writtenStyle.appendStyleNameAttribute(util, appendable);
+        }
+    }
 
-        if (this.style != null) {
-            util.appendEAttribute(appendable, "table:style-name", this.style.getName());
-        } else if (this.libreOfficeMode) {
+    /**
+     * @return the style written in the open tag: the cell style, or, in LibreOffice mode, the
+     * style found in parent (row, column, table). Null if no style is written.
+     */
+    private TableCellStyle getWrittenStyle() {
+        if (this.style == null && this.libreOfficeMode) {
             // looks for a parent style to set
-            util.appendEAttribute(appendable, "table:style-name", this.getCurCellStyle().getName());
+            return this.parentRow.findDefaultCellStyle(this.columnIndex);
+        } else {
+            return this.style;
         }
+    }
 
-        if (this.type != null) {
-            util.appendAttribute(appendable, "office:value-type", this.type);
-            util.appendEAttribute(appendable, this.type.getValueAttribute(), this.value);
-            if (this.type == CellType.CURRENCY) {
-                final String currency = this.getCurrency();
-                util.appendEAttribute(appendable, "office:currency", currency);
-            }
+    private void appendCloseTag(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        if (this.type == CellType.CURRENCY) {
+            final String currency = this.getCurrency();
+            util.appendEAttribute(appendable, "office:currency", currency);
         }
 
         if (this.hasColdCell()) {
@@ -131,6 +205,119 @@ public class TableCellImpl implements WritableTableCell {
         }
     }
 
+    /**
+     * @return the type of the value, null if the cell has no value
+     */
+    CellType getValueType() {
+        return this.type;
+    }
+
+    /**
+     * A cheap hash of the content of the cell: two cells that have the same content have the
+     * same hash. The style is the written style, since two cells without style may have
+     * different default styles.
+     *
+     * @return the hash
+     */
+    int contentHash() {
+        int result = System.identityHashCode(this.getWrittenStyle());
+        result = 31 * result + (this.type == null ? 0 : this.type.ordinal());
+        result = 31 * result + this.valueKind;
+        result = 31 * result + (int) (this.rawValue ^ (this.rawValue >>> 32));
+        result = 31 * result + (this.value == null ? 0 : this.value.hashCode());
+        return result;
+    }
+
+    /**
+     * Cells with a cold cell (merge, tooltip, formula, ...) never have the same content.
+     *
+     * @param other the other cell
+     * @return true if the XML of both cells is the same.
+     */
+    boolean hasSameContent(final TableCellImpl other) {
+        return !this.hasColdCell() && !other.hasColdCell() &&
+                this.getWrittenStyle() == other.getWrittenStyle() && this.type == other.type &&
+                this.valueKind == other.valueKind && this.rawValue == other.rawValue &&
+                EqualityUtil.equal(this.value, other.value);
+    }
+
+    /**
+     * Format the primitive value. No escape is needed.
+     *
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    private void appendRawValue(final Appendable appendable) throws IOException {
+        switch (this.valueKind) {
+            case LONG_VALUE:
+                this.writeUtil.appendLong(appendable, this.rawValue);
+                break;
+            case FLOAT_VALUE:
+                appendable.append(Float.toString(Float.intBitsToFloat((int) this.rawValue)));
+                break;
+            case DOUBLE_VALUE:
+                appendable.append(Double.toString(Double.longBitsToDouble(this.rawValue)));
+                break;
+            default: // DATE_VALUE
+                TableCellImpl.DATE_VALUE_FORMATTER.append(appendable, this.rawValue);
+                break;
+        }
+    }
+
+    /**
+     * @param value the String value
+     */
+    private void setStringRepresentation(final String value) {
+        this.value = value;
+        this.valueKind = STRING_VALUE;
+    }
+
+    /**
+     * @param value the long value, formatted at flush time
+     */
+    private void setLongRepresentation(final long value) {
+        this.value = null;
+        this.rawValue = value;
+        this.valueKind = LONG_VALUE;
+    }
+
+    /**
+     * @param value the float value, formatted at flush time
+     */
+    private void setFloatRepresentation(final float value) {
+        this.value = null;
+        this.rawValue = Float.floatToRawIntBits(value);
+        this.valueKind = FLOAT_VALUE;
+    }
+
+    /**
+     * @param value the double value, formatted at flush time
+     */
+    private void setDoubleRepresentation(final double value) {
+        this.value = null;
+        this.rawValue = Double.doubleToRawLongBits(value);
+        this.valueKind = DOUBLE_VALUE;
+    }
+
+    /**
+     * Store a number as a primitive if the representation of the number is the representation
+     * of the primitive.
+     *
+     * @param value the number
+     */
+    private void setNumberRepresentation(final Number value) {
+        if (value instanceof Integer || value instanceof Long || value instanceof Short ||
+                value instanceof Byte) {
+            this.setLongRepresentation(value.longValue());
+        } else if (value instanceof Float) {
+            this.setFloatRepresentation(value.floatValue());
+        } else if (value instanceof Double) {
+            this.setDoubleRepresentation(value.doubleValue());
+        } else {
+            this.setStringRepresentation(value.toString());
+        }
+    }
+
     @Override
     public boolean isCovered() {
         return this.hasColdCell() && this.coldCell.isCovered();
@@ -187,7 +374,7 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public void setBooleanValue(final boolean value) {
-        this.value = value ? "true" : "false";
+        this.setStringRepresentation(value ? "true" : "false");
         this.type = CellType.BOOLEAN;
         this.setImplicitDataStyle(this.dataStyles.getBooleanDataStyle());
     }
@@ -204,11 +391,11 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public void setCurrencyValue(final float value, final String currency) {
-        this.setCurrencyValue(Float.toString(value), currency);
+        this.setFloatRepresentation(value);
+        this.setCurrency(currency);
     }
 
-    private void setCurrencyValue(final String valueAsString, final String currency) {
-        this.value = valueAsString;
+    private void setCurrency(final String currency) {
         this.type = CellType.CURRENCY;
         this.setImplicitDataStyle(this.dataStyles.getCurrencyDataStyle());
 
@@ -218,12 +405,14 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public void setCurrencyValue(final int value, final String currency) {
-        this.setCurrencyValue(Integer.toString(value), currency);
+        this.setLongRepresentation(value);
+        this.setCurrency(currency);
     }
 
     @Override
     public void setCurrencyValue(final Number value, final String currency) {
-        this.setCurrencyValue(value.toString(), currency);
+        this.setNumberRepresentation(value);
+        this.setCurrency(currency);
     }
 
     private void ensureColdCell() {
@@ -288,61 +477,86 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public void setDateValue(final Calendar cal) {
-        this.setDateValue(cal.getTime());
+        this.setDateValue(cal.getTimeInMillis());
     }
 
     @Override
     public void setDateValue(final Date value) {
-        this.value = TableCellImpl.DATE_VALUE_FORMAT.format(value);
+        this.setDateValue(value.getTime());
+    }
+
+    /**
+     * Set the date value for a cell with TableCell.STYLE_DATE, without creating a Date.
+     *
+     * @param epochMillis the number of milliseconds since 1970-01-01T00:00:00Z
+     */
+    public void setDateValue(final long epochMillis) {
+        this.value = null;
+        this.rawValue = epochMillis;
+        this.valueKind = DATE_VALUE;
         this.type = CellType.DATE;
         this.setImplicitDataStyle(this.dataStyles.getDateDataStyle());
     }
 
-    private void setFloatValue(final String valueAsString) {
-        this.value = valueAsString;
+    private void setFloatType() {
         this.type = CellType.FLOAT;
         this.setImplicitDataStyle(this.dataStyles.getFloatDataStyle());
     }
 
     @Override
     public void setFloatValue(final float value) {
-        this.setFloatValue(Float.toString(value));
+        this.setFloatRepresentation(value);
+        this.setFloatType();
     }
 
     @Override
     public void setFloatValue(final int value) {
-        this.setFloatValue(this.writeUtil.toString(value));
+        this.setLongRepresentation(value);
+        this.setFloatType();
+    }
+
+    /**
+     * Set the float value for a cell with TableCell.Type.FLOAT, without boxing the value.
+     *
+     * @param value a double with the value to be used
+     */
+    public void setFloatValue(final double value) {
+        this.setDoubleRepresentation(value);
+        this.setFloatType();
     }
 
     @Override
     public void setFloatValue(final Number value) {
-        this.setFloatValue(value.toString());
+        this.setNumberRepresentation(value);
+        this.setFloatType();
     }
 
     @Override
     public void setPercentageValue(final int value) {
-        this.setPercentageValue(Integer.toString(value));
+        this.setLongRepresentation(value);
+        this.setPercentageType();
     }
 
-    private void setPercentageValue(final String valueAsString) {
-        this.value = valueAsString;
+    private void setPercentageType() {
         this.type = CellType.PERCENTAGE;
         this.setImplicitDataStyle(this.dataStyles.getPercentageDataStyle());
     }
 
     @Override
     public void setPercentageValue(final float value) {
-        this.setPercentageValue(Float.toString(value));
+        this.setFloatRepresentation(value);
+        this.setPercentageType();
     }
 
     @Override
     public void setPercentageValue(final Number value) {
-        this.setPercentageValue(value.toString());
+        this.setNumberRepresentation(value);
+        this.setPercentageType();
     }
 
     @Override
     public void setStringValue(final String value) {
-        this.value = value;
+        this.setStringRepresentation(value);
         this.type = CellType.STRING;
     }
 
@@ -372,7 +586,7 @@ public class TableCellImpl implements WritableTableCell {
     public void setText(final Text text) {
         this.ensureColdCell();
         this.coldCell.setText(text);
-        this.value = "";
+        this.setStringRepresentation("");
         this.type = CellType.STRING;
         text.addEmbeddedStylesFromCell(this.stylesContainer);
     }
@@ -391,11 +605,11 @@ public class TableCellImpl implements WritableTableCell {
     @Override
     public void setTimeValue(final long timeInMillis) {
         if (timeInMillis < 0) {
-            this.value = this.xmlUtil
-                    .formatNegTimeInterval(0, 0, 0, 0, 0, (double) -timeInMillis / 1000);
+            this.setStringRepresentation(this.xmlUtil
+                    .formatNegTimeInterval(0, 0, 0, 0, 0, (double) -timeInMillis / 1000));
         } else {
-            this.value =
-                    this.xmlUtil.formatTimeInterval(0, 0, 0, 0, 0, (double) timeInMillis / 1000);
+            this.setStringRepresentation(
+                    this.xmlUtil.formatTimeInterval(0, 0, 0, 0, 0, (double) timeInMillis / 1000));
         }
         this.type = CellType.TIME;
         this.setImplicitDataStyle(this.dataStyles.getTimeDataStyle());
@@ -404,7 +618,8 @@ public class TableCellImpl implements WritableTableCell {
     @Override
     public void setTimeValue(final long years, final long months, final long days, final long hours,
                              final long minutes, final double seconds) {
-        this.value = this.xmlUtil.formatTimeInterval(years, months, days, hours, minutes, seconds);
+        this.setStringRepresentation(
+                this.xmlUtil.formatTimeInterval(years, months, days, hours, minutes, seconds));
         this.type = CellType.TIME;
         this.setImplicitDataStyle(this.dataStyles.getTimeDataStyle());
     }
@@ -412,8 +627,8 @@ public class TableCellImpl implements WritableTableCell {
     @Override
     public void setNegTimeValue(final long years, final long months, final long days,
                                 final long hours, final long minutes, final double seconds) {
-        this.value =
-                this.xmlUtil.formatNegTimeInterval(years, months, days, hours, minutes, seconds);
+        this.setStringRepresentation(
+                this.xmlUtil.formatNegTimeInterval(years, months, days, hours, minutes, seconds));
         this.type = CellType.TIME;
         this.setImplicitDataStyle(this.dataStyles.getTimeDataStyle());
     }
@@ -440,7 +655,7 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public void setVoidValue() {
-        this.value = "";
+        this.setStringRepresentation("");
         this.type = CellType.VOID;
     }
 
@@ -469,6 +684,6 @@ public class TableCellImpl implements WritableTableCell {
 
     @Override
     public boolean hasValue() {
-        return this.value != null || this.hasColdCell();
+        return this.value != null || this.valueKind != STRING_VALUE || this.hasColdCell();
     }
 }
\ No newline at end of file
@@ -104,6 +104,19 @@ public class TableCellWalker implements RowCellWalker, TableRowWalker, TableColu
         this.cell.setDateValue(value);
     }
 
+    /**
+     * Set the date value for a cell with TableCell.STYLE_DATE.
+     *
+     * @param epochMillis the number of milliseconds since 1970-01-01T00:00:00Z
+     */
+    public void setDateValue(final long epochMillis) {
+        if (this.cell instanceof TableCellImpl) {
+            ((TableCellImpl) this.cell).setDateValue(epochMillis);
+        } else {
+            this.cell.setDateValue(new Date(epochMillis));
+        }
+    }
+
     @Override
     public void setFloatValue(final Number value) {
         this.cell.setFloatValue(value);
@@ -229,6 +242,19 @@ public class TableCellWalker implements RowCellWalker, TableRowWalker, TableColu
         this.cell.setFloatValue(value);
     }
 
+    /**
+     * Set the float value for a cell with TableCell.Type.FLOAT.
+     *
+     * @param value a double with the value to be used
+     */
+    public void setFloatValue(final double value) {
+        if (this.cell instanceof TableCellImpl) {
+            ((TableCellImpl) this.cell).setFloatValue(value);
+        } else {
+            this.cell.setFloatValue(Double.valueOf(value));
+        }
+    }
+
     @Override
     public void setPercentageValue(final float value) {
         this.cell.setPercentageValue(value);
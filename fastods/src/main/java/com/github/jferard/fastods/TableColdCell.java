@@ -151,7 +151,9 @@ class TableColdCell {
             throws IOException {
 
         if (this.formula != null) {
-            util.appendEAttribute(appendable, "table:formula", "of:=" + this.formula);
+            appendable.append(" table:formula=\"of:=");
+            util.appendEscapedXMLAttribute(appendable, this.formula);
+            appendable.append('"');
             if (this.matrixRowsSpanned != 0) {
                 util.appendAttribute(appendable, "table:number-matrix-rows-spanned",
                         this.matrixRowsSpanned);
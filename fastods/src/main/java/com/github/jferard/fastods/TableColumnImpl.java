@@ -85,7 +85,7 @@ public class TableColumnImpl implements TableColumn {
             throws IOException {
         // append column style
         appendable.append("<table:table-column");
-        util.appendEAttribute(appendable, "table:style-name", this.getColumnStyleName());
+        this.getColumnStyle().appendStyleNameAttribute(util, appendable);
         if (count > 1) {
             util.appendAttribute(appendable, "table:number-columns-repeated", count);
         }
@@ -100,11 +100,11 @@ public class TableColumnImpl implements TableColumn {
         appendable.append("/>");
     }
 
-    private String getColumnStyleName() {
+    private TableColumnStyle getColumnStyle() {
         if (this.columnStyle != null) {
-            return this.columnStyle.getName();
+            return this.columnStyle;
         } else {
-            return TableColumnStyle.DEFAULT_TABLE_COLUMN_STYLE.getName();
+            return TableColumnStyle.DEFAULT_TABLE_COLUMN_STYLE;
         }
     }
 
@@ -128,11 +128,174 @@ public class TableRowImpl implements TableRow {
         appendable.append("</table:table-row>");
     }
 
+    /**
+     * Split the XML of this row around the values of some cells: the values are replaced by
+     * the values of a row template.
+     *
+     * @param variableColumns   the indices of the cells whose value varies, in ascending order
+     * @param cellStarts        filled with the index, in the fragment v, of the open tag of the
+     *                          variable cell v
+     * @param afterValueLengths filled with the length, at the beginning of the fragment v+1, of
+     *                          the end of the variable cell v
+     * @return the n+1 fragments around the n values
+     * @throws IOException If an I/O error occurs
+     */
+    String[] getTemplateFragments(final int[] variableColumns, final int[] cellStarts,
+                                  final int[] afterValueLengths) throws IOException {
+        final String[] fragments = new String[variableColumns.length + 1];
+        StringBuilder sb = new StringBuilder();
+        this.appendRowOpenTag(this.xmlUtil, sb);
+        int nullFieldCounter = 0;
+        int v = 0;
+
+        final int size = this.cells.usedSize();
+        for (int c = 0; c < size; c++) {
+            final WritableTableCell cell = this.cells.get(c);
+            if (v < variableColumns.length && variableColumns[v] == c) {
+                final TableCellImpl variableCell = (TableCellImpl) cell;
+                this.insertBlankCells(this.xmlUtil, sb, nullFieldCounter);
+                nullFieldCounter = 0;
+                cellStarts[v] = sb.length();
+                variableCell.appendXMLUntilValue(this.xmlUtil, sb);
+                fragments[v] = sb.toString();
+                sb = new StringBuilder();
+                variableCell.appendXMLAfterValue(this.xmlUtil, sb);
+                afterValueLengths[v] = sb.length();
+                v++;
+                continue;
+            }
+            if (this.hasNoValue(cell)) {
+                nullFieldCounter++;
+                continue;
+            }
+            this.insertBlankCells(this.xmlUtil, sb, nullFieldCounter);
+            nullFieldCounter = 0;
+            cell.appendXMLToTableRow(this.xmlUtil, sb);
+        }
+
+        sb.append("</table:table-row>");
+        fragments[v] = sb.toString();
+        return fragments;
+    }
+
+    /**
+     * Write the XML for this row, with a repeat count. Identical adjacent cells are written
+     * once, with a table:number-columns-repeated attribute.
+     *
+     * @param util         a util for XML writing
+     * @param appendable   where to write the XML
+     * @param rowsRepeated the number of identical consecutive rows
+     * @throws IOException If an I/O error occurs
+     */
+    void appendCompactXMLToTable(final XMLUtil util, final Appendable appendable,
+                                 final int rowsRepeated) throws IOException {
+        this.appendRowOpenTag(util, appendable, rowsRepeated);
+        int nullFieldCounter = 0;
+        TableCellImpl prevCell = null;
+        int prevCellCounter = 0;
+
+        final int size = this.cells.usedSize();
+        for (int c = 0; c < size; c++) {
+            final WritableTableCell cell = this.cells.get(c);
+            if (this.hasNoValue(cell)) {
+                nullFieldCounter++;
+                continue;
+            }
+            if (prevCell != null && nullFieldCounter == 0 && cell instanceof TableCellImpl &&
+                    prevCell.hasSameContent((TableCellImpl) cell)) {
+                prevCellCounter++;
+                continue;
+            }
+            if (prevCell != null) {
+                prevCell.appendXMLToTableRow(util, appendable, prevCellCounter);
+                prevCell = null;
+            }
+            this.insertBlankCells(util, appendable, nullFieldCounter);
+            nullFieldCounter = 0;
+            if (cell instanceof TableCellImpl) {
+                prevCell = (TableCellImpl) cell;
+                prevCellCounter = 1;
+            } else {
+                cell.appendXMLToTableRow(util, appendable);
+            }
+        }
+        if (prevCell != null) {
+            prevCell.appendXMLToTableRow(util, appendable, prevCellCounter);
+        }
+
+        appendable.append("</table:table-row>");
+    }
+
+    /**
+     * A cheap hash of the content of the row: two rows that have the same content have the
+     * same hash. Trailing empty cells are ignored, since they are not written.
+     *
+     * @return the hash
+     */
+    int contentHash() {
+        int result = System.identityHashCode(this.rowStyle);
+        result = 31 * result + System.identityHashCode(this.defaultCellStyle);
+        int hash = result;
+        final int size = this.cells.usedSize();
+        for (int c = 0; c < size; c++) {
+            final WritableTableCell cell = this.cells.get(c);
+            if (this.hasNoValue(cell)) {
+                result = 31 * result;
+            } else {
+                if (cell instanceof TableCellImpl) {
+                    result = 31 * result + ((TableCellImpl) cell).contentHash();
+                } else {
+                    result = 31 * result + System.identityHashCode(cell);
+                }
+                hash = result;
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * @param other the other row
+     * @return true if the XML of both rows is the same.
+     */
+    boolean hasSameContent(final TableRowImpl other) {
+        if (this.rowStyle != other.rowStyle || this.defaultCellStyle != other.defaultCellStyle ||
+                this.customValueByAttribute != null || other.customValueByAttribute != null) {
+            return false;
+        }
+        final int size = Math.max(this.cells.usedSize(), other.cells.usedSize());
+        for (int c = 0; c < size; c++) {
+            final WritableTableCell cell = this.cells.get(c);
+            final WritableTableCell otherCell = other.cells.get(c);
+            if (this.hasNoValue(cell)) {
+                if (this.hasNoValue(otherCell)) {
+                    continue;
+                }
+                return false;
+            } else if (this.hasNoValue(otherCell)) {
+                return false;
+            }
+            if (cell != otherCell && !(cell instanceof TableCellImpl &&
+                    otherCell instanceof TableCellImpl &&
+                    ((TableCellImpl) cell).hasSameContent((TableCellImpl) otherCell))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private void appendRowOpenTag(final XMLUtil util, final Appendable appendable)
             throws IOException {
+        this.appendRowOpenTag(util, appendable, 1);
+    }
+
+    private void appendRowOpenTag(final XMLUtil util, final Appendable appendable,
+                                  final int rowsRepeated) throws IOException {
         appendable.append("<table:table-row");
+        if (rowsRepeated > 1) {
+            util.appendAttribute(appendable, "table:number-rows-repeated", rowsRepeated);
+        }
         if (this.rowStyle != null) {
-            util.appendEAttribute(appendable, "table:style-name", this.rowStyle.getName());
+            this.rowStyle.appendStyleNameAttribute(util, appendable);
         }
         if (this.defaultCellStyle != null) {
             util.appendEAttribute(appendable, "table:default-cell-style-name",
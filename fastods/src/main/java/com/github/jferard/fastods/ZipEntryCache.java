@@ -0,0 +1,212 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.CachedZipEntry;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+
+/**
+ * A cache of deflated zip entries, shared by the documents of an OdsFactory. Only the entries
+ * that do not depend on the content of the tables are cached: mimetype, manifest, styles,
+ * settings and the empty elements (see {@link OdsElements#CACHEABLE_ENTRY_NAMES}).
+ * <p>
+ * The key of an entry is its name and its exact content: two documents with the same styles
+ * share the same styles.xml entry, and a document with other styles gets a new entry. The
+ * entries are still serialized for every document, but deflated once. The cache is bounded
+ * (least recently used entries are evicted) and thread-safe.
+ * <p>
+ * The cache is used only by the writers that copy the deflate data as is (see
+ * {@link com.github.jferard.fastods.util.ZipUTF8WriterBuilder#parallelDeflate()}). With the
+ * JDK zip stream, the entries would be deflated again, and the cache is ignored.
+ *
+ * @author Julien Férard
+ */
+public class ZipEntryCache {
+    /**
+     * The default max number of entries
+     */
+    public static final int DEFAULT_MAX_ENTRIES = 64;
+
+    /**
+     * The default max size of an entry. Larger entries are not cached.
+     */
+    public static final int DEFAULT_MAX_ENTRY_SIZE = 1024 * 1024;
+
+    /**
+     * @return a new cache with the default parameters. The entries are deflated once, thus
+     * with the best compression.
+     */
+    public static ZipEntryCache create() {
+        return new ZipEntryCache(Deflater.BEST_COMPRESSION, DEFAULT_MAX_ENTRIES,
+                DEFAULT_MAX_ENTRY_SIZE);
+    }
+
+    /**
+     * @param level        the compression level
+     * @param maxEntries   the max number of entries
+     * @param maxEntrySize the max size of an entry
+     * @return a new cache
+     */
+    public static ZipEntryCache create(final int level, final int maxEntries,
+                                       final int maxEntrySize) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("Max entries must be > 0");
+        }
+        return new ZipEntryCache(level, maxEntries, maxEntrySize);
+    }
+
+    private final int level;
+    private final int maxEntrySize;
+    private final Map<EntryKey, CachedZipEntry> entryByKey;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param level        the compression level
+     * @param maxEntries   the max number of entries
+     * @param maxEntrySize the max size of an entry
+     */
+    ZipEntryCache(final int level, final int maxEntries, final int maxEntrySize) {
+        this.level = level;
+        this.maxEntrySize = maxEntrySize;
+        this.entryByKey = new LinkedHashMap<EntryKey, CachedZipEntry>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                    final Map.Entry<EntryKey, CachedZipEntry> eldest) {
+                return this.size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param name the name of the entry
+     * @return true if the entry may be cached
+     */
+    public boolean isCacheable(final String name) {
+        return OdsElements.CACHEABLE_ENTRY_NAMES.contains(name);
+    }
+
+    /**
+     * @return the max size of an entry
+     */
+    public int getMaxEntrySize() {
+        return this.maxEntrySize;
+    }
+
+    /**
+     * Return the cached entry, or deflate the entry. The entry is deflated
+     * outside the lock: two threads may deflate the same content, but the result is the same.
+     *
+     * @param name  the name of the entry
+     * @param bytes the content of the entry
+     * @return the cached entry
+     */
+    public CachedZipEntry get(final String name, final byte[] bytes) {
+        final EntryKey key = new EntryKey(name, bytes);
+        synchronized (this.entryByKey) {
+            final CachedZipEntry cachedEntry = this.entryByKey.get(key);
+            if (cachedEntry != null) {
+                this.hitCount++;
+                return cachedEntry;
+            }
+            this.missCount++;
+        }
+        final CachedZipEntry cachedEntry = CachedZipEntry.create(name, bytes, this.level);
+        synchronized (this.entryByKey) {
+            this.entryByKey.put(key, cachedEntry);
+        }
+        return cachedEntry;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        synchronized (this.entryByKey) {
+            return this.entryByKey.size();
+        }
+    }
+
+    /**
+     * @return the number of entries that were found in the cache
+     */
+    public long getHitCount() {
+        synchronized (this.entryByKey) {
+            return this.hitCount;
+        }
+    }
+
+    /**
+     * @return the number of entries that were deflated
+     */
+    public long getMissCount() {
+        synchronized (this.entryByKey) {
+            return this.missCount;
+        }
+    }
+
+    /**
+     * The key: a name and a content.
+     */
+    private static class EntryKey {
+        private final String name;
+        private final byte[] bytes;
+        private final int hashCode;
+
+        EntryKey(final String name, final byte[] bytes) {
+            this.name = name;
+            this.bytes = bytes;
+            this.hashCode = 31 * name.hashCode() + Arrays.hashCode(bytes);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (o == this) {
+                return true;
+            }
+            if (!(o instanceof EntryKey)) {
+                return false;
+            }
+            final EntryKey other = (EntryKey) o;
+            return this.hashCode == other.hashCode && this.name.equals(other.name) &&
+                    Arrays.equals(this.bytes, other.bytes);
+        }
+
+        @Override
+        public int hashCode() {
+            return this.hashCode;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.CachedZipEntry;
+import com.github.jferard.fastods.util.RawZipEntry;
+import com.github.jferard.fastods.util.ZipUTF8RawWriter;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+
+/**
+ * An adapter for the writers that don't implement {@link ZipUTF8RawWriter}: the content of
+ * the cached entries and the inflated data of the raw entries are written as usual, and the
+ * compressed data is never copied.
+ *
+ * @author Julien Férard
+ */
+class ZipUTF8RawWriterAdapter implements ZipUTF8RawWriter {
+    /**
+     * @param writer the writer
+     * @return the writer if it's a raw writer, an adapter otherwise.
+     */
+    static ZipUTF8RawWriter adapt(final ZipUTF8Writer writer) {
+        if (writer instanceof ZipUTF8RawWriter) {
+            return (ZipUTF8RawWriter) writer;
+        } else {
+            return new ZipUTF8RawWriterAdapter(writer);
+        }
+    }
+
+    private final ZipUTF8Writer writer;
+
+    /**
+     * @param writer the adapted writer
+     */
+    ZipUTF8RawWriterAdapter(final ZipUTF8Writer writer) {
+        this.writer = writer;
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        this.writer.closeEntry();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.writer.finish();
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry entry) throws IOException {
+        this.writer.putNextEntry(entry);
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        this.writer.setComment(comment);
+    }
+
+    @Override
+    public void write(final byte[] bytes) throws IOException {
+        this.writer.write(bytes);
+    }
+
+    @Override
+    public boolean copiesDeflatedData() {
+        return false;
+    }
+
+    @Override
+    public void writeCachedEntry(final ZipEntry entry, final CachedZipEntry cachedEntry)
+            throws IOException {
+        cachedEntry.writeTo(this.writer, entry);
+    }
+
+    @Override
+    public void writeRawEntry(final RawZipEntry rawEntry) throws IOException {
+        rawEntry.writeTo(this.writer);
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.writer.close();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.writer.flush();
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+        this.writer.append(csq);
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end)
+            throws IOException {
+        this.writer.append(csq, start, end);
+        return this;
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+        this.writer.append(c);
+        return this;
+    }
+}
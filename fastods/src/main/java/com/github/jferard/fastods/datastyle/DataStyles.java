@@ -29,7 +29,8 @@ import com.github.jferard.fastods.attribute.CellType;
 import java.util.EnumMap;
 
 /**
- * The {@code DataStyles} class represents a set of {@code DataStyle}s.
+ * The {@code DataStyles} class represents a set of {@code DataStyle}s. The set and the data
+ * styles are immutable: they may be shared between the documents of several threads.
  *
  * @author Julien Férard
  */
@@ -0,0 +1,184 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.odselement;
+
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.style.FontFaceContainerStyle;
+import com.github.jferard.fastods.style.MasterPageStyle;
+import com.github.jferard.fastods.style.ObjectStyle;
+import com.github.jferard.fastods.style.PageLayoutStyle;
+import com.github.jferard.fastods.style.PageStyle;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.Container;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * A styles container that remembers, by identity, the child cell styles and the data styles
+ * that were already resolved by the shared container. Every typed setter of a cell resolves the
+ * same (cell style, data style) pair: after the first resolution, the cost is a couple of
+ * reference compares instead of a synchronized hash lookup on string keys.
+ * <p>
+ * This container is not thread safe: it is meant to be used by one table, that is filled by
+ * one thread. The other calls are delegated to the shared container.
+ *
+ * @author Julien Férard
+ */
+public class CachedStylesContainer implements StylesContainer {
+    private final StylesContainer stylesContainer;
+    private final Map<TableCellStyle, Map<DataStyle, TableCellStyle>> childStyleByDataStyleByStyle;
+    private final Map<DataStyle, Boolean> addedDataStyles;
+    private DataStyle lastAddedDataStyle;
+    private TableCellStyle lastStyle;
+    private DataStyle lastDataStyle;
+    private TableCellStyle lastChildStyle;
+
+    /**
+     * @param stylesContainer the shared container
+     */
+    public CachedStylesContainer(final StylesContainer stylesContainer) {
+        this.stylesContainer = stylesContainer;
+        this.childStyleByDataStyleByStyle =
+                new IdentityHashMap<TableCellStyle, Map<DataStyle, TableCellStyle>>();
+        this.addedDataStyles = new IdentityHashMap<DataStyle, Boolean>();
+    }
+
+    @Override
+    public TableCellStyle addChildCellStyle(final TableCellStyle style,
+                                            final DataStyle dataStyle) {
+        if (style == this.lastStyle && dataStyle == this.lastDataStyle) {
+            return this.lastChildStyle;
+        }
+
+        Map<DataStyle, TableCellStyle> childStyleByDataStyle =
+                this.childStyleByDataStyleByStyle.get(style);
+        if (childStyleByDataStyle == null) {
+            childStyleByDataStyle = new IdentityHashMap<DataStyle, TableCellStyle>();
+            this.childStyleByDataStyleByStyle.put(style, childStyleByDataStyle);
+        }
+        TableCellStyle childStyle = childStyleByDataStyle.get(dataStyle);
+        if (childStyle == null) {
+            childStyle = this.stylesContainer.addChildCellStyle(style, dataStyle);
+            childStyleByDataStyle.put(dataStyle, childStyle);
+        }
+        this.lastStyle = style;
+        this.lastDataStyle = dataStyle;
+        this.lastChildStyle = childStyle;
+        return childStyle;
+    }
+
+    @Override
+    public boolean addContentFontFaceContainerStyle(final FontFaceContainerStyle ffcStyle) {
+        return this.stylesContainer.addContentFontFaceContainerStyle(ffcStyle);
+    }
+
+    @Override
+    public boolean addStylesFontFaceContainerStyle(final FontFaceContainerStyle ffcStyle) {
+        return this.stylesContainer.addStylesFontFaceContainerStyle(ffcStyle);
+    }
+
+    /**
+     * Add the data style to the shared container, unless this data style was already added
+     * through this container.
+     *
+     * @param dataStyle the data style to add to this container
+     * @return true if the style was added to the shared container, false if it was already
+     * added through this container or if the shared container refused it.
+     */
+    @Override
+    public boolean addDataStyle(final DataStyle dataStyle) {
+        if (dataStyle == this.lastAddedDataStyle || this.addedDataStyles.containsKey(dataStyle)) {
+            return false;
+        }
+        final boolean ret = this.stylesContainer.addDataStyle(dataStyle);
+        this.addedDataStyles.put(dataStyle, Boolean.TRUE);
+        this.lastAddedDataStyle = dataStyle;
+        return ret;
+    }
+
+    @Override
+    public boolean addMasterPageStyle(final MasterPageStyle masterPageStyle) {
+        return this.stylesContainer.addMasterPageStyle(masterPageStyle);
+    }
+
+    @Override
+    public boolean addNewDataStyleFromCellStyle(final TableCellStyle style) {
+        return this.stylesContainer.addNewDataStyleFromCellStyle(style);
+    }
+
+    @Override
+    public boolean addPageLayoutStyle(final PageLayoutStyle pageLayoutStyle) {
+        return this.stylesContainer.addPageLayoutStyle(pageLayoutStyle);
+    }
+
+    @Override
+    public boolean addPageStyle(final PageStyle ps) {
+        return this.stylesContainer.addPageStyle(ps);
+    }
+
+    @Override
+    public boolean addContentStyle(final ObjectStyle objectStyle) {
+        return this.stylesContainer.addContentStyle(objectStyle);
+    }
+
+    @Override
+    public boolean addStylesStyle(final ObjectStyle objectStyle) {
+        return this.stylesContainer.addStylesStyle(objectStyle);
+    }
+
+    /**
+     * Set the mode of the shared container. The data styles will be added again, to respect
+     * the new mode.
+     *
+     * @param mode the mode (CREATE, UPDATE, CREATE_OR_UPDATE)
+     */
+    @Override
+    public void setDataStylesMode(final Container.Mode mode) {
+        this.addedDataStyles.clear();
+        this.lastAddedDataStyle = null;
+        this.stylesContainer.setDataStylesMode(mode);
+    }
+
+    @Override
+    public void setMasterPageStyleMode(final Container.Mode mode) {
+        this.stylesContainer.setMasterPageStyleMode(mode);
+    }
+
+    @Override
+    public void setPageLayoutStyleMode(final Container.Mode mode) {
+        this.stylesContainer.setPageLayoutStyleMode(mode);
+    }
+
+    @Override
+    public void setPageStyleMode(final Container.Mode mode) {
+        this.stylesContainer.setPageStyleMode(mode);
+    }
+
+    @Override
+    public void setObjectStyleMode(final Container.Mode mode) {
+        this.stylesContainer.setObjectStyleMode(mode);
+    }
+}
@@ -43,6 +43,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.zip.ZipEntry;
 
 import static com.github.jferard.fastods.odselement.MetaElement.OFFICE_VERSION;
@@ -54,7 +58,7 @@ import static com.github.jferard.fastods.odselement.MetaElement.OFFICE_VERSION;
  * @author Martin Schulz
  */
 public class ContentElement implements OdsElement {
-    private static final Map<String, String> CONTENT_NAMESPACE_BY_PREFIX = new HashMap<String, String>();
+    public static final Map<String, String> CONTENT_NAMESPACE_BY_PREFIX = new HashMap<String, String>();
 
     static {
         CONTENT_NAMESPACE_BY_PREFIX.putAll(StylesElement.STYLES_NAMESPACE_BY_PREFIX);
@@ -77,6 +81,7 @@ public class ContentElement implements OdsElement {
     private List<AutoFilter> autoFilters;
     private List<PilotTable> pilotTables;
     private final Map<String, String> additionalNamespaceByPrefix;
+    private final ExecutorService tablesExecutor;
 
     /**
      * @param positionUtil    an util object for positions (e.g. "A1")
@@ -91,6 +96,26 @@ public class ContentElement implements OdsElement {
                    final WriteUtil writeUtil, final DataStyles format,
                    final boolean libreOfficeMode, final StylesContainerImpl stylesContainer,
                    final Map<String, String> additionalNamespaceByPrefix) {
+        this(positionUtil, xmlUtil, writeUtil, format, libreOfficeMode, stylesContainer,
+                additionalNamespaceByPrefix, null);
+    }
+
+    /**
+     * @param positionUtil    an util object for positions (e.g. "A1")
+     * @param xmlUtil         an util object to write xml
+     * @param writeUtil       an util to compute some data
+     * @param format          the format for data styles
+     * @param libreOfficeMode try to get full compatibility with LO if true
+     * @param stylesContainer a styles container.
+     * @param additionalNamespaceByPrefix a map prefix -> namespace
+     * @param tablesExecutor  the executor that serializes the tables concurrently, or null
+     */
+    ContentElement(final PositionUtil positionUtil, final XMLUtil xmlUtil,
+                   final WriteUtil writeUtil, final DataStyles format,
+                   final boolean libreOfficeMode, final StylesContainerImpl stylesContainer,
+                   final Map<String, String> additionalNamespaceByPrefix,
+                   final ExecutorService tablesExecutor) {
+        this.tablesExecutor = tablesExecutor;
         this.writeUtil = writeUtil;
         this.xmlUtil = xmlUtil;
         this.positionUtil = positionUtil;
@@ -103,6 +128,16 @@ public class ContentElement implements OdsElement {
         this.scriptEvents = new ArrayList<ScriptEventListener>();
     }
 
+    /**
+     * @param forkedStylesContainer the styles container of the fork
+     * @return a new content element with the same parameters, but no table
+     */
+    ContentElement fork(final StylesContainerImpl forkedStylesContainer) {
+        return new ContentElement(this.positionUtil, this.xmlUtil, this.writeUtil, this.format,
+                this.libreOfficeMode, forkedStylesContainer, this.additionalNamespaceByPrefix,
+                this.tablesExecutor);
+    }
+
     /**
      * Create an automatic style for this TableCellStyle and this type of cell.
      * Do not produce any effect if the type is Type.STRING or Type.VOID.
@@ -217,12 +252,60 @@ public class ContentElement implements OdsElement {
     @Override
     public void write(final XMLUtil util, final ZipUTF8Writer writer) throws IOException {
         this.writePreamble(util, writer);
-        for (final Table table : this.tables) {
-            table.appendXMLContent(util, writer);
+        if (this.tablesExecutor == null || this.tables.size() <= 1) {
+            for (final Table table : this.tables) {
+                table.appendXMLContent(util, writer);
+            }
+        } else {
+            this.writeTablesConcurrently(writer);
         }
         this.writePostamble(util, writer);
     }
 
+    /**
+     * Each table is serialized into its own buffer by the executor. The buffers are written in
+     * the order of the tables, as soon as they are available. The tasks share the XMLUtil of
+     * the document: in this mode, its default escaper is thread-local.
+     *
+     * @param writer the destination
+     * @throws IOException if a table could not be serialized or written
+     */
+    private void writeTablesConcurrently(final ZipUTF8Writer writer) throws IOException {
+        final List<Future<StringBuilder>> futures =
+                new ArrayList<Future<StringBuilder>>(this.tables.size());
+        for (final Table table : this.tables) {
+            futures.add(this.tablesExecutor.submit(new Callable<StringBuilder>() {
+                @Override
+                public StringBuilder call() throws IOException {
+                    final StringBuilder sb = new StringBuilder();
+                    table.appendXMLContent(ContentElement.this.xmlUtil, sb);
+                    return sb;
+                }
+            }));
+        }
+        try {
+            for (int i = 0; i < futures.size(); i++) {
+                writer.append(futures.get(i).get());
+                futures.set(i, null); // release the buffer
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while writing the tables", e);
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException("Can't write a table", cause);
+        } finally {
+            for (final Future<StringBuilder> future : futures) {
+                if (future != null) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
     /**
      * Write the postamble into the given writer. Used by the FinalizeFlusher and by standard
      * write method
@@ -113,4 +113,11 @@ public class ManifestElement implements OdsElement {
     public void add(final ManifestEntry manifestEntry) {
         this.manifestEntries.add(manifestEntry);
     }
+
+    /**
+     * @return a copy of this element
+     */
+    ManifestElement copy() {
+        return new ManifestElement(this.manifestEntries);
+    }
 }
@@ -30,6 +30,7 @@ import com.github.jferard.fastods.util.ZipUTF8Writer;
 
 import java.io.IOException;
 import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -48,23 +49,40 @@ public class MetaElement implements OdsElement {
     public static final String OFFICE_VERSION = "1.2";
 
     /**
-     * the date format: 2017-12-31
+     * the date format: 2017-12-31. A SimpleDateFormat is not thread safe: one per thread.
      */
-    final static SimpleDateFormat DF_DATE;
+    private final static ThreadLocal<SimpleDateFormat> DF_DATE = createUTCFormat("yyyy-MM-dd");
 
-    static {
-        DF_DATE = new SimpleDateFormat("yyyy-MM-dd");
-        DF_DATE.setTimeZone(TimeZone.getTimeZone("UTC"));
+    /**
+     * the time format: 18:12:59. A SimpleDateFormat is not thread safe: one per thread.
+     */
+    private final static ThreadLocal<SimpleDateFormat> DF_TIME = createUTCFormat("HH:mm:ss");
+
+    private static ThreadLocal<SimpleDateFormat> createUTCFormat(final String pattern) {
+        return new ThreadLocal<SimpleDateFormat>() {
+            @Override
+            protected SimpleDateFormat initialValue() {
+                final SimpleDateFormat format = new SimpleDateFormat(pattern);
+                format.setTimeZone(TimeZone.getTimeZone("UTC"));
+                return format;
+            }
+        };
     }
 
     /**
-     * the time format: 18:12:59
+     * @param date the date
+     * @return the formatted date, e.g. 2017-12-31
      */
-    final static SimpleDateFormat DF_TIME;
+    static String formatDate(final Date date) {
+        return DF_DATE.get().format(date);
+    }
 
-    static {
-        DF_TIME = new SimpleDateFormat("HH:mm:ss");
-        DF_TIME.setTimeZone(TimeZone.getTimeZone("UTC"));
+    /**
+     * @param date the date
+     * @return the formatted time, e.g. 18:12:59
+     */
+    static String formatTime(final Date date) {
+        return DF_TIME.get().format(date);
     }
 
     public static MetaElementBuilder builder() {
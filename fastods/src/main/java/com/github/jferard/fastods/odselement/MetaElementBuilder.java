@@ -46,7 +46,7 @@ public class MetaElementBuilder {
     public MetaElementBuilder() {
         final Date dt = new Date();
         this.creator = System.getProperty("user.name");
-        this.dateTime = MetaElement.DF_DATE.format(dt) + "T" + MetaElement.DF_TIME.format(dt);
+        this.dateTime = MetaElement.formatDate(dt) + "T" + MetaElement.formatTime(dt);
         this.description = null;
         this.language = Locale.getDefault().getLanguage();
         this.title = null;
@@ -27,6 +27,7 @@ package com.github.jferard.fastods.odselement;
 import com.github.jferard.fastods.FinalizeFlusher;
 import com.github.jferard.fastods.ImmutableElementsFlusher;
 import com.github.jferard.fastods.NamedOdsFileWriter;
+import com.github.jferard.fastods.OdsWriteListener;
 import com.github.jferard.fastods.PrepareContentFlusher;
 import com.github.jferard.fastods.Table;
 import com.github.jferard.fastods.attribute.CellType;
@@ -45,15 +46,22 @@ import com.github.jferard.fastods.style.PageStyle;
 import com.github.jferard.fastods.style.TableCellStyle;
 import com.github.jferard.fastods.util.AutoFilter;
 import com.github.jferard.fastods.util.Container;
+import com.github.jferard.fastods.util.FastOdsXMLEscaper;
 import com.github.jferard.fastods.util.PilotTable;
 import com.github.jferard.fastods.util.WriteUtil;
+import com.github.jferard.fastods.util.XMLEscaper;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.zip.ZipEntry;
@@ -88,6 +96,21 @@ public class OdsElements implements StylesContainer {
                     "Configurations2/popupmenu/", "Configurations2/progressbar/",
                     "Configurations2/statusbar/", "Configurations2/toolbar/"};
 
+    /**
+     * The names of the entries that do not depend on the content of the tables. Those entries
+     * are often identical from one document to another, and may be cached.
+     */
+    public static final Set<String> CACHEABLE_ENTRY_NAMES;
+
+    static {
+        final Set<String> names = new HashSet<String>(Arrays.asList(EMPTY_ELEMENT_NAMES));
+        names.add("mimetype");
+        names.add(ManifestElement.META_INF_MANIFEST_XML);
+        names.add("styles.xml");
+        names.add("settings.xml");
+        CACHEABLE_ENTRY_NAMES = Collections.unmodifiableSet(names);
+    }
+
     public static final Map<String, String> BASE_NAMESPACE_BY_PREFIX = new HashMap<String, String>();
 
     static {
@@ -111,6 +134,27 @@ public class OdsElements implements StylesContainer {
                                      final WriteUtil writeUtil, final DataStyles format,
                                      final boolean libreOfficeMode, final MetaElement metaElement,
                                      final Map<String, String> additionalNamespaceByPrefix) {
+        return OdsElements.create(positionUtil, xmlUtil, writeUtil, format, libreOfficeMode,
+                metaElement, additionalNamespaceByPrefix, null);
+    }
+
+    /**
+     * @param positionUtil                an util for cell addresses (e.g. "A1")
+     * @param xmlUtil                     an XML util
+     * @param writeUtil                   an util for write
+     * @param format                      the data styles
+     * @param libreOfficeMode             try to get full compatibility with LO if true
+     * @param metaElement                 the meta element
+     * @param additionalNamespaceByPrefix a map prefix -> namespace
+     * @param tablesExecutor              the executor that serializes the tables
+     *                                    concurrently, or null
+     * @return a new OdsElements, with newly build elements.
+     */
+    public static OdsElements create(final PositionUtil positionUtil, final XMLUtil xmlUtil,
+                                     final WriteUtil writeUtil, final DataStyles format,
+                                     final boolean libreOfficeMode, final MetaElement metaElement,
+                                     final Map<String, String> additionalNamespaceByPrefix,
+                                     final ExecutorService tablesExecutor) {
         final Logger logger = Logger.getLogger(OdsElements.class.getName());
         final MimetypeElement mimetypeElement = new MimetypeElement();
         final ManifestElement manifestElement = ManifestElement.create();
@@ -119,7 +163,7 @@ public class OdsElements implements StylesContainer {
         final StylesElement stylesElement = new StylesElement(stylesContainer);
         final ContentElement contentElement =
                 new ContentElement(positionUtil, xmlUtil, writeUtil, format, libreOfficeMode,
-                        stylesContainer, additionalNamespaceByPrefix);
+                        stylesContainer, additionalNamespaceByPrefix, tablesExecutor);
         return new OdsElements(logger, stylesContainer, mimetypeElement, manifestElement,
                 settingsElement, metaElement, contentElement, stylesElement);
     }
@@ -162,6 +206,24 @@ public class OdsElements implements StylesContainer {
         this.extraFileByName = new HashMap<String, byte[]>();
     }
 
+    /**
+     * Fork these elements. The styles are shared copy-on-write: the fork is cheap, and the
+     * styles are copied only if the fork or these elements add a new style. The mimetype and
+     * the meta elements are shared, the manifest and the extra files are copied. The fork has
+     * no table and the default settings.
+     *
+     * @return the fork
+     */
+    public OdsElements fork() {
+        final StylesContainerImpl forkedStylesContainer = this.stylesContainer.fork();
+        final OdsElements forked = new OdsElements(this.logger, forkedStylesContainer,
+                this.mimeTypeElement, this.manifestElement.copy(), SettingsElement.create(),
+                this.metaElement, this.contentElement.fork(forkedStylesContainer),
+                new StylesElement(forkedStylesContainer));
+        forked.extraFileByName.putAll(this.extraFileByName);
+        return forked;
+    }
+
     /**
      * The OdsElements is observable by a writer.
      *
@@ -398,6 +460,21 @@ public class OdsElements implements StylesContainer {
         this.contentElement.write(xmlUtil, writer);
     }
 
+    /**
+     * Write the styles of content.xml/automatic-styles that are not in an existing document.
+     *
+     * @param xmlUtil      the xml util
+     * @param appendable   the destination
+     * @param existingKeys the keys of the existing styles ("data-style@name" or "family@name")
+     * @throws IOException if write fails
+     */
+    public void writeMissingContentAutomaticStyles(final XMLUtil xmlUtil,
+                                                   final Appendable appendable,
+                                                   final Set<String> existingKeys)
+            throws IOException {
+        this.stylesContainer.writeMissingContentAutomaticStyles(xmlUtil, appendable, existingKeys);
+    }
+
     /**
      * Write the meta element to a writer.
      *
@@ -488,6 +565,25 @@ public class OdsElements implements StylesContainer {
         return this.contentElement.getTables();
     }
 
+    /**
+     * Report the tables, the escaper cache and the styles to a listener.
+     *
+     * @param xmlUtil  the xml util
+     * @param listener the listener
+     */
+    public void writeMetrics(final XMLUtil xmlUtil, final OdsWriteListener listener) {
+        for (final Table table : this.contentElement.getTables()) {
+            listener.tableWritten(table.getName(), table.getRowCount(), table.getCellCount());
+        }
+        final XMLEscaper escaper = xmlUtil.getEscaper();
+        if (escaper instanceof FastOdsXMLEscaper) {
+            final FastOdsXMLEscaper fastOdsEscaper = (FastOdsXMLEscaper) escaper;
+            listener.escaperCacheUsed(fastOdsEscaper.getCacheHitCount(),
+                    fastOdsEscaper.getCacheMissCount());
+        }
+        listener.stylesCounted(this.stylesContainer.getStyleCountByKind());
+    }
+
     /**
      * Set a new active table
      *
@@ -43,12 +43,15 @@ import com.github.jferard.fastods.util.XMLUtil;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.logging.Logger;
 
 /**
  * content.xml/office:document-content
+ * <p>
+ * The methods are synchronized: the tables of a document may be filled by different threads.
  *
  * @author Julien Férard
  * @author Martin Schulz
@@ -92,7 +95,7 @@ public class StylesContainerImpl implements StylesContainer {
     /**
      * A register of existing anonymous styles. Won't be added to document.
      */
-    private final Map<ChildCellStyle, TableCellStyle> anonymousStyleByChildCellStyle;
+    private Map<ChildCellStyle, TableCellStyle> anonymousStyleByChildCellStyle;
 
     /**
      * Data style that will be written in content.xml > automatic-styles
@@ -106,7 +109,12 @@ public class StylesContainerImpl implements StylesContainer {
      */
     private final Container<String, PageLayoutStyle> pageLayoutStylesContainer;
     private final MultiContainer<String, Dest, ObjectStyle> objectStylesContainer;
-    private final Set<FontFace> fontFaces;
+    private Set<FontFace> fontFaces;
+
+    /**
+     * true if the anonymous styles and the font faces are shared with a fork.
+     */
+    private boolean shared;
 
     /**
      * Create a styles container
@@ -124,8 +132,76 @@ public class StylesContainerImpl implements StylesContainer {
         this.fontFaces.add(DEFAULT_FONT_FACE);
     }
 
+    /**
+     * @param source the container to fork
+     */
+    private StylesContainerImpl(final StylesContainerImpl source) {
+        this.objectStylesContainer = source.objectStylesContainer.fork();
+        this.dataStylesContainer = source.dataStylesContainer.fork();
+        this.masterPageStylesContainer = source.masterPageStylesContainer.fork();
+        this.pageLayoutStylesContainer = source.pageLayoutStylesContainer.fork();
+        this.anonymousStyleByChildCellStyle = source.anonymousStyleByChildCellStyle;
+        this.fontFaces = source.fontFaces;
+        this.shared = true;
+    }
+
+    /**
+     * Create a copy-on-write fork of this container: the fork shares the styles with this
+     * container until one of them is modified. The fork is not frozen.
+     *
+     * @return the fork
+     */
+    public synchronized StylesContainerImpl fork() {
+        this.shared = true;
+        return new StylesContainerImpl(this);
+    }
+
+    /**
+     * Copy the anonymous styles and the font faces if they are shared with a fork.
+     */
+    private void unshare() {
+        if (!this.shared) {
+            return;
+        }
+        this.anonymousStyleByChildCellStyle =
+                new HashMap<ChildCellStyle, TableCellStyle>(this.anonymousStyleByChildCellStyle);
+        this.fontFaces = new HashSet<FontFace>(this.fontFaces);
+        this.shared = false;
+    }
+
+    /**
+     * @param other another container
+     * @return true if this container still shares all its styles with the other container
+     */
+    synchronized boolean sharesStylesWith(final StylesContainerImpl other) {
+        for (final Dest dest : Dest.values()) {
+            if (this.objectStylesContainer.getValueByKey(dest) !=
+                    other.objectStylesContainer.getValueByKey(dest)) {
+                return false;
+            }
+            if (this.dataStylesContainer.getValueByKey(dest) !=
+                    other.dataStylesContainer.getValueByKey(dest)) {
+                return false;
+            }
+        }
+        return this.masterPageStylesContainer.getValueByKey() ==
+                other.masterPageStylesContainer.getValueByKey() &&
+                this.pageLayoutStylesContainer.getValueByKey() ==
+                        other.pageLayoutStylesContainer.getValueByKey() &&
+                this.anonymousStyleByChildCellStyle == other.anonymousStyleByChildCellStyle &&
+                this.fontFaces == other.fontFaces;
+    }
+
+    private void addFontFace(final FontFace fontFace) {
+        if (fontFace != null && !this.fontFaces.contains(fontFace)) {
+            this.unshare();
+            this.fontFaces.add(fontFace);
+        }
+    }
+
     @Override
-    public TableCellStyle addChildCellStyle(final TableCellStyle style, final DataStyle dataStyle) {
+    public synchronized TableCellStyle addChildCellStyle(final TableCellStyle style,
+                                                      final DataStyle dataStyle) {
         final ChildCellStyle childKey = new ChildCellStyle(style, dataStyle);
         TableCellStyle anonymousStyle = this.anonymousStyleByChildCellStyle.get(childKey);
         if (anonymousStyle == null) {
@@ -144,31 +220,28 @@ public class StylesContainerImpl implements StylesContainer {
             }
             anonymousStyle = anonymousStyleBuilder.build();
             this.addContentFontFaceContainerStyle(anonymousStyle);
+            this.unshare();
             this.anonymousStyleByChildCellStyle.put(childKey, anonymousStyle);
         }
         return anonymousStyle;
     }
 
     @Override
-    public boolean addContentFontFaceContainerStyle(final FontFaceContainerStyle ffcStyle) {
-        final FontFace fontFace = ffcStyle.getFontFace();
-        if (fontFace != null) {
-            this.fontFaces.add(fontFace);
-        }
+    public synchronized boolean addContentFontFaceContainerStyle(
+            final FontFaceContainerStyle ffcStyle) {
+        this.addFontFace(ffcStyle.getFontFace());
         return this.addContentStyle(ffcStyle);
     }
 
     @Override
-    public boolean addStylesFontFaceContainerStyle(final FontFaceContainerStyle ffcStyle) {
-        final FontFace fontFace = ffcStyle.getFontFace();
-        if (fontFace != null) {
-            this.fontFaces.add(fontFace);
-        }
+    public synchronized boolean addStylesFontFaceContainerStyle(
+            final FontFaceContainerStyle ffcStyle) {
+        this.addFontFace(ffcStyle.getFontFace());
         return this.addStylesStyle(ffcStyle);
     }
 
     @Override
-    public boolean addDataStyle(final DataStyle dataStyle) {
+    public synchronized boolean addDataStyle(final DataStyle dataStyle) {
         if (dataStyle.isHidden()) {
             return this.dataStylesContainer
                     .add(dataStyle.getName(), Dest.CONTENT_AUTOMATIC_STYLES, dataStyle);
@@ -179,12 +252,12 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public void setDataStylesMode(final Mode mode) {
+    public synchronized void setDataStylesMode(final Mode mode) {
         this.dataStylesContainer.setMode(mode);
     }
 
     @Override
-    public boolean addMasterPageStyle(final MasterPageStyle masterPageStyle) {
+    public synchronized boolean addMasterPageStyle(final MasterPageStyle masterPageStyle) {
         if (this.masterPageStylesContainer.add(masterPageStyle.getName(), masterPageStyle)) {
             masterPageStyle.addEmbeddedStyles(this);
             return true;
@@ -194,48 +267,48 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public void setMasterPageStyleMode(final Mode mode) {
+    public synchronized void setMasterPageStyleMode(final Mode mode) {
         this.masterPageStylesContainer.setMode(mode);
     }
 
     @Override
-    public boolean addNewDataStyleFromCellStyle(final TableCellStyle style) {
+    public synchronized boolean addNewDataStyleFromCellStyle(final TableCellStyle style) {
         final boolean ret = this.addContentStyle(style);
         return this.addDataStyle(style.getDataStyle()) && ret;
     }
 
     @Override
-    public void setPageLayoutStyleMode(final Mode mode) {
+    public synchronized void setPageLayoutStyleMode(final Mode mode) {
         this.pageLayoutStylesContainer.setMode(mode);
     }
 
 
     @Override
-    public boolean addPageLayoutStyle(final PageLayoutStyle pageLayoutStyle) {
+    public synchronized boolean addPageLayoutStyle(final PageLayoutStyle pageLayoutStyle) {
         return this.pageLayoutStylesContainer.add(pageLayoutStyle.getName(), pageLayoutStyle);
     }
 
     @Override
-    public void setPageStyleMode(final Mode mode) {
+    public synchronized void setPageStyleMode(final Mode mode) {
         this.setMasterPageStyleMode(mode);
         this.setPageLayoutStyleMode(mode);
     }
 
 
     @Override
-    public boolean addPageStyle(final PageStyle ps) {
+    public synchronized boolean addPageStyle(final PageStyle ps) {
         boolean ret = this.addMasterPageStyle(ps.getMasterPageStyle());
         ret = this.addPageLayoutStyle(ps.getPageLayoutStyle()) && ret;
         return ret;
     }
 
     @Override
-    public void setObjectStyleMode(final Mode mode) {
+    public synchronized void setObjectStyleMode(final Mode mode) {
         this.objectStylesContainer.setMode(mode);
     }
 
     @Override
-    public boolean addContentStyle(final ObjectStyle objectStyle) {
+    public synchronized boolean addContentStyle(final ObjectStyle objectStyle) {
         if (objectStyle.isHidden()) {
             return this.objectStylesContainer
                     .add(objectStyle.getKey(), Dest.CONTENT_AUTOMATIC_STYLES, objectStyle);
@@ -246,7 +319,7 @@ public class StylesContainerImpl implements StylesContainer {
     }
 
     @Override
-    public boolean addStylesStyle(final ObjectStyle objectStyle) {
+    public synchronized boolean addStylesStyle(final ObjectStyle objectStyle) {
         if (objectStyle.isHidden()) {
             return this.objectStylesContainer
                     .add(objectStyle.getKey(), Dest.STYLES_AUTOMATIC_STYLES, objectStyle);
@@ -259,7 +332,7 @@ public class StylesContainerImpl implements StylesContainer {
     /**
      * Enable debug mode
      */
-    public void debug() {
+    public synchronized void debug() {
         this.objectStylesContainer.debug();
         this.dataStylesContainer.debug();
         this.masterPageStylesContainer.debug();
@@ -269,17 +342,33 @@ public class StylesContainerImpl implements StylesContainer {
     /**
      * Freeze the container: no more add is allowed
      */
-    public void freeze() {
+    public synchronized void freeze() {
         this.objectStylesContainer.freeze();
         this.dataStylesContainer.freeze();
         this.masterPageStylesContainer.freeze();
         this.pageLayoutStylesContainer.freeze();
     }
 
+    /**
+     * @return the number of styles by kind: "object", "data", "master-page", "page-layout",
+     * "font-face" and "child-cell" (the anonymous styles created for a cell style and a
+     * data style)
+     */
+    public synchronized Map<String, Integer> getStyleCountByKind() {
+        final Map<String, Integer> countByKind = new LinkedHashMap<String, Integer>();
+        countByKind.put("object", this.objectStylesContainer.size());
+        countByKind.put("data", this.dataStylesContainer.size());
+        countByKind.put("master-page", this.masterPageStylesContainer.size());
+        countByKind.put("page-layout", this.pageLayoutStylesContainer.size());
+        countByKind.put("font-face", this.fontFaces.size());
+        countByKind.put("child-cell", this.anonymousStyleByChildCellStyle.size());
+        return countByKind;
+    }
+
     /**
      * @return a "double boolean"
      */
-    public HasFooterHeader hasFooterHeader() {
+    public synchronized HasFooterHeader hasFooterHeader() {
         boolean hasHeader = false;
         boolean hasFooter = false;
 
@@ -307,7 +396,8 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if the styles can't be written
      */
-    public void writeContentAutomaticStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeContentAutomaticStyles(final XMLUtil util,
+                                                         final Appendable appendable)
             throws IOException {
         final Iterable<ObjectStyle> styles =
                 this.objectStylesContainer.getValues(Dest.CONTENT_AUTOMATIC_STYLES);
@@ -318,6 +408,34 @@ public class StylesContainerImpl implements StylesContainer {
         this.write(styles, util, appendable);
     }
 
+    /**
+     * Write the data styles and the styles of content.xml/automatic-styles that are not already
+     * in an existing document. The key of a data style is "data-style@" + name, the key of
+     * another style is family + "@" + name (e.g. "table-cell@ce1").
+     *
+     * @param util         an XML util
+     * @param appendable   the destination
+     * @param existingKeys the keys of the styles of the existing document
+     * @throws IOException if the styles can't be written
+     */
+    public synchronized void writeMissingContentAutomaticStyles(final XMLUtil util,
+                                                                final Appendable appendable,
+                                                                final Set<String> existingKeys)
+            throws IOException {
+        for (final DataStyle dataStyle : this.dataStylesContainer
+                .getValues(Dest.CONTENT_AUTOMATIC_STYLES)) {
+            if (!existingKeys.contains("data-style@" + dataStyle.getName())) {
+                dataStyle.appendXMLContent(util, appendable);
+            }
+        }
+        for (final ObjectStyle style : this.objectStylesContainer
+                .getValues(Dest.CONTENT_AUTOMATIC_STYLES)) {
+            if (!existingKeys.contains(style.getFamily().getName() + "@" + style.getName())) {
+                style.appendXMLContent(util, appendable);
+            }
+        }
+    }
+
     /**
      * Write the data styles in the automatic-styles. They belong to content.xml/automatic-styles
      *
@@ -325,7 +443,7 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if the styles can't be written
      */
-    public void writeHiddenDataStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeHiddenDataStyles(final XMLUtil util, final Appendable appendable)
             throws IOException {
         for (final DataStyle dataStyle : this.dataStylesContainer
                 .getValues(Dest.CONTENT_AUTOMATIC_STYLES)) {
@@ -342,7 +460,7 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if an I/O error occurs
      */
-    public void writePageLayoutStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writePageLayoutStyles(final XMLUtil util, final Appendable appendable)
             throws IOException {
         for (final PageLayoutStyle ps : this.pageLayoutStylesContainer.getValues()) {
             assert ps.isHidden();
@@ -358,7 +476,7 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if an I/O error occurs
      */
-    public void writeMasterPageStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeMasterPageStyles(final XMLUtil util, final Appendable appendable)
             throws IOException {
         for (final MasterPageStyle ps : this.masterPageStylesContainer.getValues()) {
             ps.appendXMLToMasterStyle(util, appendable);
@@ -372,7 +490,8 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if an I/O error occurs
      */
-    public void writeStylesAutomaticStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeStylesAutomaticStyles(final XMLUtil util,
+                                                        final Appendable appendable)
             throws IOException {
         final Iterable<ObjectStyle> styles =
                 this.objectStylesContainer.getValues(Dest.STYLES_AUTOMATIC_STYLES);
@@ -390,7 +509,8 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if an I/O error occurs
      */
-    public void writeStylesCommonStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeStylesCommonStyles(final XMLUtil util,
+                                                     final Appendable appendable)
             throws IOException {
         final Iterable<ObjectStyle> styles =
                 this.objectStylesContainer.getValues(Dest.STYLES_COMMON_STYLES);
@@ -409,7 +529,7 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable the destination
      * @throws IOException if an I/O error occurs
      */
-    public void writeVisibleDataStyles(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeVisibleDataStyles(final XMLUtil util, final Appendable appendable)
             throws IOException {
         final Iterable<DataStyle> dataStyles =
                 this.dataStylesContainer.getValues(Dest.STYLES_COMMON_STYLES);
@@ -426,7 +546,7 @@ public class StylesContainerImpl implements StylesContainer {
      * @param appendable where to write
      * @throws IOException if the font face declarations were not written
      */
-    public void writeFontFaceDecls(final XMLUtil util, final Appendable appendable)
+    public synchronized void writeFontFaceDecls(final XMLUtil util, final Appendable appendable)
             throws IOException {
         appendable.append("<office:font-face-decls>");
         for (final FontFace fontFace : this.fontFaces) {
@@ -49,7 +49,7 @@ public class UserDefined implements XMLConvertible {
      * @return the user defined metadata
      */
     public static UserDefined fromDate(final String name, final Date value) {
-        return new UserDefined(name, MetaValueType.DATE, MetaElement.DF_DATE.format(value));
+        return new UserDefined(name, MetaValueType.DATE, MetaElement.formatDate(value));
     }
 
     /**
@@ -67,7 +67,7 @@ public class UserDefined implements XMLConvertible {
      * @return the user defined metadata
      */
     public static UserDefined fromTime(final String name, final Date value) {
-        return new UserDefined(name, MetaValueType.TIME, MetaElement.DF_TIME.format(value));
+        return new UserDefined(name, MetaValueType.TIME, MetaElement.formatTime(value));
     }
 
     /**
@@ -41,12 +41,13 @@ public class DrawFillGradient implements DrawFill, ObjectStyle {
     private final int startIntensity;
     private final Color endColor;
     private final int endIntensity;
-    private String name;
+    private final String name;
     private String key;
 
     public DrawFillGradient(final String name, final Angle angle, final Color startColor,
                             final int startIntensity, final Color endColor,
                             final int endIntensity) {
+        this.name = name;
         this.angle = angle;
         this.startColor = startColor;
         this.startIntensity = startIntensity;
@@ -61,10 +62,12 @@ public class DrawFillGradient implements DrawFill, ObjectStyle {
 
     @Override
     public String getKey() {
-        if (this.key == null) {
-            this.key = this.getFamily() + "@" + this.getName();
+        String key = this.key;
+        if (key == null) {
+            key = this.getFamily() + "@" + this.getName();
+            this.key = key;
         }
-        return this.key;
+        return key;
     }
 
     @Override
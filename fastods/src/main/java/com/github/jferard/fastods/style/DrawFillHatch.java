@@ -58,10 +58,12 @@ public class DrawFillHatch implements DrawFill, ObjectStyle {
 
     @Override
     public String getKey() {
-        if (this.key == null) {
-            this.key = this.getFamily() + "@" + this.getName();
+        String key = this.key;
+        if (key == null) {
+            key = this.getFamily() + "@" + this.getName();
+            this.key = key;
         }
-        return this.key;
+        return key;
     }
 
     @Override
@@ -57,10 +57,12 @@ public class GraphicStyle implements ObjectStyle, ElementWithEmbeddedStyles {
 
     @Override
     public String getKey() {
-        if (this.key == null) {
-            this.key = this.getFamily() + "@" + this.getName();
+        String key = this.key;
+        if (key == null) {
+            key = this.getFamily() + "@" + this.getName();
+            this.key = key;
         }
-        return this.key;
+        return key;
     }
 
     @Override
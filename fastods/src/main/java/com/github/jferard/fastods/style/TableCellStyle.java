@@ -32,6 +32,7 @@ import com.github.jferard.fastods.attribute.SimpleColor;
 import com.github.jferard.fastods.attribute.VerticalAlign;
 import com.github.jferard.fastods.datastyle.DataStyle;
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.util.EscapedAttribute;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -39,6 +40,10 @@ import java.io.IOException;
 /**
  * WHERE ? content.xml/office:document-content/office:automatic-styles/style:
  * style
+ * <p>
+ * A cell style is immutable and may be shared between the documents of several threads: the
+ * lazily computed key and style name attribute are immutable strings, written without lock
+ * (racy single-check).
  *
  * @author Julien Férard
  * @author Martin Schulz
@@ -76,6 +81,7 @@ public class TableCellStyle implements FontFaceContainerStyle {
     private final boolean wrap; // No line wrap when false, line wrap when
     private final DataStyle dataStyle;
     private String key;
+    private final EscapedAttribute styleNameAttribute;
 
     /**
      * Create a new cell style
@@ -102,6 +108,7 @@ public class TableCellStyle implements FontFaceContainerStyle {
         this.borders = borders;
         this.margins = margins;
         this.name = name;
+        this.styleNameAttribute = new EscapedAttribute("table:style-name", this.name);
         this.dataStyle = dataStyle;
         this.backgroundColor = backgroundColor;
         this.textProperties = textProperties;
@@ -201,12 +208,26 @@ public class TableCellStyle implements FontFaceContainerStyle {
         return ObjectStyleFamily.TABLE_CELL;
     }
 
+    /**
+     * Append the attribute {@code table:style-name} of this style.
+     *
+     * @param util       an util
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendStyleNameAttribute(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        this.styleNameAttribute.appendTo(util, appendable);
+    }
+
     @Override
     public String getKey() {
-        if (this.key == null) {
-            this.key = this.getFamily() + "@" + this.getName();
+        String key = this.key;
+        if (key == null) {
+            key = this.getFamily() + "@" + this.getName();
+            this.key = key;
         }
-        return this.key;
+        return key;
     }
 
     @Override
@@ -27,6 +27,7 @@ package com.github.jferard.fastods.style;
 import com.github.jferard.fastods.attribute.Length;
 import com.github.jferard.fastods.odselement.OdsElements;
 import com.github.jferard.fastods.odselement.StylesContainer;
+import com.github.jferard.fastods.util.EscapedAttribute;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -55,6 +56,7 @@ public class TableColumnStyle implements ObjectStyle {
     private final String name;
     private final boolean optimalWidth;
     private String key;
+    private final EscapedAttribute styleNameAttribute;
 
     /**
      * Create a new column style
@@ -67,6 +69,7 @@ public class TableColumnStyle implements ObjectStyle {
     TableColumnStyle(final String name, final boolean hidden, final Length columnWidth,
                      final boolean optimalWidth) {
         this.name = name;
+        this.styleNameAttribute = new EscapedAttribute("table:style-name", this.name);
         this.hidden = hidden;
         this.columnWidth = columnWidth;
         this.optimalWidth = optimalWidth;
@@ -134,12 +137,26 @@ public class TableColumnStyle implements ObjectStyle {
         return result;
     }
 
+    /**
+     * Append the attribute {@code table:style-name} of this style.
+     *
+     * @param util       an util
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendStyleNameAttribute(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        this.styleNameAttribute.appendTo(util, appendable);
+    }
+
     @Override
     public String getKey() {
-        if (this.key == null) {
-            this.key = this.getFamily() + "@" + this.getName();
+        String key = this.key;
+        if (key == null) {
+            key = this.getFamily() + "@" + this.getName();
+            this.key = key;
         }
-        return this.key;
+        return key;
     }
 
     @Override
@@ -27,6 +27,7 @@ package com.github.jferard.fastods.style;
 import com.github.jferard.fastods.attribute.Length;
 import com.github.jferard.fastods.odselement.OdsElements;
 import com.github.jferard.fastods.odselement.StylesContainer;
+import com.github.jferard.fastods.util.EscapedAttribute;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.io.IOException;
@@ -46,6 +47,7 @@ public class TableRowStyle implements ObjectStyle {
     private final Length rowHeight;
     private final boolean optimalHeight;
     private String key;
+    private final EscapedAttribute styleNameAttribute;
 
     /**
      * Create a new table row style.
@@ -58,6 +60,7 @@ public class TableRowStyle implements ObjectStyle {
     TableRowStyle(final String styleName, final boolean hidden, final Length rowHeight,
                   final boolean optimalHeight) {
         this.name = styleName;
+        this.styleNameAttribute = new EscapedAttribute("table:style-name", this.name);
         this.hidden = hidden;
         this.rowHeight = rowHeight;
         this.optimalHeight = optimalHeight;
@@ -112,12 +115,26 @@ public class TableRowStyle implements ObjectStyle {
         return this.rowHeight;
     }
 
+    /**
+     * Append the attribute {@code table:style-name} of this style.
+     *
+     * @param util       an util
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendStyleNameAttribute(final XMLUtil util, final Appendable appendable)
+            throws IOException {
+        this.styleNameAttribute.appendTo(util, appendable);
+    }
+
     @Override
     public String getKey() {
-        if (this.key == null) {
-            this.key = this.getFamily() + "@" + this.getName();
+        String key = this.key;
+        if (key == null) {
+            key = this.getFamily() + "@" + this.getName();
+            this.key = key;
         }
-        return this.key;
+        return key;
     }
 
     @Override
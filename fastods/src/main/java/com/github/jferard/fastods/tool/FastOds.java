@@ -24,6 +24,7 @@
 
 package com.github.jferard.fastods.tool;
 
+import com.github.jferard.fastods.util.ThreadLocalXMLEscaper;
 import com.github.jferard.fastods.util.XMLUtil;
 
 import java.awt.*;
@@ -38,7 +39,7 @@ import java.util.logging.Logger;
  * @author Julien Férard
  */
 public final class FastOds {
-    private static final XMLUtil xmlUtil = XMLUtil.create();
+    private static final XMLUtil xmlUtil = XMLUtil.create(ThreadLocalXMLEscaper.create());
     /**
      * The desktop
      */
@@ -53,7 +54,8 @@ public final class FastOds {
     }
 
     /**
-     * @return the default XMLUtil.
+     * @return the default XMLUtil. It may be shared between threads: each thread has its own
+     * escaper.
      */
     public static XMLUtil getXMLUtil() {
         return FastOds.xmlUtil;
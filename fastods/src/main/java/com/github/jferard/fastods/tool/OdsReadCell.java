@@ -0,0 +1,266 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.BooleanValue;
+import com.github.jferard.fastods.CellValue;
+import com.github.jferard.fastods.CurrencyValue;
+import com.github.jferard.fastods.DateValue;
+import com.github.jferard.fastods.FloatValue;
+import com.github.jferard.fastods.PercentageValue;
+import com.github.jferard.fastods.StringValue;
+import com.github.jferard.fastods.TimeValue;
+import com.github.jferard.fastods.VoidValue;
+import com.github.jferard.fastods.attribute.CellType;
+
+import java.util.Calendar;
+import java.util.Date;
+import java.util.GregorianCalendar;
+import java.util.TimeZone;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A cell read by the OdsStreamReader. The cell keeps the raw attributes: the typed values
+ * are parsed on demand, according to the {@code office:value-type} attribute. A cell is
+ * immutable: a cell repeated over columns or rows is the same instance.
+ *
+ * @author Julien Férard
+ */
+public class OdsReadCell {
+    /**
+     * An empty cell
+     */
+    public static final OdsReadCell EMPTY = new OdsReadCell(CellType.VOID, null, null, "", null);
+
+    // XML Schema Part 2, 3.2.7 dateTime and 3.2.9 date
+    private static final Pattern DATE_PATTERN = Pattern.compile(
+            "(\\d{4,})-(\\d\\d)-(\\d\\d)(?:T(\\d\\d):(\\d\\d):(\\d\\d)(?:\\.(\\d+))?)?" +
+                    "(Z|[+-]\\d\\d:\\d\\d)?");
+    // XML Schema Part 2, 3.2.6 duration
+    private static final Pattern DURATION_PATTERN = Pattern.compile(
+            "(-)?P(?:(\\d+)Y)?(?:(\\d+)M)?(?:(\\d+)D)?" +
+                    "(?:T(?:(\\d+)H)?(?:(\\d+)M)?(?:(\\d+(?:\\.\\d*)?)S)?)?");
+    private static final TimeZone UTC = TimeZone.getTimeZone("UTC");
+
+    private final CellType type;
+    private final String rawValue;
+    private final String currency;
+    private final String text;
+    private final String formula;
+
+    /**
+     * @param type     the type, from {@code office:value-type}
+     * @param rawValue the value attribute of the type, e.g. {@code office:date-value} for a
+     *                 date, or null
+     * @param currency the currency ({@code office:currency}), or null
+     * @param text     the text content of the paragraphs, separated by a new line
+     * @param formula  the formula ({@code table:formula}), or null
+     */
+    OdsReadCell(final CellType type, final String rawValue, final String currency,
+                final String text, final String formula) {
+        this.type = type;
+        this.rawValue = rawValue;
+        this.currency = currency;
+        this.text = text;
+        this.formula = formula;
+    }
+
+    /**
+     * @return the type of the cell, VOID if the cell has no {@code office:value-type}
+     */
+    public CellType getType() {
+        return this.type;
+    }
+
+    /**
+     * @return the value attribute of the type as written in the file (e.g. {@code office:value}
+     * for a float, {@code office:date-value} for a date), or null
+     */
+    public String getRawValue() {
+        return this.rawValue;
+    }
+
+    /**
+     * @return the currency of a currency cell, or null
+     */
+    public String getCurrency() {
+        return this.currency;
+    }
+
+    /**
+     * @return the text of the cell, i.e. the value as displayed. The paragraphs are separated
+     * by a new line.
+     */
+    public String getText() {
+        return this.text;
+    }
+
+    /**
+     * @return the formula, or null
+     */
+    public String getFormula() {
+        return this.formula;
+    }
+
+    /**
+     * @return true if the cell has no value and no text
+     */
+    public boolean isEmpty() {
+        return this.type == CellType.VOID && this.text.isEmpty();
+    }
+
+    /**
+     * @return the value of a float, percentage or currency cell
+     * @throws IllegalStateException if the cell is not numeric
+     */
+    public double getDoubleValue() {
+        if (this.type != CellType.FLOAT && this.type != CellType.PERCENTAGE &&
+                this.type != CellType.CURRENCY) {
+            throw new IllegalStateException("Not a numeric cell: " + this.type);
+        }
+        return Double.parseDouble(this.rawValue);
+    }
+
+    /**
+     * @return the value of a boolean cell
+     * @throws IllegalStateException if the cell is not a boolean cell
+     */
+    public boolean getBooleanValue() {
+        this.checkType(CellType.BOOLEAN);
+        return "true".equals(this.rawValue);
+    }
+
+    /**
+     * @return the value of a date cell. A date without time zone is read as an UTC date.
+     * @throws IllegalStateException    if the cell is not a date cell
+     * @throws IllegalArgumentException if the date is malformed
+     */
+    public Date getDateValue() {
+        this.checkType(CellType.DATE);
+        final Matcher matcher = DATE_PATTERN.matcher(this.rawValue);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Malformed date: " + this.rawValue);
+        }
+        final Calendar calendar = new GregorianCalendar(UTC);
+        calendar.clear();
+        calendar.set(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)) - 1,
+                Integer.parseInt(matcher.group(3)));
+        if (matcher.group(4) != null) {
+            calendar.set(Calendar.HOUR_OF_DAY, Integer.parseInt(matcher.group(4)));
+            calendar.set(Calendar.MINUTE, Integer.parseInt(matcher.group(5)));
+            calendar.set(Calendar.SECOND, Integer.parseInt(matcher.group(6)));
+            final String fraction = matcher.group(7);
+            if (fraction != null) {
+                final String millis = (fraction + "00").substring(0, 3);
+                calendar.set(Calendar.MILLISECOND, Integer.parseInt(millis));
+            }
+        }
+        long time = calendar.getTimeInMillis();
+        final String zone = matcher.group(8);
+        if (zone != null && !zone.equals("Z")) {
+            final int offsetMinutes = Integer.parseInt(zone.substring(1, 3)) * 60 +
+                    Integer.parseInt(zone.substring(4, 6));
+            time -= (zone.charAt(0) == '-' ? -offsetMinutes : offsetMinutes) * 60000L;
+        }
+        return new Date(time);
+    }
+
+    /**
+     * @return the value of a time cell
+     * @throws IllegalStateException    if the cell is not a time cell
+     * @throws IllegalArgumentException if the duration is malformed
+     */
+    public TimeValue getTimeValue() {
+        this.checkType(CellType.TIME);
+        final Matcher matcher = DURATION_PATTERN.matcher(this.rawValue);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Malformed duration: " + this.rawValue);
+        }
+        final String seconds = matcher.group(7);
+        return new TimeValue(matcher.group(1) != null, this.parseLong(matcher.group(2)),
+                this.parseLong(matcher.group(3)), this.parseLong(matcher.group(4)),
+                this.parseLong(matcher.group(5)), this.parseLong(matcher.group(6)),
+                seconds == null ? 0.0 : Double.parseDouble(seconds));
+    }
+
+    /**
+     * @return the value of a string cell: the {@code office:string-value} attribute if it
+     * exists, the text otherwise
+     */
+    public String getStringValue() {
+        if (this.rawValue == null) {
+            return this.text;
+        }
+        return this.rawValue;
+    }
+
+    /**
+     * @return the value as a CellValue, that may be written to a new document
+     */
+    public CellValue toCellValue() {
+        switch (this.type) {
+            case BOOLEAN:
+                return new BooleanValue(this.getBooleanValue());
+            case CURRENCY:
+                return new CurrencyValue(this.getDoubleValue(), this.currency);
+            case DATE:
+                return new DateValue(this.getDateValue());
+            case FLOAT:
+                return new FloatValue(this.getDoubleValue());
+            case PERCENTAGE:
+                return new PercentageValue(this.getDoubleValue());
+            case STRING:
+                return new StringValue(this.getStringValue());
+            case TIME:
+                return this.getTimeValue();
+            default:
+                if (this.text.isEmpty()) {
+                    return VoidValue.INSTANCE;
+                } else {
+                    return new StringValue(this.text);
+                }
+        }
+    }
+
+    private void checkType(final CellType expectedType) {
+        if (this.type != expectedType) {
+            throw new IllegalStateException("Not a " + expectedType + " cell: " + this.type);
+        }
+    }
+
+    private long parseLong(final String s) {
+        if (s == null) {
+            return 0;
+        }
+        return Long.parseLong(s);
+    }
+
+    @Override
+    public String toString() {
+        return "OdsReadCell[type=" + this.type + ", value=" + this.rawValue + ", text=" +
+                this.text + "]";
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A row read by the OdsStreamReader. The {@code table:number-columns-repeated} attributes are
+ * not expanded: the row stores each distinct cell once, with the index of its last column. The
+ * repetitions of a row (see {@code table:number-rows-repeated}) share the cells.
+ *
+ * @author Julien Férard
+ */
+public class OdsReadRow {
+    private final int index;
+    private final List<OdsReadCell> cells;
+    private final int[] lastColumnIndexes;
+
+    /**
+     * @param index             the index of the row in the table
+     * @param cells             the distinct cells
+     * @param lastColumnIndexes for each cell, the index of the last column of the cell
+     */
+    OdsReadRow(final int index, final List<OdsReadCell> cells, final int[] lastColumnIndexes) {
+        this.index = index;
+        this.cells = cells;
+        this.lastColumnIndexes = lastColumnIndexes;
+    }
+
+    /**
+     * @param index the index of the repetition
+     * @return a repetition of this row
+     */
+    OdsReadRow repeat(final int index) {
+        return new OdsReadRow(index, this.cells, this.lastColumnIndexes);
+    }
+
+    /**
+     * @return the index of the row in the table, 0-based
+     */
+    public int getIndex() {
+        return this.index;
+    }
+
+    /**
+     * @return the number of cells, repeated cells included
+     */
+    public int getCellCount() {
+        if (this.lastColumnIndexes.length == 0) {
+            return 0;
+        }
+        return this.lastColumnIndexes[this.lastColumnIndexes.length - 1] + 1;
+    }
+
+    /**
+     * @param c the column index
+     * @return the cell, or OdsReadCell.EMPTY if the index is out of the row
+     */
+    public OdsReadCell getCell(final int c) {
+        if (c < 0 || c >= this.getCellCount()) {
+            return OdsReadCell.EMPTY;
+        }
+        int i = Arrays.binarySearch(this.lastColumnIndexes, c);
+        if (i < 0) {
+            i = -i - 1;
+        }
+        return this.cells.get(i);
+    }
+
+    /**
+     * @return the number of distinct cells
+     */
+    public int getDistinctCellCount() {
+        return this.cells.size();
+    }
+
+    /**
+     * @param i the index of the distinct cell
+     * @return the distinct cell
+     */
+    public OdsReadCell getDistinctCell(final int i) {
+        return this.cells.get(i);
+    }
+
+    /**
+     * @param i the index of the distinct cell
+     * @return the number of columns covered by the distinct cell
+     */
+    public int getColumnsRepeated(final int i) {
+        if (i == 0) {
+            return this.lastColumnIndexes[0] + 1;
+        }
+        return this.lastColumnIndexes[i] - this.lastColumnIndexes[i - 1];
+    }
+
+    /**
+     * @return true if all cells are empty
+     */
+    public boolean isEmpty() {
+        for (final OdsReadCell cell : this.cells) {
+            if (!cell.isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "OdsReadRow[index=" + this.index + ", cells=" + this.cells + "]";
+    }
+}
@@ -0,0 +1,447 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.attribute.CellType;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * A streaming reader for the tables of an ODS file. The archive is read as a stream and only
+ * the content.xml entry is parsed (StAX), one row at a time: the memory does not depend on the
+ * size of the file, but on the size of a row.
+ * <p>
+ * The repeated rows and columns are expanded lazily: a row with
+ * {@code table:number-rows-repeated="1048000"} is parsed once and returned 1048000 times (see
+ * {@link #skipRepeatedRows()}); the repeated cells are stored once in a row.
+ * <p>
+ * Pull API:
+ * <pre>
+ * final OdsStreamReader reader = OdsStreamReader.create(new File("f.ods"));
+ * try {
+ *     while (reader.nextTable()) {
+ *         while (reader.nextRow()) {
+ *             final OdsReadRow row = reader.getRow();
+ *             ...
+ *         }
+ *     }
+ * } finally {
+ *     reader.close();
+ * }
+ * </pre>
+ * Callback API: {@link #read(OdsRowHandler)}.
+ *
+ * @author Julien Férard
+ */
+public class OdsStreamReader implements Closeable {
+    private static final String CONTENT_XML = "content.xml";
+    private static final String OFFICE_NS = "urn:oasis:names:tc:opendocument:xmlns:office:1.0";
+    private static final String TABLE_NS = "urn:oasis:names:tc:opendocument:xmlns:table:1.0";
+    private static final String TEXT_NS = "urn:oasis:names:tc:opendocument:xmlns:text:1.0";
+
+    /**
+     * @param file the ODS file
+     * @return the reader
+     * @throws IOException if the file can't be read or has no content.xml entry
+     */
+    public static OdsStreamReader create(final File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            return OdsStreamReader.create(new BufferedInputStream(in));
+        } catch (final IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param in the stream of the ODS archive. Will be closed by {@link #close()}.
+     * @return the reader
+     * @throws IOException if the stream can't be read or has no content.xml entry
+     */
+    public static OdsStreamReader create(final InputStream in) throws IOException {
+        final ZipInputStream zipStream = new ZipInputStream(in);
+        ZipEntry entry = zipStream.getNextEntry();
+        while (entry != null && !entry.getName().equals(CONTENT_XML)) {
+            entry = zipStream.getNextEntry();
+        }
+        if (entry == null) {
+            throw new IOException("No " + CONTENT_XML + " entry");
+        }
+
+        final XMLInputFactory factory = XMLInputFactory.newInstance();
+        // the file may come from an untrusted source
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        try {
+            return new OdsStreamReader(zipStream, factory.createXMLStreamReader(zipStream));
+        } catch (final XMLStreamException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private final InputStream in;
+    private final XMLStreamReader reader;
+    private int depth;
+    private int tableDepth;
+    private String tableName;
+    private OdsReadRow row;
+    private int rowIndex;
+    private int repeatsLeft;
+
+    /**
+     * @param in     the stream to close
+     * @param reader the StAX reader on content.xml
+     */
+    OdsStreamReader(final InputStream in, final XMLStreamReader reader) {
+        this.in = in;
+        this.reader = reader;
+        this.depth = 0;
+        this.tableDepth = -1;
+    }
+
+    /**
+     * Read the whole content and call the handler.
+     *
+     * @param handler the handler
+     * @throws IOException if an I/O error occurs or if the content is malformed
+     */
+    public void read(final OdsRowHandler handler) throws IOException {
+        while (this.nextTable()) {
+            final String name = this.tableName;
+            handler.startTable(name);
+            while (this.nextRow()) {
+                handler.row(this.row);
+            }
+            handler.endTable(name);
+        }
+    }
+
+    /**
+     * Go to the next table. The remaining rows of the current table are skipped.
+     *
+     * @return true if there is a next table
+     * @throws IOException if an I/O error occurs or if the content is malformed
+     */
+    public boolean nextTable() throws IOException {
+        if (this.isInTable()) {
+            while (this.depth >= this.tableDepth) {
+                this.nextEvent();
+            }
+            this.tableDepth = -1;
+        }
+        int event = this.readEvent();
+        while (event != XMLStreamConstants.END_DOCUMENT) {
+            if (event == XMLStreamConstants.START_ELEMENT && this.isTableElement("table")) {
+                this.tableDepth = this.depth;
+                this.tableName = this.reader.getAttributeValue(TABLE_NS, "name");
+                this.row = null;
+                this.rowIndex = -1;
+                this.repeatsLeft = 0;
+                return true;
+            }
+            event = this.readEvent();
+        }
+        this.tableName = null;
+        return false;
+    }
+
+    /**
+     * @return the name of the current table
+     */
+    public String getTableName() {
+        return this.tableName;
+    }
+
+    /**
+     * Go to the next row of the current table.
+     *
+     * @return true if there is a next row in the current table
+     * @throws IOException if an I/O error occurs or if the content is malformed
+     */
+    public boolean nextRow() throws IOException {
+        if (!this.isInTable()) {
+            return false;
+        }
+        if (this.repeatsLeft > 0) {
+            this.repeatsLeft--;
+            this.rowIndex++;
+            this.row = this.row.repeat(this.rowIndex);
+            return true;
+        }
+        while (true) {
+            final int event = this.nextEvent();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (this.isTableElement("table-row")) {
+                    this.rowIndex++;
+                    this.row = this.parseRow();
+                    return true;
+                } else if (!(this.isTableElement("table-rows") ||
+                        this.isTableElement("table-header-rows") ||
+                        this.isTableElement("table-row-group"))) {
+                    this.skipElement();
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && this.depth < this.tableDepth) {
+                this.tableDepth = -1;
+                this.row = null;
+                return false;
+            }
+        }
+    }
+
+    /**
+     * @return the current row
+     */
+    public OdsReadRow getRow() {
+        return this.row;
+    }
+
+    /**
+     * Skip the remaining repetitions of the current row, e.g. the empty rows at the end of
+     * a table.
+     *
+     * @return the number of skipped rows
+     */
+    public int skipRepeatedRows() {
+        final int skipped = this.repeatsLeft;
+        this.rowIndex += skipped;
+        this.repeatsLeft = 0;
+        return skipped;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            this.reader.close();
+        } catch (final XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            this.in.close();
+        }
+    }
+
+    private boolean isInTable() {
+        return this.tableDepth != -1;
+    }
+
+    private OdsReadRow parseRow() throws IOException {
+        this.repeatsLeft = this.getRepeatAttribute("number-rows-repeated") - 1;
+        final List<OdsReadCell> cells = new ArrayList<OdsReadCell>();
+        final List<Integer> lastColumnIndexes = new ArrayList<Integer>();
+        int lastColumnIndex = -1;
+        final int rowDepth = this.depth;
+        while (true) {
+            final int event = this.nextEvent();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (this.isTableElement("table-cell") ||
+                        this.isTableElement("covered-table-cell")) {
+                    lastColumnIndex += this.getRepeatAttribute("number-columns-repeated");
+                    cells.add(this.parseCell());
+                    lastColumnIndexes.add(lastColumnIndex);
+                } else {
+                    this.skipElement();
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && this.depth < rowDepth) {
+                break;
+            }
+        }
+        final int[] indexes = new int[lastColumnIndexes.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = lastColumnIndexes.get(i);
+        }
+        return new OdsReadRow(this.rowIndex, cells, indexes);
+    }
+
+    private OdsReadCell parseCell() throws IOException {
+        final CellType type = this.getCellType(
+                this.reader.getAttributeValue(OFFICE_NS, "value-type"));
+        final String rawValue;
+        if (type == CellType.VOID) {
+            rawValue = null;
+        } else {
+            final String valueAttribute = type.getValueAttribute();
+            rawValue = this.reader.getAttributeValue(OFFICE_NS,
+                    valueAttribute.substring(valueAttribute.indexOf(':') + 1));
+        }
+        final String currency = this.reader.getAttributeValue(OFFICE_NS, "currency");
+        final String formula = this.reader.getAttributeValue(TABLE_NS, "formula");
+
+        final StringBuilder text = new StringBuilder();
+        boolean firstParagraph = true;
+        final int cellDepth = this.depth;
+        while (true) {
+            final int event = this.nextEvent();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                if (this.isTextElement("p") || this.isTextElement("h")) {
+                    if (firstParagraph) {
+                        firstParagraph = false;
+                    } else {
+                        text.append('\n');
+                    }
+                    this.appendParagraph(text);
+                } else { // annotations, frames, ...
+                    this.skipElement();
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT && this.depth < cellDepth) {
+                break;
+            }
+        }
+        if (type == CellType.VOID && rawValue == null && currency == null && formula == null &&
+                text.length() == 0) {
+            return OdsReadCell.EMPTY;
+        }
+        return new OdsReadCell(type, rawValue, currency, text.toString(), formula);
+    }
+
+    private void appendParagraph(final StringBuilder text) throws IOException {
+        final int paragraphDepth = this.depth;
+        while (true) {
+            final int event = this.nextEvent();
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    text.append(this.reader.getText());
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    if (this.isTextElement("s")) {
+                        final String count = this.reader.getAttributeValue(TEXT_NS, "c");
+                        final int n = count == null ? 1 : Integer.parseInt(count);
+                        for (int i = 0; i < n; i++) {
+                            text.append(' ');
+                        }
+                    } else if (this.isTextElement("tab")) {
+                        text.append('\t');
+                    } else if (this.isTextElement("line-break")) {
+                        text.append('\n');
+                    } else if (this.isTextElement("note") ||
+                            OFFICE_NS.equals(this.reader.getNamespaceURI())) {
+                        this.skipElement();
+                    } // else: span, a, ...: read the content
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (this.depth < paragraphDepth) {
+                        return;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    private CellType getCellType(final String valueType) {
+        if (valueType == null) {
+            return CellType.VOID;
+        }
+        for (final CellType type : CellType.values()) {
+            if (type.getValue().equals(valueType)) {
+                return type;
+            }
+        }
+        return CellType.VOID;
+    }
+
+    private int getRepeatAttribute(final String localName) throws IOException {
+        final String value = this.reader.getAttributeValue(TABLE_NS, localName);
+        if (value == null) {
+            return 1;
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (final NumberFormatException e) {
+            throw new IOException("Bad table:" + localName + " value: " + value);
+        }
+    }
+
+    private boolean isTableElement(final String localName) {
+        return localName.equals(this.reader.getLocalName()) &&
+                TABLE_NS.equals(this.reader.getNamespaceURI());
+    }
+
+    private boolean isTextElement(final String localName) {
+        return localName.equals(this.reader.getLocalName()) &&
+                TEXT_NS.equals(this.reader.getNamespaceURI());
+    }
+
+    /**
+     * Skip the current element, the reader being on the start tag. The reader will be on the
+     * end tag.
+     */
+    private void skipElement() throws IOException {
+        final int elementDepth = this.depth;
+        while (this.depth >= elementDepth) {
+            this.nextEvent();
+        }
+    }
+
+    /**
+     * @return the next event, inside an element
+     * @throws IOException if the document ends
+     */
+    private int nextEvent() throws IOException {
+        final int event = this.readEvent();
+        if (event == XMLStreamConstants.END_DOCUMENT) {
+            throw new IOException("Unexpected end of document");
+        }
+        return event;
+    }
+
+    /**
+     * @return the next event, END_DOCUMENT if there is no next event
+     * @throws IOException if the content is malformed
+     */
+    private int readEvent() throws IOException {
+        final int event;
+        try {
+            if (!this.reader.hasNext()) {
+                return XMLStreamConstants.END_DOCUMENT;
+            }
+            event = this.reader.next();
+        } catch (final XMLStreamException e) {
+            throw new IOException(e);
+        }
+        if (event == XMLStreamConstants.START_ELEMENT) {
+            this.depth++;
+        } else if (event == XMLStreamConstants.END_ELEMENT) {
+            this.depth--;
+        }
+        return event;
+    }
+}
@@ -0,0 +1,234 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.TableCellWalker;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Date;
+
+/**
+ * A writer for a typed column of a result set: the value is read with the primitive getter and
+ * set directly to the cell, without a boxed object nor a CellValue.
+ *
+ * @author Julien Férard
+ */
+enum ResultSetColumnWriter {
+    /**
+     * TINYINT, SMALLINT, INTEGER, BIGINT
+     */
+    LONG {
+        @Override
+        boolean write(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final long value = rs.getLong(columnIndex);
+            if (rs.wasNull()) {
+                return false;
+            }
+            if (Integer.MIN_VALUE <= value && value <= Integer.MAX_VALUE) {
+                walker.setFloatValue((int) value);
+            } else {
+                walker.setFloatValue(Long.valueOf(value));
+            }
+            return true;
+        }
+    },
+
+    /**
+     * REAL
+     */
+    FLOAT {
+        @Override
+        boolean write(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final float value = rs.getFloat(columnIndex);
+            if (rs.wasNull()) {
+                return false;
+            }
+            walker.setFloatValue(value);
+            return true;
+        }
+    },
+
+    /**
+     * FLOAT, DOUBLE
+     */
+    DOUBLE {
+        @Override
+        boolean write(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final double value = rs.getDouble(columnIndex);
+            if (rs.wasNull()) {
+                return false;
+            }
+            walker.setFloatValue(value);
+            return true;
+        }
+    },
+
+    /**
+     * DECIMAL, NUMERIC
+     */
+    DECIMAL {
+        @Override
+        boolean write(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final BigDecimal value = rs.getBigDecimal(columnIndex);
+            if (value == null) {
+                return false;
+            }
+            walker.setFloatValue(value);
+            return true;
+        }
+    },
+
+    /**
+     * BOOLEAN
+     */
+    BOOLEAN {
+        @Override
+        boolean write(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final boolean value = rs.getBoolean(columnIndex);
+            if (rs.wasNull()) {
+                return false;
+            }
+            walker.setBooleanValue(value);
+            return true;
+        }
+    },
+
+    /**
+     * CHAR, VARCHAR, LONGVARCHAR and the N variants
+     */
+    STRING {
+        @Override
+        boolean write(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            final String value = rs.getString(columnIndex);
+            if (value == null) {
+                return false;
+            }
+            walker.setStringValue(value);
+            return true;
+        }
+    },
+
+    /**
+     * DATE
+     */
+    DATE {
+        @Override
+        boolean write(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            return ResultSetColumnWriter.writeDate(rs.getDate(columnIndex), walker);
+        }
+    },
+
+    /**
+     * TIME
+     */
+    TIME {
+        @Override
+        boolean write(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            return ResultSetColumnWriter.writeDate(rs.getTime(columnIndex), walker);
+        }
+    },
+
+    /**
+     * TIMESTAMP
+     */
+    TIMESTAMP {
+        @Override
+        boolean write(final ResultSet rs, final int columnIndex, final TableCellWalker walker)
+                throws SQLException {
+            return ResultSetColumnWriter.writeDate(rs.getTimestamp(columnIndex), walker);
+        }
+    };
+
+    /**
+     * @param sqlType the type from {@code ResultSetMetaData.getColumnType}
+     * @return the writer, or null if the values of this type must go through the generic
+     * {@code getObject} path (LOBs, SQLXML, intervals, driver specific types...)
+     */
+    static ResultSetColumnWriter fromSQLType(final int sqlType) {
+        switch (sqlType) {
+            case Types.TINYINT:
+            case Types.SMALLINT:
+            case Types.INTEGER:
+            case Types.BIGINT:
+                return LONG;
+            case Types.REAL:
+                return FLOAT;
+            case Types.FLOAT:
+            case Types.DOUBLE:
+                return DOUBLE;
+            case Types.DECIMAL:
+            case Types.NUMERIC:
+                return DECIMAL;
+            case Types.BOOLEAN:
+                return BOOLEAN;
+            case Types.CHAR:
+            case Types.VARCHAR:
+            case Types.LONGVARCHAR:
+            case Types.NCHAR:
+            case Types.NVARCHAR:
+            case Types.LONGNVARCHAR:
+                return STRING;
+            case Types.DATE:
+                return DATE;
+            case Types.TIME:
+                return TIME;
+            case Types.TIMESTAMP:
+                return TIMESTAMP;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean writeDate(final Date value, final TableCellWalker walker) {
+        if (value == null) {
+            return false;
+        }
+        walker.setDateValue(value.getTime());
+        return true;
+    }
+
+    /**
+     * Write the current value of the column to the current cell.
+     *
+     * @param rs          the result set
+     * @param columnIndex the column index (1-based)
+     * @param walker      the walker
+     * @return false if the value was NULL (and the cell was not written)
+     * @throws SQLException if a database access error occurs
+     */
+    abstract boolean write(ResultSet rs, int columnIndex, TableCellWalker walker)
+            throws SQLException;
+}
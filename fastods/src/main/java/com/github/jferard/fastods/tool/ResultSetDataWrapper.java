@@ -75,7 +75,7 @@ public final class ResultSetDataWrapper implements DataWrapper {
     private final ResultSet resultSet;
     private final Map<Integer, CellType> cellTypeByColIndex;
     private final CellValue nullValue;
-
+    private final boolean typedFastPath;
 
     /**
      * @param logger             a logger
@@ -93,6 +93,29 @@ public final class ResultSetDataWrapper implements DataWrapper {
                                 final TableCellStyle headCellStyle, final boolean autoFilter,
                                 final Map<Integer, CellType> cellTypeByColIndex,
                                 final CellValue nullValue, final int max) {
+        this(logger, converter, rangeName, rs, headCellStyle, autoFilter, cellTypeByColIndex,
+                nullValue, max, false);
+    }
+
+    /**
+     * @param logger             a logger
+     * @param converter          a converter SQL -> OpenDocument
+     * @param rangeName          the name of the range
+     * @param rs                 the result cell
+     * @param headCellStyle      a style for header, null if none
+     * @param autoFilter         set an auto filter if true
+     * @param cellTypeByColIndex a hint for cell types
+     * @param nullValue          the default value for NULL
+     * @param max                the maximum number of rows, -1 for unlimited
+     * @param typedFastPath      if true, the columns of a standard SQL type without hint are
+     *                           read with the primitive getters and bypass the converter.
+     */
+    public ResultSetDataWrapper(final Logger logger, final ToCellValueConverter converter,
+                                final String rangeName, final ResultSet rs,
+                                final TableCellStyle headCellStyle, final boolean autoFilter,
+                                final Map<Integer, CellType> cellTypeByColIndex,
+                                final CellValue nullValue, final int max,
+                                final boolean typedFastPath) {
         this.logger = logger;
         this.converter = converter;
         this.rangeName = rangeName;
@@ -102,11 +125,27 @@ public final class ResultSetDataWrapper implements DataWrapper {
         this.cellTypeByColIndex = cellTypeByColIndex;
         this.nullValue = nullValue;
         this.max = max;
+        this.typedFastPath = typedFastPath;
     }
 
     @Override
     public boolean addToTable(final TableCellWalker walker) throws IOException {
+        return this.addToTable(walker, 0) > 0;
+    }
+
+    /**
+     * Add the data to the table. If fetchSize is positive, it is given as a hint to the result
+     * set, and the rows are handed off to the writer every fetchSize rows: the table must have
+     * been added to a named document.
+     *
+     * @param walker    a walker with a position (typically the top right corner of the data)
+     * @param fetchSize the number of rows of a batch, 0 to disable batches
+     * @return the number of data rows written
+     * @throws IOException if an I/O error occurred.
+     */
+    int addToTable(final TableCellWalker walker, final int fetchSize) throws IOException {
         int rowCount = 0; // at least
+        int writtenRowCount = 0;
         try {
             final ResultSetMetaData metadata = this.resultSet.getMetaData();
             try {
@@ -115,13 +154,22 @@ public final class ResultSetDataWrapper implements DataWrapper {
 
                 final int columnCount = metadata.getColumnCount();
 
+                if (fetchSize > 0) {
+                    this.resultSet.setFetchSize(fetchSize);
+                }
                 this.writeFirstLineDataTo(walker, metadata);
+                final ResultSetColumnWriter[] columnWriters =
+                        this.getColumnWriters(metadata, columnCount);
                 if (this.resultSet.next()) {
                     do {
                         if (this.max == -1 || ++rowCount <= this.max) {
                             walker.nextRow();
                             walker.to(c1);
-                            this.writeDataLineTo(walker, columnCount);
+                            this.writeDataLineTo(walker, columnWriters);
+                            writtenRowCount++;
+                            if (fetchSize > 0 && writtenRowCount % fetchSize == 0) {
+                                walker.getTable().asyncFlushAvailableRows();
+                            }
                         }
                     } while (this.resultSet.next());
                 }
@@ -151,7 +199,7 @@ public final class ResultSetDataWrapper implements DataWrapper {
             }
             throw new RuntimeException(e);
         }
-        return rowCount > 0;
+        return writtenRowCount;
     }
 
     /**
@@ -170,15 +218,27 @@ public final class ResultSetDataWrapper implements DataWrapper {
     }
 
     /**
-     * @return the values of the current column
+     * The SQL types are inspected once: a null writer means that the column goes through the
+     * generic path (getObject + converter).
+     *
+     * @param metadata    the result set metadata
+     * @param columnCount the number of columns
+     * @return the writers, one per column
      * @throws SQLException if a database access error occurs
      */
-    private List<Object> getColumnValues(final int columnCount) throws SQLException {
-        final List<Object> values = new ArrayList<Object>(columnCount);
-        for (int i = 0; i < columnCount; i++) {
-            values.add(this.resultSet.getObject(i + 1));
+    private ResultSetColumnWriter[] getColumnWriters(final ResultSetMetaData metadata,
+                                                     final int columnCount)
+            throws SQLException {
+        final ResultSetColumnWriter[] columnWriters = new ResultSetColumnWriter[columnCount];
+        if (!this.typedFastPath) {
+            return columnWriters;
         }
-        return values;
+        for (int j = 0; j <= columnCount - 1; j++) {
+            if (this.cellTypeByColIndex == null || this.cellTypeByColIndex.get(j) == null) {
+                columnWriters[j] = ResultSetColumnWriter.fromSQLType(metadata.getColumnType(j + 1));
+            }
+        }
+        return columnWriters;
     }
 
     private void writeFirstLineDataTo(final TableCellWalker walker,
@@ -195,24 +255,34 @@ public final class ResultSetDataWrapper implements DataWrapper {
         }
     }
 
-    private void writeDataLineTo(final TableCellWalker walker, final int columnCount)
+    private void writeDataLineTo(final TableCellWalker walker,
+                                 final ResultSetColumnWriter[] columnWriters)
             throws SQLException, FastOdsException {
-        final List<Object> columnValues = this.getColumnValues(columnCount);
+        final int columnCount = columnWriters.length;
         for (int j = 0; j <= columnCount - 1; j++) {
-            final Object object = columnValues.get(j);
-            if (object == null) {
+            final ResultSetColumnWriter columnWriter = columnWriters[j];
+            if (columnWriter == null) {
+                this.writeObjectTo(walker, j, this.resultSet.getObject(j + 1));
+            } else if (!columnWriter.write(this.resultSet, j + 1, walker)) {
                 walker.setCellValue(this.nullValue);
-            } else if (this.cellTypeByColIndex != null) {
-                final CellType cellType = this.cellTypeByColIndex.get(j);
-                if (cellType != null) {
-                    walker.setCellValue(this.converter.from(cellType, object));
-                } else {
-                    walker.setCellValue(this.converter.from(object));
-                }
+            }
+            walker.next();
+        }
+    }
+
+    private void writeObjectTo(final TableCellWalker walker, final int j, final Object object)
+            throws FastOdsException {
+        if (object == null) {
+            walker.setCellValue(this.nullValue);
+        } else if (this.cellTypeByColIndex != null) {
+            final CellType cellType = this.cellTypeByColIndex.get(j);
+            if (cellType != null) {
+                walker.setCellValue(this.converter.from(cellType, object));
             } else {
                 walker.setCellValue(this.converter.from(object));
             }
-            walker.next();
+        } else {
+            walker.setCellValue(this.converter.from(object));
         }
     }
 
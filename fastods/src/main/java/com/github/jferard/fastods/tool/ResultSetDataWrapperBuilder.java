@@ -60,6 +60,7 @@ public class ResultSetDataWrapperBuilder {
     private boolean autoFilter;
     private int max;
     private CellValue nullValue;
+    private boolean typedFastPath;
 
 
     /**
@@ -72,6 +73,7 @@ public class ResultSetDataWrapperBuilder {
         this.logger = null;
         this.headerStyle = HEADER_STYLE;
         this.autoFilter = true;
+        this.typedFastPath = true;
         this.max = -1;
         this.cellTypeByIndex = new HashMap<Integer, CellType>();
         this.currency = NumberFormat.getCurrencyInstance(Locale.US).getCurrency().getSymbol();
@@ -138,6 +140,18 @@ public class ResultSetDataWrapperBuilder {
         return this;
     }
 
+    /**
+     * Read every value with {@code ResultSet.getObject} and the converter. By default, the
+     * columns of a standard SQL type (numbers, strings, booleans, dates) without hint are read
+     * with the primitive getters and set directly to the cells.
+     *
+     * @return this for fluent style
+     */
+    public ResultSetDataWrapperBuilder noTypedFastPath() {
+        this.typedFastPath = false;
+        return this;
+    }
+
     /**
      * Give a hint for a column type
      *
@@ -206,6 +220,6 @@ public class ResultSetDataWrapperBuilder {
                 this.cellTypeByIndex.isEmpty() ? null : this.cellTypeByIndex;
         return new ResultSetDataWrapper(this.logger, sqlToCellValueConverter, this.rangeName,
                 this.rs, this.headerStyle, this.autoFilter, cellTypeByIndexOrNull, this.nullValue,
-                this.max);
+                this.max, this.typedFastPath);
     }
 }
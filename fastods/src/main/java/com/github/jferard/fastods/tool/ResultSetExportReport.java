@@ -0,0 +1,124 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import java.util.Locale;
+
+/**
+ * The report of an export: sizes and throughput.
+ *
+ * @author Julien Férard
+ */
+public final class ResultSetExportReport {
+    private static final double NANOS_PER_SECOND = 1000000000.0;
+
+    private final int rowCount;
+    private final long cellCount;
+    private final long byteCount;
+    private final long fetchNanos;
+    private final long elapsedNanos;
+
+    /**
+     * @param rowCount     the number of data rows
+     * @param cellCount    the number of cells, including the header
+     * @param byteCount    the size of the file
+     * @param fetchNanos   the time spent by the fetch stage
+     * @param elapsedNanos the total time, until the file is closed
+     */
+    ResultSetExportReport(final int rowCount, final long cellCount, final long byteCount,
+                          final long fetchNanos, final long elapsedNanos) {
+        this.rowCount = rowCount;
+        this.cellCount = cellCount;
+        this.byteCount = byteCount;
+        this.fetchNanos = fetchNanos;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * @return the number of data rows
+     */
+    public int getRowCount() {
+        return this.rowCount;
+    }
+
+    /**
+     * @return the number of cells, including the header
+     */
+    public long getCellCount() {
+        return this.cellCount;
+    }
+
+    /**
+     * @return the size of the file
+     */
+    public long getByteCount() {
+        return this.byteCount;
+    }
+
+    /**
+     * @return the time spent by the fetch stage, in nanoseconds. If it is close to the elapsed
+     * time, the database is the bottleneck.
+     */
+    public long getFetchNanos() {
+        return this.fetchNanos;
+    }
+
+    /**
+     * @return the total time, in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * @return the number of data rows per second
+     */
+    public double getRowsPerSecond() {
+        return this.perSecond(this.rowCount);
+    }
+
+    /**
+     * @return the number of bytes written per second
+     */
+    public double getBytesPerSecond() {
+        return this.perSecond(this.byteCount);
+    }
+
+    private double perSecond(final long count) {
+        if (this.elapsedNanos <= 0) {
+            return 0.0;
+        }
+        return count * NANOS_PER_SECOND / this.elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format(Locale.US,
+                "%d rows, %d cells, %d bytes in %.3f s (fetch: %.3f s): %.0f rows/s, %.0f bytes/s",
+                this.rowCount, this.cellCount, this.byteCount,
+                this.elapsedNanos / NANOS_PER_SECOND, this.fetchNanos / NANOS_PER_SECOND,
+                this.getRowsPerSecond(), this.getBytesPerSecond());
+    }
+}
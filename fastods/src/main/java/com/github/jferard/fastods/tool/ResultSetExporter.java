@@ -0,0 +1,150 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.NamedOdsDocument;
+import com.github.jferard.fastods.NamedOdsFileWriter;
+import com.github.jferard.fastods.OdsFactory;
+import com.github.jferard.fastods.Table;
+import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
+import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An exporter for big result sets. The export is a pipeline of three stages, with bounded
+ * hand-off buffers:
+ * <ul>
+ * <li>fetch: the calling thread reads the result set by batches of fetchSize rows (the size is
+ * also given as a hint to the driver) and fills the rows of the table;</li>
+ * <li>serialize: a background thread writes the XML of each batch and encodes it into UTF-8
+ * byte chunks. If this stage is too slow, the fetch stage waits;</li>
+ * <li>compress: the chunks are deflated on a pool of threads and written in order to the
+ * file.</li>
+ * </ul>
+ * <p>
+ * Usage:
+ * <pre>
+ * final ResultSetDataWrapper data = ResultSetDataWrapper.builder("range", rs).build();
+ * final ResultSetExportReport report = ResultSetExporter.builder(odsFactory).fetchSize(5000)
+ *         .build().export(file, "table", data);
+ * </pre>
+ *
+ * @author Julien Férard
+ */
+public final class ResultSetExporter {
+    /**
+     * @param odsFactory the factory
+     * @return a builder for the exporter
+     */
+    public static ResultSetExporterBuilder builder(final OdsFactory odsFactory) {
+        return new ResultSetExporterBuilder(odsFactory);
+    }
+
+    private final Logger logger;
+    private final OdsFactory odsFactory;
+    private final int fetchSize;
+    private final int capacity;
+    private final Executor executor;
+    private final boolean parallelDeflate;
+    private final ExecutorService deflateExecutor;
+    private final int level;
+
+    /**
+     * @param logger          the logger
+     * @param odsFactory      the factory
+     * @param fetchSize       the number of rows of a batch
+     * @param capacity        the max number of pending batches
+     * @param executor        the executor for the serialize stage, null for a new thread
+     * @param parallelDeflate if true, deflate on a pool of threads
+     * @param deflateExecutor the pool, null for a pool owned by the writer
+     * @param level           the zip level
+     */
+    ResultSetExporter(final Logger logger, final OdsFactory odsFactory, final int fetchSize,
+                      final int capacity, final Executor executor,
+                      final boolean parallelDeflate, final ExecutorService deflateExecutor,
+                      final int level) {
+        this.logger = logger;
+        this.odsFactory = odsFactory;
+        this.fetchSize = fetchSize;
+        this.capacity = capacity;
+        this.executor = executor;
+        this.parallelDeflate = parallelDeflate;
+        this.deflateExecutor = deflateExecutor;
+        this.level = level;
+    }
+
+    /**
+     * Export a result set to a new file, in a single table.
+     *
+     * @param file      the destination file
+     * @param tableName the name of the table
+     * @param data      the wrapper of the result set (header, auto filter, max rows...)
+     * @return the report
+     * @throws IOException if an I/O error occurs
+     */
+    public ResultSetExportReport export(final File file, final String tableName,
+                                        final ResultSetDataWrapper data) throws IOException {
+        final long start = System.nanoTime();
+        final NamedOdsFileWriter writer = this.odsFactory
+                .createBackgroundWriter(file, this.executor, this.capacity,
+                        this.createZipBuilder());
+        final int rowCount;
+        final long cellCount;
+        final long fetchNanos;
+        try {
+            final NamedOdsDocument document = writer.document();
+            final Table table = document.addTable(tableName);
+            rowCount = data.addToTable(table.getWalker(), this.fetchSize);
+            fetchNanos = System.nanoTime() - start;
+            writer.save();
+            cellCount = table.getCellCount();
+        } finally {
+            writer.close();
+        }
+        final ResultSetExportReport report = new ResultSetExportReport(rowCount, cellCount,
+                file.length(), fetchNanos, System.nanoTime() - start);
+        this.logger.log(Level.FINE, "Export of " + tableName + ": " + report);
+        return report;
+    }
+
+    private ZipUTF8WriterBuilder createZipBuilder() {
+        final ZipUTF8WriterBuilder zipBuilder =
+                ZipUTF8WriterImpl.builder().directEncoding().level(this.level);
+        if (this.parallelDeflate) {
+            if (this.deflateExecutor == null) {
+                zipBuilder.parallelDeflate();
+            } else {
+                zipBuilder.parallelDeflate(this.deflateExecutor);
+            }
+        }
+        return zipBuilder;
+    }
+}
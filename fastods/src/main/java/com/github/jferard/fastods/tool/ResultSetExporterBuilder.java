@@ -0,0 +1,162 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.OdsFactory;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.logging.Logger;
+import java.util.zip.Deflater;
+
+/**
+ * A builder for a ResultSetExporter.
+ *
+ * @author Julien Férard
+ */
+public class ResultSetExporterBuilder {
+    /**
+     * The default number of rows of a batch.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    /**
+     * The default max number of batches waiting for the serialize stage.
+     */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private final OdsFactory odsFactory;
+    private Logger logger;
+    private int fetchSize;
+    private int capacity;
+    private Executor executor;
+    private boolean parallelDeflate;
+    private ExecutorService deflateExecutor;
+    private int level;
+
+    /**
+     * @param odsFactory the factory
+     */
+    public ResultSetExporterBuilder(final OdsFactory odsFactory) {
+        this.odsFactory = odsFactory;
+        this.logger = Logger.getLogger(ResultSetExporter.class.getName());
+        this.fetchSize = DEFAULT_FETCH_SIZE;
+        this.capacity = DEFAULT_CAPACITY;
+        this.executor = null;
+        this.parallelDeflate = true;
+        this.deflateExecutor = null;
+        this.level = Deflater.BEST_SPEED;
+    }
+
+    /**
+     * Set a logger
+     *
+     * @param logger the logger
+     * @return this for fluent style
+     */
+    public ResultSetExporterBuilder logger(final Logger logger) {
+        this.logger = logger;
+        return this;
+    }
+
+    /**
+     * Set the number of rows of a batch. This is also the fetch size hint of the result set.
+     *
+     * @param fetchSize the number of rows
+     * @return this for fluent style
+     */
+    public ResultSetExporterBuilder fetchSize(final int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive: " + fetchSize);
+        }
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * Set the max number of batches waiting for the serialize stage.
+     *
+     * @param capacity the capacity of the hand-off buffer
+     * @return this for fluent style
+     */
+    public ResultSetExporterBuilder capacity(final int capacity) {
+        this.capacity = capacity;
+        return this;
+    }
+
+    /**
+     * Set the executor of the serialize stage. By default, a new thread is created.
+     *
+     * @param executor the executor
+     * @return this for fluent style
+     */
+    public ResultSetExporterBuilder executor(final Executor executor) {
+        this.executor = executor;
+        return this;
+    }
+
+    /**
+     * Deflate on a given pool of threads. The pool is not shut down by the exporter. By
+     * default, each export creates and shuts down its own pool.
+     *
+     * @param deflateExecutor the pool
+     * @return this for fluent style
+     */
+    public ResultSetExporterBuilder deflateExecutor(final ExecutorService deflateExecutor) {
+        this.parallelDeflate = true;
+        this.deflateExecutor = deflateExecutor;
+        return this;
+    }
+
+    /**
+     * Deflate on the serialize thread.
+     *
+     * @return this for fluent style
+     */
+    public ResultSetExporterBuilder noParallelDeflate() {
+        this.parallelDeflate = false;
+        this.deflateExecutor = null;
+        return this;
+    }
+
+    /**
+     * Set the zip level
+     *
+     * @param level the level
+     * @return this for fluent style
+     */
+    public ResultSetExporterBuilder level(final int level) {
+        this.level = level;
+        return this;
+    }
+
+    /**
+     * @return the exporter
+     */
+    public ResultSetExporter build() {
+        return new ResultSetExporter(this.logger, this.odsFactory, this.fetchSize, this.capacity,
+                this.executor, this.parallelDeflate, this.deflateExecutor, this.level);
+    }
+}
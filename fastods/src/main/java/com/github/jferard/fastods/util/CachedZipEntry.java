@@ -0,0 +1,155 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A zip entry that was deflated once, and may be written to many zip files.
+ * The entry keeps the raw deflate data, the CRC32 and the sizes: a
+ * {@link ParallelZipOutputStream} copies the deflate data as is. Another zip stream deflates
+ * the bytes again.
+ *
+ * @author Julien Férard
+ */
+public class CachedZipEntry {
+    /**
+     * Serialize and deflate an entry
+     *
+     * @param name  the name of the entry
+     * @param bytes the content of the entry
+     * @param level the compression level
+     * @return the cached entry
+     */
+    public static CachedZipEntry create(final String name, final byte[] bytes,
+                                        final int level) {
+        final CRC32 crc = new CRC32();
+        crc.update(bytes);
+        final Deflater deflater = new Deflater(level, true);
+        try {
+            deflater.setInput(bytes);
+            deflater.finish();
+            byte[] buf = new byte[bytes.length + (bytes.length >> 3) + 64];
+            int pos = 0;
+            while (!deflater.finished()) {
+                if (pos == buf.length) {
+                    final byte[] newBuf = new byte[buf.length * 2];
+                    System.arraycopy(buf, 0, newBuf, 0, buf.length);
+                    buf = newBuf;
+                }
+                pos += deflater.deflate(buf, pos, buf.length - pos);
+            }
+            final byte[] deflated = new byte[pos];
+            System.arraycopy(buf, 0, deflated, 0, pos);
+            return new CachedZipEntry(name, bytes, deflated, crc.getValue());
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private final String name;
+    private final byte[] bytes;
+    private final byte[] deflated;
+    private final long crc;
+
+    /**
+     * @param name     the name of the entry
+     * @param bytes    the content of the entry
+     * @param deflated the raw deflate data (no zlib header)
+     * @param crc      the CRC32 of the content
+     */
+    CachedZipEntry(final String name, final byte[] bytes, final byte[] deflated,
+                   final long crc) {
+        this.name = name;
+        this.bytes = bytes;
+        this.deflated = deflated;
+        this.crc = crc;
+    }
+
+    /**
+     * Write this entry to a zip stream. The entry is closed.
+     *
+     * @param zipStream the stream
+     * @param entry     the zip entry (name, time...), filled with the sizes and the CRC32.
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(final ZipOutputStream zipStream, final ZipEntry entry)
+            throws IOException {
+        if (zipStream instanceof ParallelZipOutputStream) {
+            ((ParallelZipOutputStream) zipStream)
+                    .writeDeflatedEntry(entry, this.deflated, this.crc, this.bytes.length);
+        } else {
+            zipStream.putNextEntry(entry);
+            zipStream.write(this.bytes);
+            zipStream.closeEntry();
+        }
+    }
+
+    /**
+     * Write the content of this entry to a writer that doesn't copy the deflate data. The entry
+     * is closed.
+     *
+     * @param writer the writer
+     * @param entry  the zip entry (name, time...)
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(final ZipUTF8Writer writer, final ZipEntry entry) throws IOException {
+        writer.putNextEntry(entry);
+        writer.write(this.bytes);
+        writer.closeEntry();
+    }
+
+    /**
+     * @return the name of the entry
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the CRC32 of the content
+     */
+    public long getCrc() {
+        return this.crc;
+    }
+
+    /**
+     * @return the uncompressed size
+     */
+    public long getSize() {
+        return this.bytes.length;
+    }
+
+    /**
+     * @return the size of the deflate data
+     */
+    public long getCompressedSize() {
+        return this.deflated.length;
+    }
+}
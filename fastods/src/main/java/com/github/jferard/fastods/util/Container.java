@@ -38,8 +38,9 @@ import java.util.logging.Logger;
  * @author Julien Férard
  */
 public class Container<K, V> {
-    private final Map<K, V> valueByKey;
     private final Logger logger;
+    private Map<K, V> valueByKey;
+    private boolean shared;
     private boolean closed;
     private boolean debug;
     private Mode mode;
@@ -50,11 +51,36 @@ public class Container<K, V> {
      * @param logger the logger
      */
     public Container(final Logger logger) {
+        this(logger, new HashMap<K, V>(), false, Mode.CREATE);
+    }
+
+    /**
+     * @param logger     the logger
+     * @param valueByKey the map
+     * @param debug      the debug mode
+     * @param mode       the mode
+     */
+    private Container(final Logger logger, final Map<K, V> valueByKey, final boolean debug,
+                      final Mode mode) {
         this.logger = logger;
-        this.valueByKey = new HashMap<K, V>();
+        this.valueByKey = valueByKey;
         this.closed = false;
-        this.debug = false;
-        this.mode = Mode.CREATE;
+        this.debug = debug;
+        this.mode = mode;
+    }
+
+    /**
+     * Create a copy-on-write fork of this container: the fork and this container share the
+     * map until one of them is modified. The fork is not frozen.
+     *
+     * @return the fork
+     */
+    public Container<K, V> fork() {
+        this.shared = true;
+        final Container<K, V> fork =
+                new Container<K, V>(this.logger, this.valueByKey, this.debug, this.mode);
+        fork.shared = true;
+        return fork;
     }
 
     /**
@@ -86,6 +112,9 @@ public class Container<K, V> {
             if (this.mode == Mode.CREATE) {
                 return false;
             }
+            if (curValue == value) { // nothing to do: don't unshare a fork
+                return true;
+            }
         }
 
         if (this.closed && !this.valueByKey.containsKey(key)) {
@@ -94,6 +123,10 @@ public class Container<K, V> {
             this.logger.severe("Container put(" + key + ", " + value + ")");
         }
 
+        if (this.shared) {
+            this.valueByKey = new HashMap<K, V>(this.valueByKey);
+            this.shared = false;
+        }
         this.valueByKey.put(key, value);
         return true;
     }
@@ -134,6 +167,13 @@ public class Container<K, V> {
         return this.valueByKey.values();
     }
 
+    /**
+     * @return the number of values
+     */
+    public int size() {
+        return this.valueByKey.size();
+    }
+
     /**
      * the mode
      */
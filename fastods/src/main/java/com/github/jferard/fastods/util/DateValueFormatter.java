@@ -0,0 +1,155 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.TimeZone;
+
+/**
+ * A formatter for the office:date-value attribute: "yyyy-MM-dd'T'HH:mm:ss.SSS'Z'" (XML Schema
+ * Part 2, 3.2.7 dateTime, UTC). The formatter has no mutable state: it is safe to share it
+ * between threads.
+ * <p>
+ * Dates between the Gregorian cutover (1582-10-15) and the year 9999 are formatted from the
+ * epoch millis with precomputed digit tables. Other dates are formatted by a SimpleDateFormat,
+ * to keep the Julian calendar and the era year.
+ *
+ * @author Julien Férard
+ */
+public class DateValueFormatter {
+    private static final long MILLIS_PER_DAY = 86400000L;
+    private static final long GREGORIAN_CUTOVER = -12219292800000L; // 1582-10-15T00:00:00Z
+    private static final long YEAR_10000 = 253402300800000L; // 10000-01-01T00:00:00Z
+    private static final int DAYS_FROM_0000_03_01_TO_EPOCH = 719468;
+    private static final int DAYS_PER_ERA = 146097; // 400 years
+    private static final char[] TENS = new char[100];
+    private static final char[] ONES = new char[100];
+
+    static {
+        for (int i = 0; i < 100; i++) {
+            TENS[i] = (char) ('0' + i / 10);
+            ONES[i] = (char) ('0' + i % 10);
+        }
+    }
+
+    /**
+     * @return a new formatter
+     */
+    public static DateValueFormatter create() {
+        final SimpleDateFormat fallbackFormat =
+                new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        fallbackFormat.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return new DateValueFormatter(fallbackFormat);
+    }
+
+    private final SimpleDateFormat fallbackFormat;
+
+    /**
+     * @param fallbackFormat the format for the dates out of the fast path. Will be
+     *                       synchronized.
+     */
+    DateValueFormatter(final SimpleDateFormat fallbackFormat) {
+        this.fallbackFormat = fallbackFormat;
+    }
+
+    /**
+     * @param epochMillis the number of milliseconds since 1970-01-01T00:00:00Z
+     * @return the formatted date
+     */
+    public String format(final long epochMillis) {
+        final StringBuilder sb = new StringBuilder(24);
+        try {
+            this.append(sb, epochMillis);
+        } catch (final IOException e) {
+            throw new AssertionError(e); // a StringBuilder does not throw IOExceptions
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Append the formatted date.
+     *
+     * @param appendable  the destination
+     * @param epochMillis the number of milliseconds since 1970-01-01T00:00:00Z
+     * @throws IOException if an I/O error occurs
+     */
+    public void append(final Appendable appendable, final long epochMillis)
+            throws IOException {
+        if (epochMillis < GREGORIAN_CUTOVER || epochMillis >= YEAR_10000) {
+            final String formatted;
+            synchronized (this.fallbackFormat) {
+                formatted = this.fallbackFormat.format(new Date(epochMillis));
+            }
+            appendable.append(formatted);
+            return;
+        }
+
+        long epochDays = epochMillis / MILLIS_PER_DAY;
+        int millisOfDay = (int) (epochMillis - epochDays * MILLIS_PER_DAY);
+        if (millisOfDay < 0) {
+            epochDays--;
+            millisOfDay += MILLIS_PER_DAY;
+        }
+
+        // see H. Hinnant, chrono-Compatible Low-Level Date Algorithms, days_from_civil: the
+        // year starts on March 1st, hence the leap day is the last day of the year.
+        final long daysFrom0000 = epochDays + DAYS_FROM_0000_03_01_TO_EPOCH; // >= 0 here
+        final int era = (int) (daysFrom0000 / DAYS_PER_ERA);
+        final int dayOfEra = (int) (daysFrom0000 - (long) era * DAYS_PER_ERA);
+        final int yearOfEra =
+                (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int shiftedMonth = (5 * dayOfYear + 2) / 153; // 0 = March
+        final int day = dayOfYear - (153 * shiftedMonth + 2) / 5 + 1;
+        final int month = shiftedMonth < 10 ? shiftedMonth + 3 : shiftedMonth - 9;
+        final int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+
+        final int seconds = millisOfDay / 1000;
+        final int millis = millisOfDay - seconds * 1000;
+
+        this.append2(appendable, year / 100);
+        this.append2(appendable, year % 100);
+        appendable.append('-');
+        this.append2(appendable, month);
+        appendable.append('-');
+        this.append2(appendable, day);
+        appendable.append('T');
+        this.append2(appendable, seconds / 3600);
+        appendable.append(':');
+        this.append2(appendable, seconds / 60 % 60);
+        appendable.append(':');
+        this.append2(appendable, seconds % 60);
+        appendable.append('.');
+        appendable.append((char) ('0' + millis / 100));
+        this.append2(appendable, millis % 100);
+        appendable.append('Z');
+    }
+
+    private void append2(final Appendable appendable, final int value) throws IOException {
+        appendable.append(TENS[value]).append(ONES[value]);
+    }
+}
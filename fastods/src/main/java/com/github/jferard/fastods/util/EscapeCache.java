@@ -0,0 +1,146 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache for escaped strings. The cache may be bounded: in this case, the least recently used
+ * entry is evicted when the cache is full.
+ *
+ * @author Julien Férard
+ */
+public class EscapeCache {
+    /**
+     * The value of max size for an unbounded cache.
+     */
+    public static final int NO_LIMIT = -1;
+
+    /**
+     * @param maxSize the max number of entries
+     * @return a new LRU cache
+     */
+    public static EscapeCache lru(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        return new EscapeCache(new LRUMap(maxSize), maxSize);
+    }
+
+    /**
+     * Beware: every distinct string is retained as long as the cache lives.
+     *
+     * @return a new unbounded cache
+     */
+    public static EscapeCache unbounded() {
+        return new EscapeCache(new HashMap<String, String>(), NO_LIMIT);
+    }
+
+    private final Map<String, String> escapedByString;
+    private final int maxSize;
+    private long hitCount;
+    private long missCount;
+
+    /**
+     * @param escapedByString the map
+     * @param maxSize         the max size or NO_LIMIT
+     */
+    EscapeCache(final Map<String, String> escapedByString, final int maxSize) {
+        this.escapedByString = escapedByString;
+        this.maxSize = maxSize;
+        this.hitCount = 0;
+        this.missCount = 0;
+    }
+
+    /**
+     * @param s the raw string
+     * @return the escaped string or null if the string is not in the cache
+     */
+    public String get(final String s) {
+        final String escaped = this.escapedByString.get(s);
+        if (escaped == null) {
+            this.missCount++;
+        } else {
+            this.hitCount++;
+        }
+        return escaped;
+    }
+
+    /**
+     * @param s       the raw string
+     * @param escaped the escaped string
+     */
+    public void put(final String s, final String escaped) {
+        this.escapedByString.put(s, escaped);
+    }
+
+    /**
+     * @return the number of successful lookups
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * @return the number of failed lookups
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public int size() {
+        return this.escapedByString.size();
+    }
+
+    /**
+     * @return the max number of entries, or NO_LIMIT
+     */
+    public int getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * A LinkedHashMap in access order that removes the eldest entry when full.
+     */
+    private static class LRUMap extends LinkedHashMap<String, String> {
+        private static final long serialVersionUID = -2153408754720131625L;
+        private final int maxSize;
+
+        LRUMap(final int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+            return this.size() > this.maxSize;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+
+/**
+ * An attribute with a fixed value, e.g. {@code table:style-name="name"}. The escaped fragment
+ * is computed on the first use and then appended as is: the style names are written for every
+ * cell, row or column, and this saves an escaper lookup and several appends each time.
+ * <p>
+ * The fragment is computed with the first XMLUtil: the escapers of the XMLUtils are expected
+ * to produce the same output. The fragment may be computed twice by concurrent threads, but
+ * the result is the same.
+ *
+ * @author Julien Férard
+ */
+public class EscapedAttribute {
+    private final String name;
+    private final String rawValue;
+    private String fragment;
+
+    /**
+     * @param name     the name of the attribute
+     * @param rawValue the value of the attribute, to be escaped
+     */
+    public EscapedAttribute(final String name, final String rawValue) {
+        this.name = name;
+        this.rawValue = rawValue;
+    }
+
+    /**
+     * Append the fragment {@code  name="escaped value"}.
+     *
+     * @param util       an util to escape the value on the first use
+     * @param appendable the destination
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendTo(final XMLUtil util, final Appendable appendable) throws IOException {
+        String curFragment = this.fragment;
+        if (curFragment == null) {
+            curFragment = util.formatEAttribute(this.name, this.rawValue);
+            this.fragment = curFragment;
+        }
+        appendable.append(curFragment);
+    }
+}
@@ -31,6 +31,9 @@ import java.util.List;
 /**
  * A FullList is similar to a list, but is infinite. Every element that was not set
  * has a special blank value.
+ * <p>
+ * The head of the list may be released (see {@link #releaseUntil(int)}): the list is then a
+ * sliding window over the elements.
  *
  * @param <E> type of the elements
  * @author J. Férard
@@ -108,6 +111,7 @@ public class FastFullList<E> implements Iterable<E> {
     private int capacity;
     private E[] arr;
     private int size;
+    private int offset;
 
     /**
      * @param capacity     the capacity, >= 10
@@ -119,6 +123,7 @@ public class FastFullList<E> implements Iterable<E> {
         this.blankElement = blankElement;
         this.arr = (E[]) new Object[this.capacity];
         this.size = 0;
+        this.offset = 0;
     }
 
     /**
@@ -133,38 +138,48 @@ public class FastFullList<E> implements Iterable<E> {
      *
      * @param index   the index
      * @param element the element
+     * @throws IndexOutOfBoundsException if the element at this index was released
      */
     public void set(final int index, final E element) {
+        this.checkNotReleased(index);
         final int lastIndex = this.size - 1;
         if (index < lastIndex) {
-            this.arr[index] = element;
+            this.arr[index - this.offset] = element;
         } else if (index > lastIndex) { // index >= this.size
             if (element != this.blankElement) {
                 this.addMissingBlanks(index);
-                this.arr[index] = element;
+                this.arr[index - this.offset] = element;
             }
         } else {
             if (element == this.blankElement) {
                 this.removeTrail();
             } else {
-                this.arr[index] = element;
+                this.arr[index - this.offset] = element;
             }
         }
     }
 
+    private void checkNotReleased(final int index) {
+        if (index < this.offset) {
+            throw new IndexOutOfBoundsException(
+                    "Element " + index + " was released (first available: " + this.offset + ")");
+        }
+    }
+
     /**
      * post condition: this.size == index + 1
      */
     @SuppressWarnings("unchecked")
     private void addMissingBlanks(final int index) {
-        if (this.capacity <= index) {
-            this.capacity = index * 2 + 1;
+        final int arrIndex = index - this.offset;
+        if (this.capacity <= arrIndex) {
+            this.capacity = arrIndex * 2 + 1;
             final E[] newArr = (E[]) new Object[this.capacity];
-            System.arraycopy(this.arr, 0, newArr, 0, this.size);
+            System.arraycopy(this.arr, 0, newArr, 0, this.size - this.offset);
             this.arr = newArr;
         }
         if (this.blankElement != null) {
-            Arrays.fill(this.arr, this.size, index, this.blankElement);
+            Arrays.fill(this.arr, this.size - this.offset, arrIndex, this.blankElement);
         }
         this.size = index + 1;
     }
@@ -174,19 +189,71 @@ public class FastFullList<E> implements Iterable<E> {
      */
     private void removeTrail() {
         int last = this.size - 2;
-        while (last >= 0 && this.arr[last] == this.blankElement) {
+        while (last >= this.offset && this.arr[last - this.offset] == this.blankElement) {
             last--;
         }
         this.size = last + 1;
     }
 
+    /**
+     * Release the elements before an index: the list won't hold any reference to those
+     * elements, and an attempt to get or set one of them will fail fast.
+     * <p>
+     * The internal array does not grow if the list is used as a sliding window, ie if the
+     * distance between the first available index and the last index remains bounded.
+     *
+     * @param toIndex the index of the first element to keep
+     * @throws IllegalArgumentException if toIndex &gt; usedSize()
+     */
+    public void releaseUntil(final int toIndex) {
+        if (toIndex <= this.offset) {
+            return;
+        }
+        if (toIndex > this.size) {
+            throw new IllegalArgumentException(
+                    "Can't release elements after the last one: " + toIndex + " > " + this.size);
+        }
+
+        final int shift = toIndex - this.offset;
+        final int remaining = this.size - toIndex;
+        System.arraycopy(this.arr, shift, this.arr, 0, remaining);
+        Arrays.fill(this.arr, remaining, remaining + shift, null);
+        this.offset = toIndex;
+    }
+
+    /**
+     * Release the elements before an index. If the index is greater than the used size, the
+     * used size becomes the index: the missing elements are blank and released at once, and the
+     * internal array does not grow.
+     *
+     * @param toIndex the index of the first element to keep
+     */
+    public void skipUntil(final int toIndex) {
+        if (toIndex <= this.size) {
+            this.releaseUntil(toIndex);
+        } else {
+            this.releaseUntil(this.size);
+            this.offset = toIndex;
+            this.size = toIndex;
+        }
+    }
+
+    /**
+     * @return the index of the first element that was not released.
+     */
+    public int firstAvailableIndex() {
+        return this.offset;
+    }
+
     /**
      * @param index the index
      * @return the element at the index
+     * @throws IndexOutOfBoundsException if the element at this index was released
      */
     public E get(final int index) {
+        this.checkNotReleased(index);
         if (index < this.size) {
-            return this.arr[index];
+            return this.arr[index - this.offset];
         } else {
             return this.blankElement;
         }
@@ -196,13 +263,18 @@ public class FastFullList<E> implements Iterable<E> {
      * @param fromIndex starting index
      * @param toIndex   last index + 1
      * @return the sublist view.
+     * @throws IndexOutOfBoundsException if the element at fromIndex was released
      */
     public List<E> subList(final int fromIndex, final int toIndex) {
-        return Arrays.asList(this.arr).subList(fromIndex, toIndex);
+        this.checkNotReleased(fromIndex);
+        return Arrays.asList(this.arr).subList(fromIndex - this.offset, toIndex - this.offset);
     }
 
+    /**
+     * @return an iterator on the elements that were not released.
+     */
     @Override
     public Iterator<E> iterator() {
-        return Arrays.asList(this.arr).subList(0, this.size).iterator();
+        return Arrays.asList(this.arr).subList(0, this.size - this.offset).iterator();
     }
 }
@@ -24,19 +24,33 @@
 
 package com.github.jferard.fastods.util;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.io.IOException;
 
 /**
  * The FastOdsXMLEscaper class is an utility class to escape XML special chars.
+ * <p>
+ * The escaped strings are cached, but strings without special chars and strings longer than
+ * a max length bypass the cache. By default, the cache is bounded (LRU). The append methods
+ * use the cache as well: a short string is appended as cached, a longer one is appended run
+ * by run, without building the escaped string.
  *
  * @author Julien Férard
  */
 @SuppressWarnings("PMD.UnusedLocalVariable")
-public class FastOdsXMLEscaper implements XMLEscaper {
-    private static final int BUFFER_SIZE = 65536;
+public class FastOdsXMLEscaper implements AppendingXMLEscaper {
+    static final int BUFFER_SIZE = 65536;
+    /**
+     * The default max number of entries in each cache
+     */
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+    /**
+     * The default max length of a cached string
+     */
+    public static final int DEFAULT_MAX_CACHED_LENGTH = 256;
     private static final char[][] CHAR_SUBSTITUTES_IN_ATTRIBUTE;
     private static final char[][] CHAR_SUBSTITUTES_IN_CONTENT;
+    private static final String[] STRING_SUBSTITUTES_IN_ATTRIBUTE;
+    private static final String[] STRING_SUBSTITUTES_IN_CONTENT;
 
     /**
      * @return an xml escaper with the default buffer size (65536 bytes)
@@ -45,6 +59,13 @@ public class FastOdsXMLEscaper implements XMLEscaper {
         return new FastOdsXMLEscaper(FastOdsXMLEscaper.BUFFER_SIZE);
     }
 
+    /**
+     * @return a builder for a custom escaper (buffer size, cache policy)
+     */
+    public static FastOdsXMLEscaperBuilder builder() {
+        return new FastOdsXMLEscaperBuilder();
+    }
+
     static {
         final char[] REPLACEMENT_CHAR = "\\uFFFD".toCharArray();
         CHAR_SUBSTITUTES_IN_ATTRIBUTE =
@@ -72,50 +93,171 @@ public class FastOdsXMLEscaper implements XMLEscaper {
                         "&amp;".toCharArray(), null, null, null, null, null, null, null, null, null,
                         null, null, null, null, null, null, null, null, null, null, null, null,
                         "&lt;".toCharArray(), null, "&gt;".toCharArray()};
+        STRING_SUBSTITUTES_IN_ATTRIBUTE = FastOdsXMLEscaper.toStrings(CHAR_SUBSTITUTES_IN_ATTRIBUTE);
+        STRING_SUBSTITUTES_IN_CONTENT = FastOdsXMLEscaper.toStrings(CHAR_SUBSTITUTES_IN_CONTENT);
+    }
+
+    private static String[] toStrings(final char[][] charSubstitutes) {
+        final String[] stringSubstitutes = new String[charSubstitutes.length];
+        for (int i = 0; i < charSubstitutes.length; i++) {
+            final char[] charSubstitute = charSubstitutes[i];
+            if (charSubstitute != null) {
+                stringSubstitutes[i] = new String(charSubstitute);
+            }
+        }
+        return stringSubstitutes;
+    }
+
+    /**
+     * Append the escaped string to the appendable, run by run: the runs of chars that don't
+     * need an escape are appended as ranges of the source string.
+     *
+     * @param appendable        the destination
+     * @param s                 the source string
+     * @param stringSubstitutes the substitutes
+     * @throws IOException if an I/O error occurs
+     */
+    private static void appendEscapedRuns(final Appendable appendable, final String s,
+                                          final String[] stringSubstitutes)
+            throws IOException {
+        if (s == null) {
+            appendable.append(s);
+            return;
+        }
+        final int sourceLength = s.length();
+        int firstIdenticalCharInSourceIndex = 0;
+        for (int sourceIndex = 0; sourceIndex < sourceLength; sourceIndex++) {
+            final char c = s.charAt(sourceIndex);
+            if (c <= '>') {
+                final String substitute = stringSubstitutes[c];
+                if (substitute != null) {
+                    if (sourceIndex > firstIdenticalCharInSourceIndex) {
+                        appendable.append(s, firstIdenticalCharInSourceIndex, sourceIndex);
+                    }
+                    appendable.append(substitute);
+                    firstIdenticalCharInSourceIndex = sourceIndex + 1; // next one
+                }
+            }
+        }
+        if (firstIdenticalCharInSourceIndex == 0) {
+            appendable.append(s);
+        } else if (firstIdenticalCharInSourceIndex < sourceLength) {
+            appendable.append(s, firstIdenticalCharInSourceIndex, sourceLength);
+        }
     }
 
-    private final Map<String, String> attrCacheMap;
-    private final Map<String, String> contentCacheMap;
+    private final EscapeCache attrCache;
+    private final EscapeCache contentCache;
+    private final int maxCachedLength;
     private char[] buffer;
 
     /**
-     * Creates an xml escaper with a specified buffer size
+     * Creates an xml escaper with a specified buffer size and the default caches
      *
      * @param bufferSize the buffer size
      */
     public FastOdsXMLEscaper(final int bufferSize) {
-        this.attrCacheMap = new HashMap<String, String>();
-        this.contentCacheMap = new HashMap<String, String>();
+        this(bufferSize, EscapeCache.lru(DEFAULT_CACHE_SIZE), EscapeCache.lru(DEFAULT_CACHE_SIZE),
+                DEFAULT_MAX_CACHED_LENGTH);
+    }
+
+    /**
+     * Creates an xml escaper
+     *
+     * @param bufferSize      the buffer size
+     * @param attrCache       the cache for attributes, or null
+     * @param contentCache    the cache for contents, or null
+     * @param maxCachedLength strings longer than this length are not cached
+     */
+    public FastOdsXMLEscaper(final int bufferSize, final EscapeCache attrCache,
+                             final EscapeCache contentCache, final int maxCachedLength) {
+        this.attrCache = attrCache;
+        this.contentCache = contentCache;
+        this.maxCachedLength = maxCachedLength;
         this.buffer = new char[bufferSize];
     }
 
     @Override
     public String escapeXMLAttribute(final String s) {
+        return this.escape(s, CHAR_SUBSTITUTES_IN_ATTRIBUTE, this.attrCache);
+    }
+
+    @Override
+    public String escapeXMLContent(final String s) {
+        return this.escape(s, CHAR_SUBSTITUTES_IN_CONTENT, this.contentCache);
+    }
+
+    @Override
+    public void appendEscapedXMLAttribute(final Appendable appendable, final String s)
+            throws IOException {
+        this.appendEscaped(appendable, s, CHAR_SUBSTITUTES_IN_ATTRIBUTE,
+                STRING_SUBSTITUTES_IN_ATTRIBUTE, this.attrCache);
+    }
+
+    @Override
+    public void appendEscapedXMLContent(final Appendable appendable, final String s)
+            throws IOException {
+        this.appendEscaped(appendable, s, CHAR_SUBSTITUTES_IN_CONTENT,
+                STRING_SUBSTITUTES_IN_CONTENT, this.contentCache);
+    }
+
+    private void appendEscaped(final Appendable appendable, final String s,
+                               final char[][] charSubstitutes, final String[] stringSubstitutes,
+                               final EscapeCache cache) throws IOException {
+        if (s != null && cache != null && s.length() <= this.maxCachedLength) {
+            appendable.append(this.escape(s, charSubstitutes, cache));
+        } else {
+            FastOdsXMLEscaper.appendEscapedRuns(appendable, s, stringSubstitutes);
+        }
+    }
+
+    private String escape(final String s, final char[][] charSubstitutes,
+                          final EscapeCache cache) {
         if (s == null) {
             return null;
         }
 
-        final String cached = this.attrCacheMap.get(s);
+        final int firstSpecialCharIndex = this.getFirstSpecialCharIndex(s, charSubstitutes);
+        if (firstSpecialCharIndex == -1) { // nothing to escape, nothing to cache
+            return s;
+        }
+
+        if (cache == null || s.length() > this.maxCachedLength) {
+            return this.getEscapedString(s, charSubstitutes, firstSpecialCharIndex);
+        }
+
+        final String cached = cache.get(s);
         if (cached != null) {
             return cached;
         }
 
-        final String escaped = this.getEscapedString(s, CHAR_SUBSTITUTES_IN_ATTRIBUTE);
-        this.attrCacheMap.put(s, escaped);
+        final String escaped = this.getEscapedString(s, charSubstitutes, firstSpecialCharIndex);
+        cache.put(s, escaped);
         return escaped;
     }
 
-    private String getEscapedString(final String s, final char[][] charSubstitutes) {
+    private int getFirstSpecialCharIndex(final String s, final char[][] charSubstitutes) {
+        final int sourceLength = s.length();
+        for (int sourceIndex = 0; sourceIndex < sourceLength; sourceIndex++) {
+            final char c = s.charAt(sourceIndex);
+            if (c <= '>' && charSubstitutes[c] != null) {
+                return sourceIndex;
+            }
+        }
+        return -1;
+    }
+
+    private String getEscapedString(final String s, final char[][] charSubstitutes,
+                                    final int firstSpecialCharIndex) {
         final int sourceLength = s.length();
         int previousDestIndex = 0;
         int firstIdenticalCharInSourceIndex = 0;
-        boolean oneSpecialChar = false;
-        for (int sourceIndex = 0; sourceIndex < sourceLength; sourceIndex++) {
+        for (int sourceIndex = firstSpecialCharIndex; sourceIndex < sourceLength;
+             sourceIndex++) {
             final char c = s.charAt(sourceIndex);
             if (c <= '>') {
                 final char[] toCopy = charSubstitutes[c];
                 if (toCopy != null) {
-                    oneSpecialChar = true;
                     previousDestIndex = this.fillBufferAndGetPreviousDestIndex(s, previousDestIndex,
                             firstIdenticalCharInSourceIndex, sourceIndex, toCopy);
                     firstIdenticalCharInSourceIndex = sourceIndex + 1; // next one
@@ -123,14 +265,7 @@ public class FastOdsXMLEscaper implements XMLEscaper {
             }
         }
 
-        final String s2;
-        if (oneSpecialChar) {
-            s2 = this.getString(s, sourceLength, previousDestIndex,
-                    firstIdenticalCharInSourceIndex);
-        } else {
-            s2 = s;
-        }
-        return s2;
+        return this.getString(s, sourceLength, previousDestIndex, firstIdenticalCharInSourceIndex);
     }
 
     private int fillBufferAndGetPreviousDestIndex(final String s, int previousDestIndex,
@@ -180,19 +315,31 @@ public class FastOdsXMLEscaper implements XMLEscaper {
         return new String(this.buffer, 0, previousDestIndex);
     }
 
-    @Override
-    public String escapeXMLContent(final String s) {
-        if (s == null) {
-            return null;
+    /**
+     * @return the number of cache hits (attributes and contents)
+     */
+    public long getCacheHitCount() {
+        long count = 0;
+        if (this.attrCache != null) {
+            count += this.attrCache.getHitCount();
         }
-
-        final String cached = this.contentCacheMap.get(s);
-        if (cached != null) {
-            return cached;
+        if (this.contentCache != null) {
+            count += this.contentCache.getHitCount();
         }
+        return count;
+    }
 
-        final String escaped = this.getEscapedString(s, CHAR_SUBSTITUTES_IN_CONTENT);
-        this.contentCacheMap.put(s, escaped);
-        return escaped;
+    /**
+     * @return the number of cache misses (attributes and contents)
+     */
+    public long getCacheMissCount() {
+        long count = 0;
+        if (this.attrCache != null) {
+            count += this.attrCache.getMissCount();
+        }
+        if (this.contentCache != null) {
+            count += this.contentCache.getMissCount();
+        }
+        return count;
     }
 }
@@ -0,0 +1,127 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+/**
+ * A builder for FastOdsXMLEscaper
+ *
+ * @author Julien Férard
+ */
+public class FastOdsXMLEscaperBuilder {
+    private static final int NO_CACHE = 0;
+
+    private int bufferSize;
+    private int cacheSize;
+    private int maxCachedLength;
+
+    /**
+     * Create a new builder
+     */
+    FastOdsXMLEscaperBuilder() {
+        this.bufferSize = FastOdsXMLEscaper.BUFFER_SIZE;
+        this.cacheSize = FastOdsXMLEscaper.DEFAULT_CACHE_SIZE;
+        this.maxCachedLength = FastOdsXMLEscaper.DEFAULT_MAX_CACHED_LENGTH;
+    }
+
+    /**
+     * @return the escaper
+     */
+    public FastOdsXMLEscaper build() {
+        final EscapeCache attrCache;
+        final EscapeCache contentCache;
+        switch (this.cacheSize) {
+            case NO_CACHE:
+                attrCache = null;
+                contentCache = null;
+                break;
+            case EscapeCache.NO_LIMIT:
+                attrCache = EscapeCache.unbounded();
+                contentCache = EscapeCache.unbounded();
+                break;
+            default:
+                attrCache = EscapeCache.lru(this.cacheSize);
+                contentCache = EscapeCache.lru(this.cacheSize);
+                break;
+        }
+        return new FastOdsXMLEscaper(this.bufferSize, attrCache, contentCache,
+                this.maxCachedLength);
+    }
+
+    /**
+     * @param bufferSize the initial size of the escape buffer
+     * @return this for fluent style
+     */
+    public FastOdsXMLEscaperBuilder bufferSize(final int bufferSize) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        this.bufferSize = bufferSize;
+        return this;
+    }
+
+    /**
+     * Use a LRU cache for each kind of escape (attributes and contents)
+     *
+     * @param maxSize the max number of entries of each cache
+     * @return this for fluent style
+     */
+    public FastOdsXMLEscaperBuilder lruCache(final int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Cache size must be positive: " + maxSize);
+        }
+        this.cacheSize = maxSize;
+        return this;
+    }
+
+    /**
+     * Use unbounded caches. Beware: every distinct string that needs an escape will be
+     * retained as long as the escaper lives.
+     *
+     * @return this for fluent style
+     */
+    public FastOdsXMLEscaperBuilder unboundedCache() {
+        this.cacheSize = EscapeCache.NO_LIMIT;
+        return this;
+    }
+
+    /**
+     * Do not cache the escaped strings
+     *
+     * @return this for fluent style
+     */
+    public FastOdsXMLEscaperBuilder noCache() {
+        this.cacheSize = NO_CACHE;
+        return this;
+    }
+
+    /**
+     * @param maxCachedLength strings longer than this length are escaped without the cache
+     * @return this for fluent style
+     */
+    public FastOdsXMLEscaperBuilder maxCachedLength(final int maxCachedLength) {
+        this.maxCachedLength = maxCachedLength;
+        return this;
+    }
+}
@@ -43,9 +43,10 @@ import java.util.logging.Logger;
  * @see StylesContainerImpl for an example.
  */
 public class MultiContainer<K, S extends Enum<S>, V> {
-    private final Map<K, S> subContainerByKey;
-    private final Map<S, Map<K, V>> valueByKeyBySubContainer;
     private final Logger logger;
+    private Map<K, S> subContainerByKey;
+    private Map<S, Map<K, V>> valueByKeyBySubContainer;
+    private boolean shared;
     private boolean closed;
     private boolean debug;
     private Mode mode;
@@ -68,6 +69,53 @@ public class MultiContainer<K, S extends Enum<S>, V> {
         this.mode = Mode.CREATE_OR_UPDATE;
     }
 
+    /**
+     * @param logger                   the logger
+     * @param subContainerByKey        the map key -> sub container
+     * @param valueByKeyBySubContainer the map sub container -> key -> value
+     * @param debug                    the debug mode
+     * @param mode                     the mode
+     */
+    private MultiContainer(final Logger logger, final Map<K, S> subContainerByKey,
+                           final Map<S, Map<K, V>> valueByKeyBySubContainer,
+                           final boolean debug, final Mode mode) {
+        this.logger = logger;
+        this.subContainerByKey = subContainerByKey;
+        this.valueByKeyBySubContainer = valueByKeyBySubContainer;
+        this.shared = true;
+        this.closed = false;
+        this.debug = debug;
+        this.mode = mode;
+    }
+
+    /**
+     * Create a copy-on-write fork of this container: the fork and this container share the
+     * maps until one of them is modified. The fork is not frozen.
+     *
+     * @return the fork
+     */
+    public MultiContainer<K, S, V> fork() {
+        this.shared = true;
+        return new MultiContainer<K, S, V>(this.logger, this.subContainerByKey,
+                this.valueByKeyBySubContainer, this.debug, this.mode);
+    }
+
+    /**
+     * Copy the maps if they are shared with a fork.
+     */
+    private void unshare() {
+        if (!this.shared) {
+            return;
+        }
+        this.subContainerByKey = new HashMap<K, S>(this.subContainerByKey);
+        final Map<S, Map<K, V>> newValueByKeyBySubContainer = new HashMap<S, Map<K, V>>();
+        for (final Map.Entry<S, Map<K, V>> entry : this.valueByKeyBySubContainer.entrySet()) {
+            newValueByKeyBySubContainer.put(entry.getKey(), new HashMap<K, V>(entry.getValue()));
+        }
+        this.valueByKeyBySubContainer = newValueByKeyBySubContainer;
+        this.shared = false;
+    }
+
     /**
      * Set the new mode to use
      *
@@ -96,6 +144,10 @@ public class MultiContainer<K, S extends Enum<S>, V> {
             if (this.mode == Mode.CREATE) {
                 return false;
             }
+            if (subContainer == curSubContainer
+                    && this.valueByKeyBySubContainer.get(subContainer).get(key) == value) {
+                return true; // nothing to do: don't unshare a fork
+            }
 
             // update
             if (subContainer != curSubContainer) {
@@ -103,11 +155,13 @@ public class MultiContainer<K, S extends Enum<S>, V> {
                     throw new IllegalStateException(
                             "MultiContainer put(" + key + ", " + value + ") in " + subContainer);
                 }
+                this.unshare();
                 this.valueByKeyBySubContainer.get(curSubContainer).remove(key);
             }
         }
 
 
+        this.unshare();
         if (subContainer != curSubContainer) {
             this.subContainerByKey.put(key, subContainer);
         }
@@ -163,6 +217,13 @@ public class MultiContainer<K, S extends Enum<S>, V> {
         return this.valueByKeyBySubContainer.get(subContainer).values();
     }
 
+    /**
+     * @return the number of values, in all sub containers
+     */
+    public int size() {
+        return this.subContainerByKey.size();
+    }
+
     @Override
     public String toString() {
         return this.valueByKeyBySubContainer.toString();
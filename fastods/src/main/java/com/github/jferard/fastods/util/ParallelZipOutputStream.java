@@ -0,0 +1,781 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A zip output stream that deflates the entries on a pool of threads (pigz-style).
+ * <p>
+ * The bytes of a deflated entry are split into fixed size blocks. Each block is compressed by
+ * a worker with the last 32 KB of the previous block as a preset dictionary, and ends with a
+ * sync flush (an empty stored block) to be byte aligned. The compressed blocks are then
+ * concatenated, in order, into a single valid deflate stream. The CRC32 and the sizes are
+ * computed on the fly and written in a data descriptor after the entry data.
+ * <p>
+ * This class extends ZipOutputStream to be used by the ZipUTF8Writer implementations, but
+ * writes the zip structure (local headers, data descriptors, central directory) by itself.
+ * <p>
+ * The sync flush is available since Java 7: see {@link #isAvailable()}.
+ *
+ * @author Julien Férard
+ */
+public class ParallelZipOutputStream extends ZipOutputStream {
+    /**
+     * The default size of a block
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 128 * 1024;
+
+    private static final int DICTIONARY_SIZE = 32 * 1024;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int DATA_DESCRIPTOR_SIG = 0x08074b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int VERSION = 20;
+    private static final int ZIP64_VERSION = 45;
+    private static final int DATA_DESCRIPTOR_FLAG = 0x08;
+    private static final int UTF8_FLAG = 0x800;
+
+    /**
+     * @return true if this JVM provides the deflater sync flush (Java 7+)
+     */
+    public static boolean isAvailable() {
+        try {
+            Deflater.class.getMethod("deflate", byte[].class, int.class, int.class, int.class);
+            return true;
+        } catch (final NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Create a new stream that owns a pool of threads: one per available processor.
+     *
+     * @param out       the destination
+     * @param level     the compression level
+     * @param blockSize the size of the blocks
+     * @return the stream
+     */
+    public static ParallelZipOutputStream create(final OutputStream out, final int level,
+                                                 final int blockSize) {
+        final int threadCount = Runtime.getRuntime().availableProcessors();
+        final ExecutorService executor =
+                Executors.newFixedThreadPool(threadCount, new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(r, "fastods-deflate");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        return new ParallelZipOutputStream(out, level, blockSize, executor, true,
+                2 * threadCount);
+    }
+
+    /**
+     * Create a new stream that uses an executor. The executor is not shut down by this stream.
+     *
+     * @param out         the destination
+     * @param level       the compression level
+     * @param blockSize   the size of the blocks
+     * @param executor    the executor that compresses the blocks, or null to compress the blocks
+     *                    in the current thread
+     * @param maxPending  the maximum number of blocks waiting for compression
+     * @return the stream
+     */
+    public static ParallelZipOutputStream create(final OutputStream out, final int level,
+                                                 final int blockSize,
+                                                 final ExecutorService executor,
+                                                 final int maxPending) {
+        return new ParallelZipOutputStream(out, level, blockSize, executor, false, maxPending);
+    }
+
+    private final OutputStream target;
+    private final int blockSize;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+    private final int maxPending;
+    private final Queue<Deflater> deflaters;
+    private final LinkedList<Future<byte[]>> pendingBlocks;
+    private final List<EntryRecord> records;
+    private final CRC32 crc;
+    private int level;
+    private int method;
+    private String comment;
+    private long written;
+    private EntryRecord current;
+    private byte[] block;
+    private int blockCount;
+    private byte[] previousBlock;
+    private int previousBlockCount;
+    private boolean finished;
+    private boolean closed;
+
+    /**
+     * @param out          the destination
+     * @param level        the compression level
+     * @param blockSize    the size of the blocks
+     * @param executor     the executor that compresses the blocks, or null to compress the
+     *                     blocks in the current thread
+     * @param ownsExecutor true if the executor must be shut down on close
+     * @param maxPending   the maximum number of blocks waiting for compression
+     */
+    ParallelZipOutputStream(final OutputStream out, final int level, final int blockSize,
+                            final ExecutorService executor, final boolean ownsExecutor,
+                            final int maxPending) {
+        super(out);
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("Block size must be > 0");
+        }
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        this.target = out;
+        this.level = level;
+        this.blockSize = blockSize;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.maxPending = Math.max(1, maxPending);
+        this.deflaters = new ConcurrentLinkedQueue<Deflater>();
+        this.pendingBlocks = new LinkedList<Future<byte[]>>();
+        this.records = new ArrayList<EntryRecord>();
+        this.crc = new CRC32();
+        this.method = DEFLATED;
+        this.written = 0;
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        this.comment = comment;
+    }
+
+    @Override
+    public void setMethod(final int method) {
+        if (method != DEFLATED && method != STORED) {
+            throw new IllegalArgumentException("invalid compression method");
+        }
+        this.method = method;
+    }
+
+    @Override
+    public void setLevel(final int level) {
+        if (level < Deflater.DEFAULT_COMPRESSION || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("invalid compression level");
+        }
+        this.level = level;
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry e) throws IOException {
+        this.ensureOpen();
+        if (this.current != null) {
+            this.closeEntry();
+        }
+        final int entryMethod = e.getMethod() == -1 ? this.method : e.getMethod();
+        if (e.getTime() == -1) {
+            e.setTime(System.currentTimeMillis());
+        }
+        final EntryRecord record = new EntryRecord(e, entryMethod, this.written);
+        if (entryMethod == STORED) {
+            if (e.getSize() == -1 || e.getCrc() == -1) {
+                throw new ZipException("STORED entry missing size or crc-32");
+            }
+            record.flag = UTF8_FLAG;
+        } else {
+            record.flag = UTF8_FLAG | DATA_DESCRIPTOR_FLAG;
+        }
+        this.writeLocalHeader(record);
+        this.crc.reset();
+        this.current = record;
+        this.block = null;
+        this.blockCount = 0;
+        this.previousBlock = null;
+        this.previousBlockCount = 0;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        this.write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        this.ensureOpen();
+        if (this.current == null) {
+            throw new ZipException("no current ZIP entry");
+        }
+        if (len == 0) {
+            return;
+        }
+        this.crc.update(b, off, len);
+        this.current.size += len;
+        if (this.current.method == STORED) {
+            this.writeRaw(b, off, len);
+            return;
+        }
+
+        int o = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (this.block == null) {
+                this.block = new byte[this.blockSize];
+                this.blockCount = 0;
+            }
+            final int n = Math.min(remaining, this.blockSize - this.blockCount);
+            System.arraycopy(b, o, this.block, this.blockCount, n);
+            this.blockCount += n;
+            o += n;
+            remaining -= n;
+            if (this.blockCount == this.blockSize) {
+                this.submitBlock(false);
+            }
+        }
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        this.ensureOpen();
+        final EntryRecord record = this.current;
+        if (record == null) {
+            return;
+        }
+        if (record.method == STORED) {
+            if (record.size != record.entry.getSize()) {
+                throw new ZipException(
+                        "invalid entry size (expected " + record.entry.getSize() + " but got " +
+                                record.size + " bytes)");
+            }
+            if (this.crc.getValue() != record.entry.getCrc()) {
+                throw new ZipException("invalid entry crc-32");
+            }
+            record.crc = this.crc.getValue();
+            record.csize = record.size;
+        } else {
+            this.submitBlock(true);
+            this.writeCompressedBlocks(0);
+            record.crc = this.crc.getValue();
+            this.writeDataDescriptor(record);
+            // like ZipOutputStream, give the actual sizes back to the caller
+            record.entry.setSize(record.size);
+            record.entry.setCompressedSize(record.csize);
+            record.entry.setCrc(record.crc);
+        }
+        this.records.add(record);
+        this.current = null;
+        this.block = null;
+        this.previousBlock = null;
+    }
+
+    /**
+     * Write an entry that was already deflated (raw deflate data, no zlib header). The CRC32
+     * and the sizes are known: they are written in the local header, and there is no data
+     * descriptor. The previous entry is closed.
+     *
+     * @param e        the entry, filled with the sizes and the CRC32.
+     * @param deflated the raw deflate data
+     * @param crc      the CRC32 of the uncompressed data
+     * @param size     the uncompressed size
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeDeflatedEntry(final ZipEntry e, final byte[] deflated, final long crc,
+                                   final long size) throws IOException {
+        final EntryRecord record =
+                this.writeCompressedEntryHeader(e, DEFLATED, crc, size, deflated.length);
+        this.writeRaw(deflated, 0, deflated.length);
+        this.records.add(record);
+    }
+
+    /**
+     * Write an entry whose data is copied as is from another archive: the data is not
+     * inflated, then deflated again. The previous entry is closed.
+     *
+     * @param e    the entry: method (STORED or DEFLATED), CRC32, size and compressed size.
+     * @param data the data, as stored in the other archive. Exactly
+     *             {@code e.getCompressedSize()} bytes are read.
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeRawEntry(final ZipEntry e, final InputStream data) throws IOException {
+        final int entryMethod = e.getMethod();
+        if (entryMethod != STORED && entryMethod != DEFLATED) {
+            throw new ZipException("Unsupported compression method: " + entryMethod);
+        }
+        final EntryRecord record = this.writeCompressedEntryHeader(e, entryMethod, e.getCrc(),
+                e.getSize(), e.getCompressedSize());
+        final byte[] buffer = new byte[8192];
+        long remaining = record.csize;
+        while (remaining > 0) {
+            final int count = data.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (count == -1) {
+                throw new EOFException("Unexpected end of entry " + e.getName());
+            }
+            this.writeRaw(buffer, 0, count);
+            remaining -= count;
+        }
+        this.records.add(record);
+    }
+
+    private EntryRecord writeCompressedEntryHeader(final ZipEntry e, final int entryMethod,
+                                                   final long crc, final long size,
+                                                   final long csize) throws IOException {
+        this.ensureOpen();
+        if (this.current != null) {
+            this.closeEntry();
+        }
+        if (size >= ZIP64_MAGIC || csize >= ZIP64_MAGIC) {
+            throw new ZipException("Entry too large: " + e.getName());
+        }
+        if (e.getTime() == -1) {
+            e.setTime(System.currentTimeMillis());
+        }
+        final EntryRecord record = new EntryRecord(e, entryMethod, this.written);
+        record.flag = UTF8_FLAG;
+        record.crc = crc;
+        record.size = size;
+        record.csize = csize;
+        e.setSize(record.size);
+        e.setCompressedSize(record.csize);
+        e.setCrc(record.crc);
+        this.writeLocalHeader(record);
+        return record;
+    }
+
+    /**
+     * Submit the current block to the executor. The last block of the entry is finished, the
+     * other ones are flushed.
+     *
+     * @param last true if the block is the last one of the current entry
+     * @throws IOException if an I/O error occurs
+     */
+    private void submitBlock(final boolean last) throws IOException {
+        final byte[] data = this.block == null ? new byte[0] : this.block;
+        final int count = this.blockCount;
+        final BlockDeflater task = new BlockDeflater(this.deflaters, this.level, data, count,
+                this.previousBlock, this.previousBlockCount, last);
+        if (this.executor == null) {
+            this.writeBlock(task.call());
+        } else {
+            this.pendingBlocks.add(this.executor.submit(task));
+            this.writeCompressedBlocks(this.maxPending);
+        }
+        this.previousBlock = data;
+        this.previousBlockCount = count;
+        this.block = null;
+        this.blockCount = 0;
+    }
+
+    /**
+     * Write the compressed blocks that are available, and wait for the other ones until at most
+     * `maxPending` blocks are waiting.
+     *
+     * @param maxPendingBlocks the max number of waiting blocks
+     * @throws IOException if an I/O error occurs
+     */
+    private void writeCompressedBlocks(final int maxPendingBlocks) throws IOException {
+        while (!this.pendingBlocks.isEmpty()) {
+            final Future<byte[]> first = this.pendingBlocks.getFirst();
+            if (this.pendingBlocks.size() <= maxPendingBlocks && !first.isDone()) {
+                return;
+            }
+            this.pendingBlocks.removeFirst();
+            this.writeBlock(this.getCompressedBlock(first));
+        }
+    }
+
+    private byte[] getCompressedBlock(final Future<byte[]> future) throws IOException {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            final InterruptedIOException ioe =
+                    new InterruptedIOException("Interrupted while deflating");
+            ioe.initCause(e);
+            throw ioe;
+        } catch (final ExecutionException e) {
+            final Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private void writeBlock(final byte[] compressed) throws IOException {
+        this.current.csize += compressed.length;
+        this.writeRaw(compressed, 0, compressed.length);
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.ensureOpen();
+        if (this.finished) {
+            return;
+        }
+        if (this.current != null) {
+            this.closeEntry();
+        }
+        this.writeCentralDirectory();
+        this.finished = true;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.target.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        try {
+            this.finish();
+        } finally {
+            this.closed = true;
+            this.release();
+            this.target.close();
+        }
+    }
+
+    private void release() {
+        if (this.ownsExecutor) {
+            this.executor.shutdownNow();
+        }
+        Deflater deflater = this.deflaters.poll();
+        while (deflater != null) {
+            deflater.end();
+            deflater = this.deflaters.poll();
+        }
+        this.def.end(); // the deflater created by ZipOutputStream is never used
+    }
+
+    private void ensureOpen() throws IOException {
+        if (this.closed) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    private void writeLocalHeader(final EntryRecord record) throws IOException {
+        final ZipEntry e = record.entry;
+        final byte[] name = e.getName().getBytes(CharsetUtil.UTF_8);
+        final byte[] extra = e.getExtra() == null ? new byte[0] : e.getExtra();
+        this.writeInt(LOCAL_HEADER_SIG);
+        this.writeShort(VERSION);
+        this.writeShort(record.flag);
+        this.writeShort(record.method);
+        this.writeInt(record.dosTime);
+        if (record.method == STORED) {
+            this.writeInt(e.getCrc());
+            this.writeInt(e.getSize());
+            this.writeInt(e.getSize());
+        } else if ((record.flag & DATA_DESCRIPTOR_FLAG) == 0) {
+            this.writeInt(record.crc);
+            this.writeInt(record.csize);
+            this.writeInt(record.size);
+        } else {
+            this.writeInt(0);
+            this.writeInt(0);
+            this.writeInt(0);
+        }
+        this.writeShort(name.length);
+        this.writeShort(extra.length);
+        this.writeRaw(name, 0, name.length);
+        this.writeRaw(extra, 0, extra.length);
+    }
+
+    private void writeDataDescriptor(final EntryRecord record) throws IOException {
+        this.writeInt(DATA_DESCRIPTOR_SIG);
+        this.writeInt(record.crc);
+        if (record.csize >= ZIP64_MAGIC || record.size >= ZIP64_MAGIC) {
+            this.writeLong(record.csize);
+            this.writeLong(record.size);
+        } else {
+            this.writeInt(record.csize);
+            this.writeInt(record.size);
+        }
+    }
+
+    private void writeCentralDirectory() throws IOException {
+        final long centralOffset = this.written;
+        for (final EntryRecord record : this.records) {
+            this.writeCentralHeader(record);
+        }
+        final long centralSize = this.written - centralOffset;
+        final int count = this.records.size();
+        if (count >= ZIP64_MAGIC_COUNT || centralOffset >= ZIP64_MAGIC ||
+                centralSize >= ZIP64_MAGIC) {
+            final long zip64EndOffset = this.written;
+            this.writeInt(ZIP64_END_SIG);
+            this.writeLong(44);
+            this.writeShort(ZIP64_VERSION);
+            this.writeShort(ZIP64_VERSION);
+            this.writeInt(0);
+            this.writeInt(0);
+            this.writeLong(count);
+            this.writeLong(count);
+            this.writeLong(centralSize);
+            this.writeLong(centralOffset);
+            this.writeInt(ZIP64_LOCATOR_SIG);
+            this.writeInt(0);
+            this.writeLong(zip64EndOffset);
+            this.writeInt(1);
+        }
+        final byte[] commentBytes =
+                this.comment == null ? new byte[0] : this.comment.getBytes(CharsetUtil.UTF_8);
+        this.writeInt(END_SIG);
+        this.writeShort(0);
+        this.writeShort(0);
+        this.writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        this.writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+        this.writeInt(Math.min(centralSize, ZIP64_MAGIC));
+        this.writeInt(Math.min(centralOffset, ZIP64_MAGIC));
+        this.writeShort(commentBytes.length);
+        this.writeRaw(commentBytes, 0, commentBytes.length);
+    }
+
+    private void writeCentralHeader(final EntryRecord record) throws IOException {
+        final ZipEntry e = record.entry;
+        final byte[] name = e.getName().getBytes(CharsetUtil.UTF_8);
+        final byte[] extra = e.getExtra() == null ? new byte[0] : e.getExtra();
+        final byte[] entryComment =
+                e.getComment() == null ? new byte[0] : e.getComment().getBytes(CharsetUtil.UTF_8);
+
+        int zip64ExtraSize = 0;
+        if (record.size >= ZIP64_MAGIC) {
+            zip64ExtraSize += 8;
+        }
+        if (record.csize >= ZIP64_MAGIC) {
+            zip64ExtraSize += 8;
+        }
+        if (record.offset >= ZIP64_MAGIC) {
+            zip64ExtraSize += 8;
+        }
+        this.writeInt(CENTRAL_HEADER_SIG);
+        if (zip64ExtraSize > 0) {
+            this.writeShort(ZIP64_VERSION);
+            this.writeShort(ZIP64_VERSION);
+        } else {
+            this.writeShort(VERSION);
+            this.writeShort(VERSION);
+        }
+        this.writeShort(record.flag);
+        this.writeShort(record.method);
+        this.writeInt(record.dosTime);
+        this.writeInt(record.crc);
+        this.writeInt(Math.min(record.csize, ZIP64_MAGIC));
+        this.writeInt(Math.min(record.size, ZIP64_MAGIC));
+        this.writeShort(name.length);
+        this.writeShort(extra.length + (zip64ExtraSize > 0 ? zip64ExtraSize + 4 : 0));
+        this.writeShort(entryComment.length);
+        this.writeShort(0); // disk number
+        this.writeShort(0); // internal attributes
+        this.writeInt(0); // external attributes
+        this.writeInt(Math.min(record.offset, ZIP64_MAGIC));
+        this.writeRaw(name, 0, name.length);
+        if (zip64ExtraSize > 0) {
+            this.writeShort(ZIP64_EXTRA_ID);
+            this.writeShort(zip64ExtraSize);
+            if (record.size >= ZIP64_MAGIC) {
+                this.writeLong(record.size);
+            }
+            if (record.csize >= ZIP64_MAGIC) {
+                this.writeLong(record.csize);
+            }
+            if (record.offset >= ZIP64_MAGIC) {
+                this.writeLong(record.offset);
+            }
+        }
+        this.writeRaw(extra, 0, extra.length);
+        this.writeRaw(entryComment, 0, entryComment.length);
+    }
+
+    private void writeShort(final int v) throws IOException {
+        this.target.write(v & 0xff);
+        this.target.write((v >>> 8) & 0xff);
+        this.written += 2;
+    }
+
+    private void writeInt(final long v) throws IOException {
+        this.target.write((int) (v & 0xff));
+        this.target.write((int) ((v >>> 8) & 0xff));
+        this.target.write((int) ((v >>> 16) & 0xff));
+        this.target.write((int) ((v >>> 24) & 0xff));
+        this.written += 4;
+    }
+
+    private void writeLong(final long v) throws IOException {
+        this.writeInt(v & 0xffffffffL);
+        this.writeInt(v >>> 32);
+    }
+
+    private void writeRaw(final byte[] b, final int off, final int len) throws IOException {
+        this.target.write(b, off, len);
+        this.written += len;
+    }
+
+    /**
+     * @param time the java time
+     * @return the MS-DOS time
+     */
+    static long javaToDosTime(final long time) {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.setTimeInMillis(time);
+        final int year = calendar.get(Calendar.YEAR);
+        if (year < 1980) {
+            return (1 << 21) | (1 << 16);
+        }
+        return ((year - 1980) << 25) | ((calendar.get(Calendar.MONTH) + 1) << 21) |
+                (calendar.get(Calendar.DAY_OF_MONTH) << 16) |
+                (calendar.get(Calendar.HOUR_OF_DAY) << 11) |
+                (calendar.get(Calendar.MINUTE) << 5) | (calendar.get(Calendar.SECOND) >> 1);
+    }
+
+    /**
+     * The information on an entry, needed to write the central directory
+     */
+    private static class EntryRecord {
+        private final ZipEntry entry;
+        private final int method;
+        private final long offset;
+        private final long dosTime;
+        private int flag;
+        private long crc;
+        private long size;
+        private long csize;
+
+        EntryRecord(final ZipEntry entry, final int method, final long offset) {
+            this.entry = entry;
+            this.method = method;
+            this.offset = offset;
+            this.dosTime = javaToDosTime(entry.getTime());
+        }
+    }
+
+    /**
+     * A task that deflates a block. The block is primed with the end of the previous block
+     * and ends on a byte boundary, unless it's the last block of the entry.
+     */
+    private static class BlockDeflater implements Callable<byte[]> {
+        private final Queue<Deflater> deflaters;
+        private final int level;
+        private final byte[] data;
+        private final int count;
+        private final byte[] dictionary;
+        private final int dictionaryEnd;
+        private final boolean last;
+
+        BlockDeflater(final Queue<Deflater> deflaters, final int level, final byte[] data,
+                      final int count, final byte[] dictionary, final int dictionaryEnd,
+                      final boolean last) {
+            this.deflaters = deflaters;
+            this.level = level;
+            this.data = data;
+            this.count = count;
+            this.dictionary = dictionary;
+            this.dictionaryEnd = dictionaryEnd;
+            this.last = last;
+        }
+
+        @Override
+        public byte[] call() {
+            Deflater deflater = this.deflaters.poll();
+            if (deflater == null) {
+                deflater = new Deflater(this.level, true);
+            } else {
+                deflater.reset();
+                deflater.setLevel(this.level);
+            }
+            try {
+                return this.deflate(deflater);
+            } finally {
+                this.deflaters.add(deflater);
+            }
+        }
+
+        private byte[] deflate(final Deflater deflater) {
+            if (this.dictionary != null && this.dictionaryEnd > 0) {
+                final int dictionaryLength = Math.min(DICTIONARY_SIZE, this.dictionaryEnd);
+                deflater.setDictionary(this.dictionary, this.dictionaryEnd - dictionaryLength,
+                        dictionaryLength);
+            }
+            deflater.setInput(this.data, 0, this.count);
+            byte[] buf = new byte[this.count + (this.count >> 3) + 64];
+            int pos = 0;
+            if (this.last) {
+                deflater.finish();
+                while (!deflater.finished()) {
+                    if (pos == buf.length) {
+                        buf = this.grow(buf);
+                    }
+                    pos += deflater.deflate(buf, pos, buf.length - pos);
+                }
+            } else {
+                while (true) {
+                    final int available = buf.length - pos;
+                    final int n = deflater.deflate(buf, pos, available, Deflater.SYNC_FLUSH);
+                    pos += n;
+                    if (n < available) {
+                        break;
+                    }
+                    buf = this.grow(buf);
+                }
+            }
+            final byte[] compressed = new byte[pos];
+            System.arraycopy(buf, 0, compressed, 0, pos);
+            return compressed;
+        }
+
+        private byte[] grow(final byte[] buf) {
+            final byte[] newBuf = new byte[buf.length * 2];
+            System.arraycopy(buf, 0, newBuf, 0, buf.length);
+            return newBuf;
+        }
+    }
+}
@@ -0,0 +1,190 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * An entry of a RawZipFile. The entry may be copied to another archive as is: a
+ * {@link ParallelZipOutputStream} copies the compressed data, another zip stream inflates and
+ * deflates the data again.
+ *
+ * @author Julien Férard
+ */
+public class RawZipEntry {
+    private final RawZipFile zipFile;
+    private final String name;
+    private final int method;
+    private final long time;
+    private final long crc;
+    private final long size;
+    private final long compressedSize;
+    private final long localHeaderOffset;
+
+    /**
+     * @param zipFile           the file
+     * @param name              the name of the entry
+     * @param method            the compression method
+     * @param time              the modification time
+     * @param crc               the CRC32 of the data
+     * @param size              the size of the data
+     * @param compressedSize    the size of the compressed data
+     * @param localHeaderOffset the position of the local header in the file
+     */
+    RawZipEntry(final RawZipFile zipFile, final String name, final int method, final long time,
+                final long crc, final long size, final long compressedSize,
+                final long localHeaderOffset) {
+        this.zipFile = zipFile;
+        this.name = name;
+        this.method = method;
+        this.time = time;
+        this.crc = crc;
+        this.size = size;
+        this.compressedSize = compressedSize;
+        this.localHeaderOffset = localHeaderOffset;
+    }
+
+    /**
+     * Write this entry to a zip stream. The entry is closed.
+     *
+     * @param zipStream the stream
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(final ZipOutputStream zipStream) throws IOException {
+        final ZipEntry entry = new ZipEntry(this.name);
+        entry.setTime(this.time);
+        entry.setMethod(this.method);
+        if (zipStream instanceof ParallelZipOutputStream) {
+            entry.setCrc(this.crc);
+            entry.setSize(this.size);
+            entry.setCompressedSize(this.compressedSize);
+            final InputStream data = this.zipFile.getRawInputStream(this);
+            try {
+                ((ParallelZipOutputStream) zipStream).writeRawEntry(entry, data);
+            } finally {
+                data.close();
+            }
+        } else {
+            if (this.method == ZipEntry.STORED) {
+                entry.setCrc(this.crc);
+                entry.setSize(this.size);
+            }
+            zipStream.putNextEntry(entry);
+            final InputStream data = this.zipFile.getInputStream(this);
+            try {
+                final byte[] buffer = new byte[8192];
+                int count = data.read(buffer);
+                while (count != -1) {
+                    zipStream.write(buffer, 0, count);
+                    count = data.read(buffer);
+                }
+            } finally {
+                data.close();
+            }
+            zipStream.closeEntry();
+        }
+    }
+
+    /**
+     * Write the inflated data of this entry to a writer that doesn't copy the compressed data.
+     * The entry is closed.
+     *
+     * @param writer the writer
+     * @throws IOException if an I/O error occurs
+     */
+    public void writeTo(final ZipUTF8Writer writer) throws IOException {
+        final ZipEntry entry = new ZipEntry(this.name);
+        entry.setTime(this.time);
+        entry.setMethod(this.method);
+        if (this.method == ZipEntry.STORED) {
+            entry.setCrc(this.crc);
+            entry.setSize(this.size);
+        }
+        writer.putNextEntry(entry);
+        final InputStream data = this.zipFile.getInputStream(this);
+        try {
+            final byte[] buffer = new byte[8192];
+            int count = data.read(buffer);
+            while (count != -1) {
+                if (count == buffer.length) {
+                    writer.write(buffer);
+                } else {
+                    final byte[] bytes = new byte[count];
+                    System.arraycopy(buffer, 0, bytes, 0, count);
+                    writer.write(bytes);
+                }
+                count = data.read(buffer);
+            }
+        } finally {
+            data.close();
+        }
+        writer.closeEntry();
+    }
+
+    /**
+     * @return the name of the entry
+     */
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return the compression method: ZipEntry.STORED or ZipEntry.DEFLATED
+     */
+    public int getMethod() {
+        return this.method;
+    }
+
+    /**
+     * @return the CRC32 of the data
+     */
+    public long getCrc() {
+        return this.crc;
+    }
+
+    /**
+     * @return the uncompressed size
+     */
+    public long getSize() {
+        return this.size;
+    }
+
+    /**
+     * @return the size of the compressed data
+     */
+    public long getCompressedSize() {
+        return this.compressedSize;
+    }
+
+    /**
+     * @return the position of the local header in the file
+     */
+    long getLocalHeaderOffset() {
+        return this.localHeaderOffset;
+    }
+}
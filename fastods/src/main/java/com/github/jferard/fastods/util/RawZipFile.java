@@ -0,0 +1,343 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.io.SequenceInputStream;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+
+/**
+ * A zip file that gives access to the raw (compressed) data of its entries, to copy them to
+ * another archive without recompression (see
+ * {@link RawZipEntry#writeTo(java.util.zip.ZipOutputStream)}).
+ * Only the central directory is read on open. Zip64 archives are supported (e.g. the archives
+ * of more than 65534 entries or 4 GB written by {@link ParallelZipOutputStream}), but not the
+ * archives split on several disks.
+ *
+ * @author Julien Férard
+ */
+public class RawZipFile implements Closeable {
+    private static final int LOCAL_HEADER_SIG = 0x04034b50;
+    private static final int CENTRAL_HEADER_SIG = 0x02014b50;
+    private static final int END_SIG = 0x06054b50;
+    private static final int ZIP64_END_SIG = 0x06064b50;
+    private static final int ZIP64_LOCATOR_SIG = 0x07064b50;
+    private static final int ZIP64_EXTRA_ID = 0x0001;
+    private static final int END_SIZE = 22;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final int LOCAL_HEADER_SIZE = 30;
+    private static final int CENTRAL_HEADER_SIZE = 46;
+    private static final int ZIP64_END_SIZE = 56;
+    private static final int ZIP64_LOCATOR_SIZE = 20;
+    private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+    private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+    /**
+     * Open a zip file and read the central directory
+     *
+     * @param file the file
+     * @return the zip file
+     * @throws IOException if the file can't be read or is not a zip file
+     */
+    public static RawZipFile open(final File file) throws IOException {
+        final RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            final RawZipFile zipFile = new RawZipFile(raf);
+            zipFile.readCentralDirectory();
+            return zipFile;
+        } catch (final IOException e) {
+            raf.close();
+            throw e;
+        }
+    }
+
+    private final RandomAccessFile raf;
+    private final List<RawZipEntry> entries;
+
+    /**
+     * @param raf the file
+     */
+    RawZipFile(final RandomAccessFile raf) {
+        this.raf = raf;
+        this.entries = new ArrayList<RawZipEntry>();
+    }
+
+    /**
+     * @return the entries, in the order of the central directory
+     */
+    public List<RawZipEntry> getEntries() {
+        return Collections.unmodifiableList(this.entries);
+    }
+
+    /**
+     * @param name the name of the entry
+     * @return the entry or null
+     */
+    public RawZipEntry getEntry(final String name) {
+        for (final RawZipEntry entry : this.entries) {
+            if (entry.getName().equals(name)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.raf.close();
+    }
+
+    /**
+     * @param entry the entry
+     * @return a stream on the raw data of the entry
+     * @throws IOException if an I/O error occurs
+     */
+    InputStream getRawInputStream(final RawZipEntry entry) throws IOException {
+        final byte[] header = new byte[LOCAL_HEADER_SIZE];
+        this.readFully(entry.getLocalHeaderOffset(), header);
+        if (this.getInt(header, 0) != LOCAL_HEADER_SIG) {
+            throw new ZipException("Bad local header: " + entry.getName());
+        }
+        final long dataOffset = entry.getLocalHeaderOffset() + LOCAL_HEADER_SIZE +
+                this.getShort(header, 26) + this.getShort(header, 28);
+        return new RegionInputStream(dataOffset, entry.getCompressedSize());
+    }
+
+    /**
+     * @param entry the entry
+     * @return a stream on the uncompressed data of the entry
+     * @throws IOException if an I/O error occurs
+     */
+    public InputStream getInputStream(final RawZipEntry entry) throws IOException {
+        final InputStream raw = this.getRawInputStream(entry);
+        if (entry.getMethod() == ZipEntry.STORED) {
+            return raw;
+        }
+        // the inflater needs a dummy byte with the nowrap option
+        return new InflaterInputStream(
+                new SequenceInputStream(raw, new ByteArrayInputStream(new byte[1])),
+                new Inflater(true));
+    }
+
+    private void readCentralDirectory() throws IOException {
+        final long length = this.raf.length();
+        final int tailSize = (int) Math.min(length, END_SIZE + MAX_COMMENT_SIZE);
+        final byte[] tail = new byte[tailSize];
+        this.readFully(length - tailSize, tail);
+        int endIndex = tailSize - END_SIZE;
+        while (endIndex >= 0 && this.getInt(tail, endIndex) != END_SIG) {
+            endIndex--;
+        }
+        if (endIndex < 0) {
+            throw new ZipException("Not a zip file");
+        }
+        long count = this.getShort(tail, endIndex + 10);
+        long centralSize = this.getUnsignedInt(tail, endIndex + 12);
+        long centralOffset = this.getUnsignedInt(tail, endIndex + 16);
+        if (count == ZIP64_MAGIC_COUNT || centralSize == ZIP64_MAGIC ||
+                centralOffset == ZIP64_MAGIC) {
+            final long endOffset = length - tailSize + endIndex;
+            final byte[] zip64End = this.readZip64End(endOffset);
+            if (zip64End != null) {
+                count = this.getLong(zip64End, 32);
+                centralSize = this.getLong(zip64End, 40);
+                centralOffset = this.getLong(zip64End, 48);
+            }
+        }
+        if (centralSize > Integer.MAX_VALUE || count > Integer.MAX_VALUE) {
+            throw new ZipException("Central directory too large");
+        }
+
+        final byte[] central = new byte[(int) centralSize];
+        this.readFully(centralOffset, central);
+        int index = 0;
+        for (int i = 0; i < count; i++) {
+            if (this.getInt(central, index) != CENTRAL_HEADER_SIG) {
+                throw new ZipException("Bad central header");
+            }
+            final int nameLength = this.getShort(central, index + 28);
+            final int extraLength = this.getShort(central, index + 30);
+            final String name = new String(central, index + CENTRAL_HEADER_SIZE, nameLength,
+                    CharsetUtil.UTF_8);
+            final long[] sizes = {this.getUnsignedInt(central, index + 24),
+                    this.getUnsignedInt(central, index + 20),
+                    this.getUnsignedInt(central, index + 42)};
+            if (sizes[0] == ZIP64_MAGIC || sizes[1] == ZIP64_MAGIC ||
+                    sizes[2] == ZIP64_MAGIC) {
+                this.readZip64Extra(central, index + CENTRAL_HEADER_SIZE + nameLength,
+                        extraLength, sizes);
+            }
+            this.entries.add(new RawZipEntry(this, name, this.getShort(central, index + 10),
+                    dosToJavaTime(this.getUnsignedInt(central, index + 12)),
+                    this.getUnsignedInt(central, index + 16), sizes[0], sizes[1], sizes[2]));
+            index += CENTRAL_HEADER_SIZE + nameLength + extraLength +
+                    this.getShort(central, index + 32);
+        }
+    }
+
+    /**
+     * @param endOffset the offset of the end of central directory record
+     * @return the zip64 end of central directory record, or null if there is no locator
+     * @throws IOException if an I/O error occurs or if the record is corrupted
+     */
+    private byte[] readZip64End(final long endOffset) throws IOException {
+        if (endOffset < ZIP64_LOCATOR_SIZE) {
+            return null;
+        }
+        final byte[] locator = new byte[ZIP64_LOCATOR_SIZE];
+        this.readFully(endOffset - ZIP64_LOCATOR_SIZE, locator);
+        if (this.getInt(locator, 0) != ZIP64_LOCATOR_SIG) {
+            return null;
+        }
+        final byte[] zip64End = new byte[ZIP64_END_SIZE];
+        this.readFully(this.getLong(locator, 8), zip64End);
+        if (this.getInt(zip64End, 0) != ZIP64_END_SIG) {
+            throw new ZipException("Bad zip64 end of central directory");
+        }
+        return zip64End;
+    }
+
+    /**
+     * Replace the sizes and offset that are set to the zip64 magic value by the values of the
+     * zip64 extra field. The fields of the extra are in the same order as in sizes.
+     *
+     * @param central     the central directory
+     * @param extraIndex  the index of the extra fields of the header
+     * @param extraLength the length of the extra fields
+     * @param sizes       size, compressed size, local header offset
+     * @throws ZipException if there is no zip64 extra field
+     */
+    private void readZip64Extra(final byte[] central, final int extraIndex,
+                                final int extraLength, final long[] sizes)
+            throws ZipException {
+        int index = extraIndex;
+        final int end = extraIndex + extraLength;
+        while (index + 4 <= end) {
+            final int id = this.getShort(central, index);
+            final int dataSize = this.getShort(central, index + 2);
+            if (id == ZIP64_EXTRA_ID) {
+                int fieldIndex = index + 4;
+                for (int i = 0; i < sizes.length; i++) {
+                    if (sizes[i] == ZIP64_MAGIC) {
+                        if (fieldIndex + 8 > index + 4 + dataSize) {
+                            throw new ZipException("Bad zip64 extra field");
+                        }
+                        sizes[i] = this.getLong(central, fieldIndex);
+                        fieldIndex += 8;
+                    }
+                }
+                return;
+            }
+            index += 4 + dataSize;
+        }
+        throw new ZipException("Missing zip64 extra field");
+    }
+
+    private static long dosToJavaTime(final long dosTime) {
+        final Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set((int) ((dosTime >> 25) & 0x7f) + 1980, (int) ((dosTime >> 21) & 0x0f) - 1,
+                (int) ((dosTime >> 16) & 0x1f), (int) ((dosTime >> 11) & 0x1f),
+                (int) ((dosTime >> 5) & 0x3f), (int) ((dosTime << 1) & 0x3e));
+        return calendar.getTimeInMillis();
+    }
+
+    private void readFully(final long position, final byte[] bytes) throws IOException {
+        synchronized (this.raf) {
+            this.raf.seek(position);
+            this.raf.readFully(bytes);
+        }
+    }
+
+    private int getShort(final byte[] bytes, final int index) {
+        return (bytes[index] & 0xff) | ((bytes[index + 1] & 0xff) << 8);
+    }
+
+    private int getInt(final byte[] bytes, final int index) {
+        return this.getShort(bytes, index) | (this.getShort(bytes, index + 2) << 16);
+    }
+
+    private long getUnsignedInt(final byte[] bytes, final int index) {
+        return this.getInt(bytes, index) & 0xFFFFFFFFL;
+    }
+
+    private long getLong(final byte[] bytes, final int index) {
+        return this.getUnsignedInt(bytes, index) | (this.getUnsignedInt(bytes, index + 4) << 32);
+    }
+
+    /**
+     * A stream on a region of the file.
+     */
+    private class RegionInputStream extends InputStream {
+        private long position;
+        private long remaining;
+
+        RegionInputStream(final long position, final long length) {
+            this.position = position;
+            this.remaining = length;
+        }
+
+        @Override
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            final int count = this.read(b, 0, 1);
+            if (count == -1) {
+                return -1;
+            }
+            return b[0] & 0xff;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) throws IOException {
+            if (this.remaining <= 0) {
+                return -1;
+            }
+            final int toRead = (int) Math.min(len, this.remaining);
+            final int count;
+            synchronized (RawZipFile.this.raf) {
+                RawZipFile.this.raf.seek(this.position);
+                count = RawZipFile.this.raf.read(b, off, toRead);
+            }
+            if (count == -1) {
+                return -1;
+            }
+            this.position += count;
+            this.remaining -= count;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded single producer/single consumer ring buffer. The producer and the consumer never
+ * share a lock on the fast path: each one owns an index and reads the other one's.
+ * <p>
+ * When the buffer is full, the producer waits until the consumer takes an element
+ * (back-pressure). When the buffer is empty, the consumer may wait until the producer puts an
+ * element. The way a thread waits is given by the {@link WaitStrategy}.
+ * <p>
+ * Beware: {@link #put(Object)} must be called by one thread at a time, and {@link #poll()},
+ * {@link #awaitElement()} by one thread at a time.
+ *
+ * @param <E> the type of the elements
+ * @author Julien Férard
+ */
+public class RingBuffer<E> {
+    /**
+     * The max time a blocked thread sleeps before checking again the indices. This is a safety
+     * net: the threads are normally woken up by a signal.
+     */
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    /**
+     * @param capacity     the max number of elements in the buffer
+     * @param waitStrategy the wait strategy
+     * @param <F>          the type of the elements
+     * @return a new ring buffer
+     */
+    public static <F> RingBuffer<F> create(final int capacity, final WaitStrategy waitStrategy) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        @SuppressWarnings("unchecked") final F[] elements = (F[]) new Object[capacity];
+        return new RingBuffer<F>(elements, waitStrategy);
+    }
+
+    private final E[] elements;
+    private final WaitStrategy waitStrategy;
+    /**
+     * index of the next element to poll, written by the consumer only
+     */
+    private final AtomicLong head;
+    /**
+     * index of the next element to put, written by the producer only
+     */
+    private final AtomicLong tail;
+    private final ReentrantLock lock;
+    private final Condition notEmpty;
+    private final Condition notFull;
+    private volatile boolean consumerWaiting;
+    private volatile boolean producerWaiting;
+    private volatile int maxDepth;
+    private volatile long producerStallCount;
+    private volatile long producerStallNanos;
+
+    /**
+     * @param elements     the backing array
+     * @param waitStrategy the wait strategy
+     */
+    RingBuffer(final E[] elements, final WaitStrategy waitStrategy) {
+        this.elements = elements;
+        this.waitStrategy = waitStrategy;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.lock = new ReentrantLock();
+        this.notEmpty = this.lock.newCondition();
+        this.notFull = this.lock.newCondition();
+    }
+
+    /**
+     * Try to put an element in the buffer (producer side).
+     *
+     * @param element the element, not null
+     * @return false if the buffer is full
+     */
+    public boolean offer(final E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        final long t = this.tail.get();
+        final int depth = (int) (t - this.head.get());
+        if (depth == this.elements.length) {
+            return false;
+        }
+        this.elements[this.index(t)] = element;
+        this.tail.set(t + 1);
+        if (depth >= this.maxDepth) {
+            this.maxDepth = depth + 1;
+        }
+        if (this.consumerWaiting) {
+            this.signal(this.notEmpty);
+        }
+        return true;
+    }
+
+    /**
+     * Put an element in the buffer (producer side). If the buffer is full, wait until the
+     * consumer takes an element.
+     *
+     * @param element the element, not null
+     * @throws InterruptedException if the producer thread is interrupted while waiting.
+     */
+    public void put(final E element) throws InterruptedException {
+        if (this.offer(element)) {
+            return;
+        }
+        this.awaitOffer(element, false, 0);
+    }
+
+    /**
+     * Put an element in the buffer (producer side). If the buffer is full, wait until the
+     * consumer takes an element or the timeout expires.
+     *
+     * @param element the element, not null
+     * @param timeout the max time to wait
+     * @param unit    the unit of the timeout
+     * @return false if the buffer is still full after the timeout
+     * @throws InterruptedException if the producer thread is interrupted while waiting.
+     */
+    public boolean offer(final E element, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        if (this.offer(element)) {
+            return true;
+        }
+        return this.awaitOffer(element, true, unit.toNanos(timeout));
+    }
+
+    private boolean awaitOffer(final E element, final boolean timed, final long timeoutNanos)
+            throws InterruptedException {
+        final long start = System.nanoTime();
+        boolean offered = false;
+        while (!offered) {
+            long parkNanos = MAX_PARK_NANOS;
+            if (timed) {
+                final long remainingNanos = timeoutNanos - (System.nanoTime() - start);
+                if (remainingNanos <= 0) {
+                    break;
+                }
+                parkNanos = Math.min(parkNanos, remainingNanos);
+            }
+            if (this.waitStrategy == WaitStrategy.SPINNING) {
+                this.spin();
+            } else {
+                this.lock.lock();
+                try {
+                    this.producerWaiting = true;
+                    if (this.isFull()) {
+                        this.notFull.awaitNanos(parkNanos);
+                    }
+                } finally {
+                    this.producerWaiting = false;
+                    this.lock.unlock();
+                }
+            }
+            offered = this.offer(element);
+        }
+        if (offered) {
+            this.producerStallCount++;
+        }
+        this.producerStallNanos += System.nanoTime() - start;
+        return offered;
+    }
+
+    /**
+     * Take an element from the buffer (consumer side).
+     *
+     * @return the element, or null if the buffer is empty
+     */
+    public E poll() {
+        final long h = this.head.get();
+        if (h == this.tail.get()) {
+            return null;
+        }
+        final int i = this.index(h);
+        final E element = this.elements[i];
+        this.elements[i] = null;
+        this.head.set(h + 1);
+        if (this.producerWaiting) {
+            this.signal(this.notFull);
+        }
+        return element;
+    }
+
+    /**
+     * Wait until the buffer is not empty (consumer side).
+     *
+     * @throws InterruptedException if the consumer thread is interrupted while waiting.
+     */
+    public void awaitElement() throws InterruptedException {
+        while (this.isEmpty()) {
+            if (this.waitStrategy == WaitStrategy.SPINNING) {
+                this.spin();
+            } else {
+                this.lock.lock();
+                try {
+                    this.consumerWaiting = true;
+                    if (this.isEmpty()) {
+                        this.notEmpty.awaitNanos(MAX_PARK_NANOS);
+                    }
+                } finally {
+                    this.consumerWaiting = false;
+                    this.lock.unlock();
+                }
+            }
+        }
+    }
+
+    private void spin() throws InterruptedException {
+        if (Thread.interrupted()) {
+            throw new InterruptedException();
+        }
+        Thread.yield();
+    }
+
+    private void signal(final Condition condition) {
+        this.lock.lock();
+        try {
+            condition.signal();
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    private int index(final long i) {
+        return (int) (i % this.elements.length);
+    }
+
+    /**
+     * @return true if the buffer is empty
+     */
+    public boolean isEmpty() {
+        return this.head.get() == this.tail.get();
+    }
+
+    /**
+     * @return true if the buffer is full
+     */
+    public boolean isFull() {
+        return this.tail.get() - this.head.get() == this.elements.length;
+    }
+
+    /**
+     * @return the current number of elements in the buffer (queue depth)
+     */
+    public int size() {
+        return (int) (this.tail.get() - this.head.get());
+    }
+
+    /**
+     * @return the max number of elements in the buffer
+     */
+    public int getCapacity() {
+        return this.elements.length;
+    }
+
+    /**
+     * @return the max number of elements that were in the buffer at the same time
+     */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * @return the number of times the producer had to wait because the buffer was full
+     */
+    public long getProducerStallCount() {
+        return this.producerStallCount;
+    }
+
+    /**
+     * @return the total time the producer spent waiting because the buffer was full, in
+     * nanoseconds
+     */
+    public long getProducerStallNanos() {
+        return this.producerStallNanos;
+    }
+
+    /**
+     * The way a thread waits for the other one.
+     */
+    public enum WaitStrategy {
+        /**
+         * the thread is parked until it is signaled by the other thread. Use this if the
+         * threads can't have a core of their own.
+         */
+        BLOCKING,
+        /**
+         * the thread yields and checks again. Lower latency, but burns CPU.
+         */
+        SPINNING
+    }
+}
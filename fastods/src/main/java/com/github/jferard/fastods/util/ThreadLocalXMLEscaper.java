@@ -0,0 +1,87 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+
+/**
+ * An XML escaper that can be shared between threads: each thread has its own FastOdsXMLEscaper
+ * (buffer and caches).
+ *
+ * @author Julien Férard
+ */
+public class ThreadLocalXMLEscaper implements AppendingXMLEscaper {
+    /**
+     * @return a new escaper, with a default FastOdsXMLEscaper per thread
+     */
+    public static ThreadLocalXMLEscaper create() {
+        return new ThreadLocalXMLEscaper(FastOdsXMLEscaper.builder());
+    }
+
+    /**
+     * @param builder the builder of the escaper of each thread. Do not modify the builder after
+     *                this call.
+     * @return a new escaper
+     */
+    public static ThreadLocalXMLEscaper create(final FastOdsXMLEscaperBuilder builder) {
+        return new ThreadLocalXMLEscaper(builder);
+    }
+
+    private final ThreadLocal<FastOdsXMLEscaper> escapers;
+
+    /**
+     * @param builder the builder of the escaper of each thread
+     */
+    ThreadLocalXMLEscaper(final FastOdsXMLEscaperBuilder builder) {
+        this.escapers = new ThreadLocal<FastOdsXMLEscaper>() {
+            @Override
+            protected FastOdsXMLEscaper initialValue() {
+                return builder.build();
+            }
+        };
+    }
+
+    @Override
+    public String escapeXMLAttribute(final String s) {
+        return this.escapers.get().escapeXMLAttribute(s);
+    }
+
+    @Override
+    public String escapeXMLContent(final String s) {
+        return this.escapers.get().escapeXMLContent(s);
+    }
+
+    @Override
+    public void appendEscapedXMLAttribute(final Appendable appendable, final String s)
+            throws IOException {
+        this.escapers.get().appendEscapedXMLAttribute(appendable, s);
+    }
+
+    @Override
+    public void appendEscapedXMLContent(final Appendable appendable, final String s)
+            throws IOException {
+        this.escapers.get().appendEscapedXMLContent(appendable, s);
+    }
+}
@@ -24,6 +24,8 @@
 
 package com.github.jferard.fastods.util;
 
+import java.io.IOException;
+
 /**
  * A WriteUtil helps to write data to file.
  *
@@ -65,4 +67,37 @@ public class WriteUtil {
             return Integer.toString(value);
         }
     }
+
+    /**
+     * Append the decimal representation of a long, without creating a String (except for
+     * the cached small values).
+     *
+     * @param appendable the destination
+     * @param value      the value
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendLong(final Appendable appendable, final long value) throws IOException {
+        if (-this.maxInt <= value && value < this.maxInt) {
+            appendable.append(this.toString((int) value));
+            return;
+        } else if (value == Long.MIN_VALUE) {
+            appendable.append("-9223372036854775808");
+            return;
+        }
+
+        long remaining = value;
+        if (remaining < 0) {
+            appendable.append('-');
+            remaining = -remaining;
+        }
+        long divisor = 1;
+        while (divisor <= remaining / 10) {
+            divisor *= 10;
+        }
+        while (divisor > 0) {
+            appendable.append((char) ('0' + remaining / divisor));
+            remaining %= divisor;
+            divisor /= 10;
+        }
+    }
 }
@@ -54,7 +54,16 @@ public class XMLUtil {
         return new XMLUtil(escaper);
     }
 
+    /**
+     * @param escaper the escaper
+     * @return a new xml util with a custom escaper
+     */
+    public static XMLUtil create(final XMLEscaper escaper) {
+        return new XMLUtil(escaper);
+    }
+
     private final XMLEscaper escaper;
+    private final AppendingXMLEscaper appendingEscaper;
 
     /**
      * Create a new util
@@ -63,6 +72,18 @@ public class XMLUtil {
      */
     XMLUtil(final XMLEscaper escaper) {
         this.escaper = escaper;
+        if (escaper instanceof AppendingXMLEscaper) {
+            this.appendingEscaper = (AppendingXMLEscaper) escaper;
+        } else {
+            this.appendingEscaper = null;
+        }
+    }
+
+    /**
+     * @return the embedded escaper
+     */
+    public XMLEscaper getEscaper() {
+        return this.escaper;
     }
 
     /**
@@ -78,8 +99,18 @@ public class XMLUtil {
      */
     public void appendEAttribute(final Appendable appendable, final CharSequence attrName,
                                  final String attrRawValue) throws IOException {
-        appendable.append(' ').append(attrName).append("=\"")
-                .append(this.escaper.escapeXMLAttribute(attrRawValue)).append('"');
+        appendable.append(' ').append(attrName).append("=\"");
+        this.appendEscapedXMLAttribute(appendable, attrRawValue);
+        appendable.append('"');
+    }
+
+    /**
+     * @param attrName     the name of the attribute
+     * @param attrRawValue the value of the attribute, to be escaped
+     * @return the fragment ` attrName="escaped value"`, to be stored and appended as is.
+     */
+    public String formatEAttribute(final CharSequence attrName, final String attrRawValue) {
+        return " " + attrName + "=\"" + this.escaper.escapeXMLAttribute(attrRawValue) + "\"";
     }
 
     /**
@@ -173,9 +204,43 @@ public class XMLUtil {
      */
     public void appendTag(final Appendable appendable, final CharSequence tagName,
                           final String content) throws IOException {
-        appendable.append('<').append(tagName).append('>')
-                .append(this.escaper.escapeXMLContent(content)).append("</").append(tagName)
-                .append('>');
+        appendable.append('<').append(tagName).append('>');
+        this.appendEscapedXMLContent(appendable, content);
+        appendable.append("</").append(tagName).append('>');
+    }
+
+    /**
+     * Escape an XML attribute and append it, without building the escaped string if the
+     * escaper is an {@link AppendingXMLEscaper}.
+     *
+     * @param appendable the destination
+     * @param s          the attribute
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendEscapedXMLAttribute(final Appendable appendable, final String s)
+            throws IOException {
+        if (this.appendingEscaper == null) {
+            appendable.append(this.escaper.escapeXMLAttribute(s));
+        } else {
+            this.appendingEscaper.appendEscapedXMLAttribute(appendable, s);
+        }
+    }
+
+    /**
+     * Escape an XML content and append it, without building the escaped string if the
+     * escaper is an {@link AppendingXMLEscaper}.
+     *
+     * @param appendable the destination
+     * @param s          the content
+     * @throws IOException if an I/O error occurs
+     */
+    public void appendEscapedXMLContent(final Appendable appendable, final String s)
+            throws IOException {
+        if (this.appendingEscaper == null) {
+            appendable.append(this.escaper.escapeXMLContent(s));
+        } else {
+            this.appendingEscaper.appendEscapedXMLContent(appendable, s);
+        }
     }
 
     /**
@@ -0,0 +1,256 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * A writer for a zip file that encodes the chars to UTF-8 without the JDK encoder.
+ * <p>
+ * The chars are encoded straight into a reusable byte buffer (with a fast path for ASCII chars,
+ * that is almost all of the XML markup) and the full buffer is handed to the zip stream.
+ * The output is the same as the output of a {@code OutputStreamWriter} with a UTF-8 charset:
+ * a malformed surrogate is replaced by a '?'.
+ *
+ * @author Julien Férard
+ */
+public class ZipUTF8DirectWriter implements ZipUTF8RawWriter {
+    private static final char NO_SURROGATE = 0;
+    private static final byte REPLACEMENT_BYTE = '?';
+
+    /**
+     * The encoder needs at least 4 bytes to encode a code point
+     */
+    static final int MIN_BUFFER_SIZE = 4;
+
+    private final ZipOutputStream zipStream;
+    private final byte[] buffer;
+    private int count;
+    private char highSurrogate;
+
+    /**
+     * Create a new writer. Do not use directly. Use a builder if you want to avoid mistakes
+     *
+     * @param zipStream  the zip stream
+     * @param bufferSize the size of the byte buffer
+     */
+    ZipUTF8DirectWriter(final ZipOutputStream zipStream, final int bufferSize) {
+        if (bufferSize < MIN_BUFFER_SIZE) {
+            throw new IllegalArgumentException("Buffer size must be >= " + MIN_BUFFER_SIZE);
+        }
+        this.zipStream = zipStream;
+        this.buffer = new byte[bufferSize];
+        this.count = 0;
+        this.highSurrogate = NO_SURROGATE;
+    }
+
+    @Override
+    public Appendable append(final char c) throws IOException {
+        this.encodeChar(c);
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq) throws IOException {
+        if (csq == null) {
+            this.encode("null", 0, 4);
+        } else {
+            this.encode(csq, 0, csq.length());
+        }
+        return this;
+    }
+
+    @Override
+    public Appendable append(final CharSequence csq, final int start, final int end)
+            throws IOException {
+        if (csq == null) {
+            this.encode("null", start, end);
+        } else {
+            this.encode(csq, start, end);
+        }
+        return this;
+    }
+
+    private void encode(final CharSequence csq, final int start, final int end)
+            throws IOException {
+        final byte[] buf = this.buffer;
+        int i = start;
+        while (i < end) {
+            if (this.highSurrogate == NO_SURROGATE) {
+                // ASCII fast path: one char is one byte
+                int c = this.count;
+                final int limit = Math.min(end, i + buf.length - c);
+                while (i < limit) {
+                    final char ch = csq.charAt(i);
+                    if (ch >= 0x80) {
+                        break;
+                    }
+                    buf[c++] = (byte) ch;
+                    i++;
+                }
+                this.count = c;
+                if (i == end) {
+                    return;
+                }
+                if (c == buf.length) {
+                    this.flushBuffer();
+                    continue;
+                }
+            }
+            this.encodeChar(csq.charAt(i));
+            i++;
+        }
+    }
+
+    private void encodeChar(final char c) throws IOException {
+        if (this.count + MIN_BUFFER_SIZE > this.buffer.length) {
+            this.flushBuffer();
+        }
+        if (this.highSurrogate != NO_SURROGATE) {
+            final char high = this.highSurrogate;
+            this.highSurrogate = NO_SURROGATE;
+            if (Character.isLowSurrogate(c)) {
+                this.encodeCodePoint(Character.toCodePoint(high, c));
+                return;
+            }
+            this.buffer[this.count++] = REPLACEMENT_BYTE;
+            if (this.count + MIN_BUFFER_SIZE > this.buffer.length) {
+                this.flushBuffer();
+            }
+        }
+
+        final byte[] buf = this.buffer;
+        if (c < 0x80) {
+            buf[this.count++] = (byte) c;
+        } else if (c < 0x800) {
+            buf[this.count++] = (byte) (0xC0 | (c >> 6));
+            buf[this.count++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isHighSurrogate(c)) {
+            this.highSurrogate = c;
+        } else if (Character.isLowSurrogate(c)) {
+            buf[this.count++] = REPLACEMENT_BYTE;
+        } else {
+            buf[this.count++] = (byte) (0xE0 | (c >> 12));
+            buf[this.count++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            buf[this.count++] = (byte) (0x80 | (c & 0x3F));
+        }
+    }
+
+    private void encodeCodePoint(final int codePoint) {
+        final byte[] buf = this.buffer;
+        buf[this.count++] = (byte) (0xF0 | (codePoint >> 18));
+        buf[this.count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+        buf[this.count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+        buf[this.count++] = (byte) (0x80 | (codePoint & 0x3F));
+    }
+
+    /**
+     * Hand the encoded bytes to the zip stream.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void flushBuffer() throws IOException {
+        if (this.count > 0) {
+            this.zipStream.write(this.buffer, 0, this.count);
+            this.count = 0;
+        }
+    }
+
+    /**
+     * Hand the encoded bytes to the zip stream. A pending high surrogate is replaced by a '?'.
+     *
+     * @throws IOException if an I/O error occurs
+     */
+    private void flushAll() throws IOException {
+        if (this.highSurrogate != NO_SURROGATE) {
+            this.highSurrogate = NO_SURROGATE;
+            if (this.count == this.buffer.length) {
+                this.flushBuffer();
+            }
+            this.buffer[this.count++] = REPLACEMENT_BYTE;
+        }
+        this.flushBuffer();
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.flushAll();
+        this.zipStream.close();
+    }
+
+    @Override
+    public void closeEntry() throws IOException {
+        this.flushAll();
+        this.zipStream.closeEntry();
+    }
+
+    @Override
+    public void finish() throws IOException {
+        this.flushAll();
+        this.zipStream.finish();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        this.flushBuffer();
+        this.zipStream.flush();
+    }
+
+    @Override
+    public void putNextEntry(final ZipEntry entry) throws IOException {
+        this.zipStream.putNextEntry(entry);
+    }
+
+    @Override
+    public void setComment(final String comment) {
+        this.zipStream.setComment(comment);
+    }
+
+    @Override
+    public void write(final byte[] bytes) throws IOException {
+        this.flushAll();
+        this.zipStream.write(bytes);
+    }
+
+    @Override
+    public boolean copiesDeflatedData() {
+        return this.zipStream instanceof ParallelZipOutputStream;
+    }
+
+    @Override
+    public void writeCachedEntry(final ZipEntry entry, final CachedZipEntry cachedEntry)
+            throws IOException {
+        this.flushAll();
+        cachedEntry.writeTo(this.zipStream, entry);
+    }
+
+    @Override
+    public void writeRawEntry(final RawZipEntry rawEntry) throws IOException {
+        this.flushAll();
+        rawEntry.writeTo(this.zipStream);
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+
+/**
+ * A zip writer that writes the entries that were already deflated: the cached entries and the
+ * entries of an existing archive. This interface extends
+ * {@link ZipUTF8Writer} to keep the custom writers source compatible: a plain ZipUTF8Writer
+ * is adapted, and the adapter writes the content of those entries as usual.
+ *
+ * @author Julien Férard
+ */
+public interface ZipUTF8RawWriter extends ZipUTF8Writer {
+    /**
+     * @return true if the deflate data of the cached and raw entries is copied as is, false if
+     * those entries are deflated again (JDK zip stream).
+     */
+    boolean copiesDeflatedData();
+
+    /**
+     * Write a whole entry that was deflated once. The previous entry is closed.
+     *
+     * @param entry       the zip entry (name, time...)
+     * @param cachedEntry the deflated content
+     * @throws IOException if an I/O error occurs
+     */
+    void writeCachedEntry(ZipEntry entry, CachedZipEntry cachedEntry) throws IOException;
+
+    /**
+     * Copy an entry of an existing archive. The previous entry is closed. The compressed data is
+     * copied as is if the writer was built with {@link ZipUTF8WriterBuilder#rawEntryCopy()}.
+     *
+     * @param rawEntry the entry of the existing archive
+     * @throws IOException if an I/O error occurs
+     */
+    void writeRawEntry(RawZipEntry rawEntry) throws IOException;
+}
@@ -29,6 +29,7 @@ import java.io.BufferedWriter;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.util.concurrent.ExecutorService;
 import java.util.zip.Deflater;
 import java.util.zip.ZipOutputStream;
 
@@ -40,10 +41,16 @@ import java.util.zip.ZipOutputStream;
 public class ZipUTF8WriterBuilder {
     private static final int DEFAULT_BUFFER = -1;
     private static final int NO_BUFFER = -2;
+    private static final int DEFAULT_DIRECT_BUFFER_SIZE = 8 * 1024;
 
     private int level;
     private int writerBufferSize;
     private int zipBufferSize;
+    private boolean directEncoding;
+    private boolean parallelDeflate;
+    private ExecutorService deflateExecutor;
+    private int deflateBlockSize;
+    private boolean rawEntryCopy;
 
     /**
      * Create a new builder
@@ -52,6 +59,10 @@ public class ZipUTF8WriterBuilder {
         this.level = Deflater.BEST_SPEED;
         this.writerBufferSize = ZipUTF8WriterBuilder.DEFAULT_BUFFER;
         this.zipBufferSize = ZipUTF8WriterBuilder.DEFAULT_BUFFER;
+        this.directEncoding = false;
+        this.parallelDeflate = false;
+        this.deflateBlockSize = ParallelZipOutputStream.DEFAULT_BLOCK_SIZE;
+        this.rawEntryCopy = false;
     }
 
     /**
@@ -73,9 +84,10 @@ public class ZipUTF8WriterBuilder {
                 bufferedOut = new BufferedOutputStream(out, this.zipBufferSize);
                 break;
         }
-        final ZipOutputStream zipOut = new ZipOutputStream(bufferedOut);
-        zipOut.setMethod(ZipOutputStream.DEFLATED);
-        zipOut.setLevel(this.level);
+        final ZipOutputStream zipOut = this.createZipOutputStream(bufferedOut);
+        if (this.directEncoding) {
+            return new ZipUTF8DirectWriter(zipOut, this.getDirectBufferSize());
+        }
         final Writer writer = new OutputStreamWriter(zipOut, CharsetUtil.UTF_8);
         final Writer bufferedWriter;
         switch (this.writerBufferSize) {
@@ -92,6 +104,119 @@ public class ZipUTF8WriterBuilder {
         return new ZipUTF8WriterImpl(zipOut, bufferedWriter);
     }
 
+    private ZipOutputStream createZipOutputStream(final OutputStream bufferedOut) {
+        if ((this.parallelDeflate || this.rawEntryCopy) && ParallelZipOutputStream.isAvailable()) {
+            if (!this.parallelDeflate) {
+                return ParallelZipOutputStream
+                        .create(bufferedOut, this.level, this.deflateBlockSize, null, 1);
+            } else if (this.deflateExecutor == null) {
+                return ParallelZipOutputStream
+                        .create(bufferedOut, this.level, this.deflateBlockSize);
+            } else {
+                return ParallelZipOutputStream
+                        .create(bufferedOut, this.level, this.deflateBlockSize,
+                                this.deflateExecutor,
+                                2 * Runtime.getRuntime().availableProcessors());
+            }
+        }
+        final ZipOutputStream zipOut = new ZipOutputStream(bufferedOut);
+        zipOut.setMethod(ZipOutputStream.DEFLATED);
+        zipOut.setLevel(this.level);
+        return zipOut;
+    }
+
+    private int getDirectBufferSize() {
+        switch (this.writerBufferSize) {
+            case NO_BUFFER:
+            case DEFAULT_BUFFER:
+                return ZipUTF8WriterBuilder.DEFAULT_DIRECT_BUFFER_SIZE;
+            default:
+                return Math.max(this.writerBufferSize, ZipUTF8DirectWriter.MIN_BUFFER_SIZE);
+        }
+    }
+
+    /**
+     * Encode the chars to UTF-8 directly into a byte buffer, instead of using a
+     * {@code OutputStreamWriter}. The writer buffer size is the size of the byte buffer. Since
+     * this writer always needs a buffer, the "no buffer" option is replaced by the default
+     * buffer.
+     *
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilder directEncoding() {
+        this.directEncoding = true;
+        return this;
+    }
+
+    /**
+     * Use a {@code OutputStreamWriter} to encode the chars to UTF-8 (this is the default).
+     *
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilder jdkEncoding() {
+        this.directEncoding = false;
+        return this;
+    }
+
+    /**
+     * Deflate the entries on a pool of threads, one per available processor. The pool is
+     * owned by the writer and shut down on close. This is useful for big documents on
+     * multi-core servers.
+     * <p>
+     * Needs Java 7+: on older JVMs, the entries are deflated by a regular ZipOutputStream.
+     *
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilder parallelDeflate() {
+        this.parallelDeflate = true;
+        this.deflateExecutor = null;
+        return this;
+    }
+
+    /**
+     * Deflate the entries on a given executor. The executor is not shut down by the writer.
+     * <p>
+     * Needs Java 7+: on older JVMs, the entries are deflated by a regular ZipOutputStream.
+     *
+     * @param executor the executor
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilder parallelDeflate(final ExecutorService executor) {
+        this.parallelDeflate = true;
+        this.deflateExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Copy the compressed data of the raw entries (see
+     * {@link ZipUTF8RawWriter#writeRawEntry(RawZipEntry)}) without inflating and deflating it
+     * again. If parallel deflate is not set, the other entries are deflated in the current
+     * thread.
+     * <p>
+     * Needs Java 7+: on older JVMs, the raw entries are inflated and deflated again.
+     *
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilder rawEntryCopy() {
+        this.rawEntryCopy = true;
+        return this;
+    }
+
+    /**
+     * Set the size of the blocks that are deflated in parallel.
+     *
+     * @param size the size of a block
+     * @return this for fluent style
+     */
+    public ZipUTF8WriterBuilder deflateBlockSize(final int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.deflateBlockSize = size;
+        return this;
+    }
+
     /**
      * Set the default buffer size for the writer
      *
@@ -34,7 +34,7 @@ import java.util.zip.ZipOutputStream;
  *
  * @author Julien Férard
  */
-public class ZipUTF8WriterImpl implements ZipUTF8Writer {
+public class ZipUTF8WriterImpl implements ZipUTF8RawWriter {
     private final Writer writer;
     private final ZipOutputStream zipStream;
 
@@ -69,6 +69,10 @@ public class ZipUTF8WriterImpl implements ZipUTF8Writer {
     @Override
     public Appendable append(final CharSequence csq, final int start, final int end)
             throws IOException {
+        if (csq instanceof String) { // Writer.append would create a substring
+            this.writer.write((String) csq, start, end - start);
+            return this.writer;
+        }
         return this.writer.append(csq, start, end);
     }
 
@@ -115,4 +119,22 @@ public class ZipUTF8WriterImpl implements ZipUTF8Writer {
     public void write(final byte[] bytes) throws IOException {
         this.zipStream.write(bytes);
     }
+
+    @Override
+    public boolean copiesDeflatedData() {
+        return this.zipStream instanceof ParallelZipOutputStream;
+    }
+
+    @Override
+    public void writeCachedEntry(final ZipEntry entry, final CachedZipEntry cachedEntry)
+            throws IOException {
+        this.writer.flush();
+        cachedEntry.writeTo(this.zipStream, entry);
+    }
+
+    @Override
+    public void writeRawEntry(final RawZipEntry rawEntry) throws IOException {
+        this.writer.flush();
+        rawEntry.writeTo(this.zipStream);
+    }
 }
@@ -24,6 +24,7 @@
 package com.github.jferard.fastods;
 
 import com.github.jferard.fastods.testlib.Bench;
+import com.github.jferard.fastods.util.RingBuffer;
 import org.junit.Test;
 
 import java.io.File;
@@ -55,7 +56,10 @@ public class BenchFastFlushWithThreads extends Bench {
             } catch (final IOException e) {
                 this.logger.log(Level.SEVERE, "", e);
             }
-            System.out.println(">> Write time " + t + " ms");
+            System.out.println(">> Write time " + t + " ms, max queue depth " +
+                    this.writerAdapter.getMaxQueueDepth() + ", producer stalls " +
+                    this.writerAdapter.getProducerStallCount() + " (" +
+                    this.writerAdapter.getProducerStallNanos() / 1000000 + " ms)");
         }
 
         public long flushAdaptee() throws IOException {
@@ -107,11 +111,31 @@ public class BenchFastFlushWithThreads extends Bench {
 
     private final Logger logger;
     private final OdsFactory odsFactory;
+    private final int capacity;
+    private final RingBuffer.WaitStrategy waitStrategy;
 
     public BenchFastFlushWithThreads(final Logger logger, final int rowCount, final int colCount) {
-        super(logger, "FastODSFlushWithThreads", rowCount, colCount);
+        this(logger, rowCount, colCount, OdsFileWriterAdapter.DEFAULT_CAPACITY,
+                RingBuffer.WaitStrategy.BLOCKING);
+    }
+
+    /**
+     * @param logger       the logger
+     * @param rowCount     the number of rows
+     * @param colCount     the number of cols
+     * @param capacity     the capacity of the flushers buffer. A small capacity shows the cost of
+     *                     the back-pressure.
+     * @param waitStrategy the wait strategy
+     */
+    public BenchFastFlushWithThreads(final Logger logger, final int rowCount, final int colCount,
+                                     final int capacity,
+                                     final RingBuffer.WaitStrategy waitStrategy) {
+        super(logger, "FastODSFlushWithThreads-" + capacity + "-" + waitStrategy, rowCount,
+                colCount);
         this.logger = logger;
         this.odsFactory = OdsFactory.create(this.logger, Locale.US);
+        this.capacity = capacity;
+        this.waitStrategy = waitStrategy;
     }
 
     @Test
@@ -127,7 +151,8 @@ public class BenchFastFlushWithThreads extends Bench {
                     this.getColCount() + " columns spreadsheet");
             final long t1 = System.currentTimeMillis();
             final OdsFileWriterAdapter writerAdapter = this.odsFactory.createWriterAdapter(
-                    new File("generated_files", "fastods_flush_thread_benchmark" + ".ods"));
+                    new File("generated_files", "fastods_flush_thread_benchmark" + ".ods"),
+                    this.capacity, this.waitStrategy);
             final NamedOdsDocument document = writerAdapter.document();
             final Producer producer = this.createProducer(document);
             final Consumer consumer = this.createConsumer(writerAdapter);
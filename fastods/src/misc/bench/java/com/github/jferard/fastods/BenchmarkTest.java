@@ -23,6 +23,7 @@
 package com.github.jferard.fastods;
 
 import com.github.jferard.fastods.testlib.Bench;
+import com.github.jferard.fastods.util.RingBuffer;
 import com.google.common.collect.Lists;
 import org.junit.Before;
 import org.junit.BeforeClass;
@@ -101,8 +102,14 @@ public class BenchmarkTest {
     private void test(final int rowCount, final int colCount, final int times) throws IOException {
         final List<Bench> benches =
                 Lists.newArrayList(new BenchFast(this.logger, rowCount, colCount),
+                        new BenchFastDirectEncoding(this.logger, rowCount, colCount),
+                        new BenchFastFloats(this.logger, rowCount, colCount),
                         new BenchFastFlush(this.logger, rowCount, colCount),
                         new BenchFastFlushWithThreads(this.logger, rowCount, colCount),
+                        new BenchFastFlushWithThreads(this.logger, rowCount, colCount, 1,
+                                RingBuffer.WaitStrategy.BLOCKING),
+                        new BenchFastFlushWithThreads(this.logger, rowCount, colCount, 1,
+                                RingBuffer.WaitStrategy.SPINNING),
                         new BenchSimpleOds(this.logger, rowCount, colCount),
                         new BenchJOpen(this.logger, rowCount, colCount));
         if (rowCount < 10000) {
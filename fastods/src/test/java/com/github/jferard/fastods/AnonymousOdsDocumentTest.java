@@ -27,11 +27,13 @@ package com.github.jferard.fastods;
 import com.github.jferard.fastods.odselement.OdsElements;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.easymock.EasyMock;
 import org.junit.Before;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -72,6 +74,7 @@ public class AnonymousOdsDocumentTest extends OdsDocumentTest<AnonymousOdsDocume
         this.odsElements.writeSettings(this.xmlUtil, writer);
         this.odsElements.writeManifest(this.xmlUtil, writer);
         this.odsElements.writeExtras(writer);
+        EasyMock.expect(this.odsElements.getTables()).andReturn(Collections.<Table>emptyList());
         this.logger.log(Level.FINE, "file saved");
         writer.close();
 
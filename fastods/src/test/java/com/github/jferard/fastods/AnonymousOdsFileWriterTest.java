@@ -24,7 +24,13 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.attribute.CellType;
+import com.github.jferard.fastods.datastyle.FloatStyle;
+import com.github.jferard.fastods.datastyle.FloatStyleBuilder;
 import com.github.jferard.fastods.odselement.OdsElements;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.testlib.DomTester;
+import com.github.jferard.fastods.util.CharsetUtil;
 import com.github.jferard.fastods.util.XMLUtil;
 import com.github.jferard.fastods.util.ZipUTF8Writer;
 import com.github.jferard.fastods.util.ZipUTF8WriterBuilder;
@@ -53,6 +59,10 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -139,6 +149,316 @@ public class AnonymousOdsFileWriterTest {
                 "Configurations2/statusbar/"), names);
     }
 
+    @Test
+    public final void testSaveWithParallelDeflate() throws IOException {
+        final AnonymousOdsFileWriter writer = this.odsFactory.createWriter();
+        final Table table = writer.document().addTable("table");
+        final TableCellWalker walker = table.getWalker();
+        for (int r = 0; r < 2000; r++) {
+            for (int c = 0; c < 10; c++) {
+                walker.setFloatValue(r * c);
+                walker.next();
+            }
+            walker.nextRow();
+        }
+
+        PowerMock.resetAll();
+        PowerMock.replayAll();
+        try {
+            writer.save(this.os, ZipUTF8WriterImpl.builder().directEncoding().parallelDeflate()
+                    .deflateBlockSize(8 * 1024));
+        } finally {
+            this.os.close();
+        }
+
+        PowerMock.verifyAll();
+        final ByteArrayOutputStream expectedOs = new ByteArrayOutputStream();
+        writer.save(expectedOs);
+        Assert.assertEquals(this.readEntry(expectedOs.toByteArray(), "content.xml"),
+                this.readEntry(this.os.toByteArray(), "content.xml"));
+    }
+
+    @Test
+    public final void testSaveWithZipEntryCache() throws IOException {
+        final ZipEntryCache cache = ZipEntryCache.create();
+        final OdsFactory cachingFactory =
+                OdsFactory.builder(Logger.getLogger("cache"), Locale.US).zipEntryCache(cache)
+                        .build();
+        final List<byte[]> docs = new ArrayList<byte[]>();
+        for (int i = 0; i < 2; i++) {
+            final AnonymousOdsFileWriter writer = cachingFactory.createWriter();
+            this.fillTable(writer.document().addTable("table"));
+            final ByteArrayOutputStream cachedOs = new ByteArrayOutputStream();
+            writer.save(cachedOs, ZipUTF8WriterImpl.builder().parallelDeflate());
+            docs.add(cachedOs.toByteArray());
+        }
+        // 9 empty elements, mimetype, manifest, styles and settings
+        Assert.assertEquals(13, cache.getMissCount());
+        Assert.assertEquals(13, cache.getHitCount());
+
+        final AnonymousOdsFileWriter writer = this.odsFactory.createWriter();
+        this.fillTable(writer.document().addTable("table"));
+        final ByteArrayOutputStream expectedOs = new ByteArrayOutputStream();
+        writer.save(expectedOs);
+        final String expectedStyles = this.readEntry(expectedOs.toByteArray(), "styles.xml");
+        for (final String name : Arrays
+                .asList("mimetype", "styles.xml", "content.xml", "settings.xml",
+                        "META-INF/manifest.xml", "Thumbnails/")) {
+            final String expected = this.readEntry(expectedOs.toByteArray(), name);
+            for (final byte[] doc : docs) {
+                Assert.assertEquals(expected, this.readEntry(doc, name));
+            }
+        }
+
+        // the default builder copies the cached entries
+        final AnonymousOdsFileWriter defaultWriter = cachingFactory.createWriter();
+        this.fillTable(defaultWriter.document().addTable("table"));
+        final ByteArrayOutputStream defaultOs = new ByteArrayOutputStream();
+        defaultWriter.save(defaultOs);
+        Assert.assertEquals(13, cache.getMissCount());
+        Assert.assertEquals(26, cache.getHitCount());
+        Assert.assertEquals(expectedStyles, this.readEntry(defaultOs.toByteArray(), "styles.xml"));
+
+        // the JDK zip stream would deflate the entries again: the cache is not used
+        final AnonymousOdsFileWriter jdkWriter = cachingFactory.createWriter();
+        this.fillTable(jdkWriter.document().addTable("table"));
+        final ByteArrayOutputStream jdkOs = new ByteArrayOutputStream();
+        jdkWriter.save(jdkOs, ZipUTF8WriterImpl.builder());
+        Assert.assertEquals(13, cache.getMissCount());
+        Assert.assertEquals(26, cache.getHitCount());
+        Assert.assertEquals(expectedStyles, this.readEntry(jdkOs.toByteArray(), "styles.xml"));
+    }
+
+    @Test
+    public final void testFork() throws IOException {
+        final TableCellStyle style =
+                TableCellStyle.builder("prototype-style").fontWeightBold().build();
+        final AnonymousOdsDocument prototype = this.odsFactory.createPrototypeDocument();
+        prototype.addCellStyle(style, CellType.FLOAT);
+        prototype.freezeStyles();
+        final String prototypeStyles = this.saveEntries(prototype);
+
+        final AnonymousOdsFileWriter expectedWriter = this.odsFactory.createWriter();
+        ((AnonymousOdsDocument) expectedWriter.document()).addCellStyle(style, CellType.FLOAT);
+        final Table expectedTable = expectedWriter.document().addTable("table");
+        this.fillTable(expectedTable);
+        expectedTable.getRow(0).getOrCreateCell(0).setStyle(style);
+        final ByteArrayOutputStream expectedOs = new ByteArrayOutputStream();
+        expectedWriter.save(expectedOs);
+
+        for (int i = 0; i < 2; i++) {
+            final AnonymousOdsFileWriter writer = this.odsFactory.createWriter(prototype);
+            final Table table = writer.document().addTable("table");
+            this.fillTable(table);
+            table.getRow(0).getOrCreateCell(0).setStyle(style);
+            final ByteArrayOutputStream forkOs = new ByteArrayOutputStream();
+            writer.save(forkOs);
+            for (final String name : Arrays.asList("styles.xml", "content.xml")) {
+                // the order of the styles may change
+                DomTester.assertUnsortedEquals(this.readEntry(expectedOs.toByteArray(), name),
+                        this.readEntry(forkOs.toByteArray(), name));
+            }
+        }
+        // the prototype was not modified by the forks
+        Assert.assertEquals(0, prototype.tableCount());
+        Assert.assertEquals(prototypeStyles, this.saveEntries(prototype));
+    }
+
+    @Test
+    public final void testSaveWithParallelTables() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final OdsFactory parallelFactory =
+                    OdsFactory.builder(Logger.getLogger("parallel"), Locale.US)
+                            .parallelTables(executor).build();
+            final AnonymousOdsFileWriter parallelWriter = parallelFactory.createWriter();
+            final List<Table> tables = new ArrayList<Table>();
+            for (int t = 0; t < 6; t++) {
+                tables.add(parallelWriter.document().addTable("table" + t));
+            }
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (final Table table : tables) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws IOException {
+                        AnonymousOdsFileWriterTest.this.fillTable(table);
+                        return null;
+                    }
+                }));
+            }
+            for (final Future<Void> future : futures) {
+                future.get();
+            }
+            final ByteArrayOutputStream parallelOs = new ByteArrayOutputStream();
+            parallelWriter.save(parallelOs);
+
+            final AnonymousOdsFileWriter writer = this.odsFactory.createWriter();
+            for (int t = 0; t < 6; t++) {
+                this.fillTable(writer.document().addTable("table" + t));
+            }
+            final ByteArrayOutputStream expectedOs = new ByteArrayOutputStream();
+            writer.save(expectedOs);
+
+            final String expected = this.readEntry(expectedOs.toByteArray(), "content.xml");
+            final String actual = this.readEntry(parallelOs.toByteArray(), "content.xml");
+            // the fill tasks may register the styles in another order: the automatic styles
+            // may be written in another order
+            Assert.assertEquals(expected.length(), actual.length());
+            Assert.assertEquals(expected.substring(expected.indexOf("<office:body>")),
+                    actual.substring(actual.indexOf("<office:body>")));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public final void testSaveWithParallelTablesSameContent() throws Exception {
+        final AnonymousOdsFileWriter writer = this.odsFactory.createWriter();
+        for (int t = 0; t < 6; t++) {
+            this.fillTable(writer.document().addTable("table" + t));
+        }
+        final ByteArrayOutputStream expectedOs = new ByteArrayOutputStream();
+        writer.save(expectedOs);
+        final String expected = this.readEntry(expectedOs.toByteArray(), "content.xml");
+
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final OdsFactory parallelFactory =
+                    OdsFactory.builder(Logger.getLogger("parallel"), Locale.US)
+                            .parallelTables(executor).build();
+            for (int i = 0; i < 3; i++) {
+                final AnonymousOdsFileWriter parallelWriter = parallelFactory.createWriter();
+                for (int t = 0; t < 6; t++) {
+                    this.fillTable(parallelWriter.document().addTable("table" + t));
+                }
+                final ByteArrayOutputStream parallelOs = new ByteArrayOutputStream();
+                parallelWriter.save(parallelOs);
+                Assert.assertEquals(expected,
+                        this.readEntry(parallelOs.toByteArray(), "content.xml"));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public final void testSaveWithConcurrentDocuments() throws Exception {
+        final OdsFactory factory = OdsFactory.builder(Logger.getLogger("concurrent"), Locale.US)
+                .concurrentDocuments().build();
+        // shared by all the documents of all the threads
+        final FloatStyle floatStyle =
+                new FloatStyleBuilder("shared-float", Locale.US).decimalPlaces(3).build();
+        final TableCellStyle sharedStyle = TableCellStyle.builder("shared").fontWeightBold()
+                .dataStyle(floatStyle).build();
+        final List<String> entryNames = Arrays.asList("mimetype", "META-INF/manifest.xml",
+                "meta.xml", "styles.xml", "content.xml", "settings.xml");
+        final List<String> expected = this.readEntries(
+                this.createConcurrentDocument(factory, sharedStyle), entryNames);
+
+        final int threadCount = 8;
+        final int documentsPerThread = 3;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+            for (int d = 0; d < threadCount * documentsPerThread; d++) {
+                futures.add(executor.submit(new Callable<List<String>>() {
+                    @Override
+                    public List<String> call() throws IOException {
+                        return AnonymousOdsFileWriterTest.this.readEntries(
+                                AnonymousOdsFileWriterTest.this
+                                        .createConcurrentDocument(factory, sharedStyle),
+                                entryNames);
+                    }
+                }));
+            }
+            for (final Future<List<String>> future : futures) {
+                Assert.assertEquals(expected, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private byte[] createConcurrentDocument(final OdsFactory factory,
+                                            final TableCellStyle sharedStyle)
+            throws IOException {
+        final StringBuilder tooltipPrefix = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            tooltipPrefix.append("<a & \"b\"> ");
+        }
+        final AnonymousOdsFileWriter writer = factory.createWriter();
+        for (int t = 0; t < 3; t++) {
+            final Table table = writer.document().addTable("table" + t);
+            this.fillTable(table);
+            final TableCellWalker walker = table.getWalker();
+            for (int r = 0; r < 500; r++) {
+                // the tooltips use the buffer of the escaper, and there are too many of them
+                // for the escaper cache
+                walker.setStringValue("<\"x\" & 'y' & \"z\"> " + t + "/" + r + " <&>");
+                walker.setTooltip(tooltipPrefix.toString() + t + "/" + r);
+                walker.next();
+                walker.setFloatValue(r / 7.0);
+                walker.setStyle(sharedStyle);
+                walker.nextRow();
+            }
+        }
+        final ByteArrayOutputStream os = new ByteArrayOutputStream();
+        writer.save(os);
+        return os.toByteArray();
+    }
+
+    private List<String> readEntries(final byte[] buf, final List<String> names)
+            throws IOException {
+        final List<String> entries = new ArrayList<String>(names.size());
+        for (final String name : names) {
+            entries.add(this.readEntry(buf, name));
+        }
+        return entries;
+    }
+
+    private void fillTable(final Table table) throws IOException {
+        final TableCellStyle style = TableCellStyle.builder("style-" + table.getName())
+                .fontWeightBold().build();
+        final TableCellWalker walker = table.getWalker();
+        for (int r = 0; r < 500; r++) {
+            walker.setStringValue("a<b" + r);
+            walker.next();
+            walker.setFloatValue(r);
+            walker.setStyle(style);
+            walker.next();
+            walker.setDateValue(1234567891011L + r);
+            walker.nextRow();
+        }
+    }
+
+    private String saveEntries(final AnonymousOdsDocument document) throws IOException {
+        final ByteArrayOutputStream documentOs = new ByteArrayOutputStream();
+        final ZipUTF8Writer writer = ZipUTF8WriterImpl.builder().build(documentOs);
+        document.save(writer);
+        writer.finish();
+        return this.readEntry(documentOs.toByteArray(), "styles.xml") +
+                this.readEntry(documentOs.toByteArray(), "content.xml");
+    }
+
+    private String readEntry(final byte[] buf, final String name) throws IOException {
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(buf));
+        ZipEntry entry = zis.getNextEntry();
+        while (entry != null) {
+            if (entry.getName().equals(name)) {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                final byte[] chunk = new byte[1024];
+                int n = zis.read(chunk);
+                while (n != -1) {
+                    bytes.write(chunk, 0, n);
+                    n = zis.read(chunk);
+                }
+                return new String(bytes.toByteArray(), CharsetUtil.UTF_8);
+            }
+            entry = zis.getNextEntry();
+        }
+        throw new AssertionError("No entry " + name);
+    }
+
     @Test
     public final void testSaveEmpyDocumentToStreamAndAddPrePostamble() throws IOException {
         final AnonymousOdsFileWriter writer = this.odsFactory.createWriter();
@@ -307,6 +627,7 @@ public class AnonymousOdsFileWriterTest {
         this.odsElements
                 .writeManifest(EasyMock.eq(this.xmlUtil), EasyMock.isA(ZipUTF8Writer.class));
         this.odsElements.writeExtras(EasyMock.isA(ZipUTF8Writer.class));
+        EasyMock.expect(this.odsElements.getTables()).andReturn(Collections.<Table>emptyList());
         outputStream.write(EasyMock.isA(byte[].class), EasyMock.anyInt(), EasyMock.anyInt());
         EasyMock.expectLastCall().anyTimes();
         outputStream.flush();
@@ -357,6 +678,7 @@ public class AnonymousOdsFileWriterTest {
         this.odsElements
                 .writeManifest(EasyMock.eq(this.xmlUtil), EasyMock.isA(ZipUTF8Writer.class));
         this.odsElements.writeExtras(EasyMock.isA(ZipUTF8Writer.class));
+        EasyMock.expect(this.odsElements.getTables()).andReturn(Collections.<Table>emptyList());
         outputStream.write(EasyMock.isA(byte[].class), EasyMock.anyInt(), EasyMock.anyInt());
         EasyMock.expectLastCall().anyTimes();
         outputStream.flush();
@@ -0,0 +1,128 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.CachedZipEntry;
+import com.github.jferard.fastods.util.CharsetUtil;
+import com.github.jferard.fastods.util.ZipUTF8RawWriter;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+public class CachingZipUTF8WriterTest {
+    private ZipUTF8RawWriter writer;
+    private ZipEntryCache cache;
+    private CachingZipUTF8Writer cachingWriter;
+
+    @Before
+    public void setUp() {
+        this.writer = PowerMock.createMock(ZipUTF8RawWriter.class);
+        this.cache = ZipEntryCache.create(Deflater.BEST_SPEED, 10, 10);
+        this.cachingWriter = new CachingZipUTF8Writer(this.writer, this.cache);
+    }
+
+    @Test
+    public void testCachedEntry() throws IOException {
+        final ZipEntry entry = new ZipEntry("styles.xml");
+        final CachedZipEntry cachedEntry =
+                this.cache.get("styles.xml", "<é/>".getBytes(CharsetUtil.UTF_8));
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.writer.copiesDeflatedData()).andReturn(true);
+        this.writer.writeCachedEntry(entry, cachedEntry);
+
+        PowerMock.replayAll();
+        this.cachingWriter.putNextEntry(entry);
+        this.cachingWriter.append("<é").append('/').append(">", 0, 1);
+        this.cachingWriter.closeEntry();
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(1, this.cache.getHitCount());
+    }
+
+    @Test
+    public void testNotCacheable() throws IOException {
+        final ZipEntry entry = new ZipEntry("content.xml");
+
+        PowerMock.resetAll();
+        this.writer.putNextEntry(entry);
+        EasyMock.expect(this.writer.append("text")).andReturn(this.writer);
+        this.writer.closeEntry();
+
+        PowerMock.replayAll();
+        this.cachingWriter.putNextEntry(entry);
+        this.cachingWriter.append("text");
+        this.cachingWriter.closeEntry();
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(0, this.cache.getMissCount());
+    }
+
+    @Test
+    public void testDeflatedAgain() throws IOException {
+        final ZipEntry entry = new ZipEntry("styles.xml");
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.writer.copiesDeflatedData()).andReturn(false);
+        this.writer.putNextEntry(entry);
+        EasyMock.expect(this.writer.append("<a/>")).andReturn(this.writer);
+        this.writer.closeEntry();
+
+        PowerMock.replayAll();
+        this.cachingWriter.putNextEntry(entry);
+        this.cachingWriter.append("<a/>");
+        this.cachingWriter.closeEntry();
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(0, this.cache.getMissCount());
+    }
+
+    @Test
+    public void testTooLarge() throws IOException {
+        final ZipEntry entry = new ZipEntry("styles.xml");
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.writer.copiesDeflatedData()).andReturn(true);
+        this.writer.putNextEntry(entry);
+        this.writer.write("0123456789A".getBytes(CharsetUtil.UTF_8));
+        EasyMock.expect(this.writer.append("B")).andReturn(this.writer);
+        this.writer.finish();
+
+        PowerMock.replayAll();
+        this.cachingWriter.putNextEntry(entry);
+        this.cachingWriter.write("0123456789A".getBytes(CharsetUtil.UTF_8));
+        this.cachingWriter.append("B");
+        this.cachingWriter.finish();
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(0, this.cache.getMissCount());
+    }
+}
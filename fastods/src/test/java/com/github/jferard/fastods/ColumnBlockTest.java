@@ -0,0 +1,165 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.CharsetUtil;
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Date;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class ColumnBlockTest {
+    private static final int ROW_COUNT = 10;
+    private String[] strings;
+    private double[] doubles;
+    private long[] longs;
+    private long[] dates;
+    private TableCellStyle style;
+
+    @Before
+    public void setUp() {
+        this.strings = new String[ROW_COUNT];
+        this.doubles = new double[ROW_COUNT];
+        this.longs = new long[ROW_COUNT];
+        this.dates = new long[ROW_COUNT];
+        for (int r = 0; r < ROW_COUNT; r++) {
+            this.strings[r] = r % 3 == 0 ? null : "s<" + r;
+            this.doubles[r] = r * 1.5;
+            this.longs[r] = -r;
+            this.dates[r] = 1000000000000L + r * 86400000L;
+        }
+        this.style = TableCellStyle.builder("block-style").fontWeightBold().build();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLength() {
+        ColumnBlock.builder().floatColumn(new double[2]).stringColumn(new String[3]);
+    }
+
+    @Test
+    public void testEmpty() {
+        final ColumnBlock block = ColumnBlock.builder().build();
+        Assert.assertEquals(0, block.getRowCount());
+        Assert.assertEquals(0, block.getColumnCount());
+    }
+
+    @Test
+    public void testSameXMLAsCells() throws IOException {
+        final AnonymousOdsFileWriter cellsWriter = this.createFactory().createWriter();
+        this.fillCells(cellsWriter.document().addTable("t"));
+        final AnonymousOdsFileWriter blockWriter = this.createFactory().createWriter();
+        final Table table = blockWriter.document().addTable("t");
+        table.getRow(0).getOrCreateCell(0).setStringValue("header");
+        table.appendColumnBlock(this.createBlock());
+
+        Assert.assertEquals(this.getContent(cellsWriter), this.getContent(blockWriter));
+        Assert.assertEquals(ROW_COUNT + 1, table.getRowCount());
+    }
+
+    @Test
+    public void testSameXMLAsCellsFlushMode() throws IOException {
+        final AnonymousOdsFileWriter cellsWriter = this.createFactory().createWriter();
+        this.fillCells(cellsWriter.document().addTable("t"));
+        final File file = File.createTempFile("column-block", ".ods");
+        try {
+            final NamedOdsFileWriter blockWriter = this.createFactory().createWriter(file);
+            final Table table = blockWriter.document().addTable("t");
+            table.getRow(0).getOrCreateCell(0).setStringValue("header");
+            table.appendColumnBlock(this.createBlock());
+            blockWriter.save();
+            blockWriter.close();
+
+            final InputStream in = new FileInputStream(file);
+            try {
+                Assert.assertEquals(this.getTableXML(this.getContent(cellsWriter)),
+                        this.getTableXML(this.getContent(in)));
+            } finally {
+                in.close();
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    private OdsFactory createFactory() {
+        return OdsFactory.create(Logger.getLogger("column-block"), Locale.US);
+    }
+
+    private ColumnBlock createBlock() {
+        return ColumnBlock.builder().stringColumn(this.strings).floatColumn(this.doubles)
+                .floatColumn(this.longs, this.style).dateColumn(this.dates).build();
+    }
+
+    private void fillCells(final Table table) throws IOException {
+        table.getRow(0).getOrCreateCell(0).setStringValue("header");
+        for (int r = 0; r < ROW_COUNT; r++) {
+            final TableRowImpl row = table.getRow(r + 1);
+            if (this.strings[r] != null) {
+                row.getOrCreateCell(0).setStringValue(this.strings[r]);
+            }
+            row.getOrCreateCell(1).setFloatValue(this.doubles[r]);
+            final TableCell cell = row.getOrCreateCell(2);
+            cell.setFloatValue(Long.valueOf(this.longs[r]));
+            cell.setStyle(this.style);
+            row.getOrCreateCell(3).setDateValue(new Date(this.dates[r]));
+        }
+    }
+
+    private String getContent(final AnonymousOdsFileWriter writer) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.save(out);
+        return this.getContent(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private String getContent(final InputStream in) throws IOException {
+        final ZipInputStream zis = new ZipInputStream(in);
+        ZipEntry entry = zis.getNextEntry();
+        while (entry != null) {
+            if (entry.getName().equals("content.xml")) {
+                return new String(ByteStreams.toByteArray(zis), CharsetUtil.UTF_8);
+            }
+            entry = zis.getNextEntry();
+        }
+        throw new IOException("No content.xml");
+    }
+
+    private String getTableXML(final String content) {
+        return content.substring(content.indexOf("<table:table "),
+                content.indexOf("</table:table>"));
+    }
+}
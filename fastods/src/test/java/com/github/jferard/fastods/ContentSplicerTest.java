@@ -0,0 +1,191 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.odselement.ContentElement;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+
+public class ContentSplicerTest {
+    private static final String ROW = "<table:table-row table:style-name=\"ro1\">";
+    private static final String OFFICE_NS = "urn:oasis:names:tc:opendocument:xmlns:office:1.0";
+    private static final String STYLE_NS = "urn:oasis:names:tc:opendocument:xmlns:style:1.0";
+    private static final String TABLE_NS = "urn:oasis:names:tc:opendocument:xmlns:table:1.0";
+    private static final String ROOT;
+
+    static {
+        final StringBuilder sb = new StringBuilder("<office:document-content");
+        for (final Map.Entry<String, String> entry : ContentElement.CONTENT_NAMESPACE_BY_PREFIX
+                .entrySet()) {
+            sb.append(' ').append(entry.getKey()).append("=\"").append(entry.getValue())
+                    .append('"');
+        }
+        ROOT = sb.append('>').toString();
+    }
+
+    private AnonymousOdsDocument document;
+    private Table table;
+
+    @Before
+    public void setUp() throws IOException {
+        this.document = OdsFactory.create(Logger.getLogger("splicer"), Locale.US)
+                .createPrototypeDocument();
+        this.table = this.document.addTable("a'b");
+        this.table.getWalker().setStringValue("new");
+    }
+
+    @Test
+    public void testInsertBeforeEndOfTable() throws IOException {
+        final String content = this.splice("<?xml version=\"1.0\"?>" + ROOT +
+                "<office:automatic-styles><style:style style:name=\"ro1\" " +
+                "style:family=\"table-row\"/><number:number-style style:name=\"N0\">" +
+                "<number:number/></number:number-style></office:automatic-styles>" +
+                "<office:body><office:spreadsheet>" +
+                "<table:table table:name=\"other\"><table:table-row/></table:table>" +
+                "<table:table table:name='a&apos;b'><table:table-column/>" +
+                "<table:table-row><table:table-cell><text:p>a &gt; b</text:p>" +
+                "</table:table-cell></table:table-row></table:table>" +
+                "<table:table table:name=\"last\"/>" +
+                "</office:spreadsheet></office:body></office:document-content>");
+
+        // ro1 is not duplicated
+        Assert.assertEquals(content.indexOf("style:name=\"ro1\""),
+                content.lastIndexOf("style:name=\"ro1\""));
+        final int newRow = content.indexOf("office:string-value=\"new\"");
+        Assert.assertTrue(content.indexOf("a &gt; b</text:p>") < newRow);
+        Assert.assertTrue(newRow < content.indexOf("<table:table table:name=\"last\"/>"));
+        Assert.assertTrue(content.endsWith("</office:spreadsheet></office:body>" +
+                "</office:document-content>"));
+    }
+
+    @Test
+    public void testInsertBeforeConditionalFormats() throws IOException {
+        final String content = this.splice(ROOT +
+                "<office:automatic-styles/><office:body><office:spreadsheet>" +
+                "<table:table table:name=\"a'b\"><table:table-row/>" +
+                "<calcext:conditional-formats/></table:table>" +
+                "</office:spreadsheet></office:body></office:document-content>");
+
+        Assert.assertTrue(content.startsWith(ROOT +
+                "<office:automatic-styles><style:style "));
+        Assert.assertTrue(content.indexOf("style:name=\"ro1\"") <
+                content.indexOf("</office:automatic-styles>"));
+        Assert.assertTrue(content.contains("<table:table-row/>" + ROW));
+        Assert.assertTrue(content.contains("</table:table-row><calcext:conditional-formats/>"));
+    }
+
+    @Test
+    public void testEmptyTableWithoutAutomaticStyles() throws IOException {
+        final String content = this.splice(ROOT + "<!-- a > b -->" +
+                "<office:body><office:spreadsheet><table:table table:name=\"a'b\" />" +
+                "</office:spreadsheet></office:body></office:document-content>");
+
+        Assert.assertTrue(content.startsWith(ROOT + "<!-- a > b -->" +
+                "<office:automatic-styles>"));
+        Assert.assertTrue(content.contains("</office:automatic-styles><office:body>"));
+        Assert.assertTrue(content.contains("<table:table table:name=\"a'b\" >" + ROW));
+        Assert.assertTrue(content.contains("</table:table-row></table:table>"));
+    }
+
+    @Test
+    public void testOtherPrefixes() throws IOException {
+        final String content = this.splice("<o:document-content xmlns:o=\"" + OFFICE_NS +
+                "\" xmlns:s='" + STYLE_NS + "' xmlns:t=\"" + TABLE_NS + "\">" +
+                "<o:automatic-styles><s:style s:name=\"ro1\" s:family=\"table-row\"/>" +
+                "</o:automatic-styles><o:body><o:spreadsheet>" +
+                "<t:table t:name=\"a'b\"><t:table-row/></t:table>" +
+                "</o:spreadsheet></o:body></o:document-content>");
+
+        // the FastODS prefixes are declared for the inserted XML
+        Assert.assertTrue(content.startsWith("<o:document-content xmlns:o=\""));
+        Assert.assertTrue(content.contains(" xmlns:office=\"" + OFFICE_NS + "\""));
+        Assert.assertTrue(content.contains(" xmlns:table=\"" + TABLE_NS + "\""));
+        // ro1 is not duplicated
+        Assert.assertFalse(content.contains("style:name=\"ro1\""));
+        Assert.assertTrue(content.contains("<t:table-row/>" + ROW));
+        Assert.assertTrue(content.endsWith("</table:table-row></t:table>" +
+                "</o:spreadsheet></o:body></o:document-content>"));
+    }
+
+    @Test
+    public void testEmptyAutomaticStylesWithOtherPrefix() throws IOException {
+        final String content = this.splice("<o:document-content xmlns:o=\"" + OFFICE_NS +
+                "\" xmlns:t=\"" + TABLE_NS + "\"><o:automatic-styles />" +
+                "<o:body><o:spreadsheet><t:table t:name=\"a'b\"/>" +
+                "</o:spreadsheet></o:body></o:document-content>");
+
+        Assert.assertTrue(content.contains("><o:automatic-styles ><style:style "));
+        Assert.assertTrue(content.contains("</o:automatic-styles><o:body>"));
+        Assert.assertTrue(content.contains("<t:table t:name=\"a'b\">" + ROW));
+        Assert.assertTrue(content.contains("</table:table-row></t:table>"));
+    }
+
+    @Test
+    public void testNestedDeclaration() throws IOException {
+        final String content = this.splice(ROOT + "<office:body><office:spreadsheet>" +
+                "<x:table xmlns:x=\"" + TABLE_NS + "\" x:name=\"other\"/>" +
+                "<x:table xmlns:x=\"urn:x\" x:name=\"a'b\"/>" +
+                "<x:table xmlns:x=\"" + TABLE_NS + "\" x:name=\"a'b\"/>" +
+                "</office:spreadsheet></office:body></office:document-content>");
+
+        Assert.assertTrue(content.contains("<x:table xmlns:x=\"urn:x\" x:name=\"a'b\"/>"));
+        Assert.assertTrue(content.contains("x:name=\"a'b\">" + ROW));
+        Assert.assertTrue(content.contains("</table:table-row></x:table>"));
+    }
+
+    @Test(expected = IOException.class)
+    public void testPrefixConflict() throws IOException {
+        this.splice("<office:document-content xmlns:office=\"" + OFFICE_NS +
+                "\" xmlns:table=\"urn:x\"><office:body><office:spreadsheet>" +
+                "</office:spreadsheet></office:body></office:document-content>");
+    }
+
+    @Test(expected = IOException.class)
+    public void testNoTable() throws IOException {
+        this.splice(ROOT + "<office:body><office:spreadsheet>" +
+                "<table:table table:name=\"ab\"/>" +
+                "</office:spreadsheet></office:body></office:document-content>");
+    }
+
+    @Test
+    public void testUnescape() {
+        Assert.assertEquals("a&b<c>\"d'eé&unknown;",
+                ContentSplicer.unescape("a&amp;b&lt;c&gt;&quot;d&apos;e&#xe9;&unknown;"));
+        Assert.assertEquals("é", ContentSplicer.unescape("&#233;"));
+    }
+
+    private String splice(final String content) throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        new ContentSplicer(this.document, this.table).splice(new StringReader(content), sb);
+        return sb.toString();
+    }
+}
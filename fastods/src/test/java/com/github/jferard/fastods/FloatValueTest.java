@@ -55,7 +55,7 @@ public class FloatValueTest {
         final TableCell cell = PowerMock.createMock(TableCell.class);
 
         PowerMock.resetAll();
-        cell.setFloatValue(10.0);
+        cell.setFloatValue(Double.valueOf(10.0));
 
         PowerMock.replayAll();
         fv1.setToCell(cell);
@@ -0,0 +1,130 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.CachedZipEntry;
+import com.github.jferard.fastods.util.CharsetUtil;
+import com.github.jferard.fastods.util.RawZipEntry;
+import com.github.jferard.fastods.util.ZipUTF8RawWriter;
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+public class InstrumentedZipUTF8WriterTest {
+    private ZipUTF8RawWriter writer;
+    private OdsWriteListener listener;
+    private InstrumentedZipUTF8Writer instrumentedWriter;
+
+    @Before
+    public void setUp() {
+        this.writer = PowerMock.createMock(ZipUTF8RawWriter.class);
+        this.listener = PowerMock.createMock(OdsWriteListener.class);
+        this.instrumentedWriter = new InstrumentedZipUTF8Writer(this.writer, this.listener);
+    }
+
+    @Test
+    public void testEntry() throws IOException {
+        final ZipEntry entry = new ZipEntry("content.xml");
+
+        PowerMock.resetAll();
+        this.writer.putNextEntry(entry);
+        EasyMock.expect(this.writer.append("text")).andReturn(this.writer);
+        this.writer.closeEntry();
+        this.listener.entryWritten("content.xml", 10, 5);
+        this.writer.closeEntry();
+
+        PowerMock.replayAll();
+        this.instrumentedWriter.putNextEntry(entry);
+        this.instrumentedWriter.append("text");
+        entry.setSize(10);
+        entry.setCompressedSize(5);
+        this.instrumentedWriter.closeEntry();
+        this.instrumentedWriter.closeEntry();
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testCachedEntry() throws IOException {
+        final ZipEntry entry = new ZipEntry("styles.xml");
+        final CachedZipEntry cachedEntry = CachedZipEntry.create("styles.xml",
+                "<styles/>".getBytes(CharsetUtil.UTF_8), Deflater.BEST_SPEED);
+
+        PowerMock.resetAll();
+        this.writer.writeCachedEntry(entry, cachedEntry);
+        this.listener.entryWritten("styles.xml", -1, -1);
+
+        PowerMock.replayAll();
+        this.instrumentedWriter.writeCachedEntry(entry, cachedEntry);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testRawEntry() throws IOException {
+        final RawZipEntry rawEntry = PowerMock.createMock(RawZipEntry.class);
+        final ZipEntry entry = new ZipEntry("content.xml");
+
+        PowerMock.resetAll();
+        this.writer.putNextEntry(entry);
+        this.writer.writeRawEntry(rawEntry);
+        this.listener.entryWritten("content.xml", -1, -1);
+        EasyMock.expect(rawEntry.getName()).andReturn("styles.xml");
+        EasyMock.expect(rawEntry.getSize()).andReturn(100L);
+        EasyMock.expect(rawEntry.getCompressedSize()).andReturn(20L);
+        this.listener.entryWritten("styles.xml", 100, 20);
+
+        PowerMock.replayAll();
+        this.instrumentedWriter.putNextEntry(entry);
+        this.instrumentedWriter.writeRawEntry(rawEntry);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testImplicitClose() throws IOException {
+        final ZipEntry entry1 = new ZipEntry("a");
+        final ZipEntry entry2 = new ZipEntry("b");
+
+        PowerMock.resetAll();
+        this.writer.putNextEntry(entry1);
+        this.writer.putNextEntry(entry2);
+        this.listener.entryWritten("a", -1, -1);
+        this.writer.finish();
+        this.listener.entryWritten("b", -1, -1);
+
+        PowerMock.replayAll();
+        this.instrumentedWriter.putNextEntry(entry1);
+        this.instrumentedWriter.putNextEntry(entry2);
+        this.instrumentedWriter.finish();
+
+        PowerMock.verifyAll();
+    }
+}
@@ -27,6 +27,7 @@ package com.github.jferard.fastods;
 import com.github.jferard.fastods.datastyle.DataStyles;
 import com.github.jferard.fastods.datastyle.DataStylesBuilder;
 import com.github.jferard.fastods.odselement.MetaElement;
+import com.github.jferard.fastods.util.FastOdsXMLEscaper;
 import com.github.jferard.fastods.util.FileOpen;
 import org.easymock.Capture;
 import org.easymock.EasyMock;
@@ -36,9 +37,14 @@ import org.junit.Before;
 import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -82,6 +88,23 @@ public class OdsFactoryTest {
         factory.createWriter();
     }
 
+    @Test
+    public void createFactoryBuilderWithEscaper() throws Exception {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.builder().lruCache(10).build();
+        final OdsFactory factory = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                .xmlEscaper(escaper).build();
+        final AnonymousOdsFileWriter writer = factory.createWriter();
+        final Table table = writer.document().addTable("t");
+        final TableRowImpl row = table.getRow(0);
+        row.getOrCreateCell(0).setStringValue("a<b");
+        row.getOrCreateCell(1).setStringValue("a<b");
+        writer.save(new ByteArrayOutputStream());
+
+        Assert.assertEquals(1, escaper.getCacheMissCount());
+        Assert.assertEquals(1, escaper.getCacheHitCount());
+    }
+
     @Test
     public void createWriter() throws Exception {
         PowerMock.resetAll();
@@ -96,6 +119,23 @@ public class OdsFactoryTest {
         Assert.assertTrue(this.file.length() > 0);
     }
 
+    @Test
+    public void createWriterWithZipEntryCache() throws Exception {
+        final ZipEntryCache cache = ZipEntryCache.create();
+        final OdsFactory factory =
+                OdsFactory.builder(Logger.getLogger("cache"), Locale.US).zipEntryCache(cache)
+                        .build();
+        for (int i = 0; i < 2; i++) {
+            final NamedOdsFileWriter writer = factory.createWriter(this.file);
+            writer.document().addTable("t").getWalker().setStringValue("v");
+            writer.save();
+            writer.close();
+        }
+
+        Assert.assertEquals(13, cache.getMissCount());
+        Assert.assertEquals(13, cache.getHitCount());
+    }
+
     @Test
     public void createWriter1() throws Exception {
         PowerMock.resetAll();
@@ -121,6 +161,47 @@ public class OdsFactoryTest {
         Assert.assertTrue(msgCapture.getValue().startsWith("Add new flusher"));
     }
 
+    @Test
+    public void createWriterWithListener() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        final OdsFactory factory = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                .xmlEscaper(FastOdsXMLEscaper.builder().lruCache(10).build())
+                .writeListener(listener).build();
+        final AnonymousOdsFileWriter writer = factory.createWriter();
+        final Table table = writer.document().addTable("t");
+        for (int r = 0; r < 10; r++) {
+            final TableRowImpl row = table.getRow(r);
+            row.getOrCreateCell(0).setTooltip("a<b");
+            row.getOrCreateCell(1).setFloatValue(r);
+        }
+        writer.save(new ByteArrayOutputStream());
+
+        Assert.assertEquals(Arrays.asList("t:10:20"), listener.tables);
+        Assert.assertTrue(listener.sizeByEntry.get("content.xml") > 0);
+        Assert.assertTrue(listener.sizeByEntry.get("styles.xml") > 0);
+        Assert.assertEquals(Long.valueOf(9), listener.escaperHitCount);
+        Assert.assertEquals(Integer.valueOf(1), listener.countByKind.get("font-face"));
+        Assert.assertTrue(listener.flusherCount == 0);
+    }
+
+    @Test
+    public void createNamedWriterWithListener() throws Exception {
+        final RecordingListener listener = new RecordingListener();
+        final OdsFactory factory = OdsFactory
+                .builder(Logger.getLogger(NamedOdsDocument.class.getName()), Locale.US)
+                .writeListener(listener).build();
+        final NamedOdsFileWriter writer = factory.createWriter(this.file);
+        final Table table = writer.document().addTable("t");
+        table.getRow(0).getOrCreateCell(0).setStringValue("a");
+        writer.save();
+
+        Assert.assertEquals(Arrays.asList("t:1:1"), listener.tables);
+        Assert.assertTrue(listener.sizeByEntry.get("content.xml") > 0);
+        Assert.assertTrue(listener.flusherCount > 0);
+        Assert.assertNotNull(listener.countByKind);
+    }
+
     @Test
     public void openFile() throws Exception {
         PowerMock.resetAll();
@@ -140,4 +221,39 @@ public class OdsFactoryTest {
 
         PowerMock.verifyAll();
     }
+
+    private static class RecordingListener implements OdsWriteListener {
+        private final List<String> tables = new ArrayList<String>();
+        private final Map<String, Long> sizeByEntry = new HashMap<String, Long>();
+        private int flusherCount;
+        private Long escaperHitCount;
+        private Map<String, Integer> countByKind;
+
+        @Override
+        public void entryWritten(final String entryName, final long size,
+                                 final long compressedSize) {
+            this.sizeByEntry.put(entryName, size);
+        }
+
+        @Override
+        public void flusherFlushed(final OdsAsyncFlusher flusher, final long nanos) {
+            this.flusherCount++;
+        }
+
+        @Override
+        public void tableWritten(final String tableName, final int rowCount,
+                                 final long cellCount) {
+            this.tables.add(tableName + ":" + rowCount + ":" + cellCount);
+        }
+
+        @Override
+        public void escaperCacheUsed(final long hitCount, final long missCount) {
+            this.escaperHitCount = hitCount;
+        }
+
+        @Override
+        public void stylesCounted(final Map<String, Integer> countByKind) {
+            this.countByKind = countByKind;
+        }
+    }
 }
\ No newline at end of file
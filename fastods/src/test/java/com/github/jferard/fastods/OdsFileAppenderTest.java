@@ -0,0 +1,260 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.attribute.SimpleColor;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.tool.OdsStreamReader;
+import com.github.jferard.fastods.util.CharsetUtil;
+import com.github.jferard.fastods.util.RawZipEntry;
+import com.github.jferard.fastods.util.RawZipFile;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+
+public class OdsFileAppenderTest {
+    private OdsFactory factory;
+    private TableCellStyle oldStyle;
+    private File source;
+    private File destination;
+
+    @Before
+    public void setUp() throws IOException {
+        this.factory = OdsFactory.create(Logger.getLogger("appender"), Locale.US);
+        this.oldStyle = TableCellStyle.builder("old").hidden().fontWeightBold().build();
+        this.source = File.createTempFile("appender-source", ".ods");
+        this.destination = File.createTempFile("appender-destination", ".ods");
+
+        final AnonymousOdsFileWriter writer = this.factory.createWriter();
+        final OdsDocument document = writer.document();
+        final TableCellWalker walker = document.addTable("data & co").getWalker();
+        for (int r = 0; r < 3; r++) {
+            walker.setFloatValue(r);
+            walker.setStyle(this.oldStyle);
+            walker.nextRow();
+        }
+        document.addTable("other").getWalker().setStringValue("unchanged");
+        writer.saveAs(this.source);
+    }
+
+    @After
+    public void tearDown() {
+        this.source.delete();
+        this.destination.delete();
+    }
+
+    @Test
+    public void testAppend() throws IOException {
+        final TableCellStyle newStyle = TableCellStyle.builder("new").hidden()
+                .backgroundColor(SimpleColor.RED).build();
+        final OdsFileAppender appender = this.factory.createAppender(this.source, "data & co");
+        final TableCellWalker walker = appender.getTable().getWalker();
+        for (int r = 3; r < 5; r++) {
+            walker.setFloatValue(r);
+            walker.setStyle(r == 3 ? this.oldStyle : newStyle);
+            walker.nextRow();
+        }
+        appender.saveAs(this.destination);
+
+        final OdsStreamReader reader = OdsStreamReader.create(this.destination);
+        try {
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertEquals("data & co", reader.getTableName());
+            final List<Double> values = new ArrayList<Double>();
+            while (reader.nextRow()) {
+                // the walkers leave an empty row at the end of the tables
+                if (!reader.getRow().isEmpty()) {
+                    values.add(reader.getRow().getCell(0).getDoubleValue());
+                }
+            }
+            Assert.assertEquals(5, values.size());
+            for (int r = 0; r < 5; r++) {
+                Assert.assertEquals(r, values.get(r), 0.0);
+            }
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertEquals("other", reader.getTableName());
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertEquals("unchanged", reader.getRow().getCell(0).getStringValue());
+            Assert.assertFalse(reader.nextTable());
+        } finally {
+            reader.close();
+        }
+
+        final String content = this.readContent(this.destination);
+        // the existing style is not duplicated, the new style is added
+        Assert.assertEquals(1, this.count(content, "style:name=\"old\""));
+        Assert.assertEquals(1, this.count(content, "style:name=\"new\""));
+        Assert.assertTrue(content.indexOf("style:name=\"new\"") <
+                content.indexOf("</office:automatic-styles>"));
+    }
+
+    @Test
+    public void testRawCopy() throws IOException {
+        final OdsFileAppender appender = this.factory.createAppender(this.source, "other");
+        appender.getTable().getWalker().setStringValue("appended");
+        appender.saveAs(this.destination);
+
+        final RawZipFile sourceZip = RawZipFile.open(this.source);
+        final RawZipFile destinationZip = RawZipFile.open(this.destination);
+        try {
+            final List<RawZipEntry> sourceEntries = sourceZip.getEntries();
+            final List<RawZipEntry> destinationEntries = destinationZip.getEntries();
+            Assert.assertEquals(sourceEntries.size(), destinationEntries.size());
+            for (int i = 0; i < sourceEntries.size(); i++) {
+                final RawZipEntry sourceEntry = sourceEntries.get(i);
+                final RawZipEntry destinationEntry = destinationEntries.get(i);
+                Assert.assertEquals(sourceEntry.getName(), destinationEntry.getName());
+                if (sourceEntry.getName().equals("content.xml")) {
+                    Assert.assertTrue(sourceEntry.getSize() < destinationEntry.getSize());
+                } else {
+                    Assert.assertEquals(sourceEntry.getMethod(), destinationEntry.getMethod());
+                    Assert.assertEquals(sourceEntry.getCrc(), destinationEntry.getCrc());
+                    Assert.assertEquals(sourceEntry.getCompressedSize(),
+                            destinationEntry.getCompressedSize());
+                }
+            }
+        } finally {
+            sourceZip.close();
+            destinationZip.close();
+        }
+
+        final String content = this.readContent(this.destination);
+        Assert.assertTrue(content.indexOf("\"unchanged\"") < content.indexOf("\"appended\""));
+    }
+
+    @Test
+    public void testSave() throws IOException {
+        final OdsFileAppender appender = this.factory.createAppender(this.source, "other");
+        appender.getTable().getWalker().setStringValue("appended");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        appender.save(out);
+
+        final OdsStreamReader reader = OdsStreamReader.create(
+                new ByteArrayInputStream(out.toByteArray()));
+        try {
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertEquals("appended", reader.getRow().getCell(0).getStringValue());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testSaveWithCustomWriter() throws IOException {
+        final OdsFileAppender appender = this.factory.createAppender(this.source, "other");
+        appender.getTable().getWalker().setStringValue("appended");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZipUTF8Writer writer = ZipUTF8WriterImpl.builder().build(out);
+        // a writer that is not a ZipUTF8RawWriter
+        final ZipUTF8Writer customWriter = (ZipUTF8Writer) Proxy.newProxyInstance(
+                ZipUTF8Writer.class.getClassLoader(), new Class<?>[]{ZipUTF8Writer.class},
+                new InvocationHandler() {
+                    @Override
+                    public Object invoke(final Object proxy, final Method method,
+                                         final Object[] args) throws Throwable {
+                        try {
+                            return method.invoke(writer, args);
+                        } catch (final InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }
+                });
+        appender.save(customWriter);
+        customWriter.finish();
+        customWriter.flush();
+
+        final OdsStreamReader reader = OdsStreamReader.create(
+                new ByteArrayInputStream(out.toByteArray()));
+        try {
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertEquals("unchanged", reader.getRow().getCell(0).getStringValue());
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertEquals("appended", reader.getRow().getCell(0).getStringValue());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testUnknownTable() throws IOException {
+        final OdsFileAppender appender = this.factory.createAppender(this.source, "unknown");
+        appender.save(new ByteArrayOutputStream());
+    }
+
+    @Test(expected = IOException.class)
+    public void testSameFile() throws IOException {
+        final OdsFileAppender appender = this.factory.createAppender(this.source, "other");
+        appender.saveAs(this.source);
+    }
+
+    private String readContent(final File file) throws IOException {
+        final RawZipFile zipFile = RawZipFile.open(file);
+        try {
+            final InputStream in = zipFile.getInputStream(zipFile.getEntry("content.xml"));
+            final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            final byte[] buf = new byte[1024];
+            int n = in.read(buf);
+            while (n != -1) {
+                bytes.write(buf, 0, n);
+                n = in.read(buf);
+            }
+            return new String(bytes.toByteArray(), CharsetUtil.UTF_8);
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    private int count(final String text, final String pattern) {
+        int count = 0;
+        int index = text.indexOf(pattern);
+        while (index != -1) {
+            count++;
+            index = text.indexOf(pattern, index + pattern.length());
+        }
+        return count;
+    }
+}
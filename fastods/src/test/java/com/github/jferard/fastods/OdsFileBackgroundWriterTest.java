@@ -0,0 +1,253 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.RingBuffer;
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import com.github.jferard.fastods.util.ZipUTF8WriterImpl;
+import com.google.common.io.ByteStreams;
+import org.easymock.EasyMock;
+import org.easymock.IAnswer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+public class OdsFileBackgroundWriterTest {
+    private Logger logger;
+    private File directFile;
+    private File backgroundFile;
+
+    @Before
+    public void setUp() throws IOException {
+        this.logger = Logger.getLogger("background");
+        this.logger.setLevel(Level.OFF);
+        this.directFile = File.createTempFile("direct", ".ods");
+        this.backgroundFile = File.createTempFile("background", ".ods");
+    }
+
+    @After
+    public void tearDown() {
+        this.directFile.delete();
+        this.backgroundFile.delete();
+    }
+
+    @Test
+    public void testSameContentAsDirectWriter() throws IOException {
+        final OdsFactory odsFactory = OdsFactory.create(this.logger, Locale.US);
+        final NamedOdsFileWriter directWriter = odsFactory.createWriter(this.directFile);
+        this.fill(directWriter);
+
+        final NamedOdsFileWriter backgroundWriter = OdsFactory.create(this.logger, Locale.US)
+                .createBackgroundWriter(this.backgroundFile);
+        this.fill(backgroundWriter);
+
+        Assert.assertEquals(this.getContent(this.directFile),
+                this.getContent(this.backgroundFile));
+    }
+
+    @Test
+    public void testExecutor() throws IOException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final OdsFactory odsFactory = OdsFactory.create(this.logger, Locale.US);
+            final NamedOdsFileWriter backgroundWriter =
+                    odsFactory.createBackgroundWriter(this.backgroundFile, executor);
+            this.fill(backgroundWriter);
+        } finally {
+            executor.shutdown();
+        }
+        Assert.assertTrue(this.getContent(this.backgroundFile).contains("row 99"));
+    }
+
+    @Test
+    public void testCloseWithoutSave() throws IOException {
+        final NamedOdsFileWriter adaptee = PowerMock.createMock(NamedOdsFileWriter.class);
+        final ZipUTF8Writer zipWriter = PowerMock.createMock(ZipUTF8Writer.class);
+        final OdsFileBackgroundWriter writer = OdsFileBackgroundWriter.create(this.logger,
+                adaptee, 2, null);
+
+        PowerMock.resetAll();
+        adaptee.update(EasyMock.isA(OdsAsyncFlusher.class));
+        EasyMock.expectLastCall().andAnswer(new IAnswer<Object>() {
+            @Override
+            public Object answer() throws Throwable {
+                ((OdsAsyncFlusher) EasyMock.getCurrentArguments()[0])
+                        .flushInto(null, zipWriter);
+                return null;
+            }
+        });
+        zipWriter.flush();
+        zipWriter.close();
+
+        PowerMock.replayAll();
+        writer.close();
+        writer.close();
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testFailure() throws IOException {
+        final NamedOdsFileWriter adaptee = PowerMock.createMock(NamedOdsFileWriter.class);
+        final OdsAsyncFlusher flusher = PowerMock.createMock(OdsAsyncFlusher.class);
+        final OdsAsyncFlusher endFlusher = PowerMock.createMock(OdsAsyncFlusher.class);
+        final IOException exception = new IOException("bad");
+        final OdsFileBackgroundWriter writer = new OdsFileBackgroundWriter(this.logger, adaptee,
+                RingBuffer.<OdsAsyncFlusher>create(4, RingBuffer.WaitStrategy.BLOCKING));
+
+        PowerMock.resetAll();
+        EasyMock.expect(flusher.isEnd()).andReturn(false).anyTimes();
+        EasyMock.expect(endFlusher.isEnd()).andReturn(true).anyTimes();
+        adaptee.update(flusher);
+        EasyMock.expectLastCall().andThrow(exception);
+        adaptee.close();
+
+        PowerMock.replayAll();
+        writer.update(flusher);
+        writer.update(endFlusher);
+        writer.consume();
+        try {
+            writer.close();
+            Assert.fail();
+        } catch (final IOException e) {
+            Assert.assertEquals(exception, e.getCause());
+        }
+        try {
+            writer.update(flusher);
+            Assert.fail();
+        } catch (final IOException e) {
+            Assert.assertEquals(exception, e.getCause());
+        }
+
+        PowerMock.verifyAll();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testRuntimeFailure() throws IOException {
+        final NamedOdsFileWriter adaptee = PowerMock.createMock(NamedOdsFileWriter.class);
+        final OdsAsyncFlusher endFlusher = PowerMock.createMock(OdsAsyncFlusher.class);
+        final OdsFileBackgroundWriter writer = OdsFileBackgroundWriter.create(this.logger,
+                adaptee, 2, null);
+
+        PowerMock.resetAll();
+        EasyMock.expect(endFlusher.isEnd()).andReturn(true).anyTimes();
+        adaptee.update(endFlusher);
+        EasyMock.expectLastCall().andThrow(new IllegalStateException());
+        adaptee.close();
+
+        PowerMock.replayAll();
+        writer.update(endFlusher);
+        writer.close();
+    }
+
+    @Test(timeout = 10000)
+    public void testFailureClosesTheStream() throws IOException {
+        final boolean[] closed = {false};
+        final ByteArrayOutputStream out = new ByteArrayOutputStream() {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        final OdsFileDirectWriter directWriter = new OdsFileDirectWriter(this.logger,
+                XMLUtil.create(), null, ZipUTF8WriterImpl.builder().build(out));
+        final OdsFileBackgroundWriter writer = OdsFileBackgroundWriter.create(this.logger,
+                directWriter, 1, null);
+        final IOException exception = new IOException("bad");
+        final OdsAsyncFlusher failingFlusher = new OdsAsyncFlusher() {
+            @Override
+            public void flushInto(final XMLUtil xmlUtil, final ZipUTF8Writer zipWriter)
+                    throws IOException {
+                zipWriter.putNextEntry(new ZipEntry("content.xml"));
+                zipWriter.append("<content/>");
+                throw exception;
+            }
+
+            @Override
+            public boolean isEnd() {
+                return false;
+            }
+        };
+
+        // the buffer has one slot: the producer must not wait forever for a failed consumer
+        IOException thrown = null;
+        for (int i = 0; i < 10 && thrown == null; i++) {
+            try {
+                writer.update(failingFlusher);
+            } catch (final IOException e) {
+                thrown = e;
+            }
+        }
+        Assert.assertNotNull(thrown);
+        Assert.assertEquals(exception, thrown.getCause());
+        try {
+            writer.close();
+            Assert.fail();
+        } catch (final IOException e) {
+            Assert.assertEquals(exception, e.getCause());
+        }
+        Assert.assertTrue(closed[0]);
+    }
+
+    private void fill(final NamedOdsFileWriter writer) throws IOException {
+        final NamedOdsDocument document = writer.document();
+        final Table table = document.addTable("test");
+        final TableCellWalker walker = table.getWalker();
+        for (int r = 0; r < 100; r++) {
+            walker.setStringValue("row " + r);
+            walker.next();
+            walker.setStringValue("value " + r);
+            walker.nextRow();
+        }
+        writer.save();
+        writer.close();
+    }
+
+    private String getContent(final File file) throws IOException {
+        final ZipFile zipFile = new ZipFile(file);
+        try {
+            final ZipEntry entry = zipFile.getEntry("content.xml");
+            final InputStream is = zipFile.getInputStream(entry);
+            return new String(ByteStreams.toByteArray(is), "UTF-8");
+        } finally {
+            zipFile.close();
+        }
+    }
+}
@@ -24,6 +24,7 @@
 
 package com.github.jferard.fastods;
 
+import com.github.jferard.fastods.util.RingBuffer;
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Before;
@@ -31,9 +32,6 @@ import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
 import java.io.IOException;
-import java.util.Collections;
-import java.util.LinkedList;
-import java.util.Queue;
 import java.util.logging.Logger;
 
 /**
@@ -43,7 +41,7 @@ public class OdsFileWriterAdapterTest {
     private NamedOdsFileWriter w;
     private OdsAsyncFlusher f;
     private OdsFileWriterAdapter wa;
-    private Queue<OdsAsyncFlusher> flushers;
+    private RingBuffer<OdsAsyncFlusher> flushers;
     private NamedOdsDocument d;
     private Logger logger;
 
@@ -51,7 +49,7 @@ public class OdsFileWriterAdapterTest {
     public void setUp() {
         this.w = PowerMock.createMock(NamedOdsFileWriter.class);
         this.f = PowerMock.createMock(OdsAsyncFlusher.class);
-        this.flushers = new LinkedList<OdsAsyncFlusher>();
+        this.flushers = RingBuffer.create(4, RingBuffer.WaitStrategy.BLOCKING);
         this.logger = PowerMock.createMock(Logger.class);
         this.wa = new OdsFileWriterAdapter(this.logger, this.w, this.flushers);
         this.d = PowerMock.createMock(NamedOdsDocument.class);
@@ -108,7 +106,57 @@ public class OdsFileWriterAdapterTest {
         this.wa.update(this.f);
 
         PowerMock.verifyAll();
-        Assert.assertEquals(Collections.singletonList(this.f), this.flushers);
+        Assert.assertEquals(this.f, this.flushers.poll());
+        Assert.assertNull(this.flushers.poll());
+    }
+
+    @Test(timeout = 5000)
+    public void testUpdateWithDeadConsumer() throws Exception {
+        final OdsFileWriterAdapter adapter = new OdsFileWriterAdapter(Logger.getLogger("adapter"),
+                this.w, RingBuffer.<OdsAsyncFlusher>create(1, RingBuffer.WaitStrategy.BLOCKING));
+        final Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                adapter.waitForData();
+            }
+        };
+        adapter.update(this.f);
+        consumer.start();
+        consumer.join();
+
+        try {
+            adapter.update(this.f); // the buffer is full and nobody will take the flusher
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+    }
+
+    @Test(timeout = 5000)
+    public void testUpdateWithFailedConsumer() throws Exception {
+        final OdsFileWriterAdapter adapter = new OdsFileWriterAdapter(Logger.getLogger("adapter"),
+                this.w, RingBuffer.<OdsAsyncFlusher>create(1, RingBuffer.WaitStrategy.BLOCKING));
+        adapter.update(this.f);
+
+        PowerMock.resetAll();
+        this.w.update(this.f);
+        EasyMock.expectLastCall().andThrow(new IOException());
+
+        PowerMock.replayAll();
+        try {
+            adapter.flushAdaptee();
+            Assert.fail();
+        } catch (final IOException e) {
+            // expected
+        }
+        adapter.update(this.f);
+        try {
+            adapter.update(this.f); // the buffer is full and the consumer failed
+            Assert.fail();
+        } catch (final IllegalStateException e) {
+            // expected
+        }
+        PowerMock.verifyAll();
     }
 
     @Test
@@ -125,7 +173,7 @@ public class OdsFileWriterAdapterTest {
     @Test
     public void testFlushAdapteeWithFinalize() throws Exception {
         final FinalizeFlusher ff = PowerMock.createMock(FinalizeFlusher.class);
-        this.flushers.add(ff);
+        this.flushers.offer(ff);
 
         PowerMock.resetAll();
         this.logger
@@ -144,8 +192,8 @@ public class OdsFileWriterAdapterTest {
     public void testFlushAdaptee() throws Exception {
         final OdsFileWriterAdapter wal = this.wa;
         final FinalizeFlusher ff = PowerMock.createMock(FinalizeFlusher.class);
-        this.flushers.add(this.f);
-        this.flushers.add(ff);
+        this.flushers.offer(this.f);
+        this.flushers.offer(ff);
 
         final Thread t = new Thread() {
             @Override
@@ -186,7 +234,7 @@ public class OdsFileWriterAdapterTest {
         final OdsAsyncFlusher fl = this.f;
         final NamedOdsFileWriter wl = this.w;
         final Logger l = this.logger;
-        this.flushers.add(this.f);
+        this.flushers.offer(this.f);
 
         final Thread t = new Thread() {
             @Override
@@ -217,7 +265,7 @@ public class OdsFileWriterAdapterTest {
         final OdsAsyncFlusher fl = this.f;
         final NamedOdsFileWriter wl = this.w;
         final Logger l = this.logger;
-        this.flushers.add(fl);
+        this.flushers.offer(fl);
 
         final Thread t = new Thread() {
             @Override
@@ -312,10 +360,40 @@ public class OdsFileWriterAdapterTest {
 
     @Test
     public void testWaitForData() {
-        this.flushers.add(this.f);
+        this.flushers.offer(this.f);
         PowerMock.resetAll();
         PowerMock.replayAll();
         this.wa.waitForData();
         PowerMock.verifyAll();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCreateWithCapacity() {
+        PowerMock.resetAll();
+        PowerMock.replayAll();
+        final OdsFileWriterAdapter odsFileWriterAdapter =
+                OdsFileWriterAdapter.create(this.logger, this.w, 1,
+                        RingBuffer.WaitStrategy.SPINNING);
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(0, odsFileWriterAdapter.getQueueDepth());
+        Assert.assertEquals(0, odsFileWriterAdapter.getMaxQueueDepth());
+        Assert.assertEquals(0L, odsFileWriterAdapter.getProducerStallCount());
+        Assert.assertEquals(0L, odsFileWriterAdapter.getProducerStallNanos());
+    }
+
+    @Test
+    public void testMetrics() {
+        PowerMock.resetAll();
+        this.logger.fine(EasyMock.anyString());
+        EasyMock.expectLastCall().times(2);
+
+        PowerMock.replayAll();
+        this.wa.update(this.f);
+        this.wa.update(this.f);
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(2, this.wa.getQueueDepth());
+        Assert.assertEquals(2, this.wa.getMaxQueueDepth());
+    }
+}
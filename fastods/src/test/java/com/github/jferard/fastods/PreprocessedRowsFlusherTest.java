@@ -98,6 +98,27 @@ public class PreprocessedRowsFlusherTest {
         Assert.assertEquals("", this.sb.toString());
     }
 
+    @Test
+    public void flushIntoRunLengthEncoding() throws Exception {
+        final TableRowImpl r1 = PowerMock.createMock(TableRowImpl.class);
+        final TableRowImpl r2 = PowerMock.createMock(TableRowImpl.class);
+        final List<TableRowImpl> rows = Arrays.asList(r1, r2);
+
+        PowerMock.resetAll();
+        EasyMock.expect(r1.contentHash()).andReturn(7);
+        EasyMock.expect(r2.contentHash()).andReturn(7);
+        EasyMock.expect(r2.hasSameContent(r1)).andReturn(true);
+        r1.appendCompactXMLToTable(EasyMock.eq(this.util), EasyMock.anyObject(StringBuilder.class),
+                EasyMock.eq(2));
+        EasyMock.expect(this.w.append(EasyMock.anyObject(StringBuilder.class))).andReturn(this.sb);
+
+        PowerMock.replayAll();
+        final OdsAsyncFlusher flusher = PreprocessedRowsFlusher.create(this.util, rows, true);
+        flusher.flushInto(this.util, this.w);
+
+        PowerMock.verifyAll();
+    }
+
     @Test
     public void flushIntoNullRow() throws Exception {
         final List<TableRowImpl> rows = new ArrayList<TableRowImpl>();
@@ -0,0 +1,170 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.datastyle.DataStyles;
+import com.github.jferard.fastods.datastyle.DataStylesBuilder;
+import com.github.jferard.fastods.odselement.StylesContainer;
+import com.github.jferard.fastods.odselement.StylesContainerImpl;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.testlib.DomTester;
+import com.github.jferard.fastods.util.WriteUtil;
+import com.github.jferard.fastods.util.XMLUtil;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+
+public class RepeatedRowsAppenderTest {
+    private XMLUtil xmlUtil;
+    private WriteUtil writeUtil;
+    private StylesContainer stc;
+    private DataStyles ds;
+    private Table table;
+
+    @Before
+    public void setUp() {
+        this.xmlUtil = XMLUtil.create();
+        this.writeUtil = WriteUtil.create();
+        this.stc = PowerMock.createNiceMock(StylesContainerImpl.class);
+        this.table = PowerMock.createNiceMock(Table.class);
+        this.ds = DataStylesBuilder.create(Locale.US).build();
+        PowerMock.replayAll();
+    }
+
+    @Test
+    public void testIdenticalRows() throws IOException {
+        final TableRowImpl row1 = this.createRow(0, "a", "b");
+        final TableRowImpl row2 = this.createRow(1, "a", "b");
+        final TableRowImpl row3 = this.createRow(2, "a", "c");
+
+        Assert.assertEquals(row1.contentHash(), row2.contentHash());
+        Assert.assertTrue(row1.hasSameContent(row2));
+        Assert.assertFalse(row1.hasSameContent(row3));
+
+        final StringBuilder sb = new StringBuilder();
+        RepeatedRowsAppender.appendRows(Arrays.asList(row1, row2, row3), this.xmlUtil, sb);
+        DomTester.assertEquals("<table:table-row table:number-rows-repeated=\"2\" " +
+                "table:style-name=\"ro1\">" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"a\"/>" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"b\"/>" +
+                "</table:table-row>" +
+                "<table:table-row table:style-name=\"ro1\">" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"a\"/>" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"c\"/>" +
+                "</table:table-row>", sb.toString());
+    }
+
+    @Test
+    public void testIdenticalCells() throws IOException {
+        final TableRowImpl row = this.createRow(0, "a", "a", "a", null, "a", "b", "b");
+
+        final StringBuilder sb = new StringBuilder();
+        RepeatedRowsAppender.appendRows(Arrays.asList(row, null), this.xmlUtil, sb);
+        DomTester.assertEquals("<table:table-row table:style-name=\"ro1\">" +
+                "<table:table-cell table:number-columns-repeated=\"3\" " +
+                "office:value-type=\"string\" office:string-value=\"a\"/>" +
+                "<table:table-cell/>" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"a\"/>" +
+                "<table:table-cell table:number-columns-repeated=\"2\" " +
+                "office:value-type=\"string\" office:string-value=\"b\"/>" +
+                "</table:table-row><row />", sb.toString());
+    }
+
+    @Test
+    public void testTrailingEmptyCells() throws IOException {
+        final TableRowImpl row1 = this.createRow(0, "a");
+        final TableRowImpl row2 = this.createRow(1, "a", null, null);
+
+        Assert.assertEquals(row1.contentHash(), row2.contentHash());
+        Assert.assertTrue(row1.hasSameContent(row2));
+        Assert.assertTrue(row2.hasSameContent(row1));
+    }
+
+    @Test
+    public void testColdCell() throws IOException {
+        final TableRowImpl row1 = this.createRow(0, "a");
+        final TableRowImpl row2 = this.createRow(1, "a");
+        row1.getOrCreateCell(0).setTooltip("t");
+        row2.getOrCreateCell(0).setTooltip("t");
+
+        Assert.assertFalse(row1.hasSameContent(row2));
+    }
+
+    @Test
+    public void testCellsWithDifferentColumnDefaultStyles() throws IOException {
+        final TableCellStyle style0 = TableCellStyle.builder("s0").build();
+        final TableCellStyle style1 = TableCellStyle.builder("s1").build();
+        PowerMock.resetAll();
+        EasyMock.expect(this.table.findDefaultCellStyle(0)).andReturn(style0).anyTimes();
+        EasyMock.expect(this.table.findDefaultCellStyle(1)).andReturn(style1).anyTimes();
+        EasyMock.expect(this.table.findDefaultCellStyle(2)).andReturn(style1).anyTimes();
+
+        PowerMock.replayAll();
+        final TableRowImpl row1 = this.createRow(0, true, "a", "a", "a");
+        final TableRowImpl row2 = this.createRow(1, true, "a", "a", "a");
+        Assert.assertFalse(((TableCellImpl) row1.getOrCreateCell(0))
+                .hasSameContent((TableCellImpl) row1.getOrCreateCell(1)));
+        Assert.assertTrue(row1.hasSameContent(row2));
+
+        final StringBuilder sb = new StringBuilder();
+        RepeatedRowsAppender.appendRows(Arrays.asList(row1, row2), this.xmlUtil, sb);
+
+        PowerMock.verifyAll();
+        DomTester.assertEquals("<table:table-row table:number-rows-repeated=\"2\" " +
+                "table:style-name=\"ro1\">" +
+                "<table:table-cell table:style-name=\"s0\" office:value-type=\"string\" " +
+                "office:string-value=\"a\"/>" +
+                "<table:table-cell table:number-columns-repeated=\"2\" " +
+                "table:style-name=\"s1\" office:value-type=\"string\" " +
+                "office:string-value=\"a\"/>" +
+                "</table:table-row>", sb.toString());
+    }
+
+    private TableRowImpl createRow(final int rowIndex, final String... values)
+            throws IOException {
+        return this.createRow(rowIndex, false, values);
+    }
+
+    private TableRowImpl createRow(final int rowIndex, final boolean libreOfficeMode,
+                                   final String... values) throws IOException {
+        final TableRowImpl row = new TableRowImpl(this.writeUtil, this.xmlUtil, this.stc,
+                this.ds, libreOfficeMode, this.table, rowIndex, 10);
+        for (int c = 0; c < values.length; c++) {
+            final String value = values[c];
+            if (value != null) {
+                row.getOrCreateCell(c).setStringValue(value);
+            } else {
+                row.getOrCreateCell(c);
+            }
+        }
+        return row;
+    }
+}
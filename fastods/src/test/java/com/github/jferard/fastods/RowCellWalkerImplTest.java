@@ -342,6 +342,19 @@ public class RowCellWalkerImplTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public final void testDateMillis() {
+        PowerMock.resetAll();
+        expect(this.row.getOrCreateCell(10)).andReturn(this.cell);
+        this.cell.setDateValue(new Date(TIME_IN_MILLIS));
+
+        PowerMock.replayAll();
+        this.cellWalker.to(10);
+        this.cellWalker.setDateValue(TIME_IN_MILLIS);
+
+        PowerMock.verifyAll();
+    }
+
     @Test
     public final void testDouble() {
         PowerMock.resetAll();
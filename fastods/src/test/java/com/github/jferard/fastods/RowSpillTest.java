@@ -0,0 +1,240 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.XMLUtil;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+
+public class RowSpillTest {
+    private static final int ROW_COUNT = 1000;
+    private File directory;
+    private File file;
+    private XMLUtil util;
+
+    @Before
+    public void setUp() throws IOException {
+        // a directory for the spills of the tables
+        this.directory = File.createTempFile("fastods-test", "");
+        Assert.assertTrue(this.directory.delete());
+        Assert.assertTrue(this.directory.mkdir());
+        this.file = File.createTempFile("fastods-test", ".xml.gz", this.directory);
+        this.util = XMLUtil.create();
+    }
+
+    @After
+    public void tearDown() {
+        final File[] files = this.directory.listFiles();
+        if (files != null) {
+            for (final File f : files) {
+                f.delete();
+            }
+        }
+        this.directory.delete();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCreateBadBlockSize() throws IOException {
+        RowSpill.create(null, 0);
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        final RowSpill spill = new RowSpill(this.file, 10);
+        final StringBuilder sb = new StringBuilder();
+        spill.appendTo(sb);
+        Assert.assertEquals("", sb.toString());
+        Assert.assertEquals(0, spill.getEndRowIndex());
+    }
+
+    @Test
+    public void testBlocks() throws IOException {
+        final RowSpill spill = new RowSpill(this.file, 10);
+        this.writeBlock(spill, "<a/>", 10, 0);
+        this.writeBlock(spill, "<b/>", 20, 3);
+
+        final StringBuilder sb = new StringBuilder();
+        spill.appendTo(sb);
+        Assert.assertEquals("<a/><b/>", sb.toString());
+        Assert.assertEquals(20, spill.getEndRowIndex());
+        Assert.assertEquals(3, spill.getPendingBlankRowCount());
+
+        // the file is not consumed
+        final StringBuilder sb2 = new StringBuilder();
+        spill.appendTo(sb2);
+        Assert.assertEquals("<a/><b/>", sb2.toString());
+    }
+
+    @Test
+    public void testDelete() throws IOException {
+        final RowSpill spill = new RowSpill(this.file, 10);
+        this.writeBlock(spill, "<a/>", 10, 0);
+        Assert.assertTrue(spill.delete());
+        Assert.assertFalse(this.file.exists());
+        try {
+            spill.appendTo(new StringBuilder());
+            Assert.fail();
+        } catch (final IOException e) {
+            // expected
+        }
+        try {
+            spill.openBlock();
+            Assert.fail();
+        } catch (final IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testSaveDeletesTheFile() throws IOException {
+        Assert.assertTrue(this.file.delete());
+        final Table table = this.createTable(false, true);
+        Assert.assertEquals(1, this.directory.list().length);
+        table.appendXMLContent(this.util, new StringBuilder());
+        Assert.assertEquals(0, this.directory.list().length);
+        try {
+            table.appendXMLContent(this.util, new StringBuilder());
+            Assert.fail();
+        } catch (final IOException e) {
+            // expected: the rows were written once
+        }
+    }
+
+    @Test
+    public void testFailedSaveDeletesTheFile() throws IOException {
+        Assert.assertTrue(this.file.delete());
+        final AnonymousOdsFileWriter writer = this.createWriter();
+        this.createTable(writer, false, true);
+        Assert.assertEquals(1, this.directory.list().length);
+        final ZipUTF8Writer zipWriter = PowerMock.createNiceMock(ZipUTF8Writer.class);
+
+        PowerMock.resetAll();
+        zipWriter.putNextEntry(EasyMock.<ZipEntry>anyObject());
+        EasyMock.expectLastCall().andThrow(new IOException("disk full"));
+
+        PowerMock.replayAll();
+        try {
+            writer.save(zipWriter);
+            Assert.fail();
+        } catch (final IOException e) {
+            // expected
+        }
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(0, this.directory.list().length);
+    }
+
+    @Test
+    public void testDiscard() throws IOException {
+        Assert.assertTrue(this.file.delete());
+        final Table table = this.createTable(false, true);
+        Assert.assertEquals(1, this.directory.list().length);
+        table.discardSpilledRows();
+        Assert.assertEquals(0, this.directory.list().length);
+        table.discardSpilledRows(); // no effect
+    }
+
+    @Test
+    public void testSameXML() throws IOException {
+        final String expected = this.getTableXML(false, false);
+        Assert.assertEquals(expected, this.getTableXML(false, true));
+    }
+
+    @Test
+    public void testSameXMLRLE() throws IOException {
+        final String expected = this.getTableXML(true, false);
+        Assert.assertEquals(expected, this.getTableXML(true, true));
+    }
+
+    @Test(expected = IOException.class)
+    public void testSpilledRow() throws IOException {
+        final Table table = this.createTable(false, true);
+        table.getRow(0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testSpillTwice() throws IOException {
+        final Table table = this.createTable(false, true);
+        table.spillRowsToDisk(this.directory, 100);
+    }
+
+    private void writeBlock(final RowSpill spill, final String xml, final int endRowIndex,
+                            final int pendingBlankRowCount) throws IOException {
+        final Writer writer = spill.openBlock();
+        try {
+            writer.write(xml);
+        } finally {
+            writer.close();
+        }
+        spill.endBlock(endRowIndex, pendingBlankRowCount);
+    }
+
+    private String getTableXML(final boolean rle, final boolean spill) throws IOException {
+        final Table table = this.createTable(rle, spill);
+        final StringBuilder sb = new StringBuilder();
+        table.appendXMLContent(this.util, sb);
+        return sb.toString();
+    }
+
+    private Table createTable(final boolean rle, final boolean spill) throws IOException {
+        return this.createTable(this.createWriter(), rle, spill);
+    }
+
+    private AnonymousOdsFileWriter createWriter() {
+        final OdsFactory odsFactory =
+                OdsFactory.create(Logger.getLogger("spill"), Locale.US);
+        return odsFactory.createWriter();
+    }
+
+    private Table createTable(final AnonymousOdsFileWriter writer, final boolean rle,
+                              final boolean spill) throws IOException {
+        final Table table = writer.document().addTable("spill");
+        table.setRunLengthEncoding(rle);
+        if (spill) {
+            table.spillRowsToDisk(this.directory, 100);
+        }
+        for (int r = 0; r < ROW_COUNT; r++) {
+            if (r % 250 == 7) { // blank rows across the blocks
+                continue;
+            }
+            final TableRowImpl row = table.getRow(r);
+            row.getOrCreateCell(0).setStringValue("v" + r);
+            row.getOrCreateCell(1).setFloatValue(r);
+        }
+        return table;
+    }
+}
@@ -0,0 +1,204 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.CharsetUtil;
+import com.google.common.io.ByteStreams;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Date;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class RowTemplateTest {
+    private static final int ROW_COUNT = 10;
+    private String[] strings;
+    private double[] doubles;
+    private long[] dates;
+    private TableCellStyle style;
+
+    @Before
+    public void setUp() {
+        this.strings = new String[ROW_COUNT];
+        this.doubles = new double[ROW_COUNT];
+        this.dates = new long[ROW_COUNT];
+        for (int r = 0; r < ROW_COUNT; r++) {
+            this.strings[r] = "s<" + r;
+            this.doubles[r] = r * 1.5;
+            this.dates[r] = 1000000000000L + r * 86400000L;
+        }
+        this.style = TableCellStyle.builder("template-style").fontWeightBold().build();
+    }
+
+    @Test
+    public void testSameXMLAsCells() throws IOException {
+        final AnonymousOdsFileWriter cellsWriter = this.createFactory().createWriter();
+        final Table cellsTable = cellsWriter.document().addTable("t");
+        for (int r = 0; r < ROW_COUNT; r++) {
+            this.fillRow(cellsTable.getRow(r), r);
+        }
+
+        final AnonymousOdsFileWriter templateWriter = this.createFactory().createWriter();
+        final Table table = templateWriter.document().addTable("t");
+        final TableRowImpl prototype = table.getRow(0);
+        this.fillRow(prototype, 0);
+        final RowTemplate template = RowTemplate.create(prototype, 0, 2, 4);
+        Assert.assertEquals(3, template.getVariableCount());
+        table.appendColumnBlock(template, ColumnBlock.builder()
+                .stringColumn(this.tail(this.strings)).floatColumn(this.tail(this.doubles))
+                .dateColumn(this.tail(this.dates)).build());
+
+        Assert.assertEquals(this.getContent(cellsWriter), this.getContent(templateWriter));
+        Assert.assertEquals(ROW_COUNT, table.getRowCount());
+    }
+
+    @Test
+    public void testNullString() throws IOException {
+        this.strings[3] = null;
+        this.strings[ROW_COUNT - 1] = null;
+        this.testSameXMLAsCells();
+    }
+
+    @Test
+    public void testNullStrings() throws IOException {
+        final AnonymousOdsFileWriter cellsWriter = this.createFactory().createWriter();
+        final Table cellsTable = cellsWriter.document().addTable("t");
+        final AnonymousOdsFileWriter templateWriter = this.createFactory().createWriter();
+        final Table table = templateWriter.document().addTable("t");
+        for (final Table t : new Table[]{cellsTable, table}) {
+            final TableRowImpl row = t.getRow(0);
+            row.getOrCreateCell(0).setStringValue("a");
+            row.getOrCreateCell(1).setStringValue("b");
+            row.getOrCreateCell(2).setStringValue("c");
+        }
+        final String[] firsts = {null, "x", null};
+        final String[] seconds = {null, null, "y"};
+        for (int r = 0; r < firsts.length; r++) {
+            final TableRowImpl row = cellsTable.getRow(r + 1);
+            if (firsts[r] != null) {
+                row.getOrCreateCell(0).setStringValue(firsts[r]);
+            }
+            if (seconds[r] != null) {
+                row.getOrCreateCell(1).setStringValue(seconds[r]);
+            }
+            row.getOrCreateCell(2).setStringValue("c");
+        }
+        final RowTemplate template = RowTemplate.create(table.getRow(0), 0, 1);
+        table.appendColumnBlock(template,
+                ColumnBlock.builder().stringColumn(firsts).stringColumn(seconds).build());
+
+        Assert.assertEquals(this.getContent(cellsWriter), this.getContent(templateWriter));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNoValue() throws IOException {
+        final Table table = this.createFactory().createWriter().document().addTable("t");
+        RowTemplate.create(table.getRow(0), 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOrder() throws IOException {
+        final Table table = this.createFactory().createWriter().document().addTable("t");
+        final TableRowImpl prototype = table.getRow(0);
+        this.fillRow(prototype, 0);
+        RowTemplate.create(prototype, 2, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadColumnType() throws IOException {
+        final Table table = this.createFactory().createWriter().document().addTable("t");
+        final TableRowImpl prototype = table.getRow(0);
+        this.fillRow(prototype, 0);
+        final RowTemplate template = RowTemplate.create(prototype, 2);
+        table.appendColumnBlock(template, ColumnBlock.builder().stringColumn(this.strings).build());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadColumnCount() throws IOException {
+        final Table table = this.createFactory().createWriter().document().addTable("t");
+        final TableRowImpl prototype = table.getRow(0);
+        this.fillRow(prototype, 0);
+        final RowTemplate template = RowTemplate.create(prototype, 0, 2);
+        table.appendColumnBlock(template, ColumnBlock.builder().stringColumn(this.strings).build());
+    }
+
+    private void fillRow(final TableRowImpl row, final int r) throws IOException {
+        if (this.strings[r] != null) {
+            row.getOrCreateCell(0).setStringValue(this.strings[r]);
+        }
+        final TableCell invariantCell = row.getOrCreateCell(1);
+        invariantCell.setStringValue("EUR");
+        invariantCell.setTooltip("currency");
+        final TableCell styledCell = row.getOrCreateCell(2);
+        styledCell.setFloatValue(this.doubles[r]);
+        styledCell.setStyle(this.style);
+        styledCell.setFormula("=B1*2");
+        row.getOrCreateCell(4).setDateValue(new Date(this.dates[r]));
+    }
+
+    private String[] tail(final String[] values) {
+        final String[] tail = new String[values.length - 1];
+        System.arraycopy(values, 1, tail, 0, tail.length);
+        return tail;
+    }
+
+    private double[] tail(final double[] values) {
+        final double[] tail = new double[values.length - 1];
+        System.arraycopy(values, 1, tail, 0, tail.length);
+        return tail;
+    }
+
+    private long[] tail(final long[] values) {
+        final long[] tail = new long[values.length - 1];
+        System.arraycopy(values, 1, tail, 0, tail.length);
+        return tail;
+    }
+
+    private OdsFactory createFactory() {
+        return OdsFactory.create(Logger.getLogger("row-template"), Locale.US);
+    }
+
+    private String getContent(final AnonymousOdsFileWriter writer) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.save(out);
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(out.toByteArray()));
+        ZipEntry entry = zis.getNextEntry();
+        while (entry != null) {
+            if (entry.getName().equals("content.xml")) {
+                return new String(ByteStreams.toByteArray(zis), CharsetUtil.UTF_8);
+            }
+            entry = zis.getNextEntry();
+        }
+        throw new IOException("No content.xml");
+    }
+}
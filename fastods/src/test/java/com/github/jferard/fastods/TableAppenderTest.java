@@ -232,6 +232,7 @@ public class TableAppenderTest {
         EasyMock.expect(this.tb.getColumns())
                 .andReturn(FastFullList.<TableColumnImpl>builder().build());
         EasyMock.expect(this.tb.getTableRowsUsedSize()).andReturn(0);
+        EasyMock.expect(this.tb.isRunLengthEncoding()).andReturn(false);
         EasyMock.expect(this.tb.getShapes()).andReturn(Collections.<Shape>emptyList());
 
         PowerMock.replayAll();
@@ -258,7 +259,9 @@ public class TableAppenderTest {
         EasyMock.expect(this.tb.getCustomValueByAttribute()).andReturn(null).times(2);
         EasyMock.expect(this.tb.getColumns()).andReturn(emptyFullList).times(2);
         EasyMock.expect(this.tb.getTableRowsUsedSize()).andReturn(0).times(2);
+        EasyMock.expect(this.tb.isRunLengthEncoding()).andReturn(false).times(2);
         EasyMock.expect(this.tb.getShapes()).andReturn(Collections.<Shape>emptyList()).times(2);
+        EasyMock.expect(this.tb.getRowSpill()).andReturn(null).times(2);
 
         PowerMock.replayAll();
         this.tableAppender.appendXMLToContentEntry(this.xmlUtil, sb1);
@@ -44,6 +44,7 @@ import org.junit.Test;
 import org.powermock.api.easymock.PowerMock;
 
 import java.io.IOException;
+import java.lang.ref.WeakReference;
 import java.text.ParseException;
 import java.util.List;
 import java.util.Locale;
@@ -272,6 +273,25 @@ public class TableBuilderTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public void testFlushAvailableRows() throws IOException {
+        final NamedOdsFileWriter o = PowerMock.createMock(NamedOdsFileWriter.class);
+
+        PowerMock.resetAll();
+        o.update(EasyMock.isA(BeginTableFlusher.class));
+        o.update(EasyMock.isA(DeferredRowsFlusher.class));
+
+        PowerMock.replayAll();
+        this.builder.addObserver(o);
+        this.builder.getRow(this.table, this.appender, 0);
+        this.builder.getRow(this.table, this.appender, 1);
+        this.builder.asyncFlushAvailableRows(this.appender);
+        this.builder.asyncFlushAvailableRows(this.appender); // nothing to flush
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(2, this.builder.getRowCount());
+    }
+
     @Test
     public void testSetting() {
         PowerMock.resetAll();
@@ -350,7 +370,7 @@ public class TableBuilderTest {
 
         PowerMock.resetAll();
         o.update(EasyMock.isA(BeginTableFlusher.class));
-        o.update(EasyMock.isA(PreprocessedRowsFlusher.class));
+        o.update(EasyMock.isA(DeferredRowsFlusher.class));
 
         PowerMock.replayAll();
         this.builder.addObserver(o);
@@ -360,6 +380,66 @@ public class TableBuilderTest {
         PowerMock.verifyAll();
     }
 
+    @Test(expected = IOException.class)
+    public void testFlushedRow() throws IOException {
+        final NamedOdsFileWriter o = PowerMock.createMock(NamedOdsFileWriter.class);
+
+        PowerMock.resetAll();
+        o.update(EasyMock.isA(BeginTableFlusher.class));
+        o.update(EasyMock.isA(DeferredRowsFlusher.class));
+
+        PowerMock.replayAll();
+        this.builder.addObserver(o);
+        this.builder.getRow(this.table, this.appender, 0);
+        this.builder.getRow(this.table, this.appender, 2);
+        this.builder.getRow(this.table, this.appender, 1);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testFlushedRowsAreReleased() throws IOException {
+        final NamedOdsFileWriter o = new NamedOdsFileWriter() {
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public NamedOdsDocument document() {
+                return null;
+            }
+
+            @Override
+            public void save() {
+            }
+
+            @Override
+            public void update(final OdsAsyncFlusher flusher) {
+            }
+        };
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.table.findDefaultCellStyle(0))
+                .andReturn(TableCellStyle.DEFAULT_CELL_STYLE).anyTimes();
+
+        PowerMock.replayAll();
+        this.builder.addObserver(o);
+        final TableRowImpl firstRow = this.builder.nextRow(this.table, this.appender);
+        firstRow.getOrCreateCell(0).setStringValue("first");
+        final WeakReference<TableRowImpl> firstRowRef = new WeakReference<TableRowImpl>(firstRow);
+        for (int r = 1; r < 100000; r++) {
+            this.builder.nextRow(this.table, this.appender).getOrCreateCell(0)
+                    .setStringValue("row");
+        }
+
+        PowerMock.verifyAll();
+        Assert.assertEquals(100000, this.builder.getRowCount());
+        for (int i = 0; i < 10 && firstRowRef.get() != null; i++) {
+            System.gc();
+        }
+        Assert.assertNull(firstRowRef.get());
+    }
+
     @Test
     public final void testFindDefaultCellStyle() {
         PowerMock.resetAll();
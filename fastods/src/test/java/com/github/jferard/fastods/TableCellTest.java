@@ -50,6 +50,7 @@ import org.powermock.core.classloader.annotations.PrepareForTest;
 import org.powermock.modules.junit4.PowerMockRunner;
 
 import java.io.IOException;
+import java.math.BigDecimal;
 import java.util.Calendar;
 import java.util.Locale;
 
@@ -210,6 +211,23 @@ public class TableCellTest {
                         "office:date-value=\"2009-02-13T23:31:31.011Z\"/>");
     }
 
+    @Test
+    public final void testDateMillis() throws IOException {
+        final TableCellStyle cs = PowerMock.createMock(TableCellStyle.class);
+        final DataStyle dateDataStyle = this.ds.getDateDataStyle();
+
+        PowerMock.resetAll();
+        this.playAddStyle(cs, dateDataStyle);
+
+        PowerMock.replayAll();
+        ((TableCellImpl) this.cell).setDateValue(TIME_IN_MILLIS);
+
+        PowerMock.verifyAll();
+        this.assertCellXMLEquals(
+                "<table:table-cell table:style-name=\"name\" office:value-type=\"date\" " +
+                        "office:date-value=\"2009-02-13T23:31:31.011Z\"/>");
+    }
+
     @Test
     public final void testFloatNumber() throws IOException {
         this.playAndReplayFloat();
@@ -232,6 +250,39 @@ public class TableCellTest {
                         "office:value=\"9.999\"/>");
     }
 
+    @Test
+    public final void testFloatLong() throws IOException {
+        this.playAndReplayFloat();
+        this.cell.setFloatValue(Long.valueOf(12345678901234L));
+
+        PowerMock.verifyAll();
+        this.assertCellXMLEquals(
+                "<table:table-cell table:style-name=\"name\" office:value-type=\"float\" " +
+                        "office:value=\"12345678901234\"/>");
+    }
+
+    @Test
+    public final void testFloatBigDecimal() throws IOException {
+        this.playAndReplayFloat();
+        this.cell.setFloatValue(new BigDecimal("1E+3"));
+
+        PowerMock.verifyAll();
+        this.assertCellXMLEquals(
+                "<table:table-cell table:style-name=\"name\" office:value-type=\"float\" " +
+                        "office:value=\"1E+3\"/>");
+    }
+
+    @Test
+    public final void testFloatNegativeInt() throws IOException {
+        this.playAndReplayFloat();
+        this.cell.setFloatValue(-123456);
+
+        PowerMock.verifyAll();
+        this.assertCellXMLEquals(
+                "<table:table-cell table:style-name=\"name\" office:value-type=\"float\" " +
+                        "office:value=\"-123456\"/>");
+    }
+
     private void playAndReplayFloat() {
         final TableCellStyle cs = PowerMock.createMock(TableCellStyle.class);
         final DataStyle floatDataStyle = this.ds.getFloatDataStyle();
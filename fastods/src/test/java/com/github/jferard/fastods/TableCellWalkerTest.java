@@ -562,6 +562,20 @@ public class TableCellWalkerTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public final void testDateMillis() throws IOException {
+        PowerMock.resetAll();
+        this.to(0, 10);
+        this.cell.setDateValue(new Date(TIME_IN_MILLIS));
+
+        PowerMock.replayAll();
+        this.cellWalker = new TableCellWalker(this.table);
+        this.cellWalker.to(10);
+        this.cellWalker.setDateValue(TIME_IN_MILLIS);
+
+        PowerMock.verifyAll();
+    }
+
     @Test
     public final void testDouble() throws IOException {
         PowerMock.resetAll();
@@ -432,6 +432,76 @@ public class TableTest {
                 app.toString() + "</table:table>");
     }
 
+    @Test
+    public final void testRunLengthEncoding() throws IOException {
+        PowerMock.resetAll();
+
+        PowerMock.replayAll();
+        this.table.setRunLengthEncoding(true);
+        final TableCellWalker walker = this.table.getWalker();
+        for (int r = 0; r < 3; r++) {
+            walker.setStringValue("x");
+            walker.next();
+            walker.setStringValue("x");
+            walker.nextRow();
+        }
+        walker.setStringValue("y");
+
+        PowerMock.verifyAll();
+        this.assertTableXMLEquals("<table:table table:name=\"my_table\" " +
+                "table:style-name=\"ta1\" table:print=\"false\">" +
+                "<office:forms form:automatic-focus=\"false\" " +
+                "form:apply-design-mode=\"false\"/><table:table-column " +
+                "table:style-name=\"co1\" table:number-columns-repeated=\"1024\" " +
+                "table:default-cell-style-name=\"Default\"/>" +
+                "<table:table-row table:number-rows-repeated=\"3\" " +
+                "table:style-name=\"ro1\">" +
+                "<table:table-cell table:number-columns-repeated=\"2\" " +
+                "office:value-type=\"string\" office:string-value=\"x\"/>" +
+                "</table:table-row><table:table-row table:style-name=\"ro1\">" +
+                "<table:table-cell office:value-type=\"string\" " +
+                "office:string-value=\"y\"/></table:table-row></table:table>");
+    }
+
+    @Test
+    public final void testColumnBlock() throws IOException {
+        PowerMock.resetAll();
+
+        PowerMock.replayAll();
+        this.table.getRow(0).getOrCreateCell(0).setStringValue("a");
+        this.table.appendColumnBlock(ColumnBlock.builder()
+                .stringColumn(new String[]{"b", null}).stringColumn(new String[]{"c", "d"})
+                .build());
+        Assert.assertEquals(3, this.table.getRowCount());
+        Assert.assertEquals(5, this.table.getCellCount());
+        try {
+            this.table.getRow(2);
+            Assert.fail();
+        } catch (final IOException e) {
+            Assert.assertEquals("Row 2 belongs to a column block", e.getMessage());
+        }
+        this.table.nextRow().getOrCreateCell(0).setStringValue("e");
+
+        PowerMock.verifyAll();
+        this.assertTableXMLEquals("<table:table table:name=\"my_table\" " +
+                "table:style-name=\"ta1\" table:print=\"false\">" +
+                "<office:forms form:automatic-focus=\"false\" " +
+                "form:apply-design-mode=\"false\"/><table:table-column " +
+                "table:style-name=\"co1\" table:number-columns-repeated=\"1024\" " +
+                "table:default-cell-style-name=\"Default\"/>" +
+                "<table:table-row table:style-name=\"ro1\">" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"a\"/>" +
+                "</table:table-row><table:table-row table:style-name=\"ro1\">" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"b\"/>" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"c\"/>" +
+                "</table:table-row><table:table-row table:style-name=\"ro1\">" +
+                "<table:table-cell/>" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"d\"/>" +
+                "</table:table-row><table:table-row table:style-name=\"ro1\">" +
+                "<table:table-cell office:value-type=\"string\" office:string-value=\"e\"/>" +
+                "</table:table-row></table:table>");
+    }
+
     private void assertTableXMLEquals(final String xml) throws IOException {
         final StringBuilder sb = new StringBuilder();
         this.table.appendXMLContent(this.xmlUtil, sb);
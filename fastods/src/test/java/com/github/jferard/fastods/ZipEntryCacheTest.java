@@ -0,0 +1,89 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.CachedZipEntry;
+import com.github.jferard.fastods.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.zip.Deflater;
+
+public class ZipEntryCacheTest {
+    private ZipEntryCache cache;
+
+    @Before
+    public void setUp() {
+        this.cache = ZipEntryCache.create(Deflater.BEST_SPEED, 2, 100);
+    }
+
+    @Test
+    public void testGet() {
+        final CachedZipEntry entry = this.cache.get("styles.xml", this.bytes("<styles/>"));
+        Assert.assertSame(entry, this.cache.get("styles.xml", this.bytes("<styles/>")));
+        Assert.assertNotSame(entry, this.cache.get("settings.xml", this.bytes("<styles/>")));
+        Assert.assertNotSame(entry, this.cache.get("styles.xml", this.bytes("<styles />")));
+        Assert.assertEquals(1, this.cache.getHitCount());
+        Assert.assertEquals(3, this.cache.getMissCount());
+        Assert.assertEquals(9, entry.getSize());
+    }
+
+    @Test
+    public void testEviction() {
+        final CachedZipEntry a = this.cache.get("a", this.bytes("a"));
+        this.cache.get("b", this.bytes("b"));
+        Assert.assertSame(a, this.cache.get("a", this.bytes("a"))); // a is the most recent
+        this.cache.get("c", this.bytes("c")); // b is evicted
+        Assert.assertEquals(2, this.cache.size());
+        Assert.assertSame(a, this.cache.get("a", this.bytes("a")));
+        this.cache.get("b", this.bytes("b"));
+        Assert.assertEquals(2, this.cache.getHitCount());
+        Assert.assertEquals(4, this.cache.getMissCount());
+    }
+
+    @Test
+    public void testCacheable() {
+        Assert.assertTrue(this.cache.isCacheable("styles.xml"));
+        Assert.assertTrue(this.cache.isCacheable("Thumbnails/"));
+        Assert.assertTrue(this.cache.isCacheable("META-INF/manifest.xml"));
+        Assert.assertFalse(this.cache.isCacheable("content.xml"));
+        Assert.assertFalse(this.cache.isCacheable("meta.xml"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadLevel() {
+        ZipEntryCache.create(10, 2, 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBadMaxEntries() {
+        ZipEntryCache.create(Deflater.BEST_SPEED, 0, 100);
+    }
+
+    private byte[] bytes(final String s) {
+        return s.getBytes(CharsetUtil.UTF_8);
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods;
+
+import com.github.jferard.fastods.util.CachedZipEntry;
+import com.github.jferard.fastods.util.CharsetUtil;
+import com.github.jferard.fastods.util.ZipUTF8RawWriter;
+import com.github.jferard.fastods.util.ZipUTF8Writer;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+
+public class ZipUTF8RawWriterAdapterTest {
+    private ZipUTF8Writer writer;
+    private ZipUTF8RawWriter adapter;
+
+    @Before
+    public void setUp() {
+        this.writer = PowerMock.createMock(ZipUTF8Writer.class);
+        this.adapter = ZipUTF8RawWriterAdapter.adapt(this.writer);
+    }
+
+    @Test
+    public void testAdaptRawWriter() {
+        final ZipUTF8RawWriter rawWriter = PowerMock.createMock(ZipUTF8RawWriter.class);
+        Assert.assertSame(rawWriter, ZipUTF8RawWriterAdapter.adapt(rawWriter));
+    }
+
+    @Test
+    public void testCopiesDeflatedData() {
+        PowerMock.resetAll();
+
+        PowerMock.replayAll();
+        Assert.assertFalse(this.adapter.copiesDeflatedData());
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testCachedEntry() throws IOException {
+        final ZipEntry entry = new ZipEntry("styles.xml");
+        final byte[] bytes = "<styles/>".getBytes(CharsetUtil.UTF_8);
+        final CachedZipEntry cachedEntry =
+                CachedZipEntry.create("styles.xml", bytes, Deflater.BEST_SPEED);
+
+        PowerMock.resetAll();
+        this.writer.putNextEntry(entry);
+        this.writer.write(EasyMock.aryEq(bytes));
+        this.writer.closeEntry();
+
+        PowerMock.replayAll();
+        this.adapter.writeCachedEntry(entry, cachedEntry);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testDelegate() throws IOException {
+        final ZipEntry entry = new ZipEntry("content.xml");
+
+        PowerMock.resetAll();
+        this.writer.setComment("comment");
+        this.writer.putNextEntry(entry);
+        EasyMock.expect(this.writer.append("text")).andReturn(this.writer);
+        EasyMock.expect(this.writer.append("text", 1, 2)).andReturn(this.writer);
+        EasyMock.expect(this.writer.append('c')).andReturn(this.writer);
+        this.writer.closeEntry();
+        this.writer.flush();
+        this.writer.finish();
+        this.writer.close();
+
+        PowerMock.replayAll();
+        this.adapter.setComment("comment");
+        this.adapter.putNextEntry(entry);
+        this.adapter.append("text");
+        this.adapter.append("text", 1, 2);
+        this.adapter.append('c');
+        this.adapter.closeEntry();
+        this.adapter.flush();
+        this.adapter.finish();
+        this.adapter.close();
+
+        PowerMock.verifyAll();
+    }
+}
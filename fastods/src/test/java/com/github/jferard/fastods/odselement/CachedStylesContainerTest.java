@@ -0,0 +1,118 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.odselement;
+
+import com.github.jferard.fastods.datastyle.BooleanStyleBuilder;
+import com.github.jferard.fastods.datastyle.DataStyle;
+import com.github.jferard.fastods.style.TableCellStyle;
+import com.github.jferard.fastods.util.Container.Mode;
+import org.easymock.EasyMock;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.util.Locale;
+
+public class CachedStylesContainerTest {
+    private StylesContainer stc;
+    private CachedStylesContainer cachedStc;
+    private DataStyle ds;
+    private TableCellStyle childStyle;
+
+    @Before
+    public void setUp() {
+        this.stc = PowerMock.createMock(StylesContainer.class);
+        this.cachedStc = new CachedStylesContainer(this.stc);
+        this.ds = new BooleanStyleBuilder("a", Locale.US).build();
+        this.childStyle = TableCellStyle.builder("child").build();
+    }
+
+    @Test
+    public void testAddChildCellStyleTwice() {
+        PowerMock.resetAll();
+        EasyMock.expect(this.stc.addChildCellStyle(TableCellStyle.DEFAULT_CELL_STYLE, this.ds))
+                .andReturn(this.childStyle);
+
+        PowerMock.replayAll();
+        final TableCellStyle s1 =
+                this.cachedStc.addChildCellStyle(TableCellStyle.DEFAULT_CELL_STYLE, this.ds);
+        final TableCellStyle s2 =
+                this.cachedStc.addChildCellStyle(TableCellStyle.DEFAULT_CELL_STYLE, this.ds);
+
+        PowerMock.verifyAll();
+        Assert.assertSame(this.childStyle, s1);
+        Assert.assertSame(this.childStyle, s2);
+    }
+
+    @Test
+    public void testAddChildCellStyleAlternate() {
+        final DataStyle ds2 = new BooleanStyleBuilder("b", Locale.US).build();
+        final TableCellStyle childStyle2 = TableCellStyle.builder("child2").build();
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.stc.addChildCellStyle(TableCellStyle.DEFAULT_CELL_STYLE, this.ds))
+                .andReturn(this.childStyle);
+        EasyMock.expect(this.stc.addChildCellStyle(TableCellStyle.DEFAULT_CELL_STYLE, ds2))
+                .andReturn(childStyle2);
+
+        PowerMock.replayAll();
+        for (int i = 0; i < 3; i++) {
+            Assert.assertSame(this.childStyle,
+                    this.cachedStc.addChildCellStyle(TableCellStyle.DEFAULT_CELL_STYLE, this.ds));
+            Assert.assertSame(childStyle2,
+                    this.cachedStc.addChildCellStyle(TableCellStyle.DEFAULT_CELL_STYLE, ds2));
+        }
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testAddDataStyleTwice() {
+        PowerMock.resetAll();
+        EasyMock.expect(this.stc.addDataStyle(this.ds)).andReturn(true);
+
+        PowerMock.replayAll();
+        Assert.assertTrue(this.cachedStc.addDataStyle(this.ds));
+        Assert.assertFalse(this.cachedStc.addDataStyle(this.ds));
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public void testAddDataStyleAfterModeChange() {
+        PowerMock.resetAll();
+        EasyMock.expect(this.stc.addDataStyle(this.ds)).andReturn(true);
+        this.stc.setDataStylesMode(Mode.UPDATE);
+        EasyMock.expect(this.stc.addDataStyle(this.ds)).andReturn(true);
+
+        PowerMock.replayAll();
+        Assert.assertTrue(this.cachedStc.addDataStyle(this.ds));
+        this.cachedStc.setDataStylesMode(Mode.UPDATE);
+        Assert.assertTrue(this.cachedStc.addDataStyle(this.ds));
+
+        PowerMock.verifyAll();
+    }
+}
@@ -118,6 +118,32 @@ public class StylesContainerTest {
         this.stylesContainer.addDataStyle(dataStyle);
     }
 
+    @Test
+    public final void testFork() {
+        final TableCellStyle style = TableCellStyle.builder("s").build();
+        this.stylesContainer.addContentStyle(style);
+        this.stylesContainer.addDataStyle(this.ds1);
+        final StylesContainerImpl fork = this.stylesContainer.fork();
+        Assert.assertEquals(this.stylesContainer.getStyleCountByKind(),
+                fork.getStyleCountByKind());
+
+        // using a style of the prototype does not copy the styles
+        Assert.assertTrue(fork.addContentFontFaceContainerStyle(style));
+        Assert.assertTrue(fork.addDataStyle(this.ds1));
+        Assert.assertTrue(fork.sharesStylesWith(this.stylesContainer));
+
+        final TableCellStyle childStyle = fork.addChildCellStyle(style, this.ds1);
+        Assert.assertSame(childStyle, fork.addChildCellStyle(style, this.ds1));
+        Assert.assertEquals(Integer.valueOf(1), fork.getStyleCountByKind().get("child-cell"));
+        Assert.assertEquals(Integer.valueOf(2), fork.getStyleCountByKind().get("object"));
+        Assert.assertEquals(Integer.valueOf(0),
+                this.stylesContainer.getStyleCountByKind().get("child-cell"));
+        Assert.assertEquals(Integer.valueOf(1),
+                this.stylesContainer.getStyleCountByKind().get("object"));
+        Assert.assertEquals(Integer.valueOf(1),
+                this.stylesContainer.getStyleCountByKind().get("data"));
+    }
+
     @Test
     public final void testDataStyleCreate() throws IOException {
         Assert.assertTrue(this.stylesContainer.addDataStyle(this.ds1));
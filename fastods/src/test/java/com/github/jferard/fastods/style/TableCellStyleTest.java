@@ -29,6 +29,7 @@ import com.github.jferard.fastods.attribute.BorderStyle;
 import com.github.jferard.fastods.attribute.SimpleColor;
 import com.github.jferard.fastods.attribute.SimpleLength;
 import com.github.jferard.fastods.util.XMLUtil;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -204,4 +205,14 @@ public class TableCellStyleTest {
                 "style:font-name=\"Liberation Sans\"/><style:paragraph-properties " +
                 "fo:margin=\"0cm\"/></style:style>", style);
     }
+
+    @Test
+    public void testStyleNameAttribute() throws IOException {
+        final TableCellStyle style = TableCellStyle.builder("ce1").build();
+        final StringBuilder sb = new StringBuilder();
+        style.appendStyleNameAttribute(this.util, sb);
+        style.appendStyleNameAttribute(this.util, sb);
+        Assert.assertEquals(" table:style-name=\"ce1\" table:style-name=\"ce1\"",
+                sb.toString());
+    }
 }
@@ -170,4 +170,14 @@ public class TableColumnStyleTest {
                 "style:family=\"table-column\"><style:table-column-properties " +
                 "fo:break-before=\"auto\" style:column-width=\"4cm\"/></style:style>", test);
     }
+
+    @Test
+    public void testStyleNameAttribute() throws IOException {
+        final TableColumnStyle style = TableColumnStyle.builder("co1").build();
+        final StringBuilder sb = new StringBuilder();
+        style.appendStyleNameAttribute(this.util, sb);
+        style.appendStyleNameAttribute(this.util, sb);
+        Assert.assertEquals(" table:style-name=\"co1\" table:style-name=\"co1\"",
+                sb.toString());
+    }
 }
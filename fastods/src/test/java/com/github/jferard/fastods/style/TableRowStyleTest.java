@@ -85,4 +85,14 @@ public class TableRowStyleTest {
         final TableRowStyle test = TableRowStyle.builder("test").defaultCellStyle(tcs).build();
         Assert.assertEquals(new FontFace(LOFonts.OPENSYMBOL), tcs.getFontFace());
     }
+
+    @Test
+    public void testStyleNameAttribute() throws IOException {
+        final TableRowStyle style = TableRowStyle.builder("ro1").build();
+        final StringBuilder sb = new StringBuilder();
+        style.appendStyleNameAttribute(this.util, sb);
+        style.appendStyleNameAttribute(this.util, sb);
+        Assert.assertEquals(" table:style-name=\"ro1\" table:style-name=\"ro1\"",
+                sb.toString());
+    }
 }
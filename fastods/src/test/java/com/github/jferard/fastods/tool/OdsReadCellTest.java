@@ -0,0 +1,106 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.TimeValue;
+import com.github.jferard.fastods.VoidValue;
+import com.github.jferard.fastods.attribute.CellType;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Date;
+
+public class OdsReadCellTest {
+    @Test
+    public void testDate() {
+        Assert.assertEquals(new Date(1234567891011L),
+                this.date("2009-02-13T23:31:31.011Z").getDateValue());
+        Assert.assertEquals(new Date(1234567891000L),
+                this.date("2009-02-13T23:31:31").getDateValue());
+        Assert.assertEquals(new Date(1234567891500L),
+                this.date("2009-02-13T23:31:31.5").getDateValue());
+        Assert.assertEquals(new Date(1234567891000L),
+                this.date("2009-02-14T01:31:31+02:00").getDateValue());
+        Assert.assertEquals(new Date(1234567891000L),
+                this.date("2009-02-13T20:01:31-03:30").getDateValue());
+        Assert.assertEquals(new Date(1234483200000L), this.date("2009-02-13").getDateValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedDate() {
+        this.date("13/02/2009").getDateValue();
+    }
+
+    @Test
+    public void testTime() {
+        Assert.assertEquals(new TimeValue(false, 0, 0, 0, 12, 30, 15.25),
+                this.time("PT12H30M15.25S").getTimeValue());
+        Assert.assertEquals(new TimeValue(true, 1, 2, 3, 0, 0, 0),
+                this.time("-P1Y2M3D").getTimeValue());
+        Assert.assertEquals(new TimeValue(false, 0, 0, 1, 0, 5, 0),
+                this.time("P1DT5M").getTimeValue());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMalformedTime() {
+        this.time("12:30:15").getTimeValue();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWrongType() {
+        this.time("PT1H").getDoubleValue();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testWrongType2() {
+        this.time("PT1H").getBooleanValue();
+    }
+
+    @Test
+    public void testEmpty() {
+        Assert.assertTrue(OdsReadCell.EMPTY.isEmpty());
+        Assert.assertEquals(VoidValue.INSTANCE, OdsReadCell.EMPTY.toCellValue());
+        Assert.assertFalse(this.time("PT1H").isEmpty());
+        Assert.assertEquals("OdsReadCell[type=TIME, value=PT1H, text=1:00]",
+                this.time("PT1H").toString());
+    }
+
+    @Test
+    public void testString() {
+        final OdsReadCell cell = new OdsReadCell(CellType.STRING, null, null, "text", null);
+        Assert.assertEquals("text", cell.getStringValue());
+        final OdsReadCell cell2 = new OdsReadCell(CellType.STRING, "value", null, "text", null);
+        Assert.assertEquals("value", cell2.getStringValue());
+        Assert.assertEquals("text", cell2.getText());
+    }
+
+    private OdsReadCell date(final String value) {
+        return new OdsReadCell(CellType.DATE, value, null, value, null);
+    }
+
+    private OdsReadCell time(final String value) {
+        return new OdsReadCell(CellType.TIME, value, null, "1:00", null);
+    }
+}
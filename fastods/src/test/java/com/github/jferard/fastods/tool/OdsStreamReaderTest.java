@@ -0,0 +1,337 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.AnonymousOdsFileWriter;
+import com.github.jferard.fastods.BooleanValue;
+import com.github.jferard.fastods.CurrencyValue;
+import com.github.jferard.fastods.DateValue;
+import com.github.jferard.fastods.FloatValue;
+import com.github.jferard.fastods.OdsFactory;
+import com.github.jferard.fastods.PercentageValue;
+import com.github.jferard.fastods.StringValue;
+import com.github.jferard.fastods.Table;
+import com.github.jferard.fastods.TableCellWalker;
+import com.github.jferard.fastods.TimeValue;
+import com.github.jferard.fastods.attribute.CellType;
+import com.github.jferard.fastods.util.CharsetUtil;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.logging.Logger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+public class OdsStreamReaderTest {
+    private static final String CONTENT_START = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>" +
+            "<office:document-content " +
+            "xmlns:office=\"urn:oasis:names:tc:opendocument:xmlns:office:1.0\" " +
+            "xmlns:table=\"urn:oasis:names:tc:opendocument:xmlns:table:1.0\" " +
+            "xmlns:text=\"urn:oasis:names:tc:opendocument:xmlns:text:1.0\">" +
+            "<office:body><office:spreadsheet>";
+    private static final String CONTENT_END =
+            "</office:spreadsheet></office:body></office:document-content>";
+
+    @Test
+    public void testRoundTrip() throws IOException {
+        final AnonymousOdsFileWriter writer =
+                OdsFactory.create(Logger.getLogger("reader"), Locale.US).createWriter();
+        final Table table = writer.document().addTable("table & 1");
+        final TableCellWalker walker = table.getWalker();
+        walker.setStringValue("a & <b>");
+        walker.setTooltip("a tooltip");
+        walker.next();
+        walker.setFloatValue(1.5);
+        walker.next();
+        walker.setDateValue(1234567891011L);
+        walker.next();
+        walker.setBooleanValue(true);
+        walker.next();
+        walker.setPercentageValue(0.25);
+        walker.next();
+        walker.setCurrencyValue(10.5, "EUR");
+        walker.next();
+        walker.setTimeValue(0, 0, 1, 2, 3, 4.5);
+        walker.nextRow();
+        walker.nextRow();
+        walker.setFloatValue(2);
+        writer.document().addTable("table2");
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.save(out);
+
+        final OdsStreamReader reader =
+                OdsStreamReader.create(new ByteArrayInputStream(out.toByteArray()));
+        try {
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertEquals("table & 1", reader.getTableName());
+            Assert.assertTrue(reader.nextRow());
+            final OdsReadRow row = reader.getRow();
+            Assert.assertEquals(0, row.getIndex());
+            Assert.assertEquals(Arrays.asList(new StringValue("a & <b>"), new FloatValue(1.5),
+                    new DateValue(new Date(1234567891011L)), new BooleanValue(true),
+                    new PercentageValue(0.25), new CurrencyValue(10.5, "EUR"),
+                    new TimeValue(false, 0, 0, 1, 2, 3, 4.5)),
+                    Arrays.asList(row.getCell(0).toCellValue(), row.getCell(1).toCellValue(),
+                            row.getCell(2).toCellValue(), row.getCell(3).toCellValue(),
+                            row.getCell(4).toCellValue(), row.getCell(5).toCellValue(),
+                            row.getCell(6).toCellValue()));
+            // the tooltip is not a part of the text
+            Assert.assertEquals("", row.getCell(0).getText());
+            Assert.assertEquals(CellType.STRING, row.getCell(0).getType());
+            Assert.assertEquals("EUR", row.getCell(5).getCurrency());
+
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertTrue(reader.getRow().isEmpty());
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertEquals(2, reader.getRow().getIndex());
+            Assert.assertEquals(2.0, reader.getRow().getCell(0).getDoubleValue(), 0.0);
+            while (reader.nextRow()) {
+                Assert.assertTrue(reader.getRow().isEmpty());
+            }
+
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertEquals("table2", reader.getTableName());
+            Assert.assertFalse(reader.nextTable());
+            Assert.assertNull(reader.getTableName());
+            Assert.assertFalse(reader.nextRow());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testRepeated() throws IOException {
+        final OdsStreamReader reader = this.createReader("<table:table table:name=\"t\">" +
+                "<table:table-column table:number-columns-repeated=\"3\"/>" +
+                "<table:table-row table:number-rows-repeated=\"3\">" +
+                "<table:table-cell office:value-type=\"float\" office:value=\"1\" " +
+                "table:number-columns-repeated=\"2\"><text:p>1</text:p></table:table-cell>" +
+                "<table:table-cell/>" +
+                "<table:table-cell office:value-type=\"string\" " +
+                "table:number-columns-repeated=\"1000\"><text:p>x</text:p></table:table-cell>" +
+                "</table:table-row>" +
+                "<table:table-row table:number-rows-repeated=\"1048573\">" +
+                "<table:table-cell table:number-columns-repeated=\"1024\"/>" +
+                "</table:table-row>" +
+                "</table:table>");
+        try {
+            Assert.assertTrue(reader.nextTable());
+            for (int r = 0; r < 3; r++) {
+                Assert.assertTrue(reader.nextRow());
+                final OdsReadRow row = reader.getRow();
+                Assert.assertEquals(r, row.getIndex());
+                Assert.assertEquals(1003, row.getCellCount());
+                Assert.assertEquals(3, row.getDistinctCellCount());
+                Assert.assertEquals(2, row.getColumnsRepeated(0));
+                Assert.assertEquals(1, row.getColumnsRepeated(1));
+                Assert.assertEquals(1000, row.getColumnsRepeated(2));
+                Assert.assertEquals(1.0, row.getCell(0).getDoubleValue(), 0.0);
+                Assert.assertSame(row.getCell(0), row.getCell(1));
+                Assert.assertSame(OdsReadCell.EMPTY, row.getCell(2));
+                Assert.assertEquals("x", row.getCell(3).getStringValue());
+                Assert.assertEquals("x", row.getCell(1002).getStringValue());
+                Assert.assertSame(OdsReadCell.EMPTY, row.getCell(1003));
+                Assert.assertSame(OdsReadCell.EMPTY, row.getCell(-1));
+            }
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertEquals(3, reader.getRow().getIndex());
+            Assert.assertTrue(reader.getRow().isEmpty());
+            Assert.assertEquals(1048572, reader.skipRepeatedRows());
+            Assert.assertFalse(reader.nextRow());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testLazyRepeatedRows() throws IOException {
+        final OdsStreamReader reader = this.createReader("<table:table table:name=\"t\">" +
+                "<table:table-row table:number-rows-repeated=\"1048576\">" +
+                "<table:table-cell table:number-columns-repeated=\"16384\"/>" +
+                "</table:table-row>" +
+                "</table:table>");
+        try {
+            Assert.assertTrue(reader.nextTable());
+            int count = 0;
+            OdsReadRow row = null;
+            while (reader.nextRow()) {
+                row = reader.getRow();
+                count++;
+            }
+            Assert.assertEquals(1048576, count);
+            Assert.assertEquals(1048575, row.getIndex());
+            Assert.assertEquals(16384, row.getCellCount());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testText() throws IOException {
+        final OdsStreamReader reader = this.createReader("<table:table table:name=\"t\">" +
+                "<table:table-header-rows><table:table-row>" +
+                "<table:table-cell office:value-type=\"string\">" +
+                "<office:annotation><text:p>note</text:p></office:annotation>" +
+                "<text:p>a<text:s text:c=\"3\"/>b<text:tab/>c<text:s/>" +
+                "<text:span>d</text:span></text:p>" +
+                "<text:p>e<text:line-break/>f</text:p></table:table-cell>" +
+                "<table:covered-table-cell/>" +
+                "<table:table-cell table:formula=\"of:=1+1\" office:value-type=\"float\" " +
+                "office:value=\"2\"/>" +
+                "</table:table-row></table:table-header-rows>" +
+                "<table:table-row-group><table:table-rows><table:table-row>" +
+                "<table:table-cell><text:p>no type</text:p></table:table-cell>" +
+                "</table:table-row></table:table-rows></table:table-row-group>" +
+                "</table:table>");
+        try {
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertTrue(reader.nextRow());
+            final OdsReadRow row = reader.getRow();
+            Assert.assertEquals(3, row.getCellCount());
+            Assert.assertEquals("a   b\tc d\ne\nf", row.getCell(0).getStringValue());
+            Assert.assertSame(OdsReadCell.EMPTY, row.getCell(1));
+            Assert.assertEquals("of:=1+1", row.getCell(2).getFormula());
+            Assert.assertEquals(2.0, row.getCell(2).getDoubleValue(), 0.0);
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertEquals(1, reader.getRow().getIndex());
+            Assert.assertEquals(CellType.VOID, reader.getRow().getCell(0).getType());
+            Assert.assertEquals(new StringValue("no type"),
+                    reader.getRow().getCell(0).toCellValue());
+            Assert.assertFalse(reader.nextRow());
+            Assert.assertFalse(reader.nextTable());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testHandler() throws IOException {
+        final OdsStreamReader reader = this.createReader("<table:table table:name=\"t1\">" +
+                "<table:table-row table:number-rows-repeated=\"2\">" +
+                "<table:table-cell office:value-type=\"boolean\" " +
+                "office:boolean-value=\"true\"/></table:table-row>" +
+                "</table:table>" +
+                "<table:table table:name=\"t2\"/>");
+        final List<String> events = new ArrayList<String>();
+        try {
+            reader.read(new OdsRowHandler() {
+                @Override
+                public void startTable(final String tableName) {
+                    events.add("start " + tableName);
+                }
+
+                @Override
+                public void row(final OdsReadRow row) {
+                    events.add(row.getIndex() + ": " + row.getCell(0).getBooleanValue());
+                }
+
+                @Override
+                public void endTable(final String tableName) {
+                    events.add("end " + tableName);
+                }
+            });
+        } finally {
+            reader.close();
+        }
+        Assert.assertEquals(
+                Arrays.asList("start t1", "0: true", "1: true", "end t1", "start t2", "end t2"),
+                events);
+    }
+
+    @Test
+    public void testSkipTable() throws IOException {
+        final OdsStreamReader reader = this.createReader("<table:table table:name=\"t1\">" +
+                "<table:table-row><table:table-cell/></table:table-row>" +
+                "<table:table-row><table:table-cell/></table:table-row>" +
+                "</table:table>" +
+                "<table:table table:name=\"t2\">" +
+                "<table:table-row><table:table-cell/></table:table-row>" +
+                "</table:table>");
+        try {
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertTrue(reader.nextTable());
+            Assert.assertEquals("t2", reader.getTableName());
+            Assert.assertTrue(reader.nextRow());
+            Assert.assertEquals(0, reader.getRow().getIndex());
+            Assert.assertFalse(reader.nextTable());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    public void testNoContent() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZipOutputStream zos = new ZipOutputStream(out);
+        zos.putNextEntry(new ZipEntry("mimetype"));
+        zos.write("application/vnd.oasis.opendocument.spreadsheet".getBytes(CharsetUtil.UTF_8));
+        zos.close();
+        try {
+            OdsStreamReader.create(new ByteArrayInputStream(out.toByteArray()));
+            Assert.fail();
+        } catch (final IOException e) {
+            Assert.assertEquals("No content.xml entry", e.getMessage());
+        }
+    }
+
+    @Test
+    public void testTruncatedContent() throws IOException {
+        final OdsStreamReader reader = this.createContentReader(CONTENT_START +
+                "<table:table table:name=\"t\"><table:table-row><table:table-cell>");
+        try {
+            Assert.assertTrue(reader.nextTable());
+            reader.nextRow();
+            Assert.fail();
+        } catch (final IOException e) {
+            // pass
+        } finally {
+            reader.close();
+        }
+    }
+
+    private OdsStreamReader createReader(final String tables) throws IOException {
+        return this.createContentReader(CONTENT_START + tables + CONTENT_END);
+    }
+
+    private OdsStreamReader createContentReader(final String content) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZipOutputStream zos = new ZipOutputStream(out);
+        zos.putNextEntry(new ZipEntry("mimetype"));
+        zos.write("application/vnd.oasis.opendocument.spreadsheet".getBytes(CharsetUtil.UTF_8));
+        zos.putNextEntry(new ZipEntry("content.xml"));
+        zos.write(content.getBytes(CharsetUtil.UTF_8));
+        zos.close();
+        return OdsStreamReader.create(new ByteArrayInputStream(out.toByteArray()));
+    }
+}
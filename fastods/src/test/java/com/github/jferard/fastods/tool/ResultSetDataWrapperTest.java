@@ -47,6 +47,8 @@ import java.io.IOException;
 import java.sql.ResultSet;
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -376,6 +378,117 @@ public class ResultSetDataWrapperTest {
         PowerMock.verifyAll();
     }
 
+    @Test
+    public final void testTypedFastPath() throws SQLException, IOException {
+        final ResultSet rs = PowerMock.createMock(ResultSet.class);
+        final ResultSetMetaData metaData = PowerMock.createMock(ResultSetMetaData.class);
+        final StringValue nullValue = new StringValue("null");
+        final ResultSetDataWrapper wrapper =
+                ResultSetDataWrapper.builder("range", rs).logger(this.logger).noHeaderStyle()
+                        .max(100).noAutoFilter().nullValue(nullValue).typeValue(4, CellType.STRING)
+                        .build();
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.walker.rowIndex()).andReturn(0);
+        EasyMock.expect(this.walker.colIndex()).andReturn(0);
+        EasyMock.expect(rs.getMetaData()).andReturn(metaData);
+        EasyMock.expect(metaData.getColumnCount()).andReturn(5).anyTimes();
+        final List<String> labels = Arrays.asList("i", "d", "s", "t", "hint");
+        for (int j = 0; j < 5; j++) {
+            EasyMock.expect(metaData.getColumnLabel(j + 1)).andReturn(labels.get(j));
+            this.walker.setStringValue(labels.get(j));
+            this.walker.next();
+        }
+        EasyMock.expect(metaData.getColumnType(1)).andReturn(Types.BIGINT);
+        EasyMock.expect(metaData.getColumnType(2)).andReturn(Types.DOUBLE);
+        EasyMock.expect(metaData.getColumnType(3)).andReturn(Types.VARCHAR);
+        EasyMock.expect(metaData.getColumnType(4)).andReturn(Types.TIMESTAMP);
+
+        // first row
+        EasyMock.expect(rs.next()).andReturn(true);
+        this.walker.nextRow();
+        this.walker.to(0);
+        EasyMock.expect(rs.getLong(1)).andReturn(13L);
+        EasyMock.expect(rs.wasNull()).andReturn(false);
+        this.walker.setFloatValue(13);
+        this.walker.next();
+        EasyMock.expect(rs.getDouble(2)).andReturn(1.5);
+        EasyMock.expect(rs.wasNull()).andReturn(false);
+        this.walker.setFloatValue(1.5);
+        this.walker.next();
+        EasyMock.expect(rs.getString(3)).andReturn("a");
+        this.walker.setStringValue("a");
+        this.walker.next();
+        EasyMock.expect(rs.getTimestamp(4)).andReturn(new Timestamp(1000L));
+        this.walker.setDateValue(1000L);
+        this.walker.next();
+        EasyMock.expect(rs.getObject(5)).andReturn("b");
+        this.walker.setCellValue(new StringValue("b"));
+        this.walker.next();
+
+        // second row: NULLs
+        EasyMock.expect(rs.next()).andReturn(true);
+        this.walker.nextRow();
+        this.walker.to(0);
+        EasyMock.expect(rs.getLong(1)).andReturn(0L);
+        EasyMock.expect(rs.wasNull()).andReturn(true);
+        this.walker.setCellValue(nullValue);
+        this.walker.next();
+        EasyMock.expect(rs.getDouble(2)).andReturn(0.0);
+        EasyMock.expect(rs.wasNull()).andReturn(true);
+        this.walker.setCellValue(nullValue);
+        this.walker.next();
+        EasyMock.expect(rs.getString(3)).andReturn(null);
+        this.walker.setCellValue(nullValue);
+        this.walker.next();
+        EasyMock.expect(rs.getTimestamp(4)).andReturn(null);
+        this.walker.setCellValue(nullValue);
+        this.walker.next();
+        EasyMock.expect(rs.getObject(5)).andReturn(null);
+        this.walker.setCellValue(nullValue);
+        this.walker.next();
+
+        EasyMock.expect(rs.next()).andReturn(false);
+        this.walker.nextRow();
+
+        PowerMock.replayAll();
+        wrapper.addToTable(this.walker);
+
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testNoTypedFastPath()
+            throws SQLException, IOException, FastOdsException {
+        final ResultSet rs = PowerMock.createMock(ResultSet.class);
+        final ResultSetMetaData metaData = PowerMock.createMock(ResultSetMetaData.class);
+        final ResultSetDataWrapper wrapper =
+                ResultSetDataWrapper.builder("range", rs).logger(this.logger).noHeaderStyle()
+                        .max(100).noAutoFilter().noTypedFastPath().build();
+
+        PowerMock.resetAll();
+        EasyMock.expect(this.walker.rowIndex()).andReturn(0);
+        EasyMock.expect(this.walker.colIndex()).andReturn(0);
+        EasyMock.expect(rs.getMetaData()).andReturn(metaData);
+        EasyMock.expect(metaData.getColumnCount()).andReturn(1).anyTimes();
+        EasyMock.expect(metaData.getColumnLabel(1)).andReturn("i");
+        this.walker.setStringValue("i");
+        this.walker.next();
+        EasyMock.expect(rs.next()).andReturn(true);
+        this.walker.nextRow();
+        this.walker.to(0);
+        EasyMock.expect(rs.getObject(1)).andReturn(13L);
+        this.walker.setCellValue(FloatValue.from(13L));
+        this.walker.next();
+        EasyMock.expect(rs.next()).andReturn(false);
+        this.walker.nextRow();
+
+        PowerMock.replayAll();
+        wrapper.addToTable(this.walker);
+
+        PowerMock.verifyAll();
+    }
+
     private DataWrapper createWrapper(final Iterable<String> head,
                                       final Iterable<List<Object>> rows, final int max) {
         final MockResultSet rs = this.tester.createResultSet(head, rows);
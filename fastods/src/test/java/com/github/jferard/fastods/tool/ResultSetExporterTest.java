@@ -0,0 +1,200 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.tool;
+
+import com.github.jferard.fastods.OdsAsyncFlusher;
+import com.github.jferard.fastods.OdsFactory;
+import com.github.jferard.fastods.OdsWriteListener;
+import com.github.jferard.fastods.testlib.ResultSetTester;
+import com.github.jferard.fastods.util.CharsetUtil;
+import com.google.common.io.ByteStreams;
+import com.mockrunner.mock.jdbc.MockResultSet;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.logging.Logger;
+import java.util.zip.ZipFile;
+
+public class ResultSetExporterTest {
+    private static final int ROW_COUNT = 2500;
+
+    private OdsFactory odsFactory;
+    private MockResultSet rs;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        this.file = File.createTempFile("rs-exporter", ".ods");
+        this.odsFactory = OdsFactory.create(Logger.getLogger("exporter"), Locale.US);
+        final List<List<Object>> rows = new ArrayList<List<Object>>(ROW_COUNT);
+        for (int i = 0; i < ROW_COUNT; i++) {
+            rows.add(Arrays.<Object>asList(i, "v" + i));
+        }
+        this.rs = ResultSetTester.create().createResultSet(Arrays.asList("n", "s"), rows);
+    }
+
+    @After
+    public void tearDown() {
+        this.file.delete();
+    }
+
+    @Test
+    public void testExport() throws IOException {
+        final ResultSetExportReport report = ResultSetExporter.builder(this.odsFactory)
+                .fetchSize(100).capacity(2).build()
+                .export(this.file, "table", ResultSetDataWrapper.builder("range", this.rs).build());
+
+        Assert.assertEquals(ROW_COUNT, report.getRowCount());
+        Assert.assertEquals(this.file.length(), report.getByteCount());
+        Assert.assertTrue(report.getFetchNanos() <= report.getElapsedNanos());
+        Assert.assertTrue(report.getRowsPerSecond() > 0);
+        final String content = this.getContent(this.file);
+        Assert.assertTrue(content.contains("<table:database-range table:name=\"range\""));
+        Assert.assertTrue(content.contains("office:string-value=\"v0\""));
+        Assert.assertTrue(content.contains("office:string-value=\"v2499\""));
+        Assert.assertTrue(content.indexOf("office:string-value=\"v99\"") <
+                content.indexOf("office:string-value=\"v100\""));
+        // header + rows + the blank line + the last row
+        Assert.assertEquals(ROW_COUNT + 3, this.count(content, "<table:table-row "));
+    }
+
+    @Test
+    public void testExportMax() throws IOException {
+        final ResultSetExportReport report = ResultSetExporter.builder(this.odsFactory)
+                .fetchSize(3).noParallelDeflate().build().export(this.file, "table",
+                        ResultSetDataWrapper.builder("range", this.rs).max(10).build());
+
+        Assert.assertEquals(10, report.getRowCount());
+        final String content = this.getContent(this.file);
+        Assert.assertTrue(content.contains("office:string-value=\"v9\""));
+        Assert.assertFalse(content.contains("office:string-value=\"v10\""));
+        Assert.assertTrue(content.contains("... (2490 rows remaining)"));
+    }
+
+    @Test
+    public void testExportSerializesOnConsumer() throws IOException {
+        final Thread producer = Thread.currentThread();
+        final List<String> rowsFlusherNames =
+                Collections.synchronizedList(new ArrayList<String>());
+        final List<Thread> rowsFlusherThreads =
+                Collections.synchronizedList(new ArrayList<Thread>());
+        final OdsFactory odsFactory =
+                OdsFactory.builder(Logger.getLogger("exporter"), Locale.US).writeListener(
+                        new OdsWriteListener() {
+                            @Override
+                            public void entryWritten(final String entryName, final long size,
+                                                     final long compressedSize) {
+                            }
+
+                            @Override
+                            public void flusherFlushed(final OdsAsyncFlusher flusher,
+                                                       final long nanos) {
+                                final String name = flusher.getClass().getSimpleName();
+                                if (name.endsWith("RowsFlusher")) {
+                                    rowsFlusherNames.add(name);
+                                    rowsFlusherThreads.add(Thread.currentThread());
+                                }
+                            }
+
+                            @Override
+                            public void tableWritten(final String tableName, final int rowCount,
+                                                     final long cellCount) {
+                            }
+
+                            @Override
+                            public void escaperCacheUsed(final long hitCount,
+                                                         final long missCount) {
+                            }
+
+                            @Override
+                            public void stylesCounted(final Map<String, Integer> countByKind) {
+                            }
+                        }).build();
+
+        // default fetch size: the block boundary of the table builder (8192) is crossed
+        // within a batch
+        final int rowCount = 8500;
+        final List<List<Object>> rows = new ArrayList<List<Object>>(rowCount);
+        for (int i = 0; i < rowCount; i++) {
+            rows.add(Arrays.<Object>asList(i, "v" + i));
+        }
+        final MockResultSet rs =
+                ResultSetTester.create().createResultSet(Arrays.asList("n", "s"), rows);
+        final ResultSetExportReport report = ResultSetExporter.builder(odsFactory).build()
+                .export(this.file, "table", ResultSetDataWrapper.builder("range", rs).build());
+
+        Assert.assertEquals(rowCount, report.getRowCount());
+        Assert.assertTrue(rowsFlusherNames.contains("DeferredRowsFlusher"));
+        Assert.assertFalse(rowsFlusherNames.contains("PreprocessedRowsFlusher"));
+        Assert.assertFalse(rowsFlusherThreads.contains(producer));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeFetchSize() {
+        ResultSetExporter.builder(this.odsFactory).fetchSize(0);
+    }
+
+    @Test
+    public void testReport() {
+        final ResultSetExportReport report =
+                new ResultSetExportReport(10, 20, 1000, 500000000L, 2000000000L);
+        Assert.assertEquals(5.0, report.getRowsPerSecond(), 0.001);
+        Assert.assertEquals(500.0, report.getBytesPerSecond(), 0.001);
+        Assert.assertEquals(
+                "10 rows, 20 cells, 1000 bytes in 2.000 s (fetch: 0.500 s): 5 rows/s, " +
+                        "500 bytes/s", report.toString());
+    }
+
+    private String getContent(final File file) throws IOException {
+        final ZipFile zipFile = new ZipFile(file);
+        try {
+            final InputStream is = zipFile.getInputStream(zipFile.getEntry("content.xml"));
+            return new String(ByteStreams.toByteArray(is), CharsetUtil.UTF_8);
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    private int count(final String content, final String pattern) {
+        int count = 0;
+        int i = content.indexOf(pattern);
+        while (i != -1) {
+            count++;
+            i = content.indexOf(pattern, i + 1);
+        }
+        return count;
+    }
+}
@@ -60,6 +60,35 @@ public class ContainerTest {
         this.container.setMode(Container.Mode.UPDATE);
         Assert.assertTrue(this.container.add("a", 2));
         Assert.assertEquals(Integer.valueOf(2), this.container.getValues().iterator().next());
+        Assert.assertEquals(1, this.container.size());
+    }
+
+    @Test
+    public final void testFork() {
+        Assert.assertTrue(this.container.add("a", 1));
+        final Container<String, Integer> fork = this.container.fork();
+        Assert.assertSame(this.container.getValueByKey(), fork.getValueByKey());
+        fork.setMode(Container.Mode.CREATE_OR_UPDATE);
+        Assert.assertTrue(fork.add("a", 1));
+        fork.setMode(Container.Mode.CREATE);
+        Assert.assertSame(this.container.getValueByKey(), fork.getValueByKey());
+
+        Assert.assertTrue(fork.add("b", 2));
+        this.container.setMode(Container.Mode.UPDATE);
+        Assert.assertTrue(this.container.add("a", 3));
+        Assert.assertNotSame(this.container.getValueByKey(), fork.getValueByKey());
+        Assert.assertEquals(Integer.valueOf(3), this.container.get("a"));
+        Assert.assertEquals(1, this.container.size());
+        Assert.assertEquals(Integer.valueOf(1), fork.get("a"));
+        Assert.assertEquals(2, fork.size());
+    }
+
+    @Test
+    public final void testForkFrozen() {
+        this.container.freeze();
+        final Container<String, Integer> fork = this.container.fork();
+        Assert.assertTrue(fork.add("a", 1));
+        Assert.assertEquals(0, this.container.size());
     }
 
     @Test
@@ -0,0 +1,121 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Random;
+import java.util.TimeZone;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DateValueFormatterTest {
+    private static SimpleDateFormat createReference() {
+        final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+        format.setTimeZone(TimeZone.getTimeZone("UTC"));
+        return format;
+    }
+
+    @Test
+    public void testEpoch() {
+        final DateValueFormatter formatter = DateValueFormatter.create();
+        Assert.assertEquals("1970-01-01T00:00:00.000Z", formatter.format(0));
+        Assert.assertEquals("1969-12-31T23:59:59.999Z", formatter.format(-1));
+        Assert.assertEquals("2009-02-13T23:31:31.011Z", formatter.format(1234567891011L));
+    }
+
+    @Test
+    public void testLeapDays() {
+        final DateValueFormatter formatter = DateValueFormatter.create();
+        Assert.assertEquals("2000-02-29T12:00:00.000Z", formatter.format(951825600000L));
+        Assert.assertEquals("1900-03-01T00:00:00.000Z", formatter.format(-2203891200000L));
+    }
+
+    @Test
+    public void testBounds() {
+        final DateValueFormatter formatter = DateValueFormatter.create();
+        final SimpleDateFormat reference = createReference();
+        final long[] values = {-12219292800001L, -12219292800000L, 253402300799999L,
+                253402300800000L, -62135596800000L, Long.MAX_VALUE / 2};
+        for (final long value : values) {
+            Assert.assertEquals(reference.format(new Date(value)), formatter.format(value));
+        }
+    }
+
+    @Test
+    public void testRandom() {
+        final DateValueFormatter formatter = DateValueFormatter.create();
+        final SimpleDateFormat reference = createReference();
+        final Random random = new Random(42);
+        for (int i = 0; i < 100000; i++) {
+            final long value = (random.nextLong() % 400000000000000L);
+            Assert.assertEquals(reference.format(new Date(value)), formatter.format(value));
+        }
+    }
+
+    @Test
+    public void testAppend() throws IOException {
+        final DateValueFormatter formatter = DateValueFormatter.create();
+        final StringBuilder sb = new StringBuilder("a");
+        formatter.append(sb, 1234567891011L);
+        Assert.assertEquals("a2009-02-13T23:31:31.011Z", sb.toString());
+    }
+
+    @Test
+    public void testConcurrent() throws Exception {
+        final DateValueFormatter formatter = DateValueFormatter.create();
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        final List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+        for (int t = 0; t < 8; t++) {
+            final long seed = t;
+            futures.add(executor.submit(new Callable<Boolean>() {
+                @Override
+                public Boolean call() {
+                    final SimpleDateFormat reference = createReference();
+                    final Random random = new Random(seed);
+                    for (int i = 0; i < 10000; i++) {
+                        final long value = random.nextLong() % 100000000000000L;
+                        if (!reference.format(new Date(value)).equals(formatter.format(value))) {
+                            return false;
+                        }
+                    }
+                    return true;
+                }
+            }));
+        }
+        for (final Future<Boolean> future : futures) {
+            Assert.assertTrue(future.get());
+        }
+        executor.shutdown();
+    }
+}
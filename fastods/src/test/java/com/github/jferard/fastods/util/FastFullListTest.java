@@ -23,9 +23,12 @@
  */
 package com.github.jferard.fastods.util;
 
+import com.google.common.collect.Lists;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 public class FastFullListTest {
     @Test
     public final void testSetAndAdd() {
@@ -92,4 +95,73 @@ public class FastFullListTest {
         fl.set(1, null);
         Assert.assertEquals(0, fl.usedSize());
     }
+
+    @Test
+    public final void testReleaseUntil() {
+        final FastFullList<String> fl = FastFullList.<String>builder().capacity(4).build();
+        for (int i = 0; i < 4; i++) {
+            fl.set(i, String.valueOf(i));
+        }
+        fl.releaseUntil(3);
+        Assert.assertEquals(3, fl.firstAvailableIndex());
+        Assert.assertEquals(4, fl.usedSize());
+        Assert.assertEquals("3", fl.get(3));
+        Assert.assertNull(fl.get(10));
+        Assert.assertEquals(Arrays.asList("3"), fl.subList(3, 4));
+
+        fl.set(6, "6");
+        Assert.assertEquals(7, fl.usedSize());
+        Assert.assertEquals(Arrays.asList("3", null, null, "6"), Lists.newArrayList(fl));
+        fl.set(6, null);
+        Assert.assertEquals(4, fl.usedSize());
+    }
+
+    @Test
+    public final void testSlidingWindow() {
+        final FastFullList<String> fl = FastFullList.<String>builder().capacity(10).build();
+        for (int i = 0; i < 10000; i++) {
+            fl.set(i, "v");
+            if (i % 5 == 0) {
+                fl.releaseUntil(i);
+            }
+        }
+        Assert.assertEquals(10000, fl.usedSize());
+        Assert.assertEquals(9995, fl.firstAvailableIndex());
+        Assert.assertEquals(5, Lists.newArrayList(fl).size());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testGetReleased() {
+        final FastFullList<String> fl = FastFullList.<String>builder().build();
+        fl.set(10, "10");
+        fl.releaseUntil(5);
+        fl.get(4);
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public final void testSetReleased() {
+        final FastFullList<String> fl = FastFullList.<String>builder().build();
+        fl.set(10, "10");
+        fl.releaseUntil(5);
+        fl.set(4, "4");
+    }
+
+    @Test
+    public final void testSkipUntil() {
+        final FastFullList<String> fl = FastFullList.<String>builder().capacity(4).build();
+        fl.set(1, "1");
+        fl.skipUntil(1000);
+        Assert.assertEquals(1000, fl.firstAvailableIndex());
+        Assert.assertEquals(1000, fl.usedSize());
+        fl.set(1001, "1001");
+        Assert.assertEquals(1002, fl.usedSize());
+        Assert.assertEquals(Arrays.asList(null, "1001"), Lists.newArrayList(fl));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testReleaseAfterEnd() {
+        final FastFullList<String> fl = FastFullList.<String>builder().build();
+        fl.set(10, "10");
+        fl.releaseUntil(12);
+    }
 }
@@ -23,12 +23,16 @@
  */
 package com.github.jferard.fastods.util;
 
+import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
+import org.powermock.api.easymock.PowerMock;
+
+import java.io.IOException;
 
 public class FastOdsXMLEscaperTest {
-    private XMLEscaper escaper;
+    private FastOdsXMLEscaper escaper;
 
     @Before
     public void setUp() {
@@ -167,6 +171,137 @@ public class FastOdsXMLEscaperTest {
         this.assertEqualsToContentEscaped("'abcde", "'abcde");
     }
 
+    @Test
+    public final void testNoSpecialCharBypassesCache() {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.create();
+        final String s = "abcde";
+        Assert.assertSame(s, escaper.escapeXMLAttribute(s));
+        Assert.assertSame(s, escaper.escapeXMLContent(s));
+        Assert.assertEquals(0, escaper.getCacheHitCount());
+        Assert.assertEquals(0, escaper.getCacheMissCount());
+    }
+
+    @Test
+    public final void testHitAndMissCounts() {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.create();
+        Assert.assertEquals("a&amp;b", escaper.escapeXMLAttribute("a&b"));
+        Assert.assertEquals("a&amp;b", escaper.escapeXMLAttribute("a&b"));
+        Assert.assertEquals("a&amp;b", escaper.escapeXMLContent("a&b"));
+        Assert.assertEquals(1, escaper.getCacheHitCount());
+        Assert.assertEquals(2, escaper.getCacheMissCount());
+    }
+
+    @Test
+    public final void testLongStringBypassesCache() {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.builder().maxCachedLength(3).build();
+        Assert.assertEquals("a&lt;b", escaper.escapeXMLContent("a<b"));
+        Assert.assertEquals("a&lt;bc", escaper.escapeXMLContent("a<bc"));
+        Assert.assertEquals("a&lt;bc", escaper.escapeXMLContent("a<bc"));
+        Assert.assertEquals(0, escaper.getCacheHitCount());
+        Assert.assertEquals(1, escaper.getCacheMissCount());
+    }
+
+    @Test
+    public final void testNoCache() {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.builder().noCache().build();
+        Assert.assertEquals("a&amp;b", escaper.escapeXMLAttribute("a&b"));
+        Assert.assertEquals("a&amp;b", escaper.escapeXMLAttribute("a&b"));
+        Assert.assertEquals(0, escaper.getCacheHitCount());
+        Assert.assertEquals(0, escaper.getCacheMissCount());
+    }
+
+    @Test
+    public final void testLRUCacheEviction() {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.builder().lruCache(2).build();
+        escaper.escapeXMLContent("<1");
+        escaper.escapeXMLContent("<2");
+        escaper.escapeXMLContent("<1"); // hit: <2 is now the eldest
+        escaper.escapeXMLContent("<3"); // evicts <2
+        escaper.escapeXMLContent("<1"); // hit
+        Assert.assertEquals("&lt;2", escaper.escapeXMLContent("<2")); // miss
+        Assert.assertEquals(2, escaper.getCacheHitCount());
+        Assert.assertEquals(4, escaper.getCacheMissCount());
+    }
+
+    @Test
+    public final void testUnboundedCache() {
+        final FastOdsXMLEscaper escaper =
+                FastOdsXMLEscaper.builder().unboundedCache().bufferSize(8).build();
+        for (int i = 0; i < 100; i++) {
+            escaper.escapeXMLContent("<" + i);
+        }
+        for (int i = 0; i < 100; i++) {
+            Assert.assertEquals("&lt;" + i, escaper.escapeXMLContent("<" + i));
+        }
+        Assert.assertEquals(100, escaper.getCacheHitCount());
+        Assert.assertEquals(100, escaper.getCacheMissCount());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testBadCacheSize() {
+        FastOdsXMLEscaper.builder().lruCache(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testBadBufferSize() {
+        FastOdsXMLEscaper.builder().bufferSize(0);
+    }
+
+    @Test
+    public final void testAppendEscapedIsEscape() throws IOException {
+        final String[] strings = {"", "abcde", "'abcde", "abcde'", "w<& ' d\"gfgh >",
+                "\t\n\r\b", "<<>>", "a&b&c&"};
+        for (final String s : strings) {
+            final StringBuilder attrSb = new StringBuilder();
+            this.escaper.appendEscapedXMLAttribute(attrSb, s);
+            Assert.assertEquals(this.escaper.escapeXMLAttribute(s), attrSb.toString());
+
+            final StringBuilder contentSb = new StringBuilder();
+            this.escaper.appendEscapedXMLContent(contentSb, s);
+            Assert.assertEquals(this.escaper.escapeXMLContent(s), contentSb.toString());
+        }
+    }
+
+    @Test
+    public final void testAppendEscapedUsesCache() throws IOException {
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.builder().maxCachedLength(5).build();
+        final StringBuilder sb = new StringBuilder();
+        escaper.appendEscapedXMLAttribute(sb, "a&b");
+        escaper.appendEscapedXMLAttribute(sb, "a&b");
+        escaper.appendEscapedXMLContent(sb, "a<b");
+        escaper.appendEscapedXMLContent(sb, "abc"); // nothing to escape
+        escaper.appendEscapedXMLContent(sb, "a<bcde"); // too long
+        Assert.assertEquals("a&amp;ba&amp;ba&lt;babca&lt;bcde", sb.toString());
+        Assert.assertEquals(1, escaper.getCacheHitCount());
+        Assert.assertEquals(2, escaper.getCacheMissCount());
+    }
+
+    @Test
+    public final void testAppendEscapedNoCopy() throws IOException {
+        final Appendable appendable = PowerMock.createMock(Appendable.class);
+        final String s = "ab<cd";
+        final String s2 = "abcd";
+        final FastOdsXMLEscaper escaper = FastOdsXMLEscaper.builder().noCache().build();
+
+        PowerMock.resetAll();
+        EasyMock.expect(appendable.append(s, 0, 2)).andReturn(appendable);
+        EasyMock.expect(appendable.append("&lt;")).andReturn(appendable);
+        EasyMock.expect(appendable.append(s, 3, 5)).andReturn(appendable);
+        EasyMock.expect(appendable.append(s2)).andReturn(appendable);
+
+        PowerMock.replayAll();
+        escaper.appendEscapedXMLContent(appendable, s);
+        escaper.appendEscapedXMLContent(appendable, s2);
+        PowerMock.verifyAll();
+    }
+
+    @Test
+    public final void testAppendEscapedNull() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        this.escaper.appendEscapedXMLContent(sb, null);
+        Assert.assertEquals("null", sb.toString());
+    }
+
     private void assertEqualsToAttrEscaped(final String expected, final String actualToEscape) {
         Assert.assertEquals(expected, this.escaper.escapeXMLAttribute(actualToEscape));
     }
@@ -52,6 +52,28 @@ public class MultiContainerTest {
         PowerMock.resetAll();
     }
 
+    @Test
+    public final void testFork() {
+        Assert.assertTrue(this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, 1));
+        final MultiContainer<String, Dest, Integer> fork = this.container.fork();
+        Assert.assertSame(this.container.getValueByKey(Dest.CONTENT_AUTOMATIC_STYLES),
+                fork.getValueByKey(Dest.CONTENT_AUTOMATIC_STYLES));
+        Assert.assertTrue(fork.add("a", Dest.CONTENT_AUTOMATIC_STYLES, 1));
+        Assert.assertSame(this.container.getValueByKey(Dest.CONTENT_AUTOMATIC_STYLES),
+                fork.getValueByKey(Dest.CONTENT_AUTOMATIC_STYLES));
+
+        Assert.assertTrue(fork.add("a", Dest.STYLES_AUTOMATIC_STYLES, 2));
+        Assert.assertTrue(this.container.add("b", Dest.CONTENT_AUTOMATIC_STYLES, 3));
+        Assert.assertEquals(Integer.valueOf(1),
+                this.container.get("a", Dest.CONTENT_AUTOMATIC_STYLES));
+        Assert.assertNull(this.container.get("a", Dest.STYLES_AUTOMATIC_STYLES));
+        Assert.assertEquals(2, this.container.size());
+        Assert.assertNull(fork.get("a", Dest.CONTENT_AUTOMATIC_STYLES));
+        Assert.assertEquals(Integer.valueOf(2), fork.get("a", Dest.STYLES_AUTOMATIC_STYLES));
+        Assert.assertNull(fork.get("b", Dest.CONTENT_AUTOMATIC_STYLES));
+        Assert.assertEquals(1, fork.size());
+    }
+
     @Test
     public final void testCreateThenUpdate() {
         Assert.assertTrue(this.container.add("a", Dest.CONTENT_AUTOMATIC_STYLES, 1));
@@ -65,6 +87,7 @@ public class MultiContainerTest {
                 this.container.getValues(Dest.CONTENT_AUTOMATIC_STYLES).iterator().hasNext());
         Assert.assertFalse(
                 this.container.getValues(Dest.STYLES_COMMON_STYLES).iterator().hasNext());
+        Assert.assertEquals(1, this.container.size());
     }
 
     @Test
@@ -0,0 +1,381 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+public class ParallelZipOutputStreamTest {
+    private ByteArrayOutputStream out;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        this.out = new ByteArrayOutputStream();
+        this.executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public final void testInline() throws IOException {
+        final ParallelZipOutputStream zos = new ParallelZipOutputStream(this.out,
+                Deflater.BEST_SPEED, 100, null, false, 0);
+        this.checkRoundTrip(zos);
+    }
+
+    @Test
+    public final void testExecutor() throws IOException {
+        final ParallelZipOutputStream zos = ParallelZipOutputStream
+                .create(this.out, Deflater.BEST_SPEED, 1000, this.executor, 2);
+        this.checkRoundTrip(zos);
+        Assert.assertFalse(this.executor.isShutdown());
+    }
+
+    @Test
+    public final void testOwnExecutor() throws IOException {
+        final ParallelZipOutputStream zos =
+                ParallelZipOutputStream.create(this.out, Deflater.DEFAULT_COMPRESSION, 64 * 1024);
+        this.checkRoundTrip(zos);
+    }
+
+    @Test
+    public final void testCompressionRatio() throws IOException {
+        final byte[] data = this.xmlLike(500000);
+        final ParallelZipOutputStream zos =
+                ParallelZipOutputStream.create(this.out, Deflater.BEST_SPEED, 32 * 1024,
+                        this.executor, 8);
+        zos.putNextEntry(new ZipEntry("content.xml"));
+        zos.write(data);
+        zos.close();
+
+        final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+        final ZipOutputStream expectedZos = new ZipOutputStream(expectedOut);
+        expectedZos.setLevel(Deflater.BEST_SPEED);
+        expectedZos.putNextEntry(new ZipEntry("content.xml"));
+        expectedZos.write(data);
+        expectedZos.close();
+
+        // the dictionary priming keeps the size close to the size of a single stream
+        Assert.assertTrue(this.out.size() < expectedOut.size() * 1.05);
+    }
+
+    @Test
+    public final void testStored() throws IOException {
+        final byte[] data = "application/vnd.oasis.opendocument.spreadsheet"
+                .getBytes(CharsetUtil.UTF_8);
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        final ZipEntry entry = new ZipEntry("mimetype");
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(data.length);
+        entry.setCrc(crc.getValue());
+
+        final ParallelZipOutputStream zos =
+                ParallelZipOutputStream.create(this.out, Deflater.BEST_SPEED, 10, this.executor, 2);
+        zos.putNextEntry(entry);
+        zos.write(data);
+        zos.putNextEntry(new ZipEntry("a"));
+        zos.write(data);
+        zos.close();
+
+        final Map<String, byte[]> expected = new LinkedHashMap<String, byte[]>();
+        expected.put("mimetype", data);
+        expected.put("a", data);
+        this.checkZipInputStream(expected);
+        this.checkZipFile(expected);
+        // mimetype is readable at offset 38
+        Assert.assertEquals("application", new String(this.out.toByteArray(), 38, 11,
+                CharsetUtil.UTF_8));
+    }
+
+    @Test
+    public final void testDeflatedEntry() throws IOException {
+        final byte[] data = this.xmlLike(10000);
+        final CachedZipEntry cachedEntry =
+                CachedZipEntry.create("styles.xml", data, Deflater.BEST_COMPRESSION);
+        final ZipEntry entry = new ZipEntry("styles.xml");
+
+        final ParallelZipOutputStream zos =
+                ParallelZipOutputStream.create(this.out, Deflater.BEST_SPEED, 10, this.executor, 2);
+        zos.putNextEntry(new ZipEntry("a"));
+        zos.write(data);
+        cachedEntry.writeTo(zos, entry);
+        zos.putNextEntry(new ZipEntry("b"));
+        zos.write(data);
+        zos.close();
+
+        Assert.assertEquals(data.length, entry.getSize());
+        Assert.assertEquals(cachedEntry.getCompressedSize(), entry.getCompressedSize());
+        Assert.assertEquals(cachedEntry.getCrc(), entry.getCrc());
+        final Map<String, byte[]> expected = new LinkedHashMap<String, byte[]>();
+        expected.put("a", data);
+        expected.put("styles.xml", data);
+        expected.put("b", data);
+        this.checkZipInputStream(expected);
+        this.checkZipFile(expected);
+    }
+
+    @Test
+    public final void testDeflatedEntryJDKStream() throws IOException {
+        final byte[] data = this.xmlLike(1000);
+        final CachedZipEntry cachedEntry =
+                CachedZipEntry.create("styles.xml", data, Deflater.BEST_COMPRESSION);
+
+        final ZipOutputStream zos = new ZipOutputStream(this.out);
+        cachedEntry.writeTo(zos, new ZipEntry("styles.xml"));
+        zos.close();
+
+        final Map<String, byte[]> expected = new LinkedHashMap<String, byte[]>();
+        expected.put("styles.xml", data);
+        this.checkZipInputStream(expected);
+    }
+
+    @Test
+    public final void testRawEntry() throws IOException {
+        final byte[] data = this.xmlLike(10000);
+        final ByteArrayOutputStream raw = new ByteArrayOutputStream();
+        final Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        deflater.setInput(data);
+        deflater.finish();
+        final byte[] buf = new byte[1024];
+        while (!deflater.finished()) {
+            raw.write(buf, 0, deflater.deflate(buf));
+        }
+        deflater.end();
+        final CRC32 crc = new CRC32();
+        crc.update(data);
+        final ZipEntry entry = new ZipEntry("styles.xml");
+        entry.setMethod(ZipEntry.DEFLATED);
+        entry.setCrc(crc.getValue());
+        entry.setSize(data.length);
+        entry.setCompressedSize(raw.size());
+
+        final ParallelZipOutputStream zos =
+                ParallelZipOutputStream.create(this.out, Deflater.BEST_SPEED, 10, this.executor, 2);
+        zos.putNextEntry(new ZipEntry("a"));
+        zos.write(data);
+        zos.writeRawEntry(entry, new ByteArrayInputStream(raw.toByteArray()));
+        zos.close();
+
+        final Map<String, byte[]> expected = new LinkedHashMap<String, byte[]>();
+        expected.put("a", data);
+        expected.put("styles.xml", data);
+        this.checkZipInputStream(expected);
+        this.checkZipFile(expected);
+    }
+
+    @Test(expected = EOFException.class)
+    public final void testRawEntryTooShort() throws IOException {
+        final ZipEntry entry = new ZipEntry("a");
+        entry.setMethod(ZipEntry.DEFLATED);
+        entry.setCrc(0);
+        entry.setSize(100);
+        entry.setCompressedSize(10);
+        final ParallelZipOutputStream zos =
+                ParallelZipOutputStream.create(this.out, Deflater.BEST_SPEED, 10, this.executor, 2);
+        zos.writeRawEntry(entry, new ByteArrayInputStream(new byte[5]));
+    }
+
+    @Test(expected = ZipException.class)
+    public final void testStoredWithoutCrc() throws IOException {
+        final ZipEntry entry = new ZipEntry("mimetype");
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(10);
+        final ParallelZipOutputStream zos =
+                ParallelZipOutputStream.create(this.out, Deflater.BEST_SPEED, 10, this.executor, 2);
+        zos.putNextEntry(entry);
+    }
+
+    @Test(expected = ZipException.class)
+    public final void testStoredBadCrc() throws IOException {
+        final ZipEntry entry = new ZipEntry("mimetype");
+        entry.setMethod(ZipEntry.STORED);
+        entry.setSize(1);
+        entry.setCrc(0);
+        final ParallelZipOutputStream zos =
+                ParallelZipOutputStream.create(this.out, Deflater.BEST_SPEED, 10, this.executor, 2);
+        zos.putNextEntry(entry);
+        zos.write('a');
+        zos.closeEntry();
+    }
+
+    @Test(expected = ZipException.class)
+    public final void testWriteWithoutEntry() throws IOException {
+        final ParallelZipOutputStream zos =
+                ParallelZipOutputStream.create(this.out, Deflater.BEST_SPEED, 10, this.executor, 2);
+        zos.write('a');
+    }
+
+    @Test(expected = IOException.class)
+    public final void testWriteAfterClose() throws IOException {
+        final ParallelZipOutputStream zos =
+                ParallelZipOutputStream.create(this.out, Deflater.BEST_SPEED, 10, this.executor, 2);
+        zos.close();
+        zos.putNextEntry(new ZipEntry("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testBadLevel() {
+        ParallelZipOutputStream.create(this.out, 99, 10, this.executor, 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testBadBlockSize() {
+        ParallelZipOutputStream.create(this.out, Deflater.BEST_SPEED, 0, this.executor, 2);
+    }
+
+    @Test
+    public final void testDosTime() {
+        Assert.assertEquals((1 << 21) | (1 << 16), ParallelZipOutputStream.javaToDosTime(0));
+    }
+
+    private void checkRoundTrip(final ParallelZipOutputStream zos) throws IOException {
+        final Map<String, byte[]> expected = new LinkedHashMap<String, byte[]>();
+        expected.put("empty", new byte[0]);
+        expected.put("small", "small entry".getBytes(CharsetUtil.UTF_8));
+        expected.put("content.xml", this.xmlLike(200000));
+        expected.put("random", this.random(50000));
+        expected.put("dir/été.xml", this.xmlLike(1000));
+
+        zos.setComment("a comment");
+        for (final Map.Entry<String, byte[]> entry : expected.entrySet()) {
+            zos.putNextEntry(new ZipEntry(entry.getKey()));
+            final byte[] data = entry.getValue();
+            // write in chunks of various sizes to cross the block boundaries
+            int i = 0;
+            int chunk = 1;
+            while (i < data.length) {
+                final int n = Math.min(chunk, data.length - i);
+                zos.write(data, i, n);
+                i += n;
+                chunk = chunk * 3 % 1777 + 1;
+            }
+            zos.closeEntry();
+        }
+        zos.finish();
+        zos.close();
+
+        this.checkZipInputStream(expected);
+        this.checkZipFile(expected);
+    }
+
+    private void checkZipInputStream(final Map<String, byte[]> expected) throws IOException {
+        final ZipInputStream zis =
+                new ZipInputStream(new ByteArrayInputStream(this.out.toByteArray()));
+        int count = 0;
+        ZipEntry entry = zis.getNextEntry();
+        while (entry != null) {
+            Assert.assertArrayEquals(entry.getName(), expected.get(entry.getName()),
+                    this.readAll(zis));
+            count++;
+            entry = zis.getNextEntry();
+        }
+        Assert.assertEquals(expected.size(), count);
+    }
+
+    private void checkZipFile(final Map<String, byte[]> expected) throws IOException {
+        final File temp = File.createTempFile("parallel-zip", ".zip");
+        temp.deleteOnExit();
+        final FileOutputStream fos = new FileOutputStream(temp);
+        fos.write(this.out.toByteArray());
+        fos.close();
+
+        final ZipFile zipFile = new ZipFile(temp);
+        try {
+            int count = 0;
+            final Enumeration<? extends ZipEntry> entries = zipFile.entries();
+            while (entries.hasMoreElements()) {
+                final ZipEntry entry = entries.nextElement();
+                final byte[] bytes = expected.get(entry.getName());
+                Assert.assertEquals(bytes.length, entry.getSize());
+                final CRC32 crc = new CRC32();
+                crc.update(bytes);
+                Assert.assertEquals(crc.getValue(), entry.getCrc());
+                Assert.assertArrayEquals(bytes, this.readAll(zipFile.getInputStream(entry)));
+                count++;
+            }
+            Assert.assertEquals(expected.size(), count);
+        } finally {
+            zipFile.close();
+            temp.delete();
+        }
+    }
+
+    private byte[] xmlLike(final int size) {
+        final StringBuilder sb = new StringBuilder(size);
+        int i = 0;
+        while (sb.length() < size) {
+            sb.append("<table:table-row table:style-name=\"ro1\"><table:table-cell " +
+                    "office:value-type=\"float\" office:value=\"").append(i * 7 % 1013)
+                    .append("\"/></table:table-row>");
+            i++;
+        }
+        return sb.toString().getBytes(CharsetUtil.UTF_8);
+    }
+
+    private byte[] random(final int size) {
+        final byte[] bytes = new byte[size];
+        new Random(42).nextBytes(bytes);
+        return bytes;
+    }
+
+    private byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buf = new byte[1024];
+        int n = in.read(buf);
+        while (n != -1) {
+            bytes.write(buf, 0, n);
+            n = in.read(buf);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,355 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+public class RawZipFileTest {
+    private static final byte[] MIMETYPE =
+            "application/vnd.oasis.opendocument.spreadsheet".getBytes(CharsetUtil.UTF_8);
+
+    private File file;
+    private byte[] content;
+
+    @Before
+    public void setUp() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            sb.append("<table:table-row><table:table-cell office:value=\"").append(i)
+                    .append("\"/></table:table-row>");
+        }
+        this.content = sb.toString().getBytes(CharsetUtil.UTF_8);
+        this.file = File.createTempFile("raw-zip", ".zip");
+        final ZipOutputStream zos = new ZipOutputStream(new FileOutputStream(this.file));
+        final ZipEntry mimetypeEntry = new ZipEntry("mimetype");
+        mimetypeEntry.setMethod(ZipEntry.STORED);
+        mimetypeEntry.setSize(MIMETYPE.length);
+        final CRC32 crc = new CRC32();
+        crc.update(MIMETYPE);
+        mimetypeEntry.setCrc(crc.getValue());
+        zos.putNextEntry(mimetypeEntry);
+        zos.write(MIMETYPE);
+        zos.putNextEntry(new ZipEntry("content.xml"));
+        zos.write(this.content);
+        zos.putNextEntry(new ZipEntry("Thumbnails/é.png"));
+        zos.write(new byte[]{1, 2, 3});
+        zos.setComment("a comment");
+        zos.close();
+    }
+
+    @After
+    public void tearDown() {
+        this.file.delete();
+    }
+
+    @Test
+    public final void testEntries() throws IOException {
+        final RawZipFile zipFile = RawZipFile.open(this.file);
+        try {
+            final List<RawZipEntry> entries = zipFile.getEntries();
+            Assert.assertEquals(3, entries.size());
+            Assert.assertEquals("mimetype", entries.get(0).getName());
+            Assert.assertEquals(ZipEntry.STORED, entries.get(0).getMethod());
+            Assert.assertEquals("Thumbnails/é.png", entries.get(2).getName());
+            final RawZipEntry contentEntry = zipFile.getEntry("content.xml");
+            Assert.assertEquals(ZipEntry.DEFLATED, contentEntry.getMethod());
+            Assert.assertEquals(this.content.length, contentEntry.getSize());
+            Assert.assertTrue(contentEntry.getCompressedSize() < contentEntry.getSize());
+            Assert.assertNull(zipFile.getEntry("styles.xml"));
+
+            Assert.assertArrayEquals(MIMETYPE,
+                    this.readAll(zipFile.getInputStream(entries.get(0))));
+            Assert.assertArrayEquals(this.content,
+                    this.readAll(zipFile.getInputStream(contentEntry)));
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test
+    public final void testRawCopy() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ParallelZipOutputStream zos = ParallelZipOutputStream
+                .create(out, Deflater.BEST_SPEED, 1024, null, 1);
+        final RawZipFile zipFile = RawZipFile.open(this.file);
+        try {
+            for (final RawZipEntry entry : zipFile.getEntries()) {
+                entry.writeTo(zos);
+            }
+            zos.putNextEntry(new ZipEntry("new.xml"));
+            zos.write(this.content);
+            zos.close();
+        } finally {
+            zipFile.close();
+        }
+        this.checkCopy(out.toByteArray(), true);
+        // mimetype is still readable at offset 38
+        Assert.assertEquals("application", new String(out.toByteArray(), 38, 11,
+                CharsetUtil.UTF_8));
+    }
+
+    @Test
+    public final void testJDKCopy() throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        final ZipOutputStream zos = new ZipOutputStream(out);
+        final RawZipFile zipFile = RawZipFile.open(this.file);
+        try {
+            for (final RawZipEntry entry : zipFile.getEntries()) {
+                entry.writeTo(zos);
+            }
+            zos.putNextEntry(new ZipEntry("new.xml"));
+            zos.write(this.content);
+            zos.close();
+        } finally {
+            zipFile.close();
+        }
+        this.checkCopy(out.toByteArray(), false);
+    }
+
+    @Test
+    public final void testZip64EntryCount() throws IOException {
+        // 65535 entries or more: ParallelZipOutputStream writes the zip64 end records
+        final int count = 0xFFFF + 1;
+        final OutputStream os = new BufferedOutputStream(new FileOutputStream(this.file));
+        final ParallelZipOutputStream zos = ParallelZipOutputStream
+                .create(os, Deflater.BEST_SPEED, 1024, null, 1);
+        for (int i = 0; i < count; i++) {
+            zos.putNextEntry(new ZipEntry("e" + i));
+            zos.write(("v" + i).getBytes(CharsetUtil.UTF_8));
+            zos.closeEntry();
+        }
+        zos.close();
+
+        final RawZipFile zipFile = RawZipFile.open(this.file);
+        try {
+            final List<RawZipEntry> entries = zipFile.getEntries();
+            Assert.assertEquals(count, entries.size());
+            final RawZipEntry last = entries.get(count - 1);
+            Assert.assertEquals("e65535", last.getName());
+            Assert.assertArrayEquals("v65535".getBytes(CharsetUtil.UTF_8),
+                    this.readAll(zipFile.getInputStream(last)));
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test
+    public final void testZip64ExtraFields() throws IOException {
+        final byte[] name = "content.xml".getBytes(CharsetUtil.UTF_8);
+        final CRC32 crc = new CRC32();
+        crc.update(this.content);
+        final long magic = 0xFFFFFFFFL;
+
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        // local header, stored, sizes in a zip64 extra field
+        this.writeInt(out, 0x04034b50);
+        this.writeShort(out, 45);
+        this.writeShort(out, 0);
+        this.writeShort(out, ZipEntry.STORED);
+        this.writeInt(out, 0x00210000); // 1980-01-01
+        this.writeInt(out, crc.getValue());
+        this.writeInt(out, magic);
+        this.writeInt(out, magic);
+        this.writeShort(out, name.length);
+        this.writeShort(out, 20);
+        out.write(name);
+        this.writeShort(out, 0x0001);
+        this.writeShort(out, 16);
+        this.writeLong(out, this.content.length);
+        this.writeLong(out, this.content.length);
+        out.write(this.content);
+
+        // central header, after another extra field
+        final long centralOffset = out.size();
+        this.writeInt(out, 0x02014b50);
+        this.writeShort(out, 45);
+        this.writeShort(out, 45);
+        this.writeShort(out, 0);
+        this.writeShort(out, ZipEntry.STORED);
+        this.writeInt(out, 0x00210000);
+        this.writeInt(out, crc.getValue());
+        this.writeInt(out, magic);
+        this.writeInt(out, magic);
+        this.writeShort(out, name.length);
+        this.writeShort(out, 4 + 2 + 4 + 24);
+        this.writeShort(out, 0);
+        this.writeShort(out, 0);
+        this.writeShort(out, 0);
+        this.writeInt(out, 0);
+        this.writeInt(out, magic);
+        out.write(name);
+        this.writeShort(out, 0xCAFE);
+        this.writeShort(out, 2);
+        this.writeShort(out, 0);
+        this.writeShort(out, 0x0001);
+        this.writeShort(out, 24);
+        this.writeLong(out, this.content.length);
+        this.writeLong(out, this.content.length);
+        this.writeLong(out, 0);
+        final long centralSize = out.size() - centralOffset;
+
+        // zip64 end of central directory record and locator
+        final long zip64EndOffset = out.size();
+        this.writeInt(out, 0x06064b50);
+        this.writeLong(out, 44);
+        this.writeShort(out, 45);
+        this.writeShort(out, 45);
+        this.writeInt(out, 0);
+        this.writeInt(out, 0);
+        this.writeLong(out, 1);
+        this.writeLong(out, 1);
+        this.writeLong(out, centralSize);
+        this.writeLong(out, centralOffset);
+        this.writeInt(out, 0x07064b50);
+        this.writeInt(out, 0);
+        this.writeLong(out, zip64EndOffset);
+        this.writeInt(out, 1);
+
+        // end of central directory record
+        this.writeInt(out, 0x06054b50);
+        this.writeShort(out, 0);
+        this.writeShort(out, 0);
+        this.writeShort(out, 0xFFFF);
+        this.writeShort(out, 0xFFFF);
+        this.writeInt(out, magic);
+        this.writeInt(out, magic);
+        this.writeShort(out, 0);
+
+        final FileOutputStream fos = new FileOutputStream(this.file);
+        fos.write(out.toByteArray());
+        fos.close();
+
+        final RawZipFile zipFile = RawZipFile.open(this.file);
+        try {
+            final List<RawZipEntry> entries = zipFile.getEntries();
+            Assert.assertEquals(1, entries.size());
+            final RawZipEntry entry = entries.get(0);
+            Assert.assertEquals("content.xml", entry.getName());
+            Assert.assertEquals(this.content.length, entry.getSize());
+            Assert.assertEquals(this.content.length, entry.getCompressedSize());
+            Assert.assertEquals(0, entry.getLocalHeaderOffset());
+            Assert.assertArrayEquals(this.content,
+                    this.readAll(zipFile.getInputStream(entry)));
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    @Test(expected = ZipException.class)
+    public final void testNotAZip() throws IOException {
+        final FileOutputStream fos = new FileOutputStream(this.file);
+        fos.write(this.content);
+        fos.close();
+        RawZipFile.open(this.file);
+    }
+
+    private void checkCopy(final byte[] bytes, final boolean raw) throws IOException {
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(bytes));
+        final List<String> names = Arrays.asList("mimetype", "content.xml", "Thumbnails/é.png",
+                "new.xml");
+        final List<byte[]> data = Arrays.asList(MIMETYPE, this.content, new byte[]{1, 2, 3},
+                this.content);
+        ZipEntry entry = zis.getNextEntry();
+        for (int i = 0; i < names.size(); i++) {
+            Assert.assertEquals(names.get(i), entry.getName());
+            Assert.assertArrayEquals(data.get(i), this.readAll(zis));
+            entry = zis.getNextEntry();
+        }
+        Assert.assertNull(entry);
+
+        if (raw) {
+            final File copy = File.createTempFile("raw-zip-copy", ".zip");
+            try {
+                final FileOutputStream fos = new FileOutputStream(copy);
+                fos.write(bytes);
+                fos.close();
+                final RawZipFile source = RawZipFile.open(this.file);
+                final RawZipFile target = RawZipFile.open(copy);
+                try {
+                    for (final RawZipEntry sourceEntry : source.getEntries()) {
+                        final RawZipEntry targetEntry = target.getEntry(sourceEntry.getName());
+                        Assert.assertEquals(sourceEntry.getCrc(), targetEntry.getCrc());
+                        Assert.assertEquals(sourceEntry.getCompressedSize(),
+                                targetEntry.getCompressedSize());
+                        Assert.assertArrayEquals(
+                                this.readAll(source.getRawInputStream(sourceEntry)),
+                                this.readAll(target.getRawInputStream(targetEntry)));
+                    }
+                } finally {
+                    source.close();
+                    target.close();
+                }
+            } finally {
+                copy.delete();
+            }
+        }
+    }
+
+    private void writeShort(final ByteArrayOutputStream out, final int v) {
+        out.write(v & 0xff);
+        out.write((v >>> 8) & 0xff);
+    }
+
+    private void writeInt(final ByteArrayOutputStream out, final long v) {
+        this.writeShort(out, (int) (v & 0xffff));
+        this.writeShort(out, (int) ((v >>> 16) & 0xffff));
+    }
+
+    private void writeLong(final ByteArrayOutputStream out, final long v) {
+        this.writeInt(out, v & 0xFFFFFFFFL);
+        this.writeInt(out, v >>> 32);
+    }
+
+    private byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buf = new byte[1024];
+        int n = in.read(buf);
+        while (n != -1) {
+            bytes.write(buf, 0, n);
+            n = in.read(buf);
+        }
+        return bytes.toByteArray();
+    }
+}
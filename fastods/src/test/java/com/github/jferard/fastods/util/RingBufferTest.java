@@ -0,0 +1,156 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+public class RingBufferTest {
+    @Test(expected = IllegalArgumentException.class)
+    public void testZeroCapacity() {
+        RingBuffer.create(0, RingBuffer.WaitStrategy.BLOCKING);
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testOfferNull() {
+        final RingBuffer<String> buffer = RingBuffer.create(2, RingBuffer.WaitStrategy.BLOCKING);
+        buffer.offer(null);
+    }
+
+    @Test
+    public void testOfferPoll() {
+        final RingBuffer<String> buffer = RingBuffer.create(2, RingBuffer.WaitStrategy.BLOCKING);
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertNull(buffer.poll());
+        Assert.assertTrue(buffer.offer("a"));
+        Assert.assertTrue(buffer.offer("b"));
+        Assert.assertTrue(buffer.isFull());
+        Assert.assertFalse(buffer.offer("c"));
+        Assert.assertEquals(2, buffer.size());
+        Assert.assertEquals("a", buffer.poll());
+        Assert.assertTrue(buffer.offer("c"));
+        Assert.assertEquals("b", buffer.poll());
+        Assert.assertEquals("c", buffer.poll());
+        Assert.assertNull(buffer.poll());
+        Assert.assertEquals(0, buffer.size());
+        Assert.assertEquals(2, buffer.getMaxDepth());
+        Assert.assertEquals(2, buffer.getCapacity());
+    }
+
+    @Test
+    public void testTimedOffer() throws InterruptedException {
+        final RingBuffer<String> buffer = RingBuffer.create(1, RingBuffer.WaitStrategy.BLOCKING);
+        Assert.assertTrue(buffer.offer("a", 10, TimeUnit.MILLISECONDS));
+        final long start = System.nanoTime();
+        Assert.assertFalse(buffer.offer("b", 30, TimeUnit.MILLISECONDS));
+        Assert.assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(30));
+        Assert.assertEquals(0, buffer.getProducerStallCount());
+
+        final Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    Thread.sleep(50);
+                } catch (final InterruptedException e) {
+                    Assert.fail();
+                }
+                buffer.poll();
+            }
+        };
+        consumer.start();
+        Assert.assertTrue(buffer.offer("b", 5, TimeUnit.SECONDS));
+        consumer.join();
+        Assert.assertEquals("b", buffer.poll());
+        Assert.assertEquals(1, buffer.getProducerStallCount());
+    }
+
+    @Test
+    public void testBlocking() throws InterruptedException {
+        this.testProducerConsumer(RingBuffer.WaitStrategy.BLOCKING);
+    }
+
+    @Test
+    public void testSpinning() throws InterruptedException {
+        this.testProducerConsumer(RingBuffer.WaitStrategy.SPINNING);
+    }
+
+    @Test
+    public void testInterruptedConsumer() throws InterruptedException {
+        final RingBuffer<Integer> buffer = RingBuffer.create(2, RingBuffer.WaitStrategy.BLOCKING);
+        final boolean[] interrupted = {false};
+        final Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    buffer.awaitElement();
+                } catch (final InterruptedException e) {
+                    interrupted[0] = true;
+                }
+            }
+        };
+        consumer.start();
+        Thread.sleep(50);
+        consumer.interrupt();
+        consumer.join();
+        Assert.assertTrue(interrupted[0]);
+    }
+
+    private void testProducerConsumer(final RingBuffer.WaitStrategy waitStrategy)
+            throws InterruptedException {
+        final int count = 10000;
+        final RingBuffer<Integer> buffer = RingBuffer.create(8, waitStrategy);
+        final long[] sum = {0};
+        final Thread consumer = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    int received = 0;
+                    while (received < count) {
+                        buffer.awaitElement();
+                        Integer i = buffer.poll();
+                        while (i != null) {
+                            Assert.assertEquals(received, i.intValue());
+                            sum[0] += i;
+                            received++;
+                            i = buffer.poll();
+                        }
+                    }
+                } catch (final InterruptedException e) {
+                    Assert.fail();
+                }
+            }
+        };
+        consumer.start();
+        for (int i = 0; i < count; i++) {
+            buffer.put(i);
+        }
+        consumer.join();
+        Assert.assertEquals((long) count * (count - 1) / 2, sum[0]);
+        Assert.assertTrue(buffer.getMaxDepth() <= 8);
+        Assert.assertTrue(buffer.getProducerStallNanos() >= 0);
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ThreadLocalXMLEscaperTest {
+    @Test
+    public void testEscape() throws IOException {
+        final AppendingXMLEscaper escaper = ThreadLocalXMLEscaper.create();
+        Assert.assertEquals("&lt;a&apos;", escaper.escapeXMLAttribute("<a'"));
+        Assert.assertEquals("&lt;a'", escaper.escapeXMLContent("<a'"));
+        final StringBuilder sb = new StringBuilder();
+        escaper.appendEscapedXMLAttribute(sb, "\"");
+        escaper.appendEscapedXMLContent(sb, "&");
+        Assert.assertEquals("&quot;&amp;", sb.toString());
+    }
+
+    @Test
+    public void testThreads() throws Exception {
+        final XMLEscaper escaper =
+                ThreadLocalXMLEscaper.create(FastOdsXMLEscaper.builder().bufferSize(8));
+        final ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            final Future<?>[] futures = new Future<?>[8];
+            for (int t = 0; t < futures.length; t++) {
+                final int n = t;
+                futures[t] = executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        for (int i = 0; i < 10000; i++) {
+                            final String s = "<" + n + "&" + i + ">";
+                            Assert.assertEquals("&lt;" + n + "&amp;" + i + "&gt;",
+                                    escaper.escapeXMLContent(s));
+                        }
+                        return true;
+                    }
+                });
+            }
+            for (final Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -27,6 +27,8 @@ import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+
 public class WriteUtilTest {
     private WriteUtil util;
 
@@ -47,5 +49,14 @@ public class WriteUtilTest {
         Assert.assertEquals("-1001", this.util.toString(-1001));
     }
 
-
+    @Test
+    public final void testAppendLong() throws IOException {
+        final long[] values = {0, 1, -1, 999, -1000, 1000, -1001, 123456789012L, -98765432109L,
+                Long.MAX_VALUE, Long.MIN_VALUE, Integer.MAX_VALUE, Integer.MIN_VALUE};
+        for (final long value : values) {
+            final StringBuilder sb = new StringBuilder();
+            this.util.appendLong(sb, value);
+            Assert.assertEquals(Long.toString(value), sb.toString());
+        }
+    }
 }
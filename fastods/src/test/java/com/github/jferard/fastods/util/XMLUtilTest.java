@@ -64,6 +64,11 @@ public class XMLUtilTest {
         Assert.assertEquals(" attr=\"&amp;\"", this.sb.toString());
     }
 
+    @Test
+    public void testFormatEAttr() {
+        Assert.assertEquals(" attr=\"&amp;\"", this.xu.formatEAttribute("attr", "&"));
+    }
+
     @Test
     public void testEscapeAttr() {
         Assert.assertEquals("j&amp;v", this.xu.escapeXMLAttribute("j&v"));
@@ -76,6 +81,43 @@ public class XMLUtilTest {
         Assert.assertEquals("<tag>content</tag>", this.sb.toString());
     }
 
+    @Test
+    public void testAppendEscapedTag() throws IOException {
+        this.xu.appendTag(this.sb, "tag", "a < b & c");
+        Assert.assertEquals("<tag>a &lt; b &amp; c</tag>", this.sb.toString());
+    }
+
+    @Test
+    public void testAppendEscapedAttr() throws IOException {
+        this.xu.appendEscapedXMLAttribute(this.sb, "m\nl\"");
+        Assert.assertEquals("m&#xA;l&quot;", this.sb.toString());
+    }
+
+    @Test
+    public void testAppendEscapedContent() throws IOException {
+        this.xu.appendEscapedXMLContent(this.sb, "<j&v>");
+        Assert.assertEquals("&lt;j&amp;v&gt;", this.sb.toString());
+    }
+
+    @Test
+    public void testAppendWithPlainEscaper() throws IOException {
+        final XMLEscaper escaper = new XMLEscaper() {
+            @Override
+            public String escapeXMLAttribute(final String s) {
+                return "attr(" + s + ")";
+            }
+
+            @Override
+            public String escapeXMLContent(final String s) {
+                return "content(" + s + ")";
+            }
+        };
+        final XMLUtil util = XMLUtil.create(escaper);
+        util.appendEAttribute(this.sb, "a", "v");
+        util.appendTag(this.sb, "t", "c");
+        Assert.assertEquals(" a=\"attr(v)\"<t>content(c)</t>", this.sb.toString());
+    }
+
     @Test
     public void testEscapeContent() {
         Assert.assertEquals("j&amp;v", this.xu.escapeXMLContent("j&v"));
@@ -0,0 +1,175 @@
+/*
+ * FastODS - A very fast and lightweight (no dependency) library for creating ODS
+ *    (Open Document Spreadsheet, mainly for Calc) files in Java.
+ *    It's a Martin Schulz's SimpleODS fork
+ *    Copyright (C) 2016-2020 J. Férard <https://github.com/jferard>
+ * SimpleODS - A lightweight java library to create simple OpenOffice spreadsheets
+ *    Copyright (C) 2008-2013 Martin Schulz <mtschulz at users.sourceforge.net>
+ *
+ * This file is part of FastODS.
+ *
+ * FastODS is free software: you can redistribute it and/or modify it under the
+ * terms of the GNU General Public License as published by the Free Software
+ * Foundation, either version 3 of the License, or (at your option) any later
+ * version.
+ *
+ * FastODS is distributed in the hope that it will be useful, but WITHOUT ANY
+ * WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License
+ *  for more details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.github.jferard.fastods.util;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+public class ZipUTF8DirectWriterTest {
+    private ByteArrayOutputStream out;
+
+    @Before
+    public void setUp() {
+        this.out = new ByteArrayOutputStream();
+    }
+
+    @Test
+    public final void testAscii() throws IOException {
+        this.assertSameAsJDK(16, "<table:table-cell office:value-type=\"float\"/>");
+    }
+
+    @Test
+    public final void testTwoAndThreeBytes() throws IOException {
+        this.assertSameAsJDK(16, "Férard ñ € ∑ 日本語 ascii again");
+    }
+
+    @Test
+    public final void testSurrogatePairs() throws IOException {
+        this.assertSameAsJDK(5, "a😀b𝄞");
+    }
+
+    @Test
+    public final void testSplitSurrogatePair() throws IOException {
+        this.assertSameAsJDK(5, "x\uD83D", "\uDE00y");
+    }
+
+    @Test
+    public final void testMalformedSurrogates() throws IOException {
+        this.assertSameAsJDK(4, "a\uDE00b\uD83Dc\uD83D😀");
+    }
+
+    @Test
+    public final void testPendingSurrogateAtEndOfEntry() throws IOException {
+        final ZipUTF8Writer writer = new ZipUTF8DirectWriter(new ZipOutputStream(this.out), 4);
+        writer.putNextEntry(new ZipEntry("a"));
+        writer.append("abc\uD83D");
+        writer.closeEntry();
+        writer.finish();
+        Assert.assertArrayEquals("abc?".getBytes(CharsetUtil.UTF_8), this.readEntry("a"));
+    }
+
+    @Test
+    public final void testLongText() throws IOException {
+        final StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append("<text:p>").append(i).append(" é ").append((char) (0x3000 + i % 100))
+                    .append("</text:p>");
+        }
+        this.assertSameAsJDK(ZipUTF8DirectWriter.MIN_BUFFER_SIZE, sb.toString());
+        this.assertSameAsJDK(1024, sb.toString());
+    }
+
+    @Test
+    public final void testAppendCharsAndSubSequences() throws IOException {
+        final ZipUTF8Writer writer = new ZipUTF8DirectWriter(new ZipOutputStream(this.out), 4);
+        writer.putNextEntry(new ZipEntry("a"));
+        writer.append('a');
+        writer.append('é');
+        writer.append("text", 1, 3);
+        writer.append(null);
+        writer.append(null, 0, 2);
+        writer.closeEntry();
+        writer.finish();
+        Assert.assertArrayEquals("aéexnullnu".getBytes(CharsetUtil.UTF_8), this.readEntry("a"));
+    }
+
+    @Test
+    public final void testWriteBytes() throws IOException {
+        final ZipUTF8Writer writer = new ZipUTF8DirectWriter(new ZipOutputStream(this.out), 8);
+        writer.setComment("comment");
+        writer.putNextEntry(new ZipEntry("a"));
+        writer.append("é");
+        writer.write(new byte[]{'x', 'y'});
+        writer.flush();
+        writer.close();
+        Assert.assertArrayEquals("éxy".getBytes(CharsetUtil.UTF_8), this.readEntry("a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public final void testBufferTooSmall() {
+        new ZipUTF8DirectWriter(new ZipOutputStream(this.out), 3);
+    }
+
+    private void assertSameAsJDK(final int bufferSize, final String... texts) throws IOException {
+        final ZipUTF8Writer writer =
+                new ZipUTF8DirectWriter(new ZipOutputStream(this.out), bufferSize);
+        writer.putNextEntry(new ZipEntry("a"));
+        for (final String text : texts) {
+            writer.append(text);
+        }
+        writer.closeEntry();
+        writer.finish();
+
+        final ByteArrayOutputStream expectedOut = new ByteArrayOutputStream();
+        final ZipUTF8Writer expectedWriter =
+                ZipUTF8WriterImpl.builder().noWriterBuffer().build(expectedOut);
+        expectedWriter.putNextEntry(new ZipEntry("a"));
+        for (final String text : texts) {
+            expectedWriter.append(text);
+        }
+        expectedWriter.closeEntry();
+        expectedWriter.finish();
+        expectedWriter.flush();
+
+        Assert.assertArrayEquals(this.readEntry(expectedOut.toByteArray(), "a"),
+                this.readEntry("a"));
+    }
+
+    private byte[] readEntry(final String name) throws IOException {
+        return this.readEntry(this.out.toByteArray(), name);
+    }
+
+    private byte[] readEntry(final byte[] zipBytes, final String name) throws IOException {
+        final ZipInputStream zis = new ZipInputStream(new ByteArrayInputStream(zipBytes));
+        ZipEntry entry = zis.getNextEntry();
+        while (entry != null) {
+            if (entry.getName().equals(name)) {
+                return this.readAll(zis);
+            }
+            entry = zis.getNextEntry();
+        }
+        throw new AssertionError("No entry " + name);
+    }
+
+    private byte[] readAll(final InputStream in) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] buf = new byte[1024];
+        int n = in.read(buf);
+        while (n != -1) {
+            bytes.write(buf, 0, n);
+            n = in.read(buf);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -30,9 +30,13 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.powermock.api.easymock.PowerMock;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
 
 public class ZipUTF8WriterBuilderTest {
     public static final int C_SIZE = 118;
@@ -104,6 +108,102 @@ public class ZipUTF8WriterBuilderTest {
         Assert.assertEquals(ZipUTF8WriterBuilderTest.C_SIZE, this.out.size());
     }
 
+    @Test
+    public final void testDirectEncoding() throws IOException {
+        final ZipUTF8Writer writer = this.builder.directEncoding().build(this.out);
+        Assert.assertTrue(writer instanceof ZipUTF8DirectWriter);
+        writer.putNextEntry(new ZipEntry("a"));
+        writer.append('c');
+        writer.close();
+        // the direct writer flushes the pending chars on close
+        Assert.assertEquals(ZipUTF8WriterBuilderTest.C_SIZE + 1, this.out.size());
+    }
+
+    @Test
+    public final void testDirectEncodingNoWriterBuffer() throws IOException {
+        final ZipUTF8Writer writer =
+                this.builder.directEncoding().noWriterBuffer().build(this.out);
+        writer.putNextEntry(new ZipEntry("a"));
+        writer.append('c');
+        writer.close();
+        Assert.assertEquals(ZipUTF8WriterBuilderTest.C_SIZE + 1, this.out.size());
+    }
+
+    @Test
+    public final void testDirectEncodingCustomWriterBuffer() throws IOException {
+        final ZipUTF8Writer writer =
+                this.builder.directEncoding().writerBuffer(1).build(this.out);
+        writer.putNextEntry(new ZipEntry("a"));
+        writer.append("cé");
+        writer.close();
+        Assert.assertEquals(ZipUTF8WriterBuilderTest.C_SIZE + 3, this.out.size());
+    }
+
+    @Test
+    public final void testJDKEncoding() {
+        final ZipUTF8Writer writer = this.builder.directEncoding().jdkEncoding().build(this.out);
+        Assert.assertTrue(writer instanceof ZipUTF8WriterImpl);
+    }
+
+    @Test
+    public final void testParallelDeflate() throws IOException {
+        final ZipUTF8Writer writer =
+                this.builder.parallelDeflate().deflateBlockSize(2).build(this.out);
+        writer.putNextEntry(new ZipEntry("a"));
+        writer.append("some text");
+        writer.closeEntry();
+        writer.close();
+
+        final ZipInputStream zis =
+                new ZipInputStream(new ByteArrayInputStream(this.out.toByteArray()));
+        Assert.assertEquals("a", zis.getNextEntry().getName());
+        final byte[] buf = new byte[20];
+        Assert.assertEquals(9, zis.read(buf));
+        Assert.assertEquals("some text", new String(buf, 0, 9, CharsetUtil.UTF_8));
+    }
+
+    @Test
+    public final void testRawEntryCopy() throws IOException {
+        final ZipUTF8Writer writer = this.builder.rawEntryCopy().build(this.out);
+        writer.putNextEntry(new ZipEntry("a"));
+        writer.append("some text");
+        writer.closeEntry();
+        writer.close();
+
+        final ZipInputStream zis =
+                new ZipInputStream(new ByteArrayInputStream(this.out.toByteArray()));
+        Assert.assertEquals("a", zis.getNextEntry().getName());
+        final byte[] buf = new byte[20];
+        Assert.assertEquals(9, zis.read(buf));
+        Assert.assertEquals("some text", new String(buf, 0, 9, CharsetUtil.UTF_8));
+    }
+
+    @Test
+    public final void testParallelDeflateExecutor() throws IOException {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final ZipUTF8Writer writer =
+                    this.builder.directEncoding().parallelDeflate(executor).build(this.out);
+            writer.putNextEntry(new ZipEntry("a"));
+            writer.append("some text");
+            writer.close();
+        } finally {
+            executor.shutdown();
+        }
+
+        final ZipInputStream zis =
+                new ZipInputStream(new ByteArrayInputStream(this.out.toByteArray()));
+        Assert.assertEquals("a", zis.getNextEntry().getName());
+        final byte[] buf = new byte[20];
+        Assert.assertEquals(9, zis.read(buf));
+    }
+
+    @Test
+    public final void testBadDeflateBlockSize() {
+        this.thrown.expect(IllegalArgumentException.class);
+        this.builder.deflateBlockSize(0);
+    }
+
     @Test
     public final void testBadWriterBufferSize() {
         this.thrown.expect(IllegalArgumentException.class);